@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.metric.MetricsServiceImpl;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.account.Account;
+import org.eclipse.kapua.service.account.AccountService;
+import org.eclipse.kapua.service.device.call.message.kura.data.KuraDataPayload;
+import org.eclipse.kapua.service.device.registry.Device;
+import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
+import org.eclipse.kapua.service.metric.MetricsService;
+import org.eclipse.kapua.test.MockedLocator;
+
+/**
+ * Sample data and service stubs shared by the benchmarks.<br>
+ * The benchmarks needing the Kapua services must run with the {@link MockedLocator} (see {@link #MOCKED_LOCATOR_JVM_ARG}) so they don't need any
+ * database or broker.
+ *
+ * @since 1.0
+ */
+public final class BenchmarkFixtures {
+
+    /**
+     * JVM argument selecting the {@link MockedLocator}
+     */
+    public static final String MOCKED_LOCATOR_JVM_ARG = "-D" + KapuaLocator.LOCATOR_CLASS_NAME_SYSTEM_PROPERTY + "=org.eclipse.kapua.test.MockedLocator";
+
+    public static final String ACCOUNT_NAME = "kapua-sys";
+    public static final String CLIENT_ID = "device-0001";
+    public static final String[] SEMANTIC_PARTS = new String[] { "heater", "data", "temperature" };
+
+    public static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.ONE);
+    public static final KapuaId DEVICE_ID = new KapuaEid(BigInteger.valueOf(42));
+
+    private static boolean servicesInstalled;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Get the JMS topic (without the virtual topic prefix) of the sample data message
+     *
+     * @return
+     */
+    public static String getDataJmsTopic() {
+        return ACCOUNT_NAME + "." + CLIENT_ID + "." + String.join(".", SEMANTIC_PARTS);
+    }
+
+    /**
+     * Build a Kura data payload with the given number of metrics (of mixed types) and the given body size
+     *
+     * @param metricsCount
+     * @param bodySize
+     * @return
+     */
+    public static KuraDataPayload buildDataPayload(int metricsCount, int bodySize) {
+        KuraDataPayload payload = new KuraDataPayload();
+        payload.setTimestamp(new Date());
+        for (int i = 0; i < metricsCount; i++) {
+            switch (i % 4) {
+            case 0:
+                payload.getMetrics().put("metric_" + i, (double) i / 3);
+                break;
+            case 1:
+                payload.getMetrics().put("metric_" + i, (long) i * 1000);
+                break;
+            case 2:
+                payload.getMetrics().put("metric_" + i, i % 2 == 0);
+                break;
+            default:
+                payload.getMetrics().put("metric_" + i, "value_" + i);
+                break;
+            }
+        }
+        if (bodySize > 0) {
+            byte[] body = new byte[bodySize];
+            Arrays.fill(body, (byte) 'k');
+            payload.setBody(body);
+        }
+        return payload;
+    }
+
+    /**
+     * Install in the {@link MockedLocator} the services used by the message translation (account and device registry stubs always resolving the
+     * sample account and device, and the real metric service).
+     *
+     * @throws KapuaException
+     */
+    public static synchronized void installServiceStubs()
+            throws KapuaException {
+        if (servicesInstalled) {
+            return;
+        }
+
+        KapuaLocator locator = KapuaLocator.getInstance();
+        if (!(locator instanceof MockedLocator)) {
+            throw new IllegalStateException("The benchmark must run with " + MOCKED_LOCATOR_JVM_ARG);
+        }
+        MockedLocator mockedLocator = (MockedLocator) locator;
+
+        Account account = mock(Account.class);
+        when(account.getId()).thenReturn(SCOPE_ID);
+        when(account.getName()).thenReturn(ACCOUNT_NAME);
+        AccountService accountService = mock(AccountService.class);
+        when(accountService.findByName(anyString())).thenReturn(account);
+
+        Device device = mock(Device.class);
+        when(device.getId()).thenReturn(DEVICE_ID);
+        DeviceRegistryService deviceRegistryService = mock(DeviceRegistryService.class);
+        when(deviceRegistryService.findByClientId(any(KapuaId.class), anyString())).thenReturn(device);
+
+        mockedLocator.setMockedService(MetricsService.class, new MetricsServiceImpl());
+        mockedLocator.setMockedService(AccountService.class, accountService);
+        mockedLocator.setMockedService(DeviceRegistryService.class, deviceRegistryService);
+        servicesInstalled = true;
+    }
+}
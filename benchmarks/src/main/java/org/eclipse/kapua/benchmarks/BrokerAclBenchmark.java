@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.security.Principal;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.filter.DestinationMapEntry;
+import org.apache.activemq.jaas.UserPrincipal;
+import org.apache.activemq.security.AuthorizationEntry;
+import org.apache.activemq.security.DefaultAuthorizationMap;
+import org.apache.activemq.security.SecurityContext;
+import org.eclipse.kapua.broker.core.plugin.AclConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Topic ACL check done by the security broker filter for each published message.<br>
+ * The authorization map replicates the one built by the filter for a device connection without device or data manage permissions (advisory, own
+ * control and data topics, reply and notify topics, plus the durable subscription queues of the readable topics).
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrokerAclBenchmark {
+
+    private DefaultAuthorizationMap authorizationMap;
+    private SecurityContext securityContext;
+
+    private ActiveMQDestination allowedDestination;
+    private ActiveMQDestination deniedDestination;
+
+    @Setup
+    public void setup() {
+        String fullClientId = getFullClientId();
+        Principal principal = new UserPrincipal(fullClientId);
+        authorizationMap = new DefaultAuthorizationMap(buildDeviceEntries(principal, fullClientId));
+
+        Set<Principal> principals = Collections.singleton(principal);
+        securityContext = new SecurityContext(fullClientId) {
+
+            @Override
+            public Set<Principal> getPrincipals() {
+                return principals;
+            }
+        };
+
+        allowedDestination = getDataDestination(BenchmarkFixtures.CLIENT_ID);
+        deniedDestination = getDataDestination("other-device");
+    }
+
+    @Benchmark
+    public boolean sendAllowed() {
+        return canWrite(allowedDestination);
+    }
+
+    @Benchmark
+    public boolean sendDenied() {
+        return canWrite(deniedDestination);
+    }
+
+    private boolean canWrite(ActiveMQDestination destination) {
+        Set<?> allowedACLs = authorizationMap.getWriteACLs(destination);
+        return allowedACLs == null || securityContext.isInOneOf(allowedACLs);
+    }
+
+    static String getFullClientId() {
+        return MessageFormat.format(AclConstants.MULTI_ACCOUNT_CLIENT_ID, BenchmarkFixtures.ACCOUNT_NAME, BenchmarkFixtures.CLIENT_ID);
+    }
+
+    /**
+     * Build the authorization entries of a device connection without device or data manage permissions
+     *
+     * @param principal
+     * @param fullClientId
+     * @return
+     */
+    @SuppressWarnings("rawtypes")
+    static List<DestinationMapEntry> buildDeviceEntries(Principal principal, String fullClientId) {
+        String accountName = BenchmarkFixtures.ACCOUNT_NAME;
+        String clientId = BenchmarkFixtures.CLIENT_ID;
+
+        List<DestinationMapEntry> entries = new ArrayList<>();
+        addEntries(entries, AclConstants.ACL_AMQ_ADVISORY, principal, fullClientId, false, true, true);
+        addEntries(entries, MessageFormat.format(AclConstants.ACL_CTRL_ACC_CLI, accountName, clientId), principal, fullClientId, true, true, true);
+        addEntries(entries, MessageFormat.format(AclConstants.ACL_DATA_ACC_CLI, accountName, clientId), principal, fullClientId, true, true, true);
+        addEntries(entries, MessageFormat.format(AclConstants.ACL_CTRL_ACC_REPLY, accountName), principal, fullClientId, false, true, true);
+        addEntries(entries, MessageFormat.format(AclConstants.ACL_CTRL_ACC_NOTIFY, accountName, clientId), principal, fullClientId, false, true, false);
+        return entries;
+    }
+
+    /**
+     * Get the data topic of the given client
+     *
+     * @param clientId
+     * @return
+     */
+    static ActiveMQDestination getDataDestination(String clientId) {
+        String semanticTopic = String.join(".", BenchmarkFixtures.SEMANTIC_PARTS);
+        return ActiveMQDestination.createDestination(AclConstants.VT_TOPIC_PREFIX + BenchmarkFixtures.ACCOUNT_NAME + "." + clientId + "." + semanticTopic,
+                ActiveMQDestination.TOPIC_TYPE);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void addEntries(List<DestinationMapEntry> entries, String topic, Principal principal, String fullClientId, boolean read, boolean write,
+            boolean admin) {
+        entries.add(createEntry(ActiveMQDestination.createDestination(topic, ActiveMQDestination.TOPIC_TYPE), principal, read, write, admin));
+        if (read) {
+            for (String durablePrefix : AclConstants.ACL_VT_DURABLE_PREFIX) {
+                entries.add(createEntry(ActiveMQDestination.createDestination(MessageFormat.format(durablePrefix, fullClientId, topic), ActiveMQDestination.QUEUE_TYPE),
+                        principal,
+                        true,
+                        false,
+                        false));
+            }
+        }
+    }
+
+    private static AuthorizationEntry createEntry(ActiveMQDestination destination, Principal principal, boolean read, boolean write, boolean admin) {
+        AuthorizationEntry entry = new AuthorizationEntry();
+        entry.setDestination(destination);
+        entry.setReadACLs(read ? new HashSet<Object>(Collections.singleton(principal)) : new HashSet<Object>());
+        entry.setWriteACLs(write ? new HashSet<Object>(Collections.singleton(principal)) : new HashSet<Object>());
+        entry.setAdminACLs(admin ? new HashSet<Object>(Collections.singleton(principal)) : new HashSet<Object>());
+        return entry;
+    }
+}
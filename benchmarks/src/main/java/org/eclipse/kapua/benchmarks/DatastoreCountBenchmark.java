@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.service.datastore.DatastoreObjectFactory;
+import org.eclipse.kapua.service.datastore.internal.DatastoreObjectFactoryImpl;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.ElasticsearchClient;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.ElasticsearchClientProvider;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsSchema;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageField;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageQueryConverter;
+import org.eclipse.kapua.service.datastore.internal.model.query.AndPredicateImpl;
+import org.eclipse.kapua.service.datastore.internal.model.query.MessageQueryImpl;
+import org.eclipse.kapua.service.datastore.internal.model.query.RangePredicateImpl;
+import org.eclipse.kapua.service.datastore.internal.model.query.TermPredicateImpl;
+import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettingKey;
+import org.eclipse.kapua.service.datastore.model.query.AndPredicate;
+import org.eclipse.kapua.test.MockedLocator;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.node.NodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Count of the messages matching a client id and time range query on an embedded (local) Elasticsearch node: full search request (as the count
+ * was done before), size 0 search and size 0 search with the count limit (terminate after).
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFixtures.MOCKED_LOCATOR_JVM_ARG)
+public class DatastoreCountBenchmark {
+
+    private static final String INDEX_NAME = "benchmark-count";
+    private static final int CLIENTS_COUNT = 10;
+    private static final int BULK_SIZE = 5000;
+    private static final int COUNT_LIMIT = 1000;
+
+    @Param({ "100000", "1000000" })
+    private int messagesCount;
+
+    private MessageQueryConverter converter;
+    private MessageQueryImpl query;
+    private MessageQueryImpl limitedQuery;
+
+    @Setup
+    public void setup() throws KapuaException, IOException {
+        ((MockedLocator) KapuaLocator.getInstance()).setMockedFactory(DatastoreObjectFactory.class, new DatastoreObjectFactoryImpl());
+        System.setProperty(DatastoreSettingKey.ELASTICSEARCH_CLIENT_PROVIDER.key(), EmbeddedClientProvider.class.getName());
+        Client client = ElasticsearchClient.getInstance();
+
+        XContentBuilder mapping = XContentFactory.jsonBuilder()
+                .startObject()
+                .startObject(EsSchema.MESSAGE_TYPE_NAME)
+                .startObject("properties")
+                .startObject(EsSchema.MESSAGE_SCOPE_ID).field("type", "string").field("index", "not_analyzed").endObject()
+                .startObject(EsSchema.MESSAGE_CLIENT_ID).field("type", "string").field("index", "not_analyzed").endObject()
+                .startObject(EsSchema.MESSAGE_TIMESTAMP).field("type", "date").endObject()
+                .endObject()
+                .endObject()
+                .endObject();
+        client.admin().indices().prepareCreate(INDEX_NAME)
+                .addMapping(EsSchema.MESSAGE_TYPE_NAME, mapping)
+                .get();
+
+        long now = System.currentTimeMillis();
+        BulkRequestBuilder bulk = client.prepareBulk();
+        for (int i = 0; i < messagesCount; i++) {
+            bulk.add(client.prepareIndex(INDEX_NAME, EsSchema.MESSAGE_TYPE_NAME)
+                    .setSource(EsSchema.MESSAGE_SCOPE_ID, BenchmarkFixtures.SCOPE_ID.toCompactId(),
+                            EsSchema.MESSAGE_CLIENT_ID, "device-" + (i % CLIENTS_COUNT),
+                            EsSchema.MESSAGE_TIMESTAMP, new Date(now - i * 1000L)));
+            if (bulk.numberOfActions() == BULK_SIZE || i == messagesCount - 1) {
+                bulk.get();
+                bulk = client.prepareBulk();
+            }
+        }
+        client.admin().indices().prepareRefresh(INDEX_NAME).get();
+
+        // a tenth of the messages matches the client id, half of them the time range
+        AndPredicate predicate = new AndPredicateImpl();
+        predicate.getPredicates().add(new TermPredicateImpl(MessageField.CLIENT_ID, "device-1"));
+        predicate.getPredicates().add(new RangePredicateImpl(MessageField.TIMESTAMP, new Date(now - messagesCount * 500L), new Date(now)));
+
+        converter = new MessageQueryConverter();
+        query = new MessageQueryImpl(BenchmarkFixtures.SCOPE_ID);
+        query.setPredicate(predicate);
+        limitedQuery = new MessageQueryImpl(BenchmarkFixtures.SCOPE_ID);
+        limitedQuery.copy(query);
+        limitedQuery.setCountLimit(COUNT_LIMIT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedClientProvider.close();
+    }
+
+    @Benchmark
+    public long searchCount() throws Exception {
+        return converter.toSearchRequestBuilder(INDEX_NAME, EsSchema.MESSAGE_TYPE_NAME, query)
+                .get(TimeValue.timeValueSeconds(30))
+                .getHits()
+                .getTotalHits();
+    }
+
+    @Benchmark
+    public long sizeZeroCount() throws Exception {
+        return converter.toCountRequestBuilder(INDEX_NAME, EsSchema.MESSAGE_TYPE_NAME, query)
+                .get(TimeValue.timeValueSeconds(30))
+                .getHits()
+                .getTotalHits();
+    }
+
+    @Benchmark
+    public long limitedCount() throws Exception {
+        return converter.toCountRequestBuilder(INDEX_NAME, EsSchema.MESSAGE_TYPE_NAME, limitedQuery)
+                .get(TimeValue.timeValueSeconds(30))
+                .getHits()
+                .getTotalHits();
+    }
+
+    /**
+     * Client provider starting a local Elasticsearch node (in memory transport, data in a temporary directory)
+     */
+    public static class EmbeddedClientProvider implements ElasticsearchClientProvider {
+
+        private static Node node;
+
+        @Override
+        public synchronized Client getClient() {
+            if (node == null) {
+                try {
+                    Settings settings = Settings.settingsBuilder()
+                            .put("http.enabled", "false")
+                            .put("path.home", Files.createTempDirectory("kapua-benchmarks-es").toString())
+                            .build();
+                    node = NodeBuilder.nodeBuilder()
+                            .local(true)
+                            .settings(settings)
+                            .node();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot start the embedded node", e);
+                }
+            }
+            return node.client();
+        }
+
+        private static synchronized void close() {
+            if (node != null) {
+                node.close();
+                node = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.ChannelInfoXContentBuilder;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsUtils;
+import org.eclipse.kapua.service.datastore.internal.model.ChannelInfoCreatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Derivation of the identifiers computed for each stored message: the channel info id (hash of scope, client id and channel) and the data index
+ * names.
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatastoreNamingBenchmark {
+
+    private ChannelInfoCreatorImpl channelInfoCreator;
+    private long timestamp;
+
+    @Setup
+    public void setup() {
+        channelInfoCreator = new ChannelInfoCreatorImpl(BenchmarkFixtures.SCOPE_ID);
+        channelInfoCreator.setClientId(BenchmarkFixtures.CLIENT_ID);
+        channelInfoCreator.setName(String.join("/", BenchmarkFixtures.SEMANTIC_PARTS));
+        timestamp = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public String channelInfoId() {
+        return ChannelInfoXContentBuilder.getOrDeriveId(null, channelInfoCreator);
+    }
+
+    @Benchmark
+    public String dataIndexName() {
+        return EsUtils.getDataIndexName(BenchmarkFixtures.SCOPE_ID, timestamp);
+    }
+
+    @Benchmark
+    public String dataIndexWildcardName() {
+        return EsUtils.getDataIndexName(BenchmarkFixtures.SCOPE_ID);
+    }
+}
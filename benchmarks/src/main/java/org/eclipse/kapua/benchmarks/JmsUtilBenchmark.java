@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.eclipse.kapua.broker.core.message.CamelKapuaMessage;
+import org.eclipse.kapua.broker.core.message.JmsUtil;
+import org.eclipse.kapua.broker.core.message.MessageConstants;
+import org.eclipse.kapua.broker.core.plugin.ConnectorDescriptor;
+import org.eclipse.kapua.broker.core.plugin.ConnectorDescriptor.MessageType;
+import org.eclipse.kapua.message.KapuaMessage;
+import org.eclipse.kapua.message.device.data.KapuaDataMessage;
+import org.eclipse.kapua.service.device.call.message.DeviceMessage;
+import org.eclipse.kapua.service.device.call.message.kura.data.KuraDataMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion of an incoming JMS data message to the Kapua message (JMS to Kura to Kapua translation), as done by the broker converter.
+ *
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFixtures.MOCKED_LOCATOR_JVM_ARG)
+public class JmsUtilBenchmark {
+
+    @Param({ "5", "50" })
+    private int metricsCount;
+
+    private ConnectorDescriptor connectorDescriptor;
+    private ActiveMQBytesMessage jmsMessage;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkFixtures.installServiceStubs();
+
+        Map<MessageType, Class<? extends DeviceMessage<?, ?>>> deviceClass = new HashMap<>();
+        deviceClass.put(MessageType.DATA, KuraDataMessage.class);
+        Map<MessageType, Class<? extends KapuaMessage<?, ?>>> kapuaClass = new HashMap<>();
+        kapuaClass.put(MessageType.DATA, KapuaDataMessage.class);
+        connectorDescriptor = new ConnectorDescriptor(deviceClass, kapuaClass);
+
+        jmsMessage = new ActiveMQBytesMessage();
+        jmsMessage.setStringProperty(MessageConstants.PROPERTY_ORIGINAL_TOPIC, BenchmarkFixtures.getDataJmsTopic());
+        jmsMessage.setLongProperty(MessageConstants.PROPERTY_ENQUEUED_TIMESTAMP, System.currentTimeMillis());
+        jmsMessage.writeBytes(BenchmarkFixtures.buildDataPayload(metricsCount, 0).toByteArray());
+        jmsMessage.reset();
+    }
+
+    @Benchmark
+    public CamelKapuaMessage<?> convertToKapuaMessage() throws Exception {
+        // rewind the body, it is consumed by each conversion
+        jmsMessage.reset();
+        return JmsUtil.convertToKapuaMessage(connectorDescriptor, MessageType.DATA, jmsMessage, BenchmarkFixtures.DEVICE_ID, BenchmarkFixtures.CLIENT_ID);
+    }
+}
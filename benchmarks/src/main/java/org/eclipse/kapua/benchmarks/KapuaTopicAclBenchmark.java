@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.jaas.UserPrincipal;
+import org.eclipse.kapua.broker.core.plugin.KapuaTopicAcl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Topic ACL check done by the security broker filter for each published message, using the per connection {@link KapuaTopicAcl} built from the same
+ * authorization entries of {@link BrokerAclBenchmark} (so the results of the two benchmarks can be compared).
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KapuaTopicAclBenchmark {
+
+    private KapuaTopicAcl topicAcl;
+
+    private ActiveMQDestination allowedDestination;
+    private ActiveMQDestination deniedDestination;
+
+    @Setup
+    public void setup() {
+        String fullClientId = BrokerAclBenchmark.getFullClientId();
+        topicAcl = new KapuaTopicAcl(BrokerAclBenchmark.buildDeviceEntries(new UserPrincipal(fullClientId), fullClientId));
+
+        allowedDestination = BrokerAclBenchmark.getDataDestination(BenchmarkFixtures.CLIENT_ID);
+        deniedDestination = BrokerAclBenchmark.getDataDestination("other-device");
+    }
+
+    @Benchmark
+    public boolean sendAllowed() {
+        return KapuaTopicAcl.supports(allowedDestination) && topicAcl.canWrite(allowedDestination);
+    }
+
+    @Benchmark
+    public boolean sendDenied() {
+        return KapuaTopicAcl.supports(deniedDestination) && topicAcl.canWrite(deniedDestination);
+    }
+}
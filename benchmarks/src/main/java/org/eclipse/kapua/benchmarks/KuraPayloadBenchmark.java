@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.service.device.call.message.kura.KuraPayload;
+import org.eclipse.kapua.service.device.call.message.kura.data.KuraDataPayload;
+import org.eclipse.kapua.service.device.call.message.kura.utils.GZIPUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of the Kura protobuf payload, plain and gzip compressed.
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KuraPayloadBenchmark {
+
+    @Param({ "5", "50" })
+    private int metricsCount;
+
+    @Param({ "0", "4096" })
+    private int bodySize;
+
+    @Param({ "false", "true" })
+    private boolean compressed;
+
+    private byte[] payloadBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        payloadBytes = BenchmarkFixtures.buildDataPayload(metricsCount, bodySize).toByteArray();
+        if (compressed) {
+            payloadBytes = GZIPUtils.compress(payloadBytes);
+        }
+    }
+
+    @Benchmark
+    public KuraPayload readKuraPayload() throws Exception {
+        KuraPayload kuraPayload = new KuraPayload();
+        kuraPayload.readFromByteArray(payloadBytes);
+        return kuraPayload;
+    }
+
+    @Benchmark
+    public KuraDataPayload readKuraDataPayload() throws Exception {
+        KuraDataPayload kuraDataPayload = new KuraDataPayload();
+        kuraDataPayload.readFromByteArray(payloadBytes);
+        return kuraDataPayload;
+    }
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.message.device.data.KapuaDataMessage;
+import org.eclipse.kapua.message.internal.device.data.KapuaDataChannelImpl;
+import org.eclipse.kapua.message.internal.device.data.KapuaDataMessageImpl;
+import org.eclipse.kapua.message.internal.device.data.KapuaDataPayloadImpl;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageXContentBuilder;
+import org.eclipse.kapua.service.device.call.message.kura.data.KuraDataPayload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Build of the Elasticsearch document (and of the metric mappings) of a data message.
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageXContentBuilderBenchmark {
+
+    @Param({ "5", "50" })
+    private int metricsCount;
+
+    private KapuaDataMessage message;
+
+    @Setup
+    public void setup() {
+        KuraDataPayload kuraDataPayload = BenchmarkFixtures.buildDataPayload(metricsCount, 0);
+
+        KapuaDataChannelImpl channel = new KapuaDataChannelImpl();
+        channel.setSemanticParts(Arrays.asList(BenchmarkFixtures.SEMANTIC_PARTS));
+        KapuaDataPayloadImpl payload = new KapuaDataPayloadImpl();
+        payload.setProperties(new HashMap<>(kuraDataPayload.getMetrics()));
+
+        message = new KapuaDataMessageImpl();
+        message.setScopeId(BenchmarkFixtures.SCOPE_ID);
+        message.setDeviceId(BenchmarkFixtures.DEVICE_ID);
+        message.setClientId(BenchmarkFixtures.CLIENT_ID);
+        message.setChannel(channel);
+        message.setPayload(payload);
+        message.setCapturedOn(kuraDataPayload.getTimestamp());
+        message.setSentOn(kuraDataPayload.getTimestamp());
+        message.setReceivedOn(new Date());
+    }
+
+    @Benchmark
+    public MessageXContentBuilder build() throws Exception {
+        Date now = new Date();
+        return new MessageXContentBuilder().build(BenchmarkFixtures.SCOPE_ID, message, now, now);
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.authorization.permission.shiro.PermissionImpl;
+import org.eclipse.kapua.service.authorization.shiro.PermissionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Permission check against the granted permissions of a user: {@link PermissionIndex} lookup compared with the iteration over the granted
+ * permissions calling {@link PermissionImpl#implies(org.apache.shiro.authz.Permission)}.
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionIndexBenchmark {
+
+    private static final String[] DOMAINS = new String[] { "account", "user", "device", "device_management", "device_event", "connection", "broker",
+            "datastore", "credential", "role", "group", "tag" };
+
+    @Param({ "12", "120" })
+    private int grantedCount;
+
+    private List<PermissionImpl> grantedPermissions;
+    private PermissionIndex permissionIndex;
+
+    private PermissionImpl grantedRequest;
+    private PermissionImpl deniedRequest;
+
+    @Setup
+    public void setup() {
+        Actions[] actions = Actions.values();
+        grantedPermissions = new ArrayList<>(grantedCount);
+        for (int i = 0; i < grantedCount; i++) {
+            grantedPermissions.add(new PermissionImpl(DOMAINS[i % DOMAINS.length],
+                    actions[i % actions.length],
+                    new KapuaEid(BigInteger.valueOf(1 + i / DOMAINS.length)),
+                    null));
+        }
+        permissionIndex = new PermissionIndex(grantedPermissions);
+
+        PermissionImpl lastGranted = grantedPermissions.get(grantedPermissions.size() - 1);
+        grantedRequest = new PermissionImpl(lastGranted.getDomain(), lastGranted.getAction(), lastGranted.getTargetScopeId(), null);
+        deniedRequest = new PermissionImpl("datastore", Actions.delete, new KapuaEid(BigInteger.valueOf(Integer.MAX_VALUE)), null);
+    }
+
+    @Benchmark
+    public boolean indexGranted() {
+        return permissionIndex.implies(grantedRequest);
+    }
+
+    @Benchmark
+    public boolean indexDenied() {
+        return permissionIndex.implies(deniedRequest);
+    }
+
+    @Benchmark
+    public boolean iterationGranted() {
+        return iterate(grantedRequest);
+    }
+
+    @Benchmark
+    public boolean iterationDenied() {
+        return iterate(deniedRequest);
+    }
+
+    private boolean iterate(PermissionImpl requested) {
+        for (PermissionImpl granted : grantedPermissions) {
+            if (granted.implies(requested)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.benchmarks;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.message.device.data.KapuaDataMessage;
+import org.eclipse.kapua.service.device.call.message.kura.data.KuraDataChannel;
+import org.eclipse.kapua.service.device.call.message.kura.data.KuraDataMessage;
+import org.eclipse.kapua.translator.kura.kapua.TranslatorDataKuraKapua;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Translation of a Kura data message to the Kapua data message.<br>
+ * The account and the device are resolved by stubbed services, so after the warmup the benchmark measures the cached identity resolution.
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFixtures.MOCKED_LOCATOR_JVM_ARG)
+public class TranslatorDataKuraKapuaBenchmark {
+
+    @Param({ "5", "50" })
+    private int metricsCount;
+
+    private TranslatorDataKuraKapua translator;
+    private KuraDataMessage kuraDataMessage;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkFixtures.installServiceStubs();
+
+        KuraDataChannel kuraDataChannel = new KuraDataChannel();
+        kuraDataChannel.setScope(BenchmarkFixtures.ACCOUNT_NAME);
+        kuraDataChannel.setClientId(BenchmarkFixtures.CLIENT_ID);
+        kuraDataChannel.setSemanticChannelParts(Arrays.asList(BenchmarkFixtures.SEMANTIC_PARTS));
+
+        translator = new TranslatorDataKuraKapua();
+        kuraDataMessage = new KuraDataMessage(kuraDataChannel, new Date(), BenchmarkFixtures.buildDataPayload(metricsCount, 0));
+    }
+
+    @Benchmark
+    public KapuaDataMessage translate() throws Exception {
+        return translator.translate(kuraDataMessage);
+    }
+}
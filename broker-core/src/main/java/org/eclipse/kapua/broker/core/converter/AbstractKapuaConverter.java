@@ -27,10 +27,9 @@ import org.eclipse.kapua.broker.core.message.CamelKapuaMessage;
 import org.eclipse.kapua.broker.core.message.CamelUtil;
 import org.eclipse.kapua.broker.core.message.JmsUtil;
 import org.eclipse.kapua.broker.core.message.MessageConstants;
-import org.eclipse.kapua.broker.core.plugin.ConnectorDescriptor;
 import org.eclipse.kapua.broker.core.plugin.ConnectorDescriptor.MessageType;
+import org.eclipse.kapua.broker.core.plugin.KapuaConnectionContext;
 import org.eclipse.kapua.locator.KapuaLocator;
-import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.metric.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,10 +79,18 @@ public abstract class AbstractKapuaConverter {
         if (message.getJmsMessage() instanceof BytesMessage) {
             try {
                 Date queuedOn = new Date(message.getHeader(CamelConstants.JMS_HEADER_TIMESTAMP, Long.class));
-                KapuaId connectionId = message.getHeader(MessageConstants.HEADER_KAPUA_CONNECTION_ID, KapuaId.class);
-                String clientId = (String) message.getHeader(MessageConstants.HEADER_KAPUA_CLIENT_ID);
-                ConnectorDescriptor connectorDescriptor = message.getHeader(MessageConstants.HEADER_KAPUA_CONNECTOR_DEVICE_PROTOCOL, ConnectorDescriptor.class);
-                return JmsUtil.convertToCamelKapuaMessage(connectorDescriptor, messageType, (byte[]) value, CamelUtil.getTopic(message), queuedOn, connectionId, clientId);
+                KapuaConnectionContext connectionContext = CamelUtil.getConnectionContext(message);
+                if (connectionContext == null) {
+                    metricConverterErrorMessage.inc();
+                    throw KapuaException.internalError("Cannot convert the message - Unknown connection context: " + message.getHeader(MessageConstants.HEADER_KAPUA_CONNECTION_CONTEXT));
+                }
+                return JmsUtil.convertToCamelKapuaMessage(connectionContext.getConnectorDescriptor(),
+                        messageType,
+                        (byte[]) value,
+                        CamelUtil.getTopic(message),
+                        queuedOn,
+                        connectionContext.getConnectionId(),
+                        connectionContext.getClientId());
             } catch (JMSException e) {
                 metricConverterErrorMessage.inc();
                 logger.error("Exception converting message {}", e.getMessage(), e);
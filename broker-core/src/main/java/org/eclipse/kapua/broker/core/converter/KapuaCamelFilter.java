@@ -4,9 +4,9 @@ import org.apache.camel.Exchange;
 import org.apache.shiro.util.ThreadContext;
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.broker.core.listener.AbstractListener;
-import org.eclipse.kapua.broker.core.message.MessageConstants;
+import org.eclipse.kapua.broker.core.message.CamelUtil;
+import org.eclipse.kapua.broker.core.plugin.KapuaConnectionContext;
 import org.eclipse.kapua.commons.security.KapuaSecurityUtils;
-import org.eclipse.kapua.commons.security.KapuaSession;
 
 /**
  * Kapua Camel session filter used to bind/unbind Kapua session to the thread context
@@ -20,7 +20,7 @@ public class KapuaCamelFilter extends AbstractListener
     }
 
     /**
-     * Bind the Kapua session retrieved from the message header (with key {@link MessageConstants#HEADER_KAPUA_SESSION}) to the current thread context.
+     * Bind the Kapua session of the message connection context (see {@link CamelUtil#getConnectionContext(org.apache.camel.Message)}) to the current thread context.
      * 
      * @param exchange
      * @param value
@@ -29,8 +29,8 @@ public class KapuaCamelFilter extends AbstractListener
     public void bindSession(Exchange exchange, Object value) throws KapuaException
     {
         ThreadContext.unbindSubject();
-        KapuaSession kapuaSession = exchange.getIn().getHeader(MessageConstants.HEADER_KAPUA_SESSION, KapuaSession.class);
-        KapuaSecurityUtils.setSession((KapuaSession) kapuaSession);
+        KapuaConnectionContext connectionContext = CamelUtil.getConnectionContext(exchange.getIn());
+        KapuaSecurityUtils.setSession(connectionContext != null ? connectionContext.getKapuaSession() : null);
     }
 
     /**
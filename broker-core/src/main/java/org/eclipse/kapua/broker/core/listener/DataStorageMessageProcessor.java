@@ -12,9 +12,14 @@
  *******************************************************************************/
 package org.eclipse.kapua.broker.core.listener;
 
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.camel.spi.UriEndpoint;
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.broker.core.message.CamelKapuaMessage;
+import org.eclipse.kapua.broker.core.setting.BrokerSetting;
+import org.eclipse.kapua.broker.core.setting.BrokerSettingKey;
 import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.service.datastore.MessageStoreService;
 import org.slf4j.Logger;
@@ -25,7 +30,11 @@ import com.codahale.metrics.Timer;
 import com.codahale.metrics.Timer.Context;
 
 /**
- * Data storage message listener
+ * Data storage message listener<br>
+ * The messages are stored asynchronously: the consumer moves on to the next message without waiting for the store (the message may be collected by a
+ * bulk request), the store failures are logged and counted when the store completes.<br>
+ * The pending stores are bounded ({@code broker.data.storage.pending.maximum}): once the maximum is reached the consumer waits for a pending store to
+ * complete, at most {@code broker.data.storage.store.timeout} milliseconds, so a slow datastore slows the consumers down instead of piling up the messages.
  *
  * @since 1.0
  */
@@ -43,6 +52,9 @@ public class DataStorageMessageProcessor extends AbstractProcessor<CamelKapuaMes
 
     private MessageStoreService    messageStoreService    = KapuaLocator.getInstance().getService(MessageStoreService.class);
 
+    private final long storeTimeout = BrokerSetting.getInstance().getLong(BrokerSettingKey.DATA_STORAGE_STORE_TIMEOUT, 30000L);
+    private final Semaphore pendingStores = new Semaphore(BrokerSetting.getInstance().getInt(BrokerSettingKey.DATA_STORAGE_PENDING_MAXIMUM, 1000));
+
     public DataStorageMessageProcessor() {
         super("DataStorage");
 
@@ -63,13 +75,34 @@ public class DataStorageMessageProcessor extends AbstractProcessor<CamelKapuaMes
         //
 
         // data messages
+        try {
+            if (!pendingStores.tryAcquire(storeTimeout, TimeUnit.MILLISECONDS)) {
+                metricStorageDataErrorMessage.inc();
+                logger.error("Timeout ({} ms) while waiting for the pending stores, message from client id '{}' not stored", storeTimeout, message.getMessage().getClientId());
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metricStorageDataErrorMessage.inc();
+            logger.error("Interrupted while waiting for the pending stores: {}", e);
+            return;
+        }
+
         try {
             Context metricStorageDataSaveTimeContext = metricStorageDataSaveTime.time();
             logger.debug("Received data message from device channel: client id '{}' - {}", message.getMessage().getClientId(), message.getMessage().getChannel());
-            messageStoreService.store(message.getMessage());
-            metricStorageMessage.inc();
-            metricStorageDataSaveTimeContext.stop();
-        } catch (KapuaException e) {
+            messageStoreService.storeAsync(message.getMessage()).whenComplete((storableId, exception) -> {
+                pendingStores.release();
+                if (exception != null) {
+                    metricStorageDataErrorMessage.inc();
+                    logger.error("An error occurred while storing message: {}", exception);
+                } else {
+                    metricStorageMessage.inc();
+                    metricStorageDataSaveTimeContext.stop();
+                }
+            });
+        } catch (KapuaException | RuntimeException e) {
+            pendingStores.release();
             metricStorageDataErrorMessage.inc();
             logger.error("An error occurred while storing message: {}", e);
         }
@@ -23,6 +23,7 @@ import org.eclipse.kapua.message.device.lifecycle.KapuaMissingMessage;
 import org.eclipse.kapua.message.device.lifecycle.KapuaNotifyMessage;
 import org.eclipse.kapua.message.device.lifecycle.KapuaUnmatchedMessage;
 import org.eclipse.kapua.service.device.registry.lifecycle.DeviceLifeCycleService;
+import org.eclipse.kapua.translator.kura.kapua.DeviceIdentityResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +44,7 @@ public class DeviceMessageListener extends AbstractListener
     private static final Logger logger = LoggerFactory.getLogger(DeviceMessageListener.class);
 
     private static DeviceLifeCycleService deviceLifeCycleService = KapuaLocator.getInstance().getService(DeviceLifeCycleService.class);
+    private static DeviceIdentityResolver deviceIdentityResolver = DeviceIdentityResolver.getInstance();
 
     // metrics
     private Counter metricDeviceBirthMessage;
@@ -74,6 +76,8 @@ public class DeviceMessageListener extends AbstractListener
     {
         try {
             deviceLifeCycleService.birth(birthMessage.getConnectionId(), birthMessage.getMessage());
+            // the birth may have registered the device, so drop the cached (missing) device of the client
+            deviceIdentityResolver.invalidate(birthMessage.getMessage().getScopeId(), birthMessage.getMessage().getChannel().getClientId());
             metricDeviceBirthMessage.inc();
             // //republish BA
             // Date now = new Date();
@@ -19,6 +19,11 @@ import org.apache.activemq.command.ActiveMQTopic;
 import org.apache.camel.Message;
 import org.eclipse.kapua.broker.core.listener.CamelConstants;
 import org.eclipse.kapua.broker.core.plugin.AclConstants;
+import org.eclipse.kapua.broker.core.plugin.ConnectorDescriptor;
+import org.eclipse.kapua.broker.core.plugin.KapuaConnectionContext;
+import org.eclipse.kapua.broker.core.plugin.KapuaConnectionContextRegistry;
+import org.eclipse.kapua.commons.security.KapuaSession;
+import org.eclipse.kapua.model.id.KapuaId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,4 +59,24 @@ public class CamelUtil {
         }
     }
 
+    /**
+     * Get the connection context of the {@link Message}.<br>
+     * The context is resolved by the connection context handle, if the message has one, otherwise it is built from the connection context properties of the
+     * message.
+     *
+     * @param message
+     * @return the context or {@code null} if the message handle cannot be resolved (the connection was closed too long ago or by a previous broker run)
+     */
+    public static KapuaConnectionContext getConnectionContext(org.apache.camel.Message message) {
+        Long handle = message.getHeader(MessageConstants.HEADER_KAPUA_CONNECTION_CONTEXT, Long.class);
+        if (handle != null) {
+            return KapuaConnectionContextRegistry.getInstance().get(handle);
+        }
+        return new KapuaConnectionContext(0,
+                message.getHeader(MessageConstants.HEADER_KAPUA_CONNECTION_ID, KapuaId.class),
+                message.getHeader(MessageConstants.HEADER_KAPUA_CLIENT_ID, String.class),
+                message.getHeader(MessageConstants.HEADER_KAPUA_CONNECTOR_DEVICE_PROTOCOL, ConnectorDescriptor.class),
+                message.getHeader(MessageConstants.HEADER_KAPUA_SESSION, KapuaSession.class));
+    }
+
 }
@@ -18,7 +18,9 @@ import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Topic;
 
+import org.apache.activemq.command.ActiveMQBytesMessage;
 import org.apache.activemq.command.ActiveMQMessage;
+import org.apache.activemq.util.ByteSequence;
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.broker.core.converter.AbstractKapuaConverter;
 import org.eclipse.kapua.broker.core.plugin.AclConstants;
@@ -109,6 +111,28 @@ public class JmsUtil {
             Class<? extends KapuaMessage<?, ?>> kapuaMessageType, BytesMessage jmsMessage, String jmsTopic,
             Date queuedOn, KapuaId connectionId, String clientId)
             throws JMSException, KapuaException {
+        byte[] payload = getBody(jmsMessage);
+        KapuaMessage<?, ?> kapuaMessage = convertToKapuaMessage(deviceMessageType, kapuaMessageType, payload, jmsTopic, queuedOn, connectionId, clientId);
+        return new CamelKapuaMessage<>(kapuaMessage, connectionId, connectorDescriptor);
+    }
+
+    /**
+     * Get the body of the {@link BytesMessage}.<br>
+     * The body of a not compressed ActiveMQ message is returned without copying it (the returned array must not be modified), otherwise the body is
+     * read into a new array.
+     *
+     * @param jmsMessage
+     * @return the body or {@code null} if the message has an empty body
+     * @throws JMSException
+     */
+    public static byte[] getBody(BytesMessage jmsMessage) throws JMSException {
+        if (jmsMessage instanceof ActiveMQBytesMessage && !((ActiveMQBytesMessage) jmsMessage).isCompressed()) {
+            ByteSequence content = ((ActiveMQBytesMessage) jmsMessage).getContent();
+            if (content != null && content.getOffset() == 0 && content.getLength() == content.getData().length) {
+                return content.getLength() > 0 ? content.getData() : null;
+            }
+        }
+
         byte[] payload = null;
         // TODO JMS message have no size limits!
         if (jmsMessage.getBodyLength() > 0) {
@@ -116,8 +140,7 @@ public class JmsUtil {
             int readBytes = jmsMessage.readBytes(payload);
             logger.debug("Message conversion... {} bytes read!", readBytes);
         }
-        KapuaMessage<?, ?> kapuaMessage = convertToKapuaMessage(deviceMessageType, kapuaMessageType, payload, jmsTopic, queuedOn, connectionId, clientId);
-        return new CamelKapuaMessage<>(kapuaMessage, connectionId, connectorDescriptor);
+        return payload;
     }
 
     /**
@@ -155,13 +178,22 @@ public class JmsUtil {
     private static KapuaMessage<?, ?> convertToKapuaMessage(Class<? extends DeviceMessage<?, ?>> deviceMessageType, Class<? extends KapuaMessage<?, ?>> kapuaMessageType, byte[] messageBody,
             String jmsTopic, Date queuedOn, KapuaId connectionId, String clientId)
             throws KapuaException {
-        // first step... from jms to device dependent protocol level (unknown)
-        Translator<JmsMessage, DeviceMessage<?, ?>> translatorFromJms = Translator.getTranslatorFor(JmsMessage.class, deviceMessageType);// birth ...
-        DeviceMessage<?, ?> deviceMessage = translatorFromJms.translate(new JmsMessage(new JmsTopic(jmsTopic), queuedOn, new JmsPayload(messageBody)));
+        JmsMessage jmsMessage = new JmsMessage(new JmsTopic(jmsTopic), queuedOn, new JmsPayload(messageBody));
+        KapuaMessage<?, ?> message;
+
+        // single step... from jms to Kapua (if a fused translator is available, the device dependent message is not built at all)
+        Translator<JmsMessage, KapuaMessage<?, ?>> fusedTranslator = Translator.getFusedTranslatorFor(JmsMessage.class, deviceMessageType, kapuaMessageType);
+        if (fusedTranslator != null) {
+            message = fusedTranslator.translate(jmsMessage);
+        } else {
+            // first step... from jms to device dependent protocol level (unknown)
+            Translator<JmsMessage, DeviceMessage<?, ?>> translatorFromJms = Translator.getTranslatorFor(JmsMessage.class, deviceMessageType);// birth ...
+            DeviceMessage<?, ?> deviceMessage = translatorFromJms.translate(jmsMessage);
 
-        // second step.... from device dependent protocol (unknown) to Kapua
-        Translator<DeviceMessage<?, ?>, KapuaMessage<?, ?>> translatorToKapua = Translator.getTranslatorFor(deviceMessageType, kapuaMessageType);
-        KapuaMessage<?,?> message = translatorToKapua.translate(deviceMessage);
+            // second step.... from device dependent protocol (unknown) to Kapua
+            Translator<DeviceMessage<?, ?>, KapuaMessage<?, ?>> translatorToKapua = Translator.getTranslatorFor(deviceMessageType, kapuaMessageType);
+            message = translatorToKapua.translate(deviceMessage);
+        }
         message.setClientId(clientId);
         return message;
     }
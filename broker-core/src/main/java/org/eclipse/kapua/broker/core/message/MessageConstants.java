@@ -35,5 +35,6 @@ public class MessageConstants {
     public static final String HEADER_KAPUA_CLIENT_ID = "KAPUA_CLIENT_ID";
     public static final String HEADER_KAPUA_CONNECTOR_DEVICE_PROTOCOL = "KAPUA_DEVICE_PROTOCOL";
     public static final String HEADER_KAPUA_SESSION = "KAPUA_SESSION";
+    public static final String HEADER_KAPUA_CONNECTION_CONTEXT = "KAPUA_CONNECTION_CONTEXT";
 
 }
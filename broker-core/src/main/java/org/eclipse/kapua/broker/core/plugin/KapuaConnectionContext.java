@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.broker.core.plugin;
+
+import org.eclipse.kapua.commons.security.KapuaSession;
+import org.eclipse.kapua.model.id.KapuaId;
+
+/**
+ * Context of a device connection needed to process the messages published by the connection (connection id, client id, connector descriptor and
+ * Kapua session).<br>
+ * The context is registered in the {@link KapuaConnectionContextRegistry} when the connection is added, and the published messages carry only its handle.
+ *
+ * @since 1.0
+ */
+public class KapuaConnectionContext {
+
+    private final long handle;
+    private final KapuaId connectionId;
+    private final String clientId;
+    private final ConnectorDescriptor connectorDescriptor;
+    private final KapuaSession kapuaSession;
+
+    /**
+     * Constructs a new connection context
+     *
+     * @param handle
+     *            the handle of the context
+     * @param connectionId
+     *            the device connection id (may be {@code null})
+     * @param clientId
+     * @param connectorDescriptor
+     * @param kapuaSession
+     */
+    public KapuaConnectionContext(long handle, KapuaId connectionId, String clientId, ConnectorDescriptor connectorDescriptor, KapuaSession kapuaSession) {
+        this.handle = handle;
+        this.connectionId = connectionId;
+        this.clientId = clientId;
+        this.connectorDescriptor = connectorDescriptor;
+        this.kapuaSession = kapuaSession;
+    }
+
+    public long getHandle() {
+        return handle;
+    }
+
+    public KapuaId getConnectionId() {
+        return connectionId;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public ConnectorDescriptor getConnectorDescriptor() {
+        return connectorDescriptor;
+    }
+
+    public KapuaSession getKapuaSession() {
+        return kapuaSession;
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.broker.core.plugin;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.kapua.broker.core.setting.BrokerSetting;
+import org.eclipse.kapua.broker.core.setting.BrokerSettingKey;
+import org.eclipse.kapua.commons.cache.LocalCache;
+import org.eclipse.kapua.commons.security.KapuaSession;
+import org.eclipse.kapua.model.id.KapuaId;
+
+/**
+ * Registry of the connection contexts, by handle.<br>
+ * The security broker filter registers the context of each device connection and stamps the published messages with the context handle only, so the
+ * Camel routes (running in the broker) resolve the context from here instead of reading it from the message properties.<br>
+ * The contexts of the closed connections are kept for the configured time, so the messages queued before the connection was closed (e.g. the last
+ * will messages) can still be processed. The handles are seeded by the startup time, so the handles of a previous broker run are never resolved to the
+ * wrong context.<br>
+ * The handles are known only by the running broker, so the stamping is disabled by default (see {@link #isEnabled()}): the messages persisted across a
+ * broker restart, or queued longer than the closed contexts are kept, cannot be converted.
+ *
+ * @since 1.0
+ */
+public class KapuaConnectionContextRegistry {
+
+    private static final KapuaConnectionContextRegistry instance = new KapuaConnectionContextRegistry();
+
+    private final AtomicLong nextHandle = new AtomicLong(System.currentTimeMillis() << 20);
+    private final Map<Long, KapuaConnectionContext> contexts = new ConcurrentHashMap<>();
+    private final LocalCache<Long, KapuaConnectionContext> closedContexts;
+
+    private KapuaConnectionContextRegistry() {
+        this(BrokerSetting.getInstance().getInt(BrokerSettingKey.CONNECTION_CONTEXT_CLOSED_EXPIRE_AFTER, 3600),
+                BrokerSetting.getInstance().getInt(BrokerSettingKey.CONNECTION_CONTEXT_CLOSED_SIZE_MAXIMUM, 100000));
+    }
+
+    /**
+     * Constructs a new registry
+     *
+     * @param expireAfter
+     *            time (in seconds) the contexts of the closed connections are kept
+     * @param sizeMax
+     *            maximum number of the kept contexts of the closed connections
+     */
+    KapuaConnectionContextRegistry(int expireAfter, int sizeMax) {
+        closedContexts = new LocalCache<>(sizeMax, expireAfter, null);
+    }
+
+    /**
+     * Get the registry instance (singleton)
+     *
+     * @return
+     */
+    public static KapuaConnectionContextRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Check if the published messages should be stamped with the connection context handle (disabled by default)
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return BrokerSetting.getInstance().getBoolean(BrokerSettingKey.CONNECTION_CONTEXT_HANDLE_ENABLED, false);
+    }
+
+    /**
+     * Register the context of a new connection
+     *
+     * @param connectionId
+     * @param clientId
+     * @param connectorDescriptor
+     * @param kapuaSession
+     * @return the registered context
+     */
+    public KapuaConnectionContext register(KapuaId connectionId, String clientId, ConnectorDescriptor connectorDescriptor, KapuaSession kapuaSession) {
+        KapuaConnectionContext context = new KapuaConnectionContext(nextHandle.incrementAndGet(), connectionId, clientId, connectorDescriptor, kapuaSession);
+        contexts.put(context.getHandle(), context);
+        return context;
+    }
+
+    /**
+     * Unregister the context of a closed connection (the context is still resolved until it expires)
+     *
+     * @param context
+     */
+    public void unregister(KapuaConnectionContext context) {
+        if (contexts.remove(context.getHandle()) != null) {
+            closedContexts.put(context.getHandle(), context);
+        }
+    }
+
+    /**
+     * Find the context with the given handle
+     *
+     * @param handle
+     * @return the context or {@code null} if no context (of an open or recently closed connection) has the given handle
+     */
+    public KapuaConnectionContext get(long handle) {
+        KapuaConnectionContext context = contexts.get(handle);
+        return context != null ? context : closedContexts.get(handle);
+    }
+}
@@ -14,6 +14,7 @@ package org.eclipse.kapua.broker.core.plugin;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -313,7 +314,7 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
 
             Context loginShiroLoginTimeContext = metricLoginShiroLoginTime.time();
             LoginCredentials credentials = credentialsFactory.newUsernamePasswordCredentials(username, password != null ? password.toCharArray() : null);
-            AccessToken accessToken = authenticationService.login(credentials);
+            AccessToken accessToken = authenticationService.loginStateless(credentials);
 
             KapuaId scopeId = accessToken.getScopeId();
             KapuaId userId = accessToken.getUserId();
@@ -349,11 +350,12 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
                     clientIp);
             DeviceConnection deviceConnection = null;
             // 3) check authorization
-            DefaultAuthorizationMap authMap = null;
+            @SuppressWarnings("rawtypes")
+            List<DestinationMapEntry> authEntries = null;
             if (isAdminUser(username)) {
                 metricLoginKapuasysTokenAttempt.inc();
                 // 3-1) admin authMap
-                authMap = buildAdminAuthMap(authDestinations, principal, fullClientId);
+                authEntries = buildAdminAuthEntries(authDestinations, principal, fullClientId);
                 metricClientConnectedKapuasys.inc();
             } else {
                 Context loginNormalUserTimeContext = metricLoginNormalUserTime.time();
@@ -361,20 +363,19 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
                 // 3-3) check permissions
 
                 Context loginCheckAccessTimeContext = metricLoginCheckAccessTime.time();
-                boolean[] hasPermissions = new boolean[] {
-                        // TODO check the permissions... move them to a constants class?
-                        authorizationService.isPermitted(permissionFactory.newPermission(brokerDomain, Actions.connect, scopeId)),
-                        authorizationService.isPermitted(permissionFactory.newPermission(deviceManagementDomain, Actions.write, scopeId)),
-                        authorizationService.isPermitted(permissionFactory.newPermission(datastoreDomain, Actions.read, scopeId)),
-                        authorizationService.isPermitted(permissionFactory.newPermission(datastoreDomain, Actions.write, scopeId))
-                };
+                // TODO check the permissions... move them to a constants class?
+                boolean[] hasPermissions = authorizationService.isPermitted(Arrays.asList(
+                        permissionFactory.newPermission(brokerDomain, Actions.connect, scopeId),
+                        permissionFactory.newPermission(deviceManagementDomain, Actions.write, scopeId),
+                        permissionFactory.newPermission(datastoreDomain, Actions.read, scopeId),
+                        permissionFactory.newPermission(datastoreDomain, Actions.write, scopeId)));
                 if (!hasPermissions[AclConstants.BROKER_CONNECT_IDX]) {
                     throw new KapuaIllegalAccessException(permissionFactory.newPermission(brokerDomain, Actions.connect, scopeId).toString());
                 }
                 loginCheckAccessTimeContext.stop();
 
                 // 3-4) build authMap
-                authMap = buildAuthMap(authDestinations, principal, hasPermissions, accountName, clientId, fullClientId);
+                authEntries = buildAuthEntries(authDestinations, principal, hasPermissions, accountName, clientId, fullClientId);
 
                 // 4) find device
                 Context loginFindClientIdTimeContext = metricLoginFindClientIdTime.time();
@@ -431,10 +432,17 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
                 throw new IllegalStateException(String.format("Unable to find connector descriptor for connector '%s'", connectorName));
             }
             KapuaSecurityContext securityCtx = new KapuaSecurityContext(principal,
-                    authMap,
+                    new DefaultAuthorizationMap(authEntries),
+                    new KapuaTopicAcl(authEntries),
                     (deviceConnection != null ? deviceConnection.getId() : null),
                     connectionId,
                     connectorDescriptor);
+            if (KapuaConnectionContextRegistry.isEnabled()) {
+                securityCtx.setConnectionContext(KapuaConnectionContextRegistry.getInstance().register(securityCtx.getConnectionId(),
+                        clientId,
+                        connectorDescriptor,
+                        securityCtx.getKapuaSession()));
+            }
             context.setSecurityContext(securityCtx);
 
             // multiple account stealing link fix
@@ -486,89 +494,96 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
     @Override
     public void removeConnection(ConnectionContext context, ConnectionInfo info, Throwable error)
             throws Exception {
-        if (!isPassThroughConnection(context)) {
-            Context loginRemoveConnectionTimeContext = metricLoginRemoveConnectionTime.time();
-            String fullClientId = null;
-            try {
-
-                KapuaSecurityContext kapuaSecurityContext = getKapuaSecurityContext(context);
-
-                // TODO fix the kapua session when run as feature will be implemented
-                KapuaPrincipal kapuaPrincipal = ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal());
-                KapuaSession kapuaSession = new KapuaSession(null,
-                        kapuaPrincipal.getAccountId(),
-                        kapuaPrincipal.getUserId());
-                KapuaSecurityUtils.setSession(kapuaSession);
-
-                String clientId = kapuaPrincipal.getClientId();
-                KapuaId accountId = kapuaPrincipal.getAccountId();
-                String username = kapuaSecurityContext.getUserName();
-                String remoteAddress = (context.getConnection() != null) ? context.getConnection().getRemoteAddress() : "";
-
-                KapuaId scopeId = ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal()).getAccountId();
-
-                // multiple account stealing link fix
-                fullClientId = MessageFormat.format(AclConstants.MULTI_ACCOUNT_CLIENT_ID, accountId, clientId);
-
-                if (!isAdminUser(username)) {
-                    // Stealing link check
-                    ConnectionId connectionId = connectionMap.get(fullClientId);
-
-                    boolean stealingLinkDetected = false;
-                    if (connectionId != null) {
-                        stealingLinkDetected = !connectionId.equals(info.getConnectionId());
-                    } else {
-                        logger.error("Cannot find connection id for client id {} on connection map. Correct connection id is {} - IP: {}",
-                                new Object[] { clientId, info.getConnectionId(), info.getClientIp() });
-                    }
-                    if (stealingLinkDetected) {
-                        metricLoginStealingLinkDisconnect.inc();
-                        // stealing link detected, skip info
-                        logger.warn("Detected Stealing link for cliend id {} - account id {} - last connection id was {} - current connection id is {} - IP: {} - No disconnection info will be added!",
-                                new Object[] { clientId, accountId, connectionId, info.getConnectionId(), info.getClientIp() });
-                    } else {
-                        final DeviceConnection deviceConnection;
-                        try {
-                            deviceConnection = KapuaSecurityUtils.doPrivileged(() -> deviceConnectionService.findByClientId(scopeId, clientId));
-                        } catch (Exception e) {
-                            throw new ShiroException("Error while looking for device connection on updating the device!", e);
+        try {
+            if (!isPassThroughConnection(context)) {
+                Context loginRemoveConnectionTimeContext = metricLoginRemoveConnectionTime.time();
+                String fullClientId = null;
+                try {
+
+                    KapuaSecurityContext kapuaSecurityContext = getKapuaSecurityContext(context);
+
+                    // TODO fix the kapua session when run as feature will be implemented
+                    KapuaPrincipal kapuaPrincipal = ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal());
+                    KapuaSession kapuaSession = new KapuaSession(null,
+                            kapuaPrincipal.getAccountId(),
+                            kapuaPrincipal.getUserId());
+                    KapuaSecurityUtils.setSession(kapuaSession);
+
+                    String clientId = kapuaPrincipal.getClientId();
+                    KapuaId accountId = kapuaPrincipal.getAccountId();
+                    String username = kapuaSecurityContext.getUserName();
+                    String remoteAddress = (context.getConnection() != null) ? context.getConnection().getRemoteAddress() : "";
+
+                    KapuaId scopeId = ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal()).getAccountId();
+
+                    // multiple account stealing link fix
+                    fullClientId = MessageFormat.format(AclConstants.MULTI_ACCOUNT_CLIENT_ID, accountId, clientId);
+
+                    if (!isAdminUser(username)) {
+                        // Stealing link check
+                        ConnectionId connectionId = connectionMap.get(fullClientId);
+
+                        boolean stealingLinkDetected = false;
+                        if (connectionId != null) {
+                            stealingLinkDetected = !connectionId.equals(info.getConnectionId());
+                        } else {
+                            logger.error("Cannot find connection id for client id {} on connection map. Correct connection id is {} - IP: {}",
+                                    new Object[] { clientId, info.getConnectionId(), info.getClientIp() });
                         }
-                        if (deviceConnection != null) {
-                            // the device connection must be not null
-                            // update device connection
-                            if (error == null) {
-                                deviceConnection.setStatus(DeviceConnectionStatus.DISCONNECTED);
-                            } else {
-                                deviceConnection.setStatus(DeviceConnectionStatus.MISSING);
-                            }
+                        if (stealingLinkDetected) {
+                            metricLoginStealingLinkDisconnect.inc();
+                            // stealing link detected, skip info
+                            logger.warn("Detected Stealing link for cliend id {} - account id {} - last connection id was {} - current connection id is {} - IP: {} - No disconnection info will be added!",
+                                    new Object[] { clientId, accountId, connectionId, info.getConnectionId(), info.getClientIp() });
+                        } else {
+                            final DeviceConnection deviceConnection;
                             try {
-                                KapuaSecurityUtils.doPrivileged(() -> {
-                                    deviceConnectionService.update(deviceConnection);
-                                    return null;
-                                });
+                                deviceConnection = KapuaSecurityUtils.doPrivileged(() -> deviceConnectionService.findByClientId(scopeId, clientId));
                             } catch (Exception e) {
-                                throw new ShiroException("Error while updating the device connection status!", e);
+                                throw new ShiroException("Error while looking for device connection on updating the device!", e);
+                            }
+                            if (deviceConnection != null) {
+                                // the device connection must be not null
+                                // update device connection
+                                if (error == null) {
+                                    deviceConnection.setStatus(DeviceConnectionStatus.DISCONNECTED);
+                                } else {
+                                    deviceConnection.setStatus(DeviceConnectionStatus.MISSING);
+                                }
+                                try {
+                                    KapuaSecurityUtils.doPrivileged(() -> {
+                                        deviceConnectionService.update(deviceConnection);
+                                        return null;
+                                    });
+                                } catch (Exception e) {
+                                    throw new ShiroException("Error while updating the device connection status!", e);
+                                }
                             }
                         }
+                        metricClientDisconnectionClient.inc();
+                    } else {
+                        metricClientDisconnectionKapuasys.inc();
+                    }
+                    // multiple account stealing link fix
+                    info.setClientId(fullClientId);
+                    context.setClientId(fullClientId);
+                } finally {
+                    loginRemoveConnectionTimeContext.stop();
+                    authenticationService.logout();
+                    if (fullClientId != null) {
+                        // cleanup stealing link detection map
+                        connectionMap.remove(fullClientId);
                     }
-                    metricClientDisconnectionClient.inc();
-                } else {
-                    metricClientDisconnectionKapuasys.inc();
-                }
-                // multiple account stealing link fix
-                info.setClientId(fullClientId);
-                context.setClientId(fullClientId);
-            } finally {
-                loginRemoveConnectionTimeContext.stop();
-                authenticationService.logout();
-                if (fullClientId != null) {
-                    // cleanup stealing link detection map
-                    connectionMap.remove(fullClientId);
                 }
             }
+            super.removeConnection(context, info, error);
+        } finally {
+            SecurityContext securityContext = context.getSecurityContext();
+            if (securityContext instanceof KapuaSecurityContext && ((KapuaSecurityContext) securityContext).getConnectionContext() != null) {
+                KapuaConnectionContextRegistry.getInstance().unregister(((KapuaSecurityContext) securityContext).getConnectionContext());
+            }
+            context.setSecurityContext(null);
         }
-        super.removeConnection(context, info, error);
-        context.setSecurityContext(null);
     }
 
     // ------------------------------------------------------------------
@@ -600,29 +615,32 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
             KapuaSecurityContext kapuaSecurityContext = getKapuaSecurityContext(producerExchange.getConnectionContext());
             // if (!kapuaSecurityContext.getAuthorizedWriteDests().contains(messageSend.getDestination()))
             // {
-            if (!messageSend.getDestination().isTemporary()) {
-                Set<?> allowedACLs = kapuaSecurityContext.getAuthorizationMap().getWriteACLs(messageSend.getDestination());
-                if (allowedACLs != null && !kapuaSecurityContext.isInOneOf(allowedACLs)) {
-                    String message = MessageFormat.format("User {0} ({1} - {2} - conn id {3}) is not authorized to write to: {4}",
-                            kapuaSecurityContext.getUserName(),
-                            ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal()).getClientId(),
-                            ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal()).getClientIp(),
-                            kapuaSecurityContext.getConnectionId(),
-                            messageSend.getDestination());
-                    logger.warn(message);
-                    metricPublishMessageSizeNotAllowed.update(messageSend.getSize());
-                    metricPublishNotAllowedMessages.inc();
-                    // IMPORTANT
-                    // restored the throw exception because otherwise we got acl's issues
-                    throw new SecurityException(message);
-                }
+            if (!messageSend.getDestination().isTemporary() && !canWrite(kapuaSecurityContext, messageSend.getDestination())) {
+                String message = MessageFormat.format("User {0} ({1} - {2} - conn id {3}) is not authorized to write to: {4}",
+                        kapuaSecurityContext.getUserName(),
+                        ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal()).getClientId(),
+                        ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal()).getClientIp(),
+                        kapuaSecurityContext.getConnectionId(),
+                        messageSend.getDestination());
+                logger.warn(message);
+                metricPublishMessageSizeNotAllowed.update(messageSend.getSize());
+                metricPublishNotAllowedMessages.inc();
+                // IMPORTANT
+                // restored the throw exception because otherwise we got acl's issues
+                throw new SecurityException(message);
                 // kapuaSecurityContext.getAuthorizedWriteDests().put(messageSend.getDestination(), messageSend.getDestination());
             }
             // }
-            messageSend.setProperty(MessageConstants.HEADER_KAPUA_CONNECTION_ID, kapuaSecurityContext.getConnectionId());
-            messageSend.setProperty(MessageConstants.HEADER_KAPUA_CLIENT_ID, ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal()).getClientId());
-            messageSend.setProperty(MessageConstants.HEADER_KAPUA_CONNECTOR_DEVICE_PROTOCOL, kapuaSecurityContext.getConnectorDescriptor());
-            messageSend.setProperty(MessageConstants.HEADER_KAPUA_SESSION, kapuaSecurityContext.getKapuaSession());
+            KapuaConnectionContext connectionContext = kapuaSecurityContext.getConnectionContext();
+            if (connectionContext != null) {
+                // the connection context is resolved by the handle on the consumer side
+                messageSend.setProperty(MessageConstants.HEADER_KAPUA_CONNECTION_CONTEXT, connectionContext.getHandle());
+            } else {
+                messageSend.setProperty(MessageConstants.HEADER_KAPUA_CONNECTION_ID, kapuaSecurityContext.getConnectionId());
+                messageSend.setProperty(MessageConstants.HEADER_KAPUA_CLIENT_ID, ((KapuaPrincipal) kapuaSecurityContext.getMainPrincipal()).getClientId());
+                messageSend.setProperty(MessageConstants.HEADER_KAPUA_CONNECTOR_DEVICE_PROTOCOL, kapuaSecurityContext.getConnectorDescriptor());
+                messageSend.setProperty(MessageConstants.HEADER_KAPUA_SESSION, kapuaSecurityContext.getKapuaSession());
+            }
         }
         if (messageSend.getContent() != null) {
             metricPublishMessageSizeAllowed.update(messageSend.getContent().length);
@@ -638,6 +656,22 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
         super.send(producerExchange, messageSend);
     }
 
+    /**
+     * Check the write permission of the destination by the connection topic ACL (the destinations not supported by the ACL are checked by the
+     * connection authorization map)
+     *
+     * @param kapuaSecurityContext
+     * @param destination
+     * @return
+     */
+    private boolean canWrite(KapuaSecurityContext kapuaSecurityContext, ActiveMQDestination destination) {
+        if (KapuaTopicAcl.supports(destination)) {
+            return kapuaSecurityContext.getTopicAcl().canWrite(destination);
+        }
+        Set<?> allowedACLs = kapuaSecurityContext.getAuthorizationMap().getWriteACLs(destination);
+        return allowedACLs == null || kapuaSecurityContext.isInOneOf(allowedACLs);
+    }
+
     // ------------------------------------------------------------------
     //
     // Consumer
@@ -727,18 +761,18 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
     // ------------------------------------------------------------------
 
     @SuppressWarnings("rawtypes")
-    private DefaultAuthorizationMap buildAdminAuthMap(List<String> authDestinations, KapuaPrincipal principal, String fullClientId) {
+    private List<DestinationMapEntry> buildAdminAuthEntries(List<String> authDestinations, KapuaPrincipal principal, String fullClientId) {
         ArrayList<DestinationMapEntry> dme = new ArrayList<DestinationMapEntry>();
         String clientId = principal.getClientId();
         dme.addAll(createAuthorizationEntries(authDestinations, AclConstants.ACL_HASH,
                 principal, clientId, fullClientId, true, true, true));// (topic, principal, read, write, admin)
         dme.addAll(createAuthorizationEntries(authDestinations, AclConstants.ACL_AMQ_ADVISORY,
                 principal, clientId, fullClientId, false, true, true));// (topic, principal, read, write, admin)
-        return new DefaultAuthorizationMap(dme);
+        return dme;
     }
 
     @SuppressWarnings("rawtypes")
-    private DefaultAuthorizationMap buildProvisioningAuthMap(List<String> authDestinations, KapuaPrincipal principal, String accountName, String fullClientId) {
+    private List<DestinationMapEntry> buildProvisioningAuthEntries(List<String> authDestinations, KapuaPrincipal principal, String accountName, String fullClientId) {
         ArrayList<DestinationMapEntry> dme = new ArrayList<DestinationMapEntry>();
 
         String clientId = principal.getClientId();
@@ -761,11 +795,11 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
         dme.addAll(createAuthorizationEntries(authDestinations, AclConstants.ACL_AMQ_ADVISORY,
                 principal, clientId, fullClientId, false, true, true));// (topic, principal, read, write, admin)
 
-        return new DefaultAuthorizationMap(dme);
+        return dme;
     }
 
     @SuppressWarnings("rawtypes")
-    private DefaultAuthorizationMap buildAuthMap(List<String> authDestinations, KapuaPrincipal principal,
+    private List<DestinationMapEntry> buildAuthEntries(List<String> authDestinations, KapuaPrincipal principal,
             boolean[] hasPermissions,
             String accountName,
             String clientId,
@@ -855,7 +889,7 @@ public class KapuaSecurityBrokerFilter extends BrokerFilter {
                 true,
                 false));// (topic, principal, read, write, admin)
 
-        return new DefaultAuthorizationMap(dme);
+        return dme;
     }
 
     protected List<AuthorizationEntry> createAuthorizationEntries(List<String> authDestinations, String topic, KapuaPrincipal principal, String clientId, String fullClientId, boolean read,
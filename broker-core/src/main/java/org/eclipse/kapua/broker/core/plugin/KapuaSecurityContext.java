@@ -36,8 +36,10 @@ public class KapuaSecurityContext extends SecurityContext {
     private Set<Principal>   principals;
     private ConnectorDescriptor connectorDescriptor;
     private ConnectionId        brokerConnectionId;
+    private KapuaConnectionContext connectionContext;
 
     private AuthorizationMap authMap;
+    private KapuaTopicAcl    topicAcl;
     private boolean          hasDataView;
     private boolean          hasDataManage;
     private boolean          hasDeviceView;
@@ -45,6 +47,7 @@ public class KapuaSecurityContext extends SecurityContext {
 
     public KapuaSecurityContext(KapuaPrincipal     principal,
                               AuthorizationMap authMap,
+                              KapuaTopicAcl topicAcl,
                               KapuaId connectionId,
                               ConnectionId brokerConnectionId,
                               ConnectorDescriptor connectorDescriptor) {
@@ -56,6 +59,7 @@ public class KapuaSecurityContext extends SecurityContext {
         principals.add(principal);
 
         this.authMap = authMap;
+        this.topicAcl = topicAcl;
         this.connectionId = connectionId;
         this.connectorDescriptor = connectorDescriptor;
         this.brokerConnectionId = brokerConnectionId;
@@ -76,6 +80,16 @@ public class KapuaSecurityContext extends SecurityContext {
         return authMap;
     }
 
+    /**
+     * Get the compact topic ACL checked for the published messages (instead of the authorization map)
+     *
+     * @return
+     */
+    public KapuaTopicAcl getTopicAcl()
+    {
+        return topicAcl;
+    }
+
     public KapuaId getConnectionId()
     {
         return connectionId;
@@ -115,4 +129,19 @@ public class KapuaSecurityContext extends SecurityContext {
     {
         return kapuaSession;
     }
+
+    /**
+     * Get the registered connection context (or {@code null} if the published messages carry the whole connection context)
+     *
+     * @return
+     */
+    public KapuaConnectionContext getConnectionContext()
+    {
+        return connectionContext;
+    }
+
+    public void setConnectionContext(KapuaConnectionContext connectionContext)
+    {
+        this.connectionContext = connectionContext;
+    }
 }
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.broker.core.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.filter.DestinationMapEntry;
+import org.apache.activemq.security.AuthorizationEntry;
+
+/**
+ * Compact per connection topic write ACL.<br>
+ * It holds the writable topic filters of the connection authorization entries, each one precompiled as a literal prefix (the leading levels without
+ * wildcards, usually the account and client id levels) and the remaining levels, so the check of a published topic is a prefix comparison followed by a
+ * level by level match of the remaining levels, without any allocation.<br>
+ * The filters follow the ActiveMQ wildcards syntax: {@value #ANY_CHILD} matches a single level and {@value #ANY_DESCENDANT} (only as the last level)
+ * matches any number (also zero) of remaining levels.
+ *
+ * @since 1.0
+ */
+public class KapuaTopicAcl {
+
+    private static final char SEPARATOR = '.';
+    private static final String ANY_CHILD = "*";
+    private static final String ANY_DESCENDANT = ">";
+
+    private final TopicFilter[] writeFilters;
+
+    /**
+     * Constructs the ACL from the topic authorization entries granting the write permission
+     *
+     * @param entries
+     *            the connection authorization entries (all the entries are expected to be bound to the connection principal)
+     */
+    @SuppressWarnings("rawtypes")
+    public KapuaTopicAcl(List<DestinationMapEntry> entries) {
+        List<TopicFilter> filters = new ArrayList<>();
+        for (DestinationMapEntry entry : entries) {
+            if (entry instanceof AuthorizationEntry) {
+                AuthorizationEntry authorizationEntry = (AuthorizationEntry) entry;
+                ActiveMQDestination destination = authorizationEntry.getDestination();
+                if (destination.isTopic() && authorizationEntry.getWriteACLs() != null && !authorizationEntry.getWriteACLs().isEmpty()) {
+                    filters.add(new TopicFilter(destination.getPhysicalName()));
+                }
+            }
+        }
+        writeFilters = filters.toArray(new TopicFilter[filters.size()]);
+    }
+
+    /**
+     * Check if the ACL can evaluate the given destination.<br>
+     * Only the plain topics are evaluated, the other destinations (queues, composite and wildcard destinations) must be checked by the connection
+     * authorization map.
+     *
+     * @param destination
+     * @return
+     */
+    public static boolean supports(ActiveMQDestination destination) {
+        return destination.isTopic() && !destination.isComposite() && !destination.isPattern();
+    }
+
+    /**
+     * Check if the given topic can be written
+     *
+     * @param destination
+     *            a topic supported by this ACL (see {@link #supports(ActiveMQDestination)})
+     * @return
+     */
+    public boolean canWrite(ActiveMQDestination destination) {
+        String topic = destination.getPhysicalName();
+        for (TopicFilter filter : writeFilters) {
+            if (filter.matches(topic)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class TopicFilter {
+
+        private final String prefix;
+        private final String[] levels;
+
+        private TopicFilter(String filter) {
+            String[] filterLevels = filter.split("\\" + SEPARATOR);
+            int literalLevels = 0;
+            while (literalLevels < filterLevels.length &&
+                    !ANY_CHILD.equals(filterLevels[literalLevels]) &&
+                    !ANY_DESCENDANT.equals(filterLevels[literalLevels])) {
+                literalLevels++;
+            }
+
+            StringBuilder prefixBuilder = new StringBuilder();
+            for (int i = 0; i < literalLevels; i++) {
+                if (i > 0) {
+                    prefixBuilder.append(SEPARATOR);
+                }
+                prefixBuilder.append(filterLevels[i]);
+            }
+            prefix = literalLevels > 0 ? prefixBuilder.toString() : null;
+            levels = new String[filterLevels.length - literalLevels];
+            System.arraycopy(filterLevels, literalLevels, levels, 0, levels.length);
+        }
+
+        private boolean matches(String topic) {
+            int start = 0;
+            if (prefix != null) {
+                if (!topic.startsWith(prefix) || (topic.length() > prefix.length() && topic.charAt(prefix.length()) != SEPARATOR)) {
+                    return false;
+                }
+                start = prefix.length() + 1;
+            }
+
+            for (String level : levels) {
+                if (ANY_DESCENDANT.equals(level)) {
+                    return true;
+                }
+                if (start > topic.length()) {
+                    // no more topic levels
+                    return false;
+                }
+                int end = topic.indexOf(SEPARATOR, start);
+                if (end < 0) {
+                    end = topic.length();
+                }
+                if (!ANY_CHILD.equals(level) && (level.length() != end - start || !topic.regionMatches(start, level, 0, level.length()))) {
+                    return false;
+                }
+                start = end + 1;
+            }
+            // all the topic levels must be matched
+            return start > topic.length();
+        }
+    }
+}
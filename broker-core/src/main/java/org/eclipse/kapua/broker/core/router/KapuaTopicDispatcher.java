@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.broker.core.router;
+
+import javax.jms.JMSException;
+
+import org.apache.camel.Exchange;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.broker.core.converter.KapuaDataConverter;
+import org.eclipse.kapua.broker.core.converter.KapuaLifeCycleConverter;
+import org.eclipse.kapua.broker.core.listener.AbstractListener;
+import org.eclipse.kapua.broker.core.listener.DataStorageMessageProcessor;
+import org.eclipse.kapua.broker.core.listener.DeviceMessageListener;
+import org.eclipse.kapua.broker.core.message.CamelKapuaMessage;
+import org.eclipse.kapua.broker.core.message.CamelUtil;
+import org.eclipse.kapua.broker.core.plugin.ConnectorDescriptor.MessageType;
+import org.eclipse.kapua.message.device.lifecycle.KapuaAppsMessage;
+import org.eclipse.kapua.message.device.lifecycle.KapuaBirthMessage;
+import org.eclipse.kapua.message.device.lifecycle.KapuaDisconnectMessage;
+import org.eclipse.kapua.message.device.lifecycle.KapuaMissingMessage;
+import org.eclipse.kapua.message.device.lifecycle.KapuaNotifyMessage;
+import org.eclipse.kapua.message.device.lifecycle.KapuaUnmatchedMessage;
+
+import com.codahale.metrics.Counter;
+
+/**
+ * Camel pojo endpoint dispatching the incoming messages to the life cycle listener or to the data storage processor.<br>
+ * The message type is resolved in a single pass over the original topic levels by a {@link TopicTrie} built once at startup (it replaces the chain of
+ * regular expression predicates evaluated by the Camel choice for every message).
+ *
+ * @since 1.0
+ */
+public class KapuaTopicDispatcher extends AbstractListener {
+
+    private static final TopicTrie<MessageType> MESSAGE_TYPES = new TopicTrie<>('.');
+
+    static {
+        // same filters of the former Camel route choice: $EDC.<account>.<client id>.MQTT.<life cycle event>
+        MESSAGE_TYPES.put("$EDC.+.+.MQTT.BIRTH.#", MessageType.BIRTH);
+        MESSAGE_TYPES.put("$EDC.+.+.MQTT.DC.#", MessageType.DISCONNECT);
+        MESSAGE_TYPES.put("$EDC.+.+.MQTT.APPS.#", MessageType.APP);
+        MESSAGE_TYPES.put("$EDC.+.+.MQTT.LWT.#", MessageType.MISSING);
+        MESSAGE_TYPES.put("$EDC.+.+.MQTT.NOTIFY.#", MessageType.NOTIFY);
+        // any other system message
+        MESSAGE_TYPES.put("$EDC.#", MessageType.UNMATCHED);
+        // otherwise data messages
+        MESSAGE_TYPES.put("#", MessageType.DATA);
+    }
+
+    private KapuaLifeCycleConverter lifeCycleConverter;
+    private KapuaDataConverter dataConverter;
+    private DeviceMessageListener deviceMessageListener;
+    private DataStorageMessageProcessor dataStorageMessageProcessor;
+
+    private Counter metricDispatcherErrorMessage;
+    private Counter metricDispatcherSkippedMessage;
+
+    public KapuaTopicDispatcher() {
+        super("dispatcher", "topic");
+        metricDispatcherErrorMessage = registerCounter("messages", "error", "count");
+        metricDispatcherSkippedMessage = registerCounter("messages", "skipped", "count");
+    }
+
+    /**
+     * Resolve the message type of the given topic
+     *
+     * @param topic
+     * @return
+     */
+    public static MessageType getMessageType(String topic) {
+        return MESSAGE_TYPES.match(topic);
+    }
+
+    /**
+     * Convert the incoming message to the Kapua message matching its topic and dispatch it to the listener processing that message type.
+     *
+     * @param exchange
+     * @param value
+     * @throws KapuaException
+     *             if an error occurred converting the message
+     */
+    public void dispatch(Exchange exchange, Object value) throws KapuaException {
+        dispatch(exchange, value, getMessageType(exchange));
+    }
+
+    /**
+     * Check if the incoming message is a data message (the other messages are counted as skipped).<br>
+     * It is meant to filter, before any other processing, the routes consuming the whole virtual topic tree while the life cycle messages are processed
+     * by a dedicated route.
+     *
+     * @param exchange
+     * @return
+     * @throws KapuaException
+     *             if the topic of the message cannot be read
+     */
+    public boolean isDataMessage(Exchange exchange) throws KapuaException {
+        if (getMessageType(exchange) != MessageType.DATA) {
+            metricDispatcherSkippedMessage.inc();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Dispatch the incoming message to the data storage processor if it is a data message, otherwise skip it.<br>
+     * The routes should filter the messages by {@link #isDataMessage(Exchange)} before binding the session.
+     *
+     * @param exchange
+     * @param value
+     * @throws KapuaException
+     *             if an error occurred converting the message
+     */
+    public void dispatchData(Exchange exchange, Object value) throws KapuaException {
+        MessageType messageType = getMessageType(exchange);
+        if (messageType != MessageType.DATA) {
+            metricDispatcherSkippedMessage.inc();
+            return;
+        }
+        dispatch(exchange, value, messageType);
+    }
+
+    private MessageType getMessageType(Exchange exchange) throws KapuaException {
+        try {
+            return getMessageType(CamelUtil.getTopic(exchange.getIn()));
+        } catch (JMSException e) {
+            metricDispatcherErrorMessage.inc();
+            throw KapuaException.internalError(e, "Cannot get the topic of the message");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(Exchange exchange, Object value, MessageType messageType) throws KapuaException {
+        CamelKapuaMessage<?> message;
+        switch (messageType) {
+        case BIRTH:
+            message = lifeCycleConverter.convertToBirth(exchange, value);
+            exchange.getIn().setBody(message);
+            deviceMessageListener.processBirthMessage((CamelKapuaMessage<KapuaBirthMessage>) message);
+            break;
+        case DISCONNECT:
+            message = lifeCycleConverter.convertToDisconnect(exchange, value);
+            exchange.getIn().setBody(message);
+            deviceMessageListener.processDisconnectMessage((CamelKapuaMessage<KapuaDisconnectMessage>) message);
+            break;
+        case APP:
+            message = lifeCycleConverter.convertToApps(exchange, value);
+            exchange.getIn().setBody(message);
+            deviceMessageListener.processAppsMessage((CamelKapuaMessage<KapuaAppsMessage>) message);
+            break;
+        case MISSING:
+            message = lifeCycleConverter.convertToMissing(exchange, value);
+            exchange.getIn().setBody(message);
+            deviceMessageListener.processMissingMessage((CamelKapuaMessage<KapuaMissingMessage>) message);
+            break;
+        case NOTIFY:
+            message = lifeCycleConverter.convertToNotify(exchange, value);
+            exchange.getIn().setBody(message);
+            deviceMessageListener.processNotifyMessage((CamelKapuaMessage<KapuaNotifyMessage>) message);
+            break;
+        case UNMATCHED:
+            message = lifeCycleConverter.convertToUnmatched(exchange, value);
+            exchange.getIn().setBody(message);
+            deviceMessageListener.processUnmatchedMessage((CamelKapuaMessage<KapuaUnmatchedMessage>) message);
+            break;
+        default:
+            message = dataConverter.convertToData(exchange, value);
+            exchange.getIn().setBody(message);
+            dataStorageMessageProcessor.processMessage(message);
+            break;
+        }
+    }
+
+    public void setLifeCycleConverter(KapuaLifeCycleConverter lifeCycleConverter) {
+        this.lifeCycleConverter = lifeCycleConverter;
+    }
+
+    public void setDataConverter(KapuaDataConverter dataConverter) {
+        this.dataConverter = dataConverter;
+    }
+
+    public void setDeviceMessageListener(DeviceMessageListener deviceMessageListener) {
+        this.deviceMessageListener = deviceMessageListener;
+    }
+
+    public void setDataStorageMessageProcessor(DataStorageMessageProcessor dataStorageMessageProcessor) {
+        this.dataStorageMessageProcessor = dataStorageMessageProcessor;
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.broker.core.router;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trie of topic filters, matched level by level against the topics.<br>
+ * The filter levels are separated by the configured separator and may be:
+ * <ul>
+ * <li>a literal level, matching the same topic level</li>
+ * <li>{@value #SINGLE_LEVEL_WILDCARD}, matching any single topic level</li>
+ * <li>{@value #MULTI_LEVEL_WILDCARD} (only as the last level), matching any number (also zero) of remaining topic levels</li>
+ * </ul>
+ * When more filters match a topic, the most specific one wins (at each level a literal match is preferred to a single level wildcard match, which is
+ * preferred to a multi level wildcard match).<br>
+ * The trie is meant to be filled once and then only read, so it is safe to match topics from many threads once the filters are added.
+ *
+ * @param <V>
+ *            value type bound to the filters
+ *
+ * @since 1.0
+ */
+public class TopicTrie<V> {
+
+    public static final String SINGLE_LEVEL_WILDCARD = "+";
+    public static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final char separator;
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Constructs an empty trie
+     *
+     * @param separator
+     *            the topic levels separator
+     */
+    public TopicTrie(char separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * Bind the value to the given topic filter (replacing the value already bound to the same filter, if any)
+     *
+     * @param filter
+     * @param value
+     */
+    public void put(String filter, V value) {
+        Node<V> node = root;
+        int start = 0;
+        while (start <= filter.length()) {
+            int end = indexOfSeparator(filter, start);
+            String level = filter.substring(start, end);
+            if (MULTI_LEVEL_WILDCARD.equals(level)) {
+                if (end != filter.length()) {
+                    throw new IllegalArgumentException("The multi level wildcard must be the last level of the filter: " + filter);
+                }
+                node.multiLevelValue = value;
+                return;
+            }
+            node = SINGLE_LEVEL_WILDCARD.equals(level) ? node.getOrCreateWildcardChild() : node.getOrCreateChild(level);
+            start = end + 1;
+        }
+        node.value = value;
+    }
+
+    /**
+     * Find the value bound to the most specific filter matching the given topic
+     *
+     * @param topic
+     * @return the value or {@code null} if no filter matches the topic
+     */
+    public V match(String topic) {
+        return match(root, topic, 0);
+    }
+
+    private V match(Node<V> node, String topic, int start) {
+        if (start > topic.length()) {
+            // all the topic levels are matched
+            return node.value != null ? node.value : node.multiLevelValue;
+        }
+
+        int end = indexOfSeparator(topic, start);
+        V value = null;
+        if (node.children != null) {
+            Node<V> child = node.children.get(topic.substring(start, end));
+            if (child != null) {
+                value = match(child, topic, end + 1);
+            }
+        }
+        if (value == null && node.wildcardChild != null) {
+            value = match(node.wildcardChild, topic, end + 1);
+        }
+        return value != null ? value : node.multiLevelValue;
+    }
+
+    private int indexOfSeparator(String topic, int start) {
+        int index = topic.indexOf(separator, start);
+        return index < 0 ? topic.length() : index;
+    }
+
+    private static class Node<V> {
+
+        private Map<String, Node<V>> children;
+        private Node<V> wildcardChild;
+        private V value;
+        private V multiLevelValue;
+
+        private Node<V> getOrCreateChild(String level) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(level, key -> new Node<>());
+        }
+
+        private Node<V> getOrCreateWildcardChild() {
+            if (wildcardChild == null) {
+                wildcardChild = new Node<>();
+            }
+            return wildcardChild;
+        }
+    }
+}
@@ -25,7 +25,27 @@ public enum BrokerSettingKey implements SettingKey {
     /**
      * A URI to a configuration file for providing additional {@link ConnectorDescriptor} configurations
      */
-    CONFIGURATION_URI("broker.connector.descriptor.configuration.uri");
+    CONFIGURATION_URI("broker.connector.descriptor.configuration.uri"),
+    /**
+     * Stamp the published messages with the compact connection context handle instead of the connection context properties
+     */
+    CONNECTION_CONTEXT_HANDLE_ENABLED("broker.connection.context.handle.enabled"),
+    /**
+     * Time (in seconds) the contexts of the closed connections are kept, to resolve the handles of the messages still queued
+     */
+    CONNECTION_CONTEXT_CLOSED_EXPIRE_AFTER("broker.connection.context.closed.expire.after"),
+    /**
+     * Maximum number of the kept contexts of the closed connections
+     */
+    CONNECTION_CONTEXT_CLOSED_SIZE_MAXIMUM("broker.connection.context.closed.size.maximum"),
+    /**
+     * Maximum number of messages the data storage processor is storing at the same time
+     */
+    DATA_STORAGE_PENDING_MAXIMUM("broker.data.storage.pending.maximum"),
+    /**
+     * Maximum time (in milliseconds) the data storage processor waits for a pending store to complete when the maximum is reached
+     */
+    DATA_STORAGE_STORE_TIMEOUT("broker.data.storage.store.timeout");
 
     private String key;
 
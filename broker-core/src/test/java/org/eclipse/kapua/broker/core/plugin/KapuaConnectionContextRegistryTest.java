@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.broker.core.plugin;
+
+import org.apache.camel.Message;
+import org.apache.camel.impl.DefaultMessage;
+import org.eclipse.kapua.broker.core.message.CamelUtil;
+import org.eclipse.kapua.broker.core.message.MessageConstants;
+import org.eclipse.kapua.broker.core.setting.BrokerSetting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KapuaConnectionContextRegistryTest {
+
+    private static final String CLIENT_ID = "device-1";
+
+    @Before
+    public void resetSettings() {
+        BrokerSetting.resetInstance();
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        Assert.assertFalse(KapuaConnectionContextRegistry.isEnabled());
+    }
+
+    @Test
+    public void testRegisterAndResolve() {
+        KapuaConnectionContextRegistry registry = new KapuaConnectionContextRegistry(3600, 10);
+        KapuaConnectionContext first = registry.register(null, CLIENT_ID, null, null);
+        KapuaConnectionContext second = registry.register(null, "device-2", null, null);
+
+        Assert.assertNotEquals(first.getHandle(), second.getHandle());
+        Assert.assertSame(first, registry.get(first.getHandle()));
+        Assert.assertSame(second, registry.get(second.getHandle()));
+        Assert.assertNull(registry.get(second.getHandle() + 1));
+    }
+
+    @Test
+    public void testClosedContextResolvedUntilExpired() throws InterruptedException {
+        KapuaConnectionContextRegistry registry = new KapuaConnectionContextRegistry(1, 10);
+        KapuaConnectionContext context = registry.register(null, CLIENT_ID, null, null);
+
+        registry.unregister(context);
+        Assert.assertSame(context, registry.get(context.getHandle()));
+
+        Thread.sleep(1500);
+        Assert.assertNull(registry.get(context.getHandle()));
+    }
+
+    @Test
+    public void testClosedContextEvictedBySize() {
+        KapuaConnectionContextRegistry registry = new KapuaConnectionContextRegistry(3600, 1);
+        KapuaConnectionContext first = registry.register(null, CLIENT_ID, null, null);
+        KapuaConnectionContext second = registry.register(null, "device-2", null, null);
+
+        registry.unregister(first);
+        registry.unregister(second);
+        Assert.assertNull(registry.get(first.getHandle()));
+        Assert.assertSame(second, registry.get(second.getHandle()));
+    }
+
+    @Test
+    public void testHandlesOfPreviousRunNotResolved() throws InterruptedException {
+        KapuaConnectionContext context = new KapuaConnectionContextRegistry(3600, 10).register(null, CLIENT_ID, null, null);
+
+        // the handles of a new registry (e.g. after a broker restart) are seeded by a later time
+        Thread.sleep(5);
+        KapuaConnectionContextRegistry restarted = new KapuaConnectionContextRegistry(3600, 10);
+        KapuaConnectionContext newContext = restarted.register(null, CLIENT_ID, null, null);
+
+        Assert.assertNull(restarted.get(context.getHandle()));
+        Assert.assertTrue(newContext.getHandle() > context.getHandle());
+    }
+
+    @Test
+    public void testMessageStampedWithHandle() {
+        KapuaConnectionContext context = KapuaConnectionContextRegistry.getInstance().register(null, CLIENT_ID, null, null);
+        try {
+            Message message = new DefaultMessage();
+            message.setHeader(MessageConstants.HEADER_KAPUA_CONNECTION_CONTEXT, context.getHandle());
+            Assert.assertSame(context, CamelUtil.getConnectionContext(message));
+
+            message.setHeader(MessageConstants.HEADER_KAPUA_CONNECTION_CONTEXT, context.getHandle() + 1);
+            Assert.assertNull(CamelUtil.getConnectionContext(message));
+        } finally {
+            KapuaConnectionContextRegistry.getInstance().unregister(context);
+        }
+    }
+
+    @Test
+    public void testMessageStampedWithProperties() {
+        Message message = new DefaultMessage();
+        message.setHeader(MessageConstants.HEADER_KAPUA_CLIENT_ID, CLIENT_ID);
+
+        KapuaConnectionContext context = CamelUtil.getConnectionContext(message);
+        Assert.assertNotNull(context);
+        Assert.assertEquals(CLIENT_ID, context.getClientId());
+        Assert.assertNull(context.getConnectionId());
+    }
+}
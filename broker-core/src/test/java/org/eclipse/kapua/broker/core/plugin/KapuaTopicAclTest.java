@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.broker.core.plugin;
+
+import java.security.Principal;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.filter.DestinationMapEntry;
+import org.apache.activemq.security.AuthorizationEntry;
+import org.apache.activemq.security.DefaultAuthorizationMap;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KapuaTopicAclTest {
+
+    private static final String ACCOUNT = "kapua-sys";
+    private static final String CLIENT_ID = "device-1";
+
+    private final Principal principal = () -> ACCOUNT + ":" + CLIENT_ID;
+
+    private DefaultAuthorizationMap authorizationMap;
+    private KapuaTopicAcl topicAcl;
+
+    @Before
+    @SuppressWarnings("rawtypes")
+    public void buildAcl() {
+        List<DestinationMapEntry> entries = new ArrayList<>();
+        entries.add(createEntry(AclConstants.ACL_AMQ_ADVISORY, ActiveMQDestination.TOPIC_TYPE, true));
+        entries.add(createEntry(MessageFormat.format(AclConstants.ACL_CTRL_ACC_CLI, ACCOUNT, CLIENT_ID), ActiveMQDestination.TOPIC_TYPE, true));
+        entries.add(createEntry(MessageFormat.format(AclConstants.ACL_DATA_ACC, ACCOUNT), ActiveMQDestination.TOPIC_TYPE, false));
+        entries.add(createEntry(MessageFormat.format(AclConstants.ACL_DATA_ACC_CLI, ACCOUNT, CLIENT_ID), ActiveMQDestination.TOPIC_TYPE, true));
+        entries.add(createEntry(MessageFormat.format(AclConstants.ACL_CTRL_ACC_REPLY, ACCOUNT), ActiveMQDestination.TOPIC_TYPE, true));
+        entries.add(createEntry(MessageFormat.format(AclConstants.ACL_CTRL_ACC_NOTIFY, ACCOUNT, CLIENT_ID), ActiveMQDestination.TOPIC_TYPE, true));
+        entries.add(createEntry(MessageFormat.format(AclConstants.ACL_VT_DURABLE_PREFIX[0], ACCOUNT + ":" + CLIENT_ID, "VirtualTopic.>"), ActiveMQDestination.QUEUE_TYPE, false));
+
+        authorizationMap = new DefaultAuthorizationMap(entries);
+        topicAcl = new KapuaTopicAcl(entries);
+    }
+
+    @Test
+    public void testSameResultsOfAuthorizationMap() {
+        String[] topics = new String[] {
+                "VirtualTopic.kapua-sys.device-1.heater.temperature",
+                "VirtualTopic.kapua-sys.device-1",
+                "VirtualTopic.kapua-sys.device-10.heater.temperature",
+                "VirtualTopic.kapua-sys.device-2.heater.temperature",
+                "VirtualTopic.kapua-sys-2.device-1.heater.temperature",
+                "VirtualTopic.$EDC.kapua-sys.device-1.MQTT.BIRTH",
+                "VirtualTopic.$EDC.kapua-sys.device-2.MQTT.BIRTH",
+                "VirtualTopic.$EDC.kapua-sys.other.CONF-V1.REPLY.1234",
+                "VirtualTopic.$EDC.kapua-sys.other.CONF-V1.REQUEST.1234",
+                "VirtualTopic.$EDC.kapua-sys.other.DEPLOY-V2.NOTIFY.device-1.download",
+                "VirtualTopic.$EDC.kapua-sys.other.DEPLOY-V2.NOTIFY.device-2.download",
+                "VirtualTopic.ActiveMQ.Advisory.Connection",
+                "VirtualTopic",
+                "other.kapua-sys.device-1.heater" };
+
+        for (String topic : topics) {
+            ActiveMQDestination destination = ActiveMQDestination.createDestination(topic, ActiveMQDestination.TOPIC_TYPE);
+            Set<?> allowedACLs = authorizationMap.getWriteACLs(destination);
+            boolean expected = allowedACLs == null || allowedACLs.contains(principal);
+
+            Assert.assertTrue(KapuaTopicAcl.supports(destination));
+            Assert.assertEquals(topic, expected, topicAcl.canWrite(destination));
+        }
+    }
+
+    @Test
+    public void testNotSupportedDestinations() {
+        Assert.assertFalse(KapuaTopicAcl.supports(ActiveMQDestination.createDestination("Consumer.a:EXACTLY_ONCE.VirtualTopic.a", ActiveMQDestination.QUEUE_TYPE)));
+        Assert.assertFalse(KapuaTopicAcl.supports(ActiveMQDestination.createDestination("VirtualTopic.a.>", ActiveMQDestination.TOPIC_TYPE)));
+        Assert.assertFalse(KapuaTopicAcl.supports(ActiveMQDestination.createDestination("VirtualTopic.a,VirtualTopic.b", ActiveMQDestination.TOPIC_TYPE)));
+    }
+
+    private AuthorizationEntry createEntry(String destination, byte destinationType, boolean write) {
+        AuthorizationEntry entry = new AuthorizationEntry();
+        entry.setDestination(ActiveMQDestination.createDestination(destination, destinationType));
+        entry.setReadACLs(new HashSet<Object>(Collections.singleton(principal)));
+        entry.setWriteACLs(write ? new HashSet<Object>(Collections.singleton(principal)) : new HashSet<Object>());
+        entry.setAdminACLs(new HashSet<Object>());
+        return entry;
+    }
+}
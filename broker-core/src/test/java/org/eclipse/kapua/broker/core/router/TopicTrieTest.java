@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.broker.core.router;
+
+import org.eclipse.kapua.broker.core.plugin.ConnectorDescriptor.MessageType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TopicTrieTest {
+
+    private TopicTrie<MessageType> trie;
+
+    @Before
+    public void buildTrie() {
+        trie = new TopicTrie<>('.');
+        trie.put("$EDC.+.+.MQTT.BIRTH.#", MessageType.BIRTH);
+        trie.put("$EDC.+.+.MQTT.DC.#", MessageType.DISCONNECT);
+        trie.put("$EDC.+.+.MQTT.LWT.#", MessageType.MISSING);
+        trie.put("$EDC.#", MessageType.UNMATCHED);
+        trie.put("#", MessageType.DATA);
+    }
+
+    @Test
+    public void testLifeCycleTopics() {
+        Assert.assertEquals(MessageType.BIRTH, trie.match("$EDC.kapua-sys.device-1.MQTT.BIRTH"));
+        Assert.assertEquals(MessageType.DISCONNECT, trie.match("$EDC.kapua-sys.device-1.MQTT.DC"));
+        Assert.assertEquals(MessageType.MISSING, trie.match("$EDC.kapua-sys.device-1.MQTT.LWT.extra"));
+    }
+
+    @Test
+    public void testFallbackTopics() {
+        Assert.assertEquals(MessageType.UNMATCHED, trie.match("$EDC.kapua-sys.device-1.MQTT.OTHER"));
+        Assert.assertEquals(MessageType.UNMATCHED, trie.match("$EDC.kapua-sys.device-1.MQTT"));
+        Assert.assertEquals(MessageType.UNMATCHED, trie.match("$EDC"));
+        Assert.assertEquals(MessageType.DATA, trie.match("kapua-sys.device-1.MQTT.BIRTH"));
+        Assert.assertEquals(MessageType.DATA, trie.match("kapua-sys.device-1.temperature"));
+    }
+
+    @Test
+    public void testMostSpecificFilterWins() {
+        TopicTrie<String> topicTrie = new TopicTrie<>('/');
+        topicTrie.put("a/+/c", "wildcard");
+        topicTrie.put("a/b/c", "literal");
+        topicTrie.put("a/#", "multi");
+
+        Assert.assertEquals("literal", topicTrie.match("a/b/c"));
+        Assert.assertEquals("wildcard", topicTrie.match("a/x/c"));
+        Assert.assertEquals("multi", topicTrie.match("a/b/d"));
+        Assert.assertEquals("multi", topicTrie.match("a"));
+        Assert.assertNull(topicTrie.match("b/c"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiLevelWildcardNotLast() {
+        trie.put("$EDC.#.BIRTH", MessageType.BIRTH);
+    }
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.commons.service.event;
+
+import org.eclipse.kapua.model.id.KapuaId;
+
+/**
+ * Listener of the entity changes notified by the services through the {@link EntityChangeNotifier}
+ *
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface EntityChangeListener {
+
+    /**
+     * Called once the update or the delete of the entity is committed
+     *
+     * @param entityType
+     *            The entity type (e.g. {@code User.TYPE}).
+     * @param scopeId
+     *            The scope identifier of the entity.
+     * @param entityId
+     *            The entity identifier.
+     * @since 1.0.0
+     */
+    public void onEntityChanged(String entityType, KapuaId scopeId, KapuaId entityId);
+}
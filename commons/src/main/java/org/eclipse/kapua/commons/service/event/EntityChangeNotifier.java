@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.commons.service.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.kapua.model.id.KapuaId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In process notification of the entity changes, used by the services to evict the caches of other modules (e.g. the authorization cache when a
+ * user is deleted) without depending on them.<br>
+ * The listeners are called synchronously by the thread doing the change and only in the local JVM.
+ *
+ * @since 1.0.0
+ */
+public class EntityChangeNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityChangeNotifier.class);
+
+    private static final List<EntityChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private EntityChangeNotifier() {
+    }
+
+    /**
+     * Register the given listener
+     *
+     * @param listener
+     * @since 1.0.0
+     */
+    public static void addListener(EntityChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregister the given listener
+     *
+     * @param listener
+     * @since 1.0.0
+     */
+    public static void removeListener(EntityChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notify the listeners that the given entity has been updated or deleted.<br>
+     * A failing listener is logged and does not prevent the other listeners from being notified.
+     *
+     * @param entityType
+     * @param scopeId
+     * @param entityId
+     * @since 1.0.0
+     */
+    public static void fireEntityChanged(String entityType, KapuaId scopeId, KapuaId entityId) {
+        for (EntityChangeListener listener : listeners) {
+            try {
+                listener.onEntityChanged(entityType, scopeId, entityId);
+            } catch (RuntimeException e) {
+                logger.warn("Cannot notify the change of the {} {}", entityType, entityId, e);
+            }
+        }
+    }
+}
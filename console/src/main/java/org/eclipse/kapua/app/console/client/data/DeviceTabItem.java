@@ -51,6 +51,7 @@ public class DeviceTabItem extends TabItem {
     private MetricsTable metricsTable;
 
     private ResultsTable resultsTable;
+    private ResultsChart resultsChart;
     
     public DeviceTabItem(GwtSession currentSession) {
         super(MSGS.deviceTabItemTitle(), null);
@@ -113,6 +114,7 @@ public class DeviceTabItem extends TabItem {
                 GwtDatastoreDevice gwtDevice = deviceTable.getSelectedDevice();
                 List<GwtHeader> metricsInfo = metricsTable.getSelectedMetrics();
                 resultsTable.refresh(gwtDevice, metricsInfo);
+                resultsChart.refresh(gwtDevice, metricsInfo);
             }
         });
         queryButton.disable();
@@ -133,11 +135,11 @@ public class DeviceTabItem extends TabItem {
         resultsTableTabItem.setLayout(new FitLayout());
         resultsTableTabItem.add(resultsTable);
         resultsTabPanel.add(resultsTableTabItem);
-//        ResultsChart resultsChart = new ResultsChart(currentSession);
-//        TabItem resultsChartTabItem = new TabItem(MSGS.resultsChartTabItemTitle(), new KapuaIcon(IconSet.LINE_CHART));
-//        resultsChartTabItem.setLayout(new FitLayout());
-//        resultsChartTabItem.add(resultsChart);
-//        resultsTabPanel.add(resultsChartTabItem);
+        resultsChart = new ResultsChart(currentSession);
+        TabItem resultsChartTabItem = new TabItem(MSGS.resultsChartTabItemTitle(), new KapuaIcon(IconSet.LINE_CHART));
+        resultsChartTabItem.setLayout(new FitLayout());
+        resultsChartTabItem.add(resultsChart);
+        resultsTabPanel.add(resultsChartTabItem);
         
         add(resultsTabPanel, resultsLayout);
     }
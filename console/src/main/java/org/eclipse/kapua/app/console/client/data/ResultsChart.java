@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2016 Eurotech and/or its affiliates and others
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -12,24 +12,265 @@
  *******************************************************************************/
 package org.eclipse.kapua.app.console.client.data;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.eclipse.kapua.app.console.client.messages.ConsoleDataMessages;
+import org.eclipse.kapua.app.console.client.ui.widget.DateRangeSelector;
+import org.eclipse.kapua.app.console.client.ui.widget.DateRangeSelectorListener;
+import org.eclipse.kapua.app.console.client.util.FailureHandler;
+import org.eclipse.kapua.app.console.shared.model.GwtDataPoint;
+import org.eclipse.kapua.app.console.shared.model.GwtDatastoreDevice;
+import org.eclipse.kapua.app.console.shared.model.GwtHeader;
+import org.eclipse.kapua.app.console.shared.model.GwtKapuaChartResult;
 import org.eclipse.kapua.app.console.shared.model.GwtSession;
+import org.eclipse.kapua.app.console.shared.model.GwtTopic;
+import org.eclipse.kapua.app.console.shared.service.GwtDataService;
+import org.eclipse.kapua.app.console.shared.service.GwtDataServiceAsync;
 
+import com.extjs.gxt.ui.client.event.BoxComponentEvent;
+import com.extjs.gxt.ui.client.event.Events;
+import com.extjs.gxt.ui.client.event.Listener;
+import com.extjs.gxt.ui.client.widget.Label;
 import com.extjs.gxt.ui.client.widget.LayoutContainer;
+import com.extjs.gxt.ui.client.widget.Text;
+import com.extjs.gxt.ui.client.widget.layout.RowData;
+import com.extjs.gxt.ui.client.widget.layout.RowLayout;
+import com.extjs.gxt.ui.client.widget.toolbar.FillToolItem;
+import com.extjs.gxt.ui.client.widget.toolbar.ToolBar;
+import com.google.gwt.canvas.client.Canvas;
+import com.google.gwt.canvas.dom.client.Context2d;
+import com.google.gwt.canvas.dom.client.Context2d.TextAlign;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.i18n.client.DateTimeFormat;
+import com.google.gwt.i18n.client.NumberFormat;
 import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.rpc.AsyncCallback;
 
+/**
+ * Line chart of the numeric metrics selected in the data tab.<br>
+ * The series are aggregated by the datastore (the average of the metric values over time buckets), so the chart gets at most a few hundreds points per
+ * metric whatever the number of messages in the date range.
+ */
 public class ResultsChart extends LayoutContainer {
-    
+
+    private static final ConsoleDataMessages MSGS = GWT.create(ConsoleDataMessages.class);
+    private static GwtDataServiceAsync dataService = GWT.create(GwtDataService.class);
+
+    private static final String[] SERIES_COLORS = { "#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd", "#8c564b", "#e377c2", "#7f7f7f" };
+    private static final int MARGIN_LEFT = 70;
+    private static final int MARGIN_RIGHT = 20;
+    private static final int MARGIN_TOP = 30;
+    private static final int MARGIN_BOTTOM = 30;
+
     GwtSession currentSession;
-    
-    public ResultsChart(GwtSession currentSession){
+    private ToolBar chartToolBar;
+    private DateRangeSelector dateRangeSelector;
+    private LayoutContainer canvasContainer;
+    private Canvas canvas;
+    private GwtTopic selectedTopic;
+    private GwtDatastoreDevice selectedDevice;
+    private List<GwtHeader> selectedMetrics;
+    private GwtKapuaChartResult chartResult;
+
+    public ResultsChart(GwtSession currentSession) {
         this.currentSession = currentSession;
     }
-    
+
     @Override
     protected void onRender(Element parent, int index) {
         super.onRender(parent, index);
-        //Chart chart = new Chart("open-flash-chart.swf");
+
+        setLayout(new RowLayout());
+        setBorders(true);
+
+        chartToolBar = new ToolBar();
+        chartToolBar.add(new FillToolItem());
+        chartToolBar.add(new Label(MSGS.dateRange()));
+        dateRangeSelector = new DateRangeSelector();
+        dateRangeSelector.setListener(new DateRangeSelectorListener() {
+
+            @Override
+            public void onUpdate() {
+                refresh();
+            }
+        });
+        chartToolBar.add(dateRangeSelector);
+        add(chartToolBar, new RowData(1, -1));
+
+        canvasContainer = new LayoutContainer();
+        canvas = Canvas.createIfSupported();
+        if (canvas != null) {
+            canvasContainer.add(canvas);
+            canvasContainer.addListener(Events.Resize, new Listener<BoxComponentEvent>() {
+
+                @Override
+                public void handleEvent(BoxComponentEvent be) {
+                    canvas.setPixelSize(be.getWidth(), be.getHeight());
+                    canvas.setCoordinateSpaceWidth(be.getWidth());
+                    canvas.setCoordinateSpaceHeight(be.getHeight());
+                    draw();
+                }
+            });
+        } else {
+            canvasContainer.add(new Text(MSGS.resultsChartNotSupported()));
+        }
+        add(canvasContainer, new RowData(1, 1));
+
+        // the metrics may have been selected before the chart tab was shown
+        refresh();
+    }
+
+    public void refresh(GwtTopic topic, List<GwtHeader> metrics) {
+        selectedTopic = topic;
+        selectedDevice = null;
+        selectedMetrics = metrics;
+        refresh();
+    }
+
+    public void refresh(GwtDatastoreDevice device, List<GwtHeader> metrics) {
+        selectedTopic = null;
+        selectedDevice = device;
+        selectedMetrics = metrics;
+        refresh();
+    }
+
+    private void refresh() {
+        if (!isRendered() || canvas == null) {
+            return;
+        }
+        if (selectedMetrics == null || selectedMetrics.isEmpty()) {
+            chartResult = null;
+            draw();
+            return;
+        }
+
+        AsyncCallback<GwtKapuaChartResult> callback = new AsyncCallback<GwtKapuaChartResult>() {
+
+            @Override
+            public void onFailure(Throwable caught) {
+                unmask();
+                FailureHandler.handle(caught);
+            }
+
+            @Override
+            public void onSuccess(GwtKapuaChartResult result) {
+                unmask();
+                chartResult = result;
+                draw();
+            }
+        };
+
+        mask();
+        Date startDate = dateRangeSelector.getStartDate();
+        Date endDate = dateRangeSelector.getEndDate();
+        if (selectedTopic != null) {
+            dataService.findMessagesByTopic(currentSession.getSelectedAccount().getId(), selectedTopic, selectedMetrics, startDate, endDate, callback);
+        } else if (selectedDevice != null) {
+            dataService.findMessagesByDevice(currentSession.getSelectedAccount().getId(), selectedDevice, selectedMetrics, startDate, endDate, callback);
+        }
+    }
+
+    private void draw() {
+        int width = canvas.getCoordinateSpaceWidth();
+        int height = canvas.getCoordinateSpaceHeight();
+        Context2d context = canvas.getContext2d();
+        context.clearRect(0, 0, width, height);
+
+        //
+        // Bounds of the series
+        List<String> metrics = new ArrayList<String>();
+        List<List<GwtDataPoint>> series = new ArrayList<List<GwtDataPoint>>();
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        double minValue = Double.MAX_VALUE;
+        double maxValue = -Double.MAX_VALUE;
+        if (chartResult != null && chartResult.getDataPoint() != null) {
+            for (Entry<String, List<GwtDataPoint>> metricSeries : chartResult.getDataPoint().entrySet()) {
+                if (metricSeries.getValue().isEmpty()) {
+                    continue;
+                }
+                metrics.add(metricSeries.getKey());
+                series.add(metricSeries.getValue());
+                for (GwtDataPoint dataPoint : metricSeries.getValue()) {
+                    minTimestamp = Math.min(minTimestamp, dataPoint.getTimestamp());
+                    maxTimestamp = Math.max(maxTimestamp, dataPoint.getTimestamp());
+                    minValue = Math.min(minValue, dataPoint.getValue().doubleValue());
+                    maxValue = Math.max(maxValue, dataPoint.getValue().doubleValue());
+                }
+            }
+        }
+
+        context.setFont("11px sans-serif");
+        if (series.isEmpty()) {
+            context.setFillStyle("#666666");
+            context.setTextAlign(TextAlign.CENTER);
+            context.fillText(MSGS.resultsChartEmptyText(), width / 2, height / 2);
+            return;
+        }
+        if (maxTimestamp == minTimestamp) {
+            maxTimestamp++;
+        }
+        if (maxValue == minValue) {
+            maxValue += 1;
+            minValue -= 1;
+        }
+
+        //
+        // Axes and labels
+        double left = MARGIN_LEFT;
+        double right = width - MARGIN_RIGHT;
+        double top = MARGIN_TOP;
+        double bottom = height - MARGIN_BOTTOM;
+        context.setStrokeStyle("#999999");
+        context.setLineWidth(1);
+        context.beginPath();
+        context.moveTo(left, top);
+        context.lineTo(left, bottom);
+        context.lineTo(right, bottom);
+        context.stroke();
+
+        NumberFormat valueFormat = NumberFormat.getDecimalFormat();
+        DateTimeFormat timestampFormat = DateTimeFormat.getFormat(DateTimeFormat.PredefinedFormat.DATE_TIME_SHORT);
+        context.setFillStyle("#666666");
+        context.setTextAlign(TextAlign.RIGHT);
+        context.fillText(valueFormat.format(maxValue), left - 5, top + 4);
+        context.fillText(valueFormat.format(minValue), left - 5, bottom);
+        context.setTextAlign(TextAlign.LEFT);
+        context.fillText(timestampFormat.format(new Date(minTimestamp)), left, bottom + 15);
+        context.setTextAlign(TextAlign.RIGHT);
+        context.fillText(timestampFormat.format(new Date(maxTimestamp)), right, bottom + 15);
+
+        //
+        // Series and legend
+        double xScale = (right - left) / (maxTimestamp - minTimestamp);
+        double yScale = (bottom - top) / (maxValue - minValue);
+        double legendX = left;
+        context.setTextAlign(TextAlign.LEFT);
+        for (int i = 0; i < series.size(); i++) {
+            String color = SERIES_COLORS[i % SERIES_COLORS.length];
+            context.setStrokeStyle(color);
+            context.setLineWidth(2);
+            context.beginPath();
+            boolean first = true;
+            for (GwtDataPoint dataPoint : series.get(i)) {
+                double x = left + (dataPoint.getTimestamp() - minTimestamp) * xScale;
+                double y = bottom - (dataPoint.getValue().doubleValue() - minValue) * yScale;
+                if (first) {
+                    context.moveTo(x, y);
+                    first = false;
+                } else {
+                    context.lineTo(x, y);
+                }
+            }
+            context.stroke();
+
+            context.setFillStyle(color);
+            context.fillRect(legendX, top - 20, 10, 10);
+            context.fillText(metrics.get(i), legendX + 14, top - 11);
+            legendX += 24 + context.measureText(metrics.get(i)).getWidth();
+        }
     }
-    
-    
 }
@@ -47,7 +47,7 @@ public class TopicsTabItem extends TabItem {
     private Button queryButton;
     private TopicsTable topicTable;
     private MetricsTable metricsTable;
-    // private ResultsChart resultsChart;
+    private ResultsChart resultsChart;
     private ResultsTable resultsTable;
 
     public TopicsTabItem(GwtSession currentSession) {
@@ -113,6 +113,7 @@ public class TopicsTabItem extends TabItem {
                 GwtTopic topic = topicTable.getSelectedTopic();
                 List<GwtHeader> metrics = metricsTable.getSelectedMetrics();
                 resultsTable.refresh(topic, metrics);
+                resultsChart.refresh(topic, metrics);
             }
         });
         queryButton.disable();
@@ -135,11 +136,11 @@ public class TopicsTabItem extends TabItem {
         resultsTableTabItem.setLayout(new FitLayout());
         resultsTableTabItem.add(resultsTable);
         resultsTabPanel.add(resultsTableTabItem);
-//        resultsChart = new ResultsChart(currentSession);
-//        TabItem resultsChartTabItem = new TabItem(MSGS.resultsChartTabItemTitle(), new KapuaIcon(IconSet.LINE_CHART));
-//        resultsChartTabItem.setLayout(new FitLayout());
-//        resultsChartTabItem.add(resultsChart);
-//        resultsTabPanel.add(resultsChartTabItem);
+        resultsChart = new ResultsChart(currentSession);
+        TabItem resultsChartTabItem = new TabItem(MSGS.resultsChartTabItemTitle(), new KapuaIcon(IconSet.LINE_CHART));
+        resultsChartTabItem.setLayout(new FitLayout());
+        resultsChartTabItem.add(resultsChart);
+        resultsTabPanel.add(resultsChartTabItem);
 
         add(resultsTabPanel, resultsLayout);
 
@@ -22,6 +22,7 @@ import java.util.Stack;
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.app.console.server.util.KapuaExceptionHandler;
 import org.eclipse.kapua.app.console.shared.GwtKapuaException;
+import org.eclipse.kapua.app.console.shared.model.GwtDataPoint;
 import org.eclipse.kapua.app.console.shared.model.GwtDatastoreDevice;
 import org.eclipse.kapua.app.console.shared.model.GwtHeader;
 import org.eclipse.kapua.app.console.shared.model.GwtKapuaChartResult;
@@ -45,6 +46,7 @@ import org.eclipse.kapua.service.datastore.internal.model.query.ChannelInfoQuery
 import org.eclipse.kapua.service.datastore.internal.model.query.ChannelMatchPredicateImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.ClientInfoQueryImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.MessageQueryImpl;
+import org.eclipse.kapua.service.datastore.internal.model.query.MetricAggregationImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.MetricInfoQueryImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.RangePredicateImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.TermPredicateImpl;
@@ -54,12 +56,16 @@ import org.eclipse.kapua.service.datastore.model.ClientInfo;
 import org.eclipse.kapua.service.datastore.model.ClientInfoListResult;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationBucket;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.MetricInfo;
 import org.eclipse.kapua.service.datastore.model.MetricInfoListResult;
+import org.eclipse.kapua.service.datastore.model.query.AggregationInterval;
 import org.eclipse.kapua.service.datastore.model.query.AndPredicate;
 import org.eclipse.kapua.service.datastore.model.query.ChannelInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.ClientInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
 import org.eclipse.kapua.service.datastore.model.query.RangePredicate;
 import org.eclipse.kapua.service.datastore.model.query.StorablePredicate;
 import org.eclipse.kapua.service.datastore.model.query.TermPredicate;
@@ -76,6 +82,8 @@ public class GwtDataServiceImpl extends KapuaRemoteServiceServlet implements Gwt
     private static KapuaLocator locator = KapuaLocator.getInstance();
     private static final long serialVersionUID = -5518740923786017558L;
 
+    private static final int CHART_MAX_POINTS = 500;
+
     @Override
     public List<GwtTopic> findTopicsTree(String scopeId) throws GwtKapuaException {
         List<GwtTopic> channelInfoList = new ArrayList<>();
@@ -220,9 +228,9 @@ public class GwtDataServiceImpl extends KapuaRemoteServiceServlet implements Gwt
     }
 
     @Override
-    public GwtKapuaChartResult findMessagesByTopic(String accountName, GwtTopic topic, List<GwtHeader> metrics, Date startDate, Date endDate) throws GwtKapuaException {
-        // TODO Auto-generated method stub
-        return null;
+    public GwtKapuaChartResult findMessagesByTopic(String scopeId, GwtTopic topic, List<GwtHeader> metrics, Date startDate, Date endDate) throws GwtKapuaException {
+        ChannelMatchPredicateImpl predicate = new ChannelMatchPredicateImpl(topic.getSemanticTopic());
+        return findMetricSeries(scopeId, metrics, startDate, endDate, predicate);
     }
 
     @Override
@@ -239,6 +247,12 @@ public class GwtDataServiceImpl extends KapuaRemoteServiceServlet implements Gwt
         return findMessages(loadConfig, scopeId, headers, startDate, endDate, predicate);
     }
 
+    @Override
+    public GwtKapuaChartResult findMessagesByDevice(String scopeId, GwtDatastoreDevice device, List<GwtHeader> metrics, Date startDate, Date endDate) throws GwtKapuaException {
+        TermPredicate predicate = new TermPredicateImpl(MessageField.CLIENT_ID, device.getDevice());
+        return findMetricSeries(scopeId, metrics, startDate, endDate, predicate);
+    }
+
     @Override
     public GwtKapuaChartResult findMessagesByDevice(String accountName, GwtDatastoreDevice device, List<GwtHeader> headers, Date startDate, Date endDate, Stack<KapuaBasePagingCursor> cursors, int limit,
             int lastOffset, Integer indexOffset) throws GwtKapuaException {
@@ -309,4 +323,82 @@ public class GwtDataServiceImpl extends KapuaRemoteServiceServlet implements Gwt
         }
         return messages;
     }
+
+    private GwtKapuaChartResult findMetricSeries(String scopeId, List<GwtHeader> metrics, Date startDate, Date endDate, StorablePredicate predicate)
+            throws GwtKapuaException {
+        // the aggregations need a bounded time range: the missing bounds default to the last day, as the date range selector does
+        if (endDate == null) {
+            endDate = new Date();
+        }
+        if (startDate == null) {
+            startDate = new Date(endDate.getTime() - 24L * 60 * 60 * 1000);
+        }
+
+        MessageStoreService messageService = locator.getService(MessageStoreService.class);
+        MessageQuery query = new MessageQueryImpl(GwtKapuaModelConverter.convert(scopeId));
+        AndPredicate andPredicate = new AndPredicateImpl();
+        andPredicate.getPredicates().add(predicate);
+        RangePredicate dateRangePredicate = new RangePredicateImpl(MessageField.TIMESTAMP, startDate, endDate);
+        andPredicate.getPredicates().add(dateRangePredicate);
+        query.setPredicate(andPredicate);
+        AggregationInterval interval = getChartInterval(startDate, endDate);
+
+        Map<String, List<GwtDataPoint>> dataPoints = new HashMap<>();
+        try {
+            for (GwtHeader metric : metrics) {
+                Class<?> metricType = getNumericMetricType(metric.getType());
+                if (metricType == null) {
+                    // only the numeric metrics can be charted
+                    continue;
+                }
+                MetricAggregation aggregation = new MetricAggregationImpl(metric.getUnescapedName(), metricType);
+                aggregation.setInterval(interval);
+                MetricAggregationResult result = messageService.aggregate(query, aggregation);
+
+                List<GwtDataPoint> series = new ArrayList<>();
+                for (MetricAggregationBucket bucket : result.getBuckets()) {
+                    if (bucket.getAvg() != null) {
+                        series.add(new GwtDataPoint(bucket.getTimestamp().getTime(), bucket.getAvg()));
+                    }
+                }
+                dataPoints.put(metric.getName(), series);
+            }
+        } catch (KapuaException e) {
+            KapuaExceptionHandler.handle(e);
+        }
+
+        GwtKapuaChartResult chartResult = new GwtKapuaChartResult();
+        chartResult.setDataPoint(dataPoints);
+        return chartResult;
+    }
+
+    /**
+     * Get the smallest interval keeping the chart series within {@link #CHART_MAX_POINTS} points (and so within the datastore aggregation buckets limit)
+     */
+    private static AggregationInterval getChartInterval(Date startDate, Date endDate) {
+        long range = endDate.getTime() - startDate.getTime();
+        if (range <= CHART_MAX_POINTS * 60 * 1000L) {
+            return AggregationInterval.MINUTE;
+        } else if (range <= CHART_MAX_POINTS * 60 * 60 * 1000L) {
+            return AggregationInterval.HOUR;
+        } else if (range <= CHART_MAX_POINTS * 24 * 60 * 60 * 1000L) {
+            return AggregationInterval.DAY;
+        } else if (range <= CHART_MAX_POINTS * 7 * 24 * 60 * 60 * 1000L) {
+            return AggregationInterval.WEEK;
+        }
+        return AggregationInterval.MONTH;
+    }
+
+    private static Class<?> getNumericMetricType(String type) {
+        if (Integer.class.getSimpleName().equals(type)) {
+            return Integer.class;
+        } else if (Long.class.getSimpleName().equals(type)) {
+            return Long.class;
+        } else if (Float.class.getSimpleName().equals(type)) {
+            return Float.class;
+        } else if (Double.class.getSimpleName().equals(type)) {
+            return Double.class;
+        }
+        return null;
+    }
 }
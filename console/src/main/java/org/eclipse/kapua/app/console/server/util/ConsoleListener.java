@@ -15,11 +15,18 @@ package org.eclipse.kapua.app.console.server.util;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 
+import org.eclipse.kapua.service.device.management.commons.call.DeviceCallResponseExecutor;
+import org.eclipse.kapua.transport.mqtt.MqttTimeoutScheduler;
+import org.eclipse.kapua.transport.mqtt.multiplexing.MqttMultiplexer;
+
 public class ConsoleListener implements ServletContextListener
 {
     @Override
     public void contextDestroyed(ServletContextEvent arg0)
     {
+        MqttMultiplexer.close();
+        MqttTimeoutScheduler.close();
+        DeviceCallResponseExecutor.close();
     }
 
     @Override
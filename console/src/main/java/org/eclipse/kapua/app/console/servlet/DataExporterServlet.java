@@ -105,15 +105,14 @@ public class DataExporterServlet extends HttpServlet {
             Date end = dateFormat.parse(endDate);
             predicate.getPredicates().add(new RangePredicateImpl(MessageField.TIMESTAMP, start, end));
             query.setPredicate(predicate);
-            MessageListResult result; 
-            int offset = 0;
+            MessageListResult result;
             query.setLimit(250);
-            do{
-                query.setOffset(offset);
+            query.setCursor(MessageQuery.CURSOR_FIRST_PAGE);
+            do {
                 result = messageService.query(query);
                 dataExporter.append(result.getItems());
-                offset += result.getSize();
-            }while (result.getSize() > 0);
+                query.setCursor(result.getNextCursor());
+            } while (result.getNextCursor() != null);
             dataExporter.close();
         } catch (IllegalArgumentException iae) {
             response.sendError(400, "Illegal value for query parameter(s): " + iae.getMessage());
@@ -101,6 +101,17 @@ public interface GwtDataService extends RemoteService {
 
     public List<GwtMessage> findLastMessageByTopic(String accountName, int limit) throws GwtKapuaException;
 
+    /**
+     * Return the chart series (the average of the metric values over time buckets, computed by the datastore) of the numeric metrics published on the topic
+     *
+     * @param accountName
+     * @param topic
+     * @param metrics
+     * @param startDate
+     * @param endDate
+     * @return
+     * @throws GwtKapuaException
+     */
     public GwtKapuaChartResult findMessagesByTopic(String accountName, GwtTopic topic, List<GwtHeader> metrics, Date startDate, Date endDate) throws GwtKapuaException;
 
     public GwtKapuaChartResult findMessagesByTopic(String accountName, GwtTopic topic,
@@ -108,6 +119,19 @@ public interface GwtDataService extends RemoteService {
 
     public PagingLoadResult<GwtMessage> findMessagesByDevice(PagingLoadConfig loadConfig, String accountName, GwtDatastoreDevice device, List<GwtHeader> headers, Date startDate, Date endDate) throws GwtKapuaException;
 
+    /**
+     * Return the chart series (the average of the metric values over time buckets, computed by the datastore) of the numeric metrics published by the device
+     *
+     * @param accountName
+     * @param device
+     * @param metrics
+     * @param startDate
+     * @param endDate
+     * @return
+     * @throws GwtKapuaException
+     */
+    public GwtKapuaChartResult findMessagesByDevice(String accountName, GwtDatastoreDevice device, List<GwtHeader> metrics, Date startDate, Date endDate) throws GwtKapuaException;
+
     public GwtKapuaChartResult findMessagesByDevice(String accountName, GwtDatastoreDevice device,
             List<GwtHeader> headers, Date startDate, Date endDate, Stack<KapuaBasePagingCursor> cursors, int limit, int lastOffset, Integer indexOffset) throws GwtKapuaException;
 
@@ -20,6 +20,11 @@ import javax.ws.rs.ext.Provider;
 import javax.xml.bind.JAXBContext;
 
 import org.eclipse.kapua.app.api.v1.resources.model.CountResult;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkCommandRequest;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkConfigurationRequest;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkJobInfo;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkJobResult;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkPackageDownloadRequest;
 import org.eclipse.kapua.app.api.v1.resources.model.ErrorBean;
 import org.eclipse.kapua.model.config.metatype.KapuaTad;
 import org.eclipse.kapua.model.config.metatype.KapuaTicon;
@@ -88,6 +93,8 @@ import org.eclipse.kapua.service.datastore.model.ClientInfo;
 import org.eclipse.kapua.service.datastore.model.ClientInfoListResult;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationBucket;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.MetricInfo;
 import org.eclipse.kapua.service.datastore.model.MetricInfoListResult;
 import org.eclipse.kapua.service.datastore.model.query.ChannelInfoQuery;
@@ -157,6 +164,11 @@ public class JaxbContextResolver implements ContextResolver<JAXBContext> {
                     // REST API stuff
                     ErrorBean.class,
                     CountResult.class,
+                    DeviceBulkCommandRequest.class,
+                    DeviceBulkConfigurationRequest.class,
+                    DeviceBulkPackageDownloadRequest.class,
+                    DeviceBulkJobInfo.class,
+                    DeviceBulkJobResult.class,
 
                     // Tocds
                     KapuaTocd.class,
@@ -194,6 +206,8 @@ public class JaxbContextResolver implements ContextResolver<JAXBContext> {
                     DatastoreMessage.class,
                     MessageListResult.class,
                     MessageQuery.class,
+                    MetricAggregationResult.class,
+                    MetricAggregationBucket.class,
                     DatastoreMessageXmlRegistry.class,
 
                     // Device
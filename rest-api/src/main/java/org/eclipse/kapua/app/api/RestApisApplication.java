@@ -12,6 +12,9 @@
 package org.eclipse.kapua.app.api;
 
 import org.eclipse.kapua.commons.util.xml.XmlUtil;
+import org.eclipse.kapua.service.device.management.commons.call.DeviceCallResponseExecutor;
+import org.eclipse.kapua.transport.mqtt.MqttTimeoutScheduler;
+import org.eclipse.kapua.transport.mqtt.multiplexing.MqttMultiplexer;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.server.ServerProperties;
@@ -63,10 +66,10 @@ public class RestApisApplication extends ResourceConfig {
             }
 
             @Override
-            /**
-             * Nothing to do
-             */
             public void onShutdown(Container container) {
+                MqttMultiplexer.close();
+                MqttTimeoutScheduler.close();
+                DeviceCallResponseExecutor.close();
             }
         });
     }
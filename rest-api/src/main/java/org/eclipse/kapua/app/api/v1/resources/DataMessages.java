@@ -12,6 +12,7 @@
 package org.eclipse.kapua.app.api.v1.resources;
 
 import java.util.Date;
+import java.util.List;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
@@ -21,10 +22,19 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
+import javax.xml.bind.JAXBContext;
 
+import org.eclipse.kapua.KapuaIllegalArgumentException;
+import org.eclipse.kapua.app.api.settings.KapuaApiSetting;
+import org.eclipse.kapua.app.api.settings.KapuaApiSettingKeys;
 import org.eclipse.kapua.app.api.v1.resources.model.CountResult;
 import org.eclipse.kapua.app.api.v1.resources.model.DateParam;
+import org.eclipse.kapua.app.api.v1.resources.model.MessageExportOutput;
 import org.eclipse.kapua.app.api.v1.resources.model.ScopeId;
 import org.eclipse.kapua.app.api.v1.resources.model.StorableEntityId;
 import org.eclipse.kapua.locator.KapuaLocator;
@@ -37,9 +47,14 @@ import org.eclipse.kapua.service.datastore.internal.model.query.ChannelMatchPred
 import org.eclipse.kapua.service.datastore.internal.model.query.RangePredicateImpl;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
+import org.eclipse.kapua.service.datastore.model.MetricInfoTypeAdapter;
+import org.eclipse.kapua.service.datastore.model.query.AggregationGroupBy;
+import org.eclipse.kapua.service.datastore.model.query.AggregationInterval;
 import org.eclipse.kapua.service.datastore.model.query.AndPredicate;
 import org.eclipse.kapua.service.datastore.model.query.ChannelMatchPredicate;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
 import org.eclipse.kapua.service.datastore.model.query.RangePredicate;
 import org.eclipse.kapua.service.datastore.model.query.StorableFetchStyle;
 import org.eclipse.kapua.service.datastore.model.query.TermPredicate;
@@ -54,10 +69,15 @@ import io.swagger.annotations.ApiParam;
 @Path("{scopeId}/data/messages")
 public class DataMessages extends AbstractKapuaResource {
 
+    private static final int EXPORT_PAGE_SIZE_MAX = KapuaApiSetting.getInstance().getInt(KapuaApiSettingKeys.API_EXPORT_PAGE_SIZE_MAX, 10000);
+
     private final KapuaLocator locator = KapuaLocator.getInstance();
     private final MessageStoreService messageRegistryService = locator.getService(MessageStoreService.class);
     private final DatastoreObjectFactory datastoreObjectFactory = locator.getFactory(DatastoreObjectFactory.class);
 
+    @Context
+    Providers providers;
+
     /**
      * Gets the {@link DatastoreMessage} list in the scope.
      *
@@ -75,6 +95,9 @@ public class DataMessages extends AbstractKapuaResource {
      *            The result set offset.
      * @param limit
      *            The result set limit.
+     * @param cursor
+     *            The result set cursor. If set, the offset is ignored and the results are paginated by cursor: '*' requests the first page, the nextCursor
+     *            of the previous result the next page.
      * @return The {@link MessageListResult} of all the datastoreMessages associated to the current selected scope.
      * @since 1.0.0
      */
@@ -95,34 +118,18 @@ public class DataMessages extends AbstractKapuaResource {
             // @ApiParam(value = "The min metric value to filter results") @QueryParam("metricValueMin") String metricMinValue, //
             // @ApiParam(value = "The max metric value to filter results") @QueryParam("metricValueMax") String metricMaxValue, //
             @ApiParam(value = "The result set offset", defaultValue = "0") @QueryParam("offset") @DefaultValue("0") int offset,//
-            @ApiParam(value = "The result set limit", defaultValue = "50") @QueryParam("limit") @DefaultValue("50") int limit) //
+            @ApiParam(value = "The result set limit", defaultValue = "50") @QueryParam("limit") @DefaultValue("50") int limit, //
+            @ApiParam(value = "The result set cursor. If set, the offset is ignored: use '*' to get the first page and the nextCursor of the previous result to get the next page") @QueryParam("cursor") String cursor) //
     {
         MessageListResult datastoreMessageListResult = datastoreObjectFactory.newDatastoreMessageListResult();
         try {
-            AndPredicate andPredicate = new AndPredicateImpl();
-            if (!Strings.isNullOrEmpty(clientId)) {
-                TermPredicate clientIdPredicate = datastoreObjectFactory.newTermPredicate(MessageField.CLIENT_ID, clientId);
-                andPredicate.getPredicates().add(clientIdPredicate);
-            }
-
-            if (!Strings.isNullOrEmpty(channel)) {
-                ChannelMatchPredicate channelPredicate = new ChannelMatchPredicateImpl(channel);
-                andPredicate.getPredicates().add(channelPredicate);
-            }
-            
-            Date startDate = startDateParam != null ? startDateParam.getDate() : null;
-            Date endDate = endDateParam != null ? endDateParam.getDate() : null;
-            if ( startDate != null || endDate != null) {
-                RangePredicate timestampPredicate = new RangePredicateImpl(ChannelInfoField.TIMESTAMP, startDate, endDate);
-                andPredicate.getPredicates().add(timestampPredicate);
-            }
-
             // manageMetricValueFiltering(andPredicate, metricName, metricType, metricMinValue, metricMaxValue);
 
             MessageQuery query = datastoreObjectFactory.newDatastoreMessageQuery(scopeId);
-            query.setPredicate(andPredicate);
+            query.setPredicate(buildPredicate(clientId, channel, startDateParam, endDateParam));
             query.setOffset(offset);
             query.setLimit(limit);
+            query.setCursor(Strings.emptyToNull(cursor));
 
             datastoreMessageListResult = query(scopeId, query);
         } catch (Throwable t) {
@@ -131,6 +138,153 @@ public class DataMessages extends AbstractKapuaResource {
         return datastoreMessageListResult;
     }
 
+    /**
+     * Exports the {@link DatastoreMessage}s in the scope.<br>
+     * The messages are streamed to the client while they are read from the datastore by cursor, one page at a time, as newline delimited JSON or as CSV.
+     *
+     * @param scopeId
+     *            The {@link ScopeId} in which to search results.
+     * @param clientId
+     *            The client id to filter results.
+     * @param channel
+     *            The channel id to filter results. It allows '#' wildcard in last channel level.
+     * @param startDate
+     *            The start date to filter the results. Must come before endDate parameter.
+     * @param endDate
+     *            The end date to filter the results. Must come after startDate parameter
+     * @param format
+     *            The export format (ndjson or csv).
+     * @param metrics
+     *            The metrics to export as columns (csv format only).
+     * @param pageSize
+     *            The number of messages read from the datastore for each page (from 1 to the configured maximum).
+     * @return The streamed export of all the datastoreMessages matching the filters.
+     * @since 1.0.0
+     */
+    @ApiOperation(value = "Exports the DatastoreMessages in the scope", //
+            notes = "Streams all the datastoreMessages associated to the current selected scope as newline delimited JSON or as CSV. " + //
+                    "The requests with a pageSize out of range are rejected with a 400 status.")
+    @GET
+    @Path("_export")
+    @Produces({ "application/x-ndjson", "text/csv" })
+    public Response export( //
+            @ApiParam(value = "The ScopeId in which to search results", required = true, defaultValue = DEFAULT_SCOPE_ID) @PathParam("scopeId") ScopeId scopeId, //
+            @ApiParam(value = "The client id to filter results") @QueryParam("clientId") String clientId, //
+            @ApiParam(value = "The channel to filter results. It allows '#' wildcard in last channel level") @QueryParam("channel") String channel,
+            @ApiParam(value = "The start date to filter the results. Must come before endDate parameter") @QueryParam("startDate") DateParam startDateParam,
+            @ApiParam(value = "The end date to filter the results. Must come after startDate parameter") @QueryParam("endDate") DateParam endDateParam,
+            @ApiParam(value = "The export format (ndjson or csv)", defaultValue = "ndjson") @QueryParam("format") @DefaultValue("ndjson") String format, //
+            @ApiParam(value = "The metrics to export as columns (csv format only)") @QueryParam("metric") List<String> metrics, //
+            @ApiParam(value = "The number of messages read from the datastore for each page", defaultValue = "500") @QueryParam("pageSize") @DefaultValue("500") int pageSize) //
+    {
+        Response response = null;
+        try {
+            MessageExportOutput.Format exportFormat;
+            try {
+                exportFormat = MessageExportOutput.Format.valueOf(format.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw newWebApplicationException(Response.Status.BAD_REQUEST, "Illegal value for the format parameter: " + format);
+            }
+            if (pageSize < 1 || pageSize > EXPORT_PAGE_SIZE_MAX) {
+                throw newWebApplicationException(Response.Status.BAD_REQUEST, "Illegal value for the pageSize parameter: " + pageSize + " (allowed values from 1 to " + EXPORT_PAGE_SIZE_MAX + ")");
+            }
+
+            MessageQuery query = datastoreObjectFactory.newDatastoreMessageQuery(scopeId);
+            query.setPredicate(buildPredicate(clientId, channel, startDateParam, endDateParam));
+            query.setLimit(pageSize);
+            query.setCursor(MessageQuery.CURSOR_FIRST_PAGE);
+
+            // the first page is read here so the query errors are returned before starting the response
+            MessageListResult firstPage = messageRegistryService.query(query);
+            JAXBContext jaxbContext = providers.getContextResolver(JAXBContext.class, MediaType.APPLICATION_JSON_TYPE).getContext(DatastoreMessage.class);
+
+            response = Response.ok(new MessageExportOutput(messageRegistryService, query, firstPage, exportFormat, jaxbContext, metrics), exportFormat.getMediaType())
+                    .build();
+        } catch (WebApplicationException wae) {
+            throw wae;
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return response;
+    }
+
+    /**
+     * Aggregates the values of a metric of the {@link DatastoreMessage}s in the scope.<br>
+     * The messages are bucketed by timestamp and, for each bucket, the count, min, max, avg and sum of the metric values are computed by the datastore.
+     *
+     * @param scopeId
+     *            The {@link ScopeId} in which to search results.
+     * @param clientId
+     *            The client id to filter results.
+     * @param channel
+     *            The channel id to filter results. It allows '#' wildcard in last channel level.
+     * @param startDate
+     *            The start date to filter the results. Must come before endDate parameter.
+     * @param endDate
+     *            The end date to filter the results. Must come after startDate parameter
+     * @param metric
+     *            The metric to aggregate.
+     * @param metricType
+     *            The metric type (int, long, float or double).
+     * @param interval
+     *            The time bucket interval (minute, hour, day, week, month or year).
+     * @param groupBy
+     *            The field grouping the time buckets (client_id or channel).
+     * @param maxGroups
+     *            The maximum number of groups.
+     * @return The {@link MetricAggregationResult} of the datastoreMessages matching the filters.
+     * @since 1.0.0
+     */
+    @ApiOperation(value = "Aggregates a metric of the DatastoreMessages in the scope", //
+            notes = "Returns the time buckets (with count, min, max, avg and sum of the metric values) of the datastoreMessages associated to the current selected scope. " + //
+                    "The startDate and endDate are required and the number of time buckets is limited: the requests exceeding the limits are rejected with a 400 status.", //
+            response = MetricAggregationResult.class)
+    @GET
+    @Path("_aggregate")
+    @Produces({ MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML })
+    public MetricAggregationResult aggregate( //
+            @ApiParam(value = "The ScopeId in which to search results", required = true, defaultValue = DEFAULT_SCOPE_ID) @PathParam("scopeId") ScopeId scopeId, //
+            @ApiParam(value = "The client id to filter results") @QueryParam("clientId") String clientId, //
+            @ApiParam(value = "The channel to filter results. It allows '#' wildcard in last channel level") @QueryParam("channel") String channel,
+            @ApiParam(value = "The start date to filter the results. Must come before endDate parameter") @QueryParam("startDate") DateParam startDateParam,
+            @ApiParam(value = "The end date to filter the results. Must come after startDate parameter") @QueryParam("endDate") DateParam endDateParam,
+            @ApiParam(value = "The metric to aggregate", required = true) @QueryParam("metric") String metric, //
+            @ApiParam(value = "The metric type (int, long, float or double)", defaultValue = "double") @QueryParam("metricType") @DefaultValue("double") String metricType, //
+            @ApiParam(value = "The time bucket interval (minute, hour, day, week, month or year)", defaultValue = "hour") @QueryParam("interval") @DefaultValue("hour") String interval, //
+            @ApiParam(value = "The field grouping the time buckets (client_id or channel)") @QueryParam("groupBy") String groupBy, //
+            @ApiParam(value = "The maximum number of groups", defaultValue = "10") @QueryParam("maxGroups") @DefaultValue("10") int maxGroups) //
+    {
+        MetricAggregationResult metricAggregationResult = null;
+        try {
+            if (Strings.isNullOrEmpty(metric)) {
+                throw newWebApplicationException(Response.Status.BAD_REQUEST, "The metric parameter is required");
+            }
+
+            MetricAggregation aggregation;
+            try {
+                aggregation = datastoreObjectFactory.newMetricAggregation(metric, new MetricInfoTypeAdapter().unmarshal(metricType));
+                aggregation.setInterval(AggregationInterval.valueOf(interval.toUpperCase()));
+                aggregation.setGroupBy(Strings.isNullOrEmpty(groupBy) ? null : AggregationGroupBy.valueOf(groupBy.toUpperCase()));
+                aggregation.setMaxGroups(maxGroups);
+            } catch (ClassNotFoundException | IllegalArgumentException e) {
+                throw newWebApplicationException(Response.Status.BAD_REQUEST, "Illegal value for the metricType, interval or groupBy parameter");
+            }
+
+            MessageQuery query = datastoreObjectFactory.newDatastoreMessageQuery(scopeId);
+            query.setPredicate(buildPredicate(clientId, channel, startDateParam, endDateParam));
+
+            metricAggregationResult = messageRegistryService.aggregate(query, aggregation);
+        } catch (WebApplicationException wae) {
+            throw wae;
+        } catch (KapuaIllegalArgumentException iae) {
+            // unbounded time range, too many buckets or groups
+            throw newWebApplicationException(iae, Response.Status.BAD_REQUEST);
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return returnNotNullEntity(metricAggregationResult);
+    }
+
     /**
      * Queries the results with the given {@link DatastorMessageQuery} parameter.
      * 
@@ -217,6 +371,27 @@ public class DataMessages extends AbstractKapuaResource {
         return returnNotNullEntity(datastoreMessage);
     }
 
+    private AndPredicate buildPredicate(String clientId, String channel, DateParam startDateParam, DateParam endDateParam) {
+        AndPredicate andPredicate = new AndPredicateImpl();
+        if (!Strings.isNullOrEmpty(clientId)) {
+            TermPredicate clientIdPredicate = datastoreObjectFactory.newTermPredicate(MessageField.CLIENT_ID, clientId);
+            andPredicate.getPredicates().add(clientIdPredicate);
+        }
+
+        if (!Strings.isNullOrEmpty(channel)) {
+            ChannelMatchPredicate channelPredicate = new ChannelMatchPredicateImpl(channel);
+            andPredicate.getPredicates().add(channelPredicate);
+        }
+
+        Date startDate = startDateParam != null ? startDateParam.getDate() : null;
+        Date endDate = endDateParam != null ? endDateParam.getDate() : null;
+        if (startDate != null || endDate != null) {
+            RangePredicate timestampPredicate = new RangePredicateImpl(ChannelInfoField.TIMESTAMP, startDate, endDate);
+            andPredicate.getPredicates().add(timestampPredicate);
+        }
+        return andPredicate;
+    }
+
     // /**
     // * Manages the optional metric value filtering for {@link #simpleQuery(ScopeId, String, String, String, String, String, String, int, int)} invocation.
     // *
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.app.api.v1.resources;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkCommandRequest;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkConfigurationRequest;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkJobInfo;
+import org.eclipse.kapua.app.api.v1.resources.model.DeviceBulkPackageDownloadRequest;
+import org.eclipse.kapua.app.api.v1.resources.model.ScopeId;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.device.management.command.DeviceCommandManagementService;
+import org.eclipse.kapua.service.device.management.commons.bulk.DeviceBulkJob;
+import org.eclipse.kapua.service.device.management.commons.bulk.DeviceBulkJobManager;
+import org.eclipse.kapua.service.device.management.configuration.DeviceConfigurationManagementService;
+import org.eclipse.kapua.service.device.management.packages.DevicePackageManagementService;
+import org.eclipse.kapua.service.device.registry.Device;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+@Api("Devices")
+@Path("{scopeId}/devices/_bulk")
+public class DeviceManagementBulkJobs extends AbstractKapuaResource {
+
+    private final KapuaLocator locator = KapuaLocator.getInstance();
+    private final DeviceCommandManagementService commandService = locator.getService(DeviceCommandManagementService.class);
+    private final DeviceConfigurationManagementService configurationService = locator.getService(DeviceConfigurationManagementService.class);
+    private final DevicePackageManagementService packageService = locator.getService(DevicePackageManagementService.class);
+    private final DeviceBulkJobManager bulkJobManager = DeviceBulkJobManager.getInstance();
+
+    /**
+     * Starts a job executing a remote command on all the devices matching the query.
+     *
+     * @param scopeId
+     *            The {@link ScopeId} of the {@link Device}s.
+     * @param parallelism
+     *            The number of devices processed in parallel
+     * @param timeout
+     *            The timeout of the command execution on each device
+     * @param bulkRequest
+     *            The target devices query and the input command
+     * @return The started job.
+     */
+    @POST
+    @Path("_command")
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @ApiOperation(value = "Executes a command on many devices", notes = "Starts a job executing a remote command on all the devices matching the query.", response = DeviceBulkJobInfo.class)
+    public DeviceBulkJobInfo command(
+            @ApiParam(value = "The ScopeId of the devices", required = true, defaultValue = DEFAULT_SCOPE_ID) @PathParam("scopeId") ScopeId scopeId,
+            @ApiParam(value = "The number of devices processed in parallel") @QueryParam("parallelism") Integer parallelism,
+            @ApiParam(value = "The timeout of the command execution") @QueryParam("timeout") Long timeout,
+            @ApiParam(value = "The target devices query and the input command", required = true) DeviceBulkCommandRequest bulkRequest) {
+        DeviceBulkJob job = null;
+        try {
+            job = bulkJobManager.startAsync(scopeId, bulkRequest.getQuery(), Actions.execute, "command",
+                    (jobScopeId, deviceId, deviceTimeout) -> commandService.execAsync(jobScopeId, deviceId, bulkRequest.getCommandInput(), deviceTimeout),
+                    parallelism, timeout);
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return new DeviceBulkJobInfo(returnNotNullEntity(job), false);
+    }
+
+    /**
+     * Starts a job sending a configuration to all the devices matching the query.
+     *
+     * @param scopeId
+     *            The {@link ScopeId} of the {@link Device}s.
+     * @param parallelism
+     *            The number of devices processed in parallel
+     * @param timeout
+     *            The timeout of the operation on each device
+     * @param bulkRequest
+     *            The target devices query and the configuration
+     * @return The started job.
+     */
+    @POST
+    @Path("_configuration")
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @ApiOperation(value = "Updates the configuration of many devices", notes = "Starts a job sending a configuration to all the devices matching the query.", response = DeviceBulkJobInfo.class)
+    public DeviceBulkJobInfo configuration(
+            @ApiParam(value = "The ScopeId of the devices", required = true, defaultValue = DEFAULT_SCOPE_ID) @PathParam("scopeId") ScopeId scopeId,
+            @ApiParam(value = "The number of devices processed in parallel") @QueryParam("parallelism") Integer parallelism,
+            @ApiParam(value = "The timeout of the operation") @QueryParam("timeout") Long timeout,
+            @ApiParam(value = "The target devices query and the configuration", required = true) DeviceBulkConfigurationRequest bulkRequest) {
+        DeviceBulkJob job = null;
+        try {
+            job = bulkJobManager.start(scopeId, bulkRequest.getQuery(), Actions.write, "configuration",
+                    (jobScopeId, deviceId, deviceTimeout) -> configurationService.put(jobScopeId, deviceId, bulkRequest.getConfiguration(), deviceTimeout),
+                    parallelism, timeout);
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return new DeviceBulkJobInfo(returnNotNullEntity(job), false);
+    }
+
+    /**
+     * Starts a job downloading and installing a package on all the devices matching the query.
+     *
+     * @param scopeId
+     *            The {@link ScopeId} of the {@link Device}s.
+     * @param parallelism
+     *            The number of devices processed in parallel
+     * @param timeout
+     *            The timeout of the operation on each device
+     * @param bulkRequest
+     *            The target devices query and the package download request
+     * @return The started job.
+     */
+    @POST
+    @Path("_packageDownload")
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @ApiOperation(value = "Installs a package on many devices", notes = "Starts a job downloading and installing a package on all the devices matching the query.", response = DeviceBulkJobInfo.class)
+    public DeviceBulkJobInfo packageDownload(
+            @ApiParam(value = "The ScopeId of the devices", required = true, defaultValue = DEFAULT_SCOPE_ID) @PathParam("scopeId") ScopeId scopeId,
+            @ApiParam(value = "The number of devices processed in parallel") @QueryParam("parallelism") Integer parallelism,
+            @ApiParam(value = "The timeout of the operation") @QueryParam("timeout") Long timeout,
+            @ApiParam(value = "The target devices query and the package download request", required = true) DeviceBulkPackageDownloadRequest bulkRequest) {
+        DeviceBulkJob job = null;
+        try {
+            job = bulkJobManager.start(scopeId, bulkRequest.getQuery(), Actions.write, "packageDownload",
+                    (jobScopeId, deviceId, deviceTimeout) -> packageService.downloadExec(jobScopeId, deviceId, bulkRequest.getDownloadRequest(), deviceTimeout),
+                    parallelism, timeout);
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return new DeviceBulkJobInfo(returnNotNullEntity(job), false);
+    }
+
+    /**
+     * Returns the progress of a bulk job.
+     *
+     * @param scopeId
+     *            The {@link ScopeId} of the job.
+     * @param jobId
+     *            The job id.
+     * @param includeResults
+     *            Whether the result of each processed device is returned
+     * @return The job progress.
+     */
+    @GET
+    @Path("{jobId}")
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @ApiOperation(value = "Gets a bulk job", notes = "Returns the progress of a bulk job.", response = DeviceBulkJobInfo.class)
+    public DeviceBulkJobInfo find(
+            @ApiParam(value = "The ScopeId of the job", required = true, defaultValue = DEFAULT_SCOPE_ID) @PathParam("scopeId") ScopeId scopeId,
+            @ApiParam(value = "The id of the job", required = true) @PathParam("jobId") String jobId,
+            @ApiParam(value = "Whether the result of each processed device is returned") @QueryParam("includeResults") @DefaultValue("false") boolean includeResults) {
+        DeviceBulkJob job = null;
+        try {
+            job = bulkJobManager.find(scopeId, jobId);
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return new DeviceBulkJobInfo(returnNotNullEntity(job), includeResults);
+    }
+
+    /**
+     * Cancels a bulk job.
+     *
+     * @param scopeId
+     *            The {@link ScopeId} of the job.
+     * @param jobId
+     *            The job id.
+     * @return The job progress.
+     */
+    @POST
+    @Path("{jobId}/_cancel")
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @ApiOperation(value = "Cancels a bulk job", notes = "Cancels a bulk job, the pending devices are not processed.", response = DeviceBulkJobInfo.class)
+    public DeviceBulkJobInfo cancel(
+            @ApiParam(value = "The ScopeId of the job", required = true, defaultValue = DEFAULT_SCOPE_ID) @PathParam("scopeId") ScopeId scopeId,
+            @ApiParam(value = "The id of the job", required = true) @PathParam("jobId") String jobId) {
+        DeviceBulkJob job = null;
+        try {
+            job = bulkJobManager.cancel(scopeId, jobId);
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return new DeviceBulkJobInfo(returnNotNullEntity(job), false);
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.app.api.v1.resources.model;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.eclipse.kapua.service.device.management.command.DeviceCommandInput;
+import org.eclipse.kapua.service.device.registry.DeviceQuery;
+
+/**
+ * Bulk command execution request: the target devices query and the command to execute on each device.
+ *
+ * @since 1.0.0
+ */
+@XmlRootElement(name = "bulkCommandRequest")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class DeviceBulkCommandRequest {
+
+    @XmlElement(name = "query")
+    private DeviceQuery query;
+
+    @XmlElement(name = "commandInput")
+    private DeviceCommandInput commandInput;
+
+    public DeviceQuery getQuery() {
+        return query;
+    }
+
+    public void setQuery(DeviceQuery query) {
+        this.query = query;
+    }
+
+    public DeviceCommandInput getCommandInput() {
+        return commandInput;
+    }
+
+    public void setCommandInput(DeviceCommandInput commandInput) {
+        this.commandInput = commandInput;
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.app.api.v1.resources.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.eclipse.kapua.service.device.management.commons.bulk.DeviceBulkJob;
+import org.eclipse.kapua.service.device.management.commons.bulk.DeviceBulkResult;
+
+/**
+ * Progress of a bulk device management job.
+ *
+ * @since 1.0.0
+ */
+@XmlRootElement(name = "bulkJob")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class DeviceBulkJobInfo {
+
+    @XmlElement(name = "id")
+    private String id;
+
+    @XmlElement(name = "operation")
+    private String operation;
+
+    @XmlElement(name = "status")
+    private DeviceBulkJob.Status status;
+
+    @XmlElement(name = "parallelism")
+    private int parallelism;
+
+    @XmlElement(name = "startedOn")
+    private Date startedOn;
+
+    @XmlElement(name = "endedOn")
+    private Date endedOn;
+
+    @XmlElement(name = "targetCount")
+    private int targetCount;
+
+    @XmlElement(name = "succeededCount")
+    private int succeededCount;
+
+    @XmlElement(name = "failedCount")
+    private int failedCount;
+
+    @XmlElement(name = "canceledCount")
+    private int canceledCount;
+
+    @XmlElement(name = "retriedCount")
+    private int retriedCount;
+
+    @XmlElement(name = "pendingCount")
+    private int pendingCount;
+
+    @XmlElementWrapper(name = "results")
+    @XmlElement(name = "result")
+    private List<DeviceBulkJobResult> results;
+
+    protected DeviceBulkJobInfo() {
+    }
+
+    public DeviceBulkJobInfo(DeviceBulkJob job, boolean includeResults) {
+        this.id = job.getId();
+        this.operation = job.getOperationName();
+        this.status = job.getStatus();
+        this.parallelism = job.getParallelism();
+        this.startedOn = job.getStartedOn();
+        this.endedOn = job.getEndedOn();
+        this.targetCount = job.getTargetCount();
+        this.succeededCount = job.getSucceededCount();
+        this.failedCount = job.getFailedCount();
+        this.canceledCount = job.getCanceledCount();
+        this.retriedCount = job.getRetriedCount();
+        this.pendingCount = job.getPendingCount();
+
+        if (includeResults) {
+            results = new ArrayList<>();
+            for (DeviceBulkResult result : job.getResults()) {
+                results.add(new DeviceBulkJobResult(result));
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.app.api.v1.resources.model;
+
+import java.util.Date;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.eclipse.kapua.service.device.management.commons.bulk.DeviceBulkResult;
+
+/**
+ * Result of a bulk device management job on a single device.
+ *
+ * @since 1.0.0
+ */
+@XmlRootElement(name = "bulkJobResult")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class DeviceBulkJobResult {
+
+    @XmlElement(name = "deviceId")
+    private String deviceId;
+
+    @XmlElement(name = "status")
+    private DeviceBulkResult.Status status;
+
+    @XmlElement(name = "attempts")
+    private int attempts;
+
+    @XmlElement(name = "errorMessage")
+    private String errorMessage;
+
+    @XmlElement(name = "completedOn")
+    private Date completedOn;
+
+    protected DeviceBulkJobResult() {
+    }
+
+    public DeviceBulkJobResult(DeviceBulkResult result) {
+        this.deviceId = result.getDeviceId().toCompactId();
+        this.status = result.getStatus();
+        this.attempts = result.getAttempts();
+        this.errorMessage = result.getErrorMessage();
+        this.completedOn = result.getCompletedOn();
+    }
+}
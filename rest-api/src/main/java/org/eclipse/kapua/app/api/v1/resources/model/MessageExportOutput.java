@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.app.api.v1.resources.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.model.xml.DateXmlAdapter;
+import org.eclipse.kapua.service.datastore.MessageStoreService;
+import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
+import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.persistence.jaxb.MarshallerProperties;
+
+/**
+ * Streaming output writing the messages matching a cursor paginated {@link MessageQuery} one page at a time, so the heap used by the export does not
+ * depend on the number of exported messages.<br>
+ * The messages are written as newline delimited JSON (one JSON message per line) or as CSV (timestamp, client id, channel and the requested metrics
+ * columns). Each page is flushed to the client before fetching the next one.
+ *
+ * @since 1.0.0
+ */
+public class MessageExportOutput implements StreamingOutput {
+
+    /**
+     * Export formats
+     *
+     * @since 1.0.0
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String mediaType;
+
+        private Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private static final char CSV_SEPARATOR = ',';
+    private static final char CSV_QUOTE = '"';
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String[] CSV_COLUMNS = { "timestamp", "clientId", "channel" };
+
+    private final MessageStoreService messageStoreService;
+    private final MessageQuery query;
+    private final MessageListResult firstPage;
+    private final Format format;
+    private final JAXBContext jaxbContext;
+    private final List<String> metrics;
+
+    /**
+     * Constructor
+     *
+     * @param messageStoreService
+     *            the service to fetch the next pages
+     * @param query
+     *            the cursor paginated query (already used to fetch the first page)
+     * @param firstPage
+     *            the first page of the query, fetched before starting the response so the query errors are returned as error responses
+     * @param format
+     *            the export format
+     * @param jaxbContext
+     *            the context to marshal the messages to JSON (used by the {@link Format#NDJSON} format)
+     * @param metrics
+     *            the metric columns (used by the {@link Format#CSV} format)
+     */
+    public MessageExportOutput(MessageStoreService messageStoreService, MessageQuery query, MessageListResult firstPage, Format format, JAXBContext jaxbContext,
+            List<String> metrics) {
+        this.messageStoreService = messageStoreService;
+        this.query = query;
+        this.firstPage = firstPage;
+        this.format = format;
+        this.jaxbContext = jaxbContext;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try {
+            Marshaller marshaller = null;
+            SimpleDateFormat dateFormat = null;
+            if (format == Format.NDJSON) {
+                marshaller = jaxbContext.createMarshaller();
+                marshaller.setProperty(MarshallerProperties.MEDIA_TYPE, MediaType.APPLICATION_JSON);
+                marshaller.setProperty(MarshallerProperties.JSON_INCLUDE_ROOT, false);
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            } else {
+                dateFormat = new SimpleDateFormat(DateXmlAdapter.DATE_FORMAT);
+                dateFormat.setTimeZone(TimeZone.getTimeZone(DateXmlAdapter.TIME_ZONE_UTC));
+                writeCsvHeader(writer);
+            }
+
+            MessageListResult page = firstPage;
+            while (true) {
+                for (DatastoreMessage message : page.getItems()) {
+                    if (marshaller != null) {
+                        marshaller.marshal(message, writer);
+                        writer.write(LINE_SEPARATOR);
+                    } else {
+                        writeCsvRow(writer, message, dateFormat);
+                    }
+                }
+                writer.flush();
+
+                if (page.getNextCursor() == null) {
+                    break;
+                }
+                query.setCursor(page.getNextCursor());
+                page = messageStoreService.query(query);
+            }
+        } catch (JAXBException | KapuaException e) {
+            // the response is already committed, so the export is truncated
+            throw new WebApplicationException(e);
+        }
+        writer.flush();
+    }
+
+    private void writeCsvHeader(Writer writer) throws IOException {
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            if (i > 0) {
+                writer.write(CSV_SEPARATOR);
+            }
+            writer.write(CSV_COLUMNS[i]);
+        }
+        for (String metric : metrics) {
+            writer.write(CSV_SEPARATOR);
+            writeCsvValue(writer, metric);
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeCsvRow(Writer writer, DatastoreMessage message, SimpleDateFormat dateFormat) throws IOException {
+        Date timestamp = message.getTimestamp();
+        writeCsvValue(writer, timestamp != null ? dateFormat.format(timestamp) : null);
+        writer.write(CSV_SEPARATOR);
+        writeCsvValue(writer, message.getClientId());
+        writer.write(CSV_SEPARATOR);
+        writeCsvValue(writer, message.getChannel() != null ? String.join("/", message.getChannel().getSemanticParts()) : null);
+
+        Map<String, Object> properties = message.getPayload() != null ? message.getPayload().getProperties() : null;
+        for (String metric : metrics) {
+            writer.write(CSV_SEPARATOR);
+            Object value = properties != null ? properties.get(metric) : null;
+            writeCsvValue(writer, value instanceof Date ? dateFormat.format((Date) value) : value);
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        String stringValue = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < stringValue.length() && !quote; i++) {
+            char c = stringValue.charAt(i);
+            quote = c == CSV_SEPARATOR || c == CSV_QUOTE || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(stringValue);
+            return;
+        }
+
+        writer.write(CSV_QUOTE);
+        for (int i = 0; i < stringValue.length(); i++) {
+            char c = stringValue.charAt(i);
+            if (c == CSV_QUOTE) {
+                writer.write(CSV_QUOTE);
+            }
+            writer.write(c);
+        }
+        writer.write(CSV_QUOTE);
+    }
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.app.api.v1.resources.model;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.WebApplicationException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+
+import org.eclipse.kapua.KapuaErrorCodes;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.KapuaChannel;
+import org.eclipse.kapua.message.KapuaPayload;
+import org.eclipse.kapua.service.datastore.MessageStoreService;
+import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
+import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class MessageExportOutputTest {
+
+    private static DatastoreMessage newMessage(String clientId, long timestamp, Map<String, Object> properties) {
+        KapuaChannel channel = mock(KapuaChannel.class);
+        when(channel.getSemanticParts()).thenReturn(Arrays.asList("app", "topic"));
+        KapuaPayload payload = mock(KapuaPayload.class);
+        when(payload.getProperties()).thenReturn(properties);
+
+        DatastoreMessage message = mock(DatastoreMessage.class);
+        when(message.getClientId()).thenReturn(clientId);
+        when(message.getTimestamp()).thenReturn(new Date(timestamp));
+        when(message.getChannel()).thenReturn(channel);
+        when(message.getPayload()).thenReturn(payload);
+        return message;
+    }
+
+    private static MessageListResult newPage(String nextCursor, DatastoreMessage... messages) {
+        MessageListResult page = mock(MessageListResult.class);
+        when(page.getItems()).thenReturn(Arrays.asList(messages));
+        when(page.getNextCursor()).thenReturn(nextCursor);
+        return page;
+    }
+
+    private static String export(MessageExportOutput output) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        output.write(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCsvExportPages() throws Exception {
+        Map<String, Object> firstProperties = new HashMap<>();
+        firstProperties.put("temperature", 21.5);
+        firstProperties.put("note", "cold, \"dry\"");
+        Map<String, Object> secondProperties = new HashMap<>();
+        secondProperties.put("temperature", 22);
+
+        MessageQuery query = mock(MessageQuery.class);
+        MessageStoreService messageStoreService = mock(MessageStoreService.class);
+        MessageListResult firstPage = newPage("cursor-1", newMessage("device-1", 0L, firstProperties), newMessage("device-2", 1000L, secondProperties));
+        MessageListResult secondPage = newPage(null, newMessage("device-3", 2000L, null));
+        when(messageStoreService.query(query)).thenReturn(secondPage);
+
+        String csv = export(new MessageExportOutput(messageStoreService, query, firstPage, MessageExportOutput.Format.CSV, null, Arrays.asList("temperature", "note")));
+
+        Assert.assertEquals("timestamp,clientId,channel,temperature,note\n" +
+                "1970-01-01T00:00:00.000Z,device-1,app/topic,21.5,\"cold, \"\"dry\"\"\"\n" +
+                "1970-01-01T00:00:01.000Z,device-2,app/topic,22,\n" +
+                "1970-01-01T00:00:02.000Z,device-3,app/topic,,\n", csv);
+
+        // the next page is read by the cursor of the previous one
+        InOrder inOrder = inOrder(query, messageStoreService);
+        inOrder.verify(query).setCursor("cursor-1");
+        inOrder.verify(messageStoreService).query(query);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void testNdjsonExport() throws Exception {
+        Marshaller marshaller = mock(Marshaller.class);
+        doAnswer(invocation -> {
+            DatastoreMessage message = (DatastoreMessage) invocation.getArguments()[0];
+            ((Writer) invocation.getArguments()[1]).write("{\"clientId\":\"" + message.getClientId() + "\"}");
+            return null;
+        }).when(marshaller).marshal(any(), any(Writer.class));
+        JAXBContext jaxbContext = mock(JAXBContext.class);
+        when(jaxbContext.createMarshaller()).thenReturn(marshaller);
+
+        MessageListResult firstPage = newPage(null, newMessage("device-1", 0L, null), newMessage("device-2", 0L, null));
+        String ndjson = export(new MessageExportOutput(mock(MessageStoreService.class), mock(MessageQuery.class), firstPage, MessageExportOutput.Format.NDJSON,
+                jaxbContext, Collections.<String> emptyList()));
+
+        Assert.assertEquals("{\"clientId\":\"device-1\"}\n{\"clientId\":\"device-2\"}\n", ndjson);
+        verify(marshaller).setProperty(Marshaller.JAXB_FRAGMENT, true);
+    }
+
+    @Test
+    public void testEmptyExport() throws Exception {
+        MessageListResult firstPage = newPage(null);
+        String csv = export(new MessageExportOutput(mock(MessageStoreService.class), mock(MessageQuery.class), firstPage, MessageExportOutput.Format.CSV, null,
+                Collections.<String> emptyList()));
+
+        Assert.assertEquals("timestamp,clientId,channel\n", csv);
+    }
+
+    @Test
+    public void testNextPageErrorTruncatesExport() throws Exception {
+        MessageQuery query = mock(MessageQuery.class);
+        MessageStoreService messageStoreService = mock(MessageStoreService.class);
+        when(messageStoreService.query(query)).thenThrow(new KapuaException(KapuaErrorCodes.INTERNAL_ERROR));
+
+        List<String> metrics = Collections.emptyList();
+        MessageListResult firstPage = newPage("cursor-1", newMessage("device-1", 0L, null));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            new MessageExportOutput(messageStoreService, query, firstPage, MessageExportOutput.Format.CSV, null, metrics).write(outputStream);
+            Assert.fail("The export should fail!");
+        } catch (WebApplicationException e) {
+            Assert.assertTrue(e.getCause() instanceof KapuaException);
+        }
+
+        // the first page was already flushed to the client
+        Assert.assertEquals("timestamp,clientId,channel\n1970-01-01T00:00:00.000Z,device-1,app/topic\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
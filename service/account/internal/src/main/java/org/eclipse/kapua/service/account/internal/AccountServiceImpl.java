@@ -25,6 +25,7 @@ import org.eclipse.kapua.KapuaIllegalAccessException;
 import org.eclipse.kapua.KapuaIllegalArgumentException;
 import org.eclipse.kapua.commons.configuration.AbstractKapuaConfigurableService;
 import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.commons.service.event.EntityChangeNotifier;
 import org.eclipse.kapua.commons.setting.system.SystemSetting;
 import org.eclipse.kapua.commons.setting.system.SystemSettingKey;
 import org.eclipse.kapua.commons.util.ArgumentValidator;
@@ -134,7 +135,7 @@ public class AccountServiceImpl extends AbstractKapuaConfigurableService impleme
         PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
         authorizationService.checkPermission(permissionFactory.newPermission(accountDomain, Actions.write, account.getScopeId()));
 
-        return entityManagerSession.onTransactedResult(em -> {
+        Account updatedAccount = entityManagerSession.onTransactedResult(em -> {
             Account oldAccount = AccountDAO.find(em, account.getId());
             if (oldAccount == null) {
                 throw new KapuaEntityNotFoundException(Account.TYPE, account.getId());
@@ -155,6 +156,10 @@ public class AccountServiceImpl extends AbstractKapuaConfigurableService impleme
             // Update
             return AccountDAO.update(em, account);
         });
+
+        // evict the cached information of the account (e.g. the datastore account information)
+        EntityChangeNotifier.fireEntityChanged(Account.TYPE, updatedAccount.getScopeId(), updatedAccount.getId());
+        return updatedAccount;
     }
 
     @Override
@@ -199,6 +204,9 @@ public class AccountServiceImpl extends AbstractKapuaConfigurableService impleme
 
             AccountDAO.delete(em, accountId);
         });
+
+        // evict the cached information of the account
+        EntityChangeNotifier.fireEntityChanged(Account.TYPE, scopeId, accountId);
     }
 
     @Override
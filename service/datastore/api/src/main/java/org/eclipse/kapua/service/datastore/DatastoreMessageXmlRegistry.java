@@ -15,6 +15,8 @@ import javax.xml.bind.annotation.XmlRegistry;
 
 import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationBucket;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
 
 @XmlRegistry
@@ -40,4 +42,22 @@ public class DatastoreMessageXmlRegistry {
     public MessageQuery newQuery() {
         return factory.newDatastoreMessageQuery(null);
     }
+
+    /**
+     * Creates a {@link MetricAggregationResult} instance
+     * 
+     * @return
+     */
+    public MetricAggregationResult newMetricAggregationResult() {
+        return factory.newMetricAggregationResult();
+    }
+
+    /**
+     * Creates a {@link MetricAggregationBucket} instance
+     * 
+     * @return
+     */
+    public MetricAggregationBucket newMetricAggregationBucket() {
+        return factory.newMetricAggregationBucket();
+    }
 }
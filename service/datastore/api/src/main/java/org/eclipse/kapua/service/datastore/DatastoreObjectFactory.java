@@ -17,10 +17,13 @@ import org.eclipse.kapua.service.datastore.model.ChannelInfoListResult;
 import org.eclipse.kapua.service.datastore.model.ClientInfoListResult;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
 import org.eclipse.kapua.service.datastore.model.Metric;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationBucket;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.MetricInfoListResult;
 import org.eclipse.kapua.service.datastore.model.query.ChannelInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.ClientInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
 import org.eclipse.kapua.service.datastore.model.query.MetricInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.StorableField;
 import org.eclipse.kapua.service.datastore.model.query.TermPredicate;
@@ -108,6 +111,35 @@ public interface DatastoreObjectFactory extends KapuaObjectFactory {
      */
     public MetricInfoListResult newMetricInfoListResult();
 
+    /**
+     * Return a new metric aggregation
+     * 
+     * @param metricName
+     * @param metricType
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    public MetricAggregation newMetricAggregation(String metricName, Class<?> metricType);
+
+    /**
+     * Return a new metric aggregation result
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    public MetricAggregationResult newMetricAggregationResult();
+
+    /**
+     * Return a new metric aggregation bucket
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    public MetricAggregationBucket newMetricAggregationBucket();
+
     /**
      * Returns a new Metric instance
      * 
@@ -11,6 +11,8 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.datastore;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.message.KapuaMessage;
 import org.eclipse.kapua.model.id.KapuaId;
@@ -18,8 +20,10 @@ import org.eclipse.kapua.service.KapuaService;
 import org.eclipse.kapua.service.config.KapuaConfigurableService;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.StorableId;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
 import org.eclipse.kapua.service.datastore.model.query.StorableFetchStyle;
 
 /**
@@ -41,6 +45,20 @@ public interface MessageStoreService extends KapuaService, KapuaConfigurableServ
     StorableId store(KapuaMessage<?, ?> message)
             throws KapuaException;
 
+    /**
+     * Store the message asynchronously.<br>
+     * When the bulk store mode is enabled the message is written with the next bulk request and the returned future is completed once the message is indexed,
+     * otherwise the message is stored synchronously.
+     * 
+     * @param message
+     * @return
+     * @throws KapuaException
+     * 
+     * @since 1.0.0
+     */
+    CompletableFuture<StorableId> storeAsync(KapuaMessage<?, ?> message)
+            throws KapuaException;
+
     /**
      * Find message by identifier
      * 
@@ -81,6 +99,20 @@ public interface MessageStoreService extends KapuaService, KapuaConfigurableServ
     long count(MessageQuery query)
             throws KapuaException;
 
+    /**
+     * Aggregate the values of a metric in the messages matching the given query.<br>
+     * The aggregation is computed by the datastore, so only the time buckets are returned (the query offset, limit, sort and fetch style are ignored).
+     * 
+     * @param query
+     * @param aggregation
+     * @return
+     * @throws KapuaException
+     * 
+     * @since 1.0.0
+     */
+    MetricAggregationResult aggregate(MessageQuery query, MetricAggregation aggregation)
+            throws KapuaException;
+
     /**
      * Delete message by identifier
      * 
@@ -11,10 +11,12 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.datastore.model;
 
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 
 import org.eclipse.kapua.service.datastore.DatastoreMessageXmlRegistry;
+import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
 
 /**
  * Metric information query result list definition.<br>
@@ -27,4 +29,14 @@ import org.eclipse.kapua.service.datastore.DatastoreMessageXmlRegistry;
 @XmlType(factoryClass = DatastoreMessageXmlRegistry.class, factoryMethod = "newDatastoreMessageListResult")
 public interface MessageListResult extends StorableListResult<DatastoreMessage> {
 
+    /**
+     * Get the cursor of the next page.<br>
+     * It is set only for the cursor paginated queries (see {@link MessageQuery#setCursor(String)}) and it is {@code null} if there are no more pages.
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "nextCursor")
+    public String getNextCursor();
 }
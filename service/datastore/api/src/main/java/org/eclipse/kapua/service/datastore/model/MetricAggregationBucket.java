@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *  
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.model;
+
+import java.util.Date;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+import org.eclipse.kapua.model.xml.DateXmlAdapter;
+import org.eclipse.kapua.service.datastore.DatastoreMessageXmlRegistry;
+
+/**
+ * Metric aggregation time bucket definition.<br>
+ * The statistics are computed over the values of the metric in the messages of the bucket, so they are {@code null} if none of these messages
+ * has the metric.
+ * 
+ * @since 1.0.0
+ */
+@XmlRootElement(name = "bucket")
+@XmlAccessorType(XmlAccessType.PROPERTY)
+@XmlType(propOrder = { //
+        "group", //
+        "timestamp", //
+        "count", //
+        "min", //
+        "max", //
+        "avg", //
+        "sum" }, //
+        factoryClass = DatastoreMessageXmlRegistry.class, factoryMethod = "newMetricAggregationBucket")
+public interface MetricAggregationBucket {
+
+    /**
+     * Get the group (client identifier or channel) of the bucket ({@code null} if the buckets are not grouped)
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "group")
+    public String getGroup();
+
+    /**
+     * Get the bucket start time
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "timestamp")
+    @XmlJavaTypeAdapter(DateXmlAdapter.class)
+    public Date getTimestamp();
+
+    /**
+     * Get the number of metric values
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "count")
+    public long getCount();
+
+    /**
+     * Get the minimum metric value
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "min")
+    public Double getMin();
+
+    /**
+     * Get the maximum metric value
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "max")
+    public Double getMax();
+
+    /**
+     * Get the average metric value
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "avg")
+    public Double getAvg();
+
+    /**
+     * Get the sum of the metric values
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "sum")
+    public Double getSum();
+}
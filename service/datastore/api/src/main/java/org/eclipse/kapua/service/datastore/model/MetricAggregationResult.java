@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *  
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.model;
+
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+import org.eclipse.kapua.KapuaSerializable;
+import org.eclipse.kapua.service.datastore.DatastoreMessageXmlRegistry;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
+
+/**
+ * Metric aggregation result definition.<br>
+ * It contains the time buckets computed for a {@link MetricAggregation}, ordered by timestamp within each group (the groups with more messages
+ * come first).
+ * 
+ * @since 1.0.0
+ */
+@XmlRootElement(name = "metricAggregation")
+@XmlAccessorType(XmlAccessType.PROPERTY)
+@XmlType(factoryClass = DatastoreMessageXmlRegistry.class, factoryMethod = "newMetricAggregationResult")
+public interface MetricAggregationResult extends KapuaSerializable {
+
+    /**
+     * Get the time buckets
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElementWrapper(name = "buckets")
+    @XmlElement(name = "bucket")
+    public List<MetricAggregationBucket> getBuckets();
+}
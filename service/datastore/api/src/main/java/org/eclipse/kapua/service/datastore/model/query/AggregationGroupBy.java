@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *  
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.model.query;
+
+/**
+ * Message field grouping the time buckets of a {@link MetricAggregation}
+ * 
+ * @since 1.0
+ *
+ */
+public enum AggregationGroupBy
+{
+    /**
+     * Group by client identifier
+     */
+    CLIENT_ID,
+    /**
+     * Group by channel
+     */
+    CHANNEL;
+}
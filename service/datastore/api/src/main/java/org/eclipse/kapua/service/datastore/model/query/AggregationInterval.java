@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *  
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.model.query;
+
+/**
+ * Width of the time buckets of a {@link MetricAggregation}
+ * 
+ * @since 1.0
+ *
+ */
+public enum AggregationInterval
+{
+    /**
+     * One minute buckets
+     */
+    MINUTE,
+    /**
+     * One hour buckets
+     */
+    HOUR,
+    /**
+     * One day buckets
+     */
+    DAY,
+    /**
+     * One week buckets
+     */
+    WEEK,
+    /**
+     * One month buckets
+     */
+    MONTH,
+    /**
+     * One year buckets
+     */
+    YEAR;
+}
@@ -13,11 +13,13 @@ package org.eclipse.kapua.service.datastore.model.query;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 
 import org.eclipse.kapua.service.datastore.DatastoreMessageXmlRegistry;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
+import org.eclipse.kapua.service.datastore.model.MessageListResult;
 
 /**
  * Datastore message schema query definition
@@ -31,4 +33,32 @@ import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 public interface MessageQuery extends StorableQuery<DatastoreMessage>
 {
 
+    /**
+     * Cursor value requesting the first page of a cursor paginated query
+     * 
+     * @since 1.0.0
+     */
+    public static final String CURSOR_FIRST_PAGE = "*";
+
+    /**
+     * Get the cursor
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "cursor")
+    public String getCursor();
+
+    /**
+     * Set the cursor.<br>
+     * If the cursor is set, the query is paginated by cursor instead of by offset: the first page is requested with {@link #CURSOR_FIRST_PAGE}, the next
+     * pages with the {@link MessageListResult#getNextCursor()} of the previous page. Each page costs the same regardless of its position in the result set
+     * (the offset is ignored and the predicate, sort fields and limit of the first page apply to all the pages).
+     * 
+     * @param cursor
+     * 
+     * @since 1.0.0
+     */
+    public void setCursor(String cursor);
 }
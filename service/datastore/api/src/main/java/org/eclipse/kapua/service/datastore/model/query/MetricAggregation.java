@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *  
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.model.query;
+
+/**
+ * Metric aggregation definition.<br>
+ * The messages matching a {@link MessageQuery} are bucketed by timestamp (date histogram) and, for each bucket, the count, minimum, maximum, average
+ * and sum of the metric values are computed by the datastore. The buckets can be optionally grouped by client identifier or channel.
+ * 
+ * @since 1.0.0
+ */
+public interface MetricAggregation {
+
+    /**
+     * Default maximum number of groups
+     * 
+     * @since 1.0.0
+     */
+    public static final int DEFAULT_MAX_GROUPS = 10;
+
+    /**
+     * Get the metric name
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    public String getMetricName();
+
+    /**
+     * Set the metric name
+     * 
+     * @param metricName
+     * 
+     * @since 1.0.0
+     */
+    public void setMetricName(String metricName);
+
+    /**
+     * Get the metric type (only the numeric types can be aggregated)
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    public Class<?> getMetricType();
+
+    /**
+     * Set the metric type (only the numeric types can be aggregated)
+     * 
+     * @param metricType
+     * 
+     * @since 1.0.0
+     */
+    public void setMetricType(Class<?> metricType);
+
+    /**
+     * Get the time bucket interval
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    public AggregationInterval getInterval();
+
+    /**
+     * Set the time bucket interval
+     * 
+     * @param interval
+     * 
+     * @since 1.0.0
+     */
+    public void setInterval(AggregationInterval interval);
+
+    /**
+     * Get the grouping field ({@code null} if the buckets are not grouped)
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    public AggregationGroupBy getGroupBy();
+
+    /**
+     * Set the grouping field ({@code null} to not group the buckets)
+     * 
+     * @param groupBy
+     * 
+     * @since 1.0.0
+     */
+    public void setGroupBy(AggregationGroupBy groupBy);
+
+    /**
+     * Get the maximum number of groups (the groups with more messages are returned)
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    public int getMaxGroups();
+
+    /**
+     * Set the maximum number of groups (the groups with more messages are returned)
+     * 
+     * @param maxGroups
+     * 
+     * @since 1.0.0
+     */
+    public void setMaxGroups(int maxGroups);
+}
@@ -127,6 +127,28 @@ public interface StorableQuery<S extends Object> {
      */
     public void setAskTotalCount(boolean askTotalCount);
 
+    /**
+     * Get the count limit
+     * 
+     * @return
+     * 
+     * @since 1.0.0
+     */
+    @XmlElement(name = "countLimit")
+    public Integer getCountLimit();
+
+    /**
+     * Set the count limit.<br>
+     * If set, the count of the matching objects stops once the limit is reached on each index shard, so the returned count is approximated (it is a lower
+     * bound of the actual count) but much cheaper on large indexes. It is meant for the callers that only need to know whether the count reaches a threshold
+     * (not for the paging totals) and it applies only to the count operations.
+     * 
+     * @param countLimit
+     * 
+     * @since 1.0.0
+     */
+    public void setCountLimit(Integer countLimit);
+
     /**
      * Get the fetch style
      * 
@@ -40,6 +40,7 @@ public abstract class AbstractStorableQuery<S extends Storable> implements Stora
     private Object keyOffset;
     private int indexOffset;
     private boolean askTotalCount;
+    private Integer countLimit;
     private List<SortField> sortFields;
     private StorableFetchStyle fetchStyle;
 
@@ -133,6 +134,16 @@ public abstract class AbstractStorableQuery<S extends Storable> implements Stora
         this.askTotalCount = askTotalCount;
     }
 
+    @Override
+    public Integer getCountLimit() {
+        return countLimit;
+    }
+
+    @Override
+    public void setCountLimit(Integer countLimit) {
+        this.countLimit = countLimit;
+    }
+
     @Override
     public List<SortField> getSortFields() {
         return sortFields;
@@ -156,6 +167,7 @@ public abstract class AbstractStorableQuery<S extends Storable> implements Stora
     @Override
     public void copy(StorableQuery<S> query) {
         this.setAskTotalCount(query.isAskTotalCount());
+        this.setCountLimit(query.getCountLimit());
         this.setLimit(query.getLimit());
         this.setOffset(query.getOffset());
         this.setPredicate(query.getPredicate());
@@ -89,7 +89,7 @@ public class ChannelInfoRegistryServiceImpl extends AbstractKapuaConfigurableSer
         datastoreObjectFactory = KapuaLocator.getInstance().getFactory(DatastoreObjectFactory.class);
 
         MessageStoreService messageStoreService = KapuaLocator.getInstance().getService(MessageStoreService.class);
-        ConfigurationProviderImpl configurationProvider = new ConfigurationProviderImpl(messageStoreService, accountService);
+        ConfigurationProviderImpl configurationProvider = ConfigurationProviderImpl.getInstance(messageStoreService, accountService);
         this.channelInfoStoreFacade = new ChannelInfoRegistryFacade(configurationProvider, DatastoreMediator.getInstance());
         DatastoreMediator.getInstance().setChannelInfoStoreFacade(channelInfoStoreFacade);
     }
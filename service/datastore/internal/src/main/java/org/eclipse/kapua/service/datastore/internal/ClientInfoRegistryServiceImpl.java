@@ -89,7 +89,7 @@ public class ClientInfoRegistryServiceImpl extends AbstractKapuaConfigurableServ
         datastoreObjectFactory = KapuaLocator.getInstance().getFactory(DatastoreObjectFactory.class);
 
         MessageStoreService messageStoreService = KapuaLocator.getInstance().getService(MessageStoreService.class);
-        ConfigurationProviderImpl configurationProvider = new ConfigurationProviderImpl(messageStoreService, accountService);
+        ConfigurationProviderImpl configurationProvider = ConfigurationProviderImpl.getInstance(messageStoreService, accountService);
         this.clientInfoFacade = new ClientInfoRegistryFacade(configurationProvider, DatastoreMediator.getInstance());
         DatastoreMediator.getInstance().setClientInfoStoreFacade(this.clientInfoFacade);
     }
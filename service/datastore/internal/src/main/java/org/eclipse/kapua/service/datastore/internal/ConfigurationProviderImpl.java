@@ -5,49 +5,139 @@
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
  * http://www.eclipse.org/legal/epl-v10.html
- *  
+ *
  * Contributors:
  *     Eurotech - initial API and implementation
  *******************************************************************************/
 package org.eclipse.kapua.service.datastore.internal;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.cache.LocalCache;
 import org.eclipse.kapua.commons.security.KapuaSecurityUtils;
+import org.eclipse.kapua.commons.service.event.EntityChangeNotifier;
+import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.account.Account;
 import org.eclipse.kapua.service.account.AccountService;
+import org.eclipse.kapua.service.authorization.AuthorizationService;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.authorization.permission.PermissionFactory;
 import org.eclipse.kapua.service.config.KapuaConfigurableService;
+import org.eclipse.kapua.service.datastore.DatastoreDomain;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsConfigurationException;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageInfo;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageStoreConfiguration;
+import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettingKey;
+import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettings;
+import org.eclipse.kapua.service.metric.MetricsService;
+
+import com.codahale.metrics.Counter;
 
 /**
- * Datastore configuration provider implementation.
- * 
+ * Datastore configuration provider implementation.<br>
+ * The configuration and the account information are cached by scope (the cache entries expire after the configured time and are invalidated when the
+ * configuration is updated or when the account is updated or deleted, as notified through the {@link EntityChangeNotifier}).<br>
+ * A single provider is shared by the datastore services backed by the same configurable service (see {@link #getInstance(KapuaConfigurableService, AccountService)}), so
+ * the invalidation done on a configuration update is seen by all of them.<br>
+ * The caller read permission on the datastore domain is checked before looking up the cache, so a cache miss reads the configuration as a privileged
+ * action instead of checking it again.
+ *
  * @since 1.0.0
  */
 public class ConfigurationProviderImpl implements ConfigurationProvider {
 
+    private static final String METRIC_MODULE = "datastore";
+    private static final String METRIC_COMPONENT = "configuration";
+
+    private static final Map<KapuaConfigurableService, ConfigurationProviderImpl> INSTANCES = new ConcurrentHashMap<>();
+
+    private static final DatastoreDomain DATASTORE_DOMAIN = new DatastoreDomain();
+
     private AccountService accountService;
     private KapuaConfigurableService configurableService;
 
-    public ConfigurationProviderImpl(KapuaConfigurableService configurableService,
+    private final LocalCache<KapuaId, MessageStoreConfiguration> configurationCache;
+    private final LocalCache<KapuaId, MessageInfo> infoCache;
+
+    private final Counter configurationCacheHit;
+    private final Counter configurationCacheMiss;
+    private final Counter infoCacheHit;
+    private final Counter infoCacheMiss;
+
+    private ConfigurationProviderImpl(KapuaConfigurableService configurableService,
             AccountService accountService) {
         this.accountService = accountService;
         this.configurableService = configurableService;
+
+        DatastoreSettings config = DatastoreSettings.getInstance();
+        int expireAfter = config.getInt(DatastoreSettingKey.CONFIG_CACHE_CONFIGURATION_EXPIRE_AFTER, 60);
+        int sizeMax = config.getInt(DatastoreSettingKey.CONFIG_CACHE_CONFIGURATION_SIZE_MAXIMUM, 1000);
+        configurationCache = new LocalCache<>(sizeMax, expireAfter, null);
+        infoCache = new LocalCache<>(sizeMax, expireAfter, null);
+
+        MetricsService metricsService = KapuaLocator.getInstance().getService(MetricsService.class);
+        configurationCacheHit = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "configuration", "hit", "count");
+        configurationCacheMiss = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "configuration", "miss", "count");
+        infoCacheHit = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "info", "hit", "count");
+        infoCacheMiss = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "info", "miss", "count");
+
+        // the account information must not outlive an account update or delete (the datastore scope is the account one)
+        EntityChangeNotifier.addListener((entityType, scopeId, entityId) -> {
+            if (Account.TYPE.equals(entityType)) {
+                invalidate(entityId);
+            }
+        });
+    }
+
+    /**
+     * Get the configuration provider instance for the given configurable service
+     *
+     * @param configurableService
+     * @param accountService
+     * @return
+     *
+     * @since 1.0.0
+     */
+    public static ConfigurationProviderImpl getInstance(KapuaConfigurableService configurableService,
+            AccountService accountService) {
+        return INSTANCES.computeIfAbsent(configurableService, service -> new ConfigurationProviderImpl(service, accountService));
     }
 
     @Override
     public MessageStoreConfiguration getConfiguration(KapuaId scopeId)
             throws EsConfigurationException {
 
-        MessageStoreConfiguration messageStoreConfiguration = null;
+        //
+        // Check Access (the same check done by the configurable service, a cache hit must not skip it)
         try {
-            messageStoreConfiguration = new MessageStoreConfiguration(configurableService.getConfigValues(scopeId));
+            KapuaLocator locator = KapuaLocator.getInstance();
+            AuthorizationService authorizationService = locator.getService(AuthorizationService.class);
+            PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
+            authorizationService.checkPermission(permissionFactory.newPermission(DATASTORE_DOMAIN, Actions.read, scopeId));
         } catch (KapuaException e) {
             throw new EsConfigurationException(e);
         }
 
+        MessageStoreConfiguration messageStoreConfiguration = scopeId != null ? configurationCache.get(scopeId) : null;
+        if (messageStoreConfiguration != null) {
+            configurationCacheHit.inc();
+            return messageStoreConfiguration;
+        }
+
+        configurationCacheMiss.inc();
+        try {
+            // access already checked
+            messageStoreConfiguration = new MessageStoreConfiguration(KapuaSecurityUtils.doPrivileged(() -> configurableService.getConfigValues(scopeId)));
+        } catch (KapuaException e) {
+            throw new EsConfigurationException(e);
+        }
+
+        if (scopeId != null) {
+            configurationCache.put(scopeId, messageStoreConfiguration);
+        }
         return messageStoreConfiguration;
     }
 
@@ -55,18 +145,45 @@ public class ConfigurationProviderImpl implements ConfigurationProvider {
     public MessageInfo getInfo(KapuaId scopeId)
             throws EsConfigurationException {
 
+        if (scopeId == null) {
+            return new MessageInfo(null);
+        }
+
+        MessageInfo messageInfo = infoCache.get(scopeId);
+        if (messageInfo != null) {
+            infoCacheHit.inc();
+            return messageInfo;
+        }
+
+        infoCacheMiss.inc();
         Account account = null;
-        if (scopeId != null) {
-            try {
-                account = KapuaSecurityUtils.doPrivileged(() -> accountService.find(scopeId));
-            } catch (KapuaException exc) {
-                throw new EsConfigurationException(exc);
-            } catch (Exception exc) {
-                throw new EsConfigurationException(exc);
-            }
+        try {
+            account = KapuaSecurityUtils.doPrivileged(() -> accountService.find(scopeId));
+        } catch (KapuaException exc) {
+            throw new EsConfigurationException(exc);
+        } catch (Exception exc) {
+            throw new EsConfigurationException(exc);
         }
 
-        return new MessageInfo(account);
+        messageInfo = new MessageInfo(account);
+        if (account != null) {
+            infoCache.put(scopeId, messageInfo);
+        }
+        return messageInfo;
+    }
+
+    /**
+     * Invalidate the cached configuration and account information for the given scope (the account identifier)
+     *
+     * @param scopeId
+     *
+     * @since 1.0.0
+     */
+    public void invalidate(KapuaId scopeId) {
+        if (scopeId != null) {
+            configurationCache.remove(scopeId);
+            infoCache.remove(scopeId);
+        }
     }
 
 }
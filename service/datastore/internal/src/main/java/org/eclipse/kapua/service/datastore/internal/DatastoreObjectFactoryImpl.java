@@ -26,21 +26,27 @@ import org.eclipse.kapua.service.datastore.internal.model.FloatMetric;
 import org.eclipse.kapua.service.datastore.internal.model.IntMetric;
 import org.eclipse.kapua.service.datastore.internal.model.LongMetric;
 import org.eclipse.kapua.service.datastore.internal.model.MessageListResultImpl;
+import org.eclipse.kapua.service.datastore.internal.model.MetricAggregationBucketImpl;
+import org.eclipse.kapua.service.datastore.internal.model.MetricAggregationResultImpl;
 import org.eclipse.kapua.service.datastore.internal.model.MetricInfoListResultImpl;
 import org.eclipse.kapua.service.datastore.internal.model.StringMetric;
 import org.eclipse.kapua.service.datastore.internal.model.query.ChannelInfoQueryImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.ClientInfoQueryImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.MessageQueryImpl;
+import org.eclipse.kapua.service.datastore.internal.model.query.MetricAggregationImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.MetricInfoQueryImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.TermPredicateImpl;
 import org.eclipse.kapua.service.datastore.model.ChannelInfoListResult;
 import org.eclipse.kapua.service.datastore.model.ClientInfoListResult;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
 import org.eclipse.kapua.service.datastore.model.Metric;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationBucket;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.MetricInfoListResult;
 import org.eclipse.kapua.service.datastore.model.query.ChannelInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.ClientInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
 import org.eclipse.kapua.service.datastore.model.query.MetricInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.StorableField;
 import org.eclipse.kapua.service.datastore.model.query.TermPredicate;
@@ -93,6 +99,21 @@ public class DatastoreObjectFactoryImpl implements DatastoreObjectFactory {
         return new MetricInfoListResultImpl();
     }
 
+    @Override
+    public MetricAggregation newMetricAggregation(String metricName, Class<?> metricType) {
+        return new MetricAggregationImpl(metricName, metricType);
+    }
+
+    @Override
+    public MetricAggregationResult newMetricAggregationResult() {
+        return new MetricAggregationResultImpl();
+    }
+
+    @Override
+    public MetricAggregationBucket newMetricAggregationBucket() {
+        return new MetricAggregationBucketImpl();
+    }
+
     @Override
     public Metric<?> newMetric(String name, Object value) {
         if (value instanceof String)
@@ -13,6 +13,7 @@ package org.eclipse.kapua.service.datastore.internal;
 
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.kapua.KapuaIllegalArgumentException;
 import org.eclipse.kapua.commons.cache.LocalCache;
@@ -32,12 +33,14 @@ import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageInfo;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageStoreConfiguration;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageStoreMediator;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageXContentBuilder;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.dao.EsBulkProcessor;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.dao.EsChannelInfoDAO;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.dao.EsClientInfoDAO;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.dao.EsMessageDAO;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.dao.EsMetricInfoDAO;
 import org.eclipse.kapua.service.datastore.internal.model.DataIndexBy;
 import org.eclipse.kapua.service.datastore.internal.model.MessageListResultImpl;
+import org.eclipse.kapua.service.datastore.internal.model.MetricAggregationResultImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.ChannelInfoQueryImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.ChannelMatchPredicateImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.ClientInfoQueryImpl;
@@ -48,9 +51,11 @@ import org.eclipse.kapua.service.datastore.model.ChannelInfoListResult;
 import org.eclipse.kapua.service.datastore.model.ClientInfoListResult;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.MetricInfoListResult;
 import org.eclipse.kapua.service.datastore.model.StorableId;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
 import org.eclipse.kapua.service.datastore.model.query.StorableFetchStyle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -98,6 +103,73 @@ public final class MessageStoreFacade {
             EsConfigurationException,
             EsClientUnavailableException,
             EsDocumentBuilderException {
+        MessageXContentBuilder docBuilder = new MessageXContentBuilder();
+        String indexName = buildMessageDocument(message, docBuilder);
+
+        // Save message (the big one)
+        // TODO check response
+        EsMessageDAO.getInstance()
+                .index(indexName)
+                .insert(docBuilder.getMessageId().toString(), docBuilder.getBuilder());
+
+        mediator.onAfterMessageStore(docBuilder, message);
+
+        return docBuilder.getMessageId();
+    }
+
+    /**
+     * Store a message asynchronously.<br>
+     * If the bulk store mode is enabled the message is collected and written by the next bulk request, otherwise the message is stored synchronously and the returned
+     * future is already completed.
+     * 
+     * @param message
+     * @return the future completed with the message identifier once the message is indexed
+     * @throws KapuaIllegalArgumentException
+     * @throws EsConfigurationException
+     * @throws EsClientUnavailableException
+     * @throws EsDocumentBuilderException
+     * 
+     * @since 1.0.0
+     */
+    public CompletableFuture<StorableId> storeAsync(KapuaMessage<?, ?> message)
+            throws KapuaIllegalArgumentException,
+            EsConfigurationException,
+            EsClientUnavailableException,
+            EsDocumentBuilderException {
+        if (!EsBulkProcessor.isEnabled()) {
+            return CompletableFuture.completedFuture(store(message));
+        }
+
+        MessageXContentBuilder docBuilder = new MessageXContentBuilder();
+        String indexName = buildMessageDocument(message, docBuilder);
+
+        StorableId messageId = docBuilder.getMessageId();
+        CompletableFuture<StorableId> future = EsMessageDAO.getInstance()
+                .index(indexName)
+                .insertAsync(messageId.toString(), docBuilder.getBuilder())
+                .thenApply(id -> messageId);
+
+        mediator.onAfterMessageStore(docBuilder, message);
+
+        return future;
+    }
+
+    /**
+     * Build the message document and return the name of the index the document belongs to
+     * 
+     * @param message
+     * @param docBuilder
+     * @return
+     * @throws KapuaIllegalArgumentException
+     * @throws EsConfigurationException
+     * @throws EsClientUnavailableException
+     * @throws EsDocumentBuilderException
+     */
+    private String buildMessageDocument(KapuaMessage<?, ?> message, MessageXContentBuilder docBuilder)
+            throws KapuaIllegalArgumentException,
+            EsConfigurationException,
+            EsClientUnavailableException,
+            EsDocumentBuilderException {
         //
         // Argument Validation
         ArgumentValidator.notNull(message, "message");
@@ -137,25 +209,13 @@ public final class MessageStoreFacade {
         Date indexedOnDt = new Date(indexedOn);
 
         // Parse document
-        MessageInfo messageInfo = configProvider.getInfo(message.getScopeId());
-        MessageXContentBuilder docBuilder = new MessageXContentBuilder();
-        docBuilder.build(messageInfo.getAccount().getId(), message, indexedOnDt, message.getReceivedOn());
+        docBuilder.build(accountInfo.getAccount().getId(), message, indexedOnDt, message.getReceivedOn());
 
         // Possibly update the schema with new metric mappings
         Map<String, EsMetric> esMetrics = docBuilder.getMetricMappings();
         mediator.onUpdatedMappings(message.getScopeId(), indexedOn, esMetrics);
 
-        String indexName = schemaMetadata.getDataIndexName();
-
-        // Save message (the big one)
-        // TODO check response
-        EsMessageDAO.getInstance()
-                .index(indexName)
-                .upsert(docBuilder.getMessageId().toString(), docBuilder.getBuilder());
-
-        mediator.onAfterMessageStore(docBuilder, message);
-
-        return docBuilder.getMessageId();
+        return schemaMetadata.getDataIndexName();
     }
 
     /**
@@ -268,7 +328,7 @@ public final class MessageStoreFacade {
             return new MessageListResultImpl();
         }
 
-        String dataIndexName = EsSchema.getDataIndexName(query.getScopeId());
+        String dataIndexName = EsSchema.getDataIndexName(query);
         return EsMessageDAO.getInstance()
                 .index(dataIndexName)
                 .query(query);
@@ -307,12 +367,52 @@ public final class MessageStoreFacade {
             return 0;
         }
 
-        String dataIndexName = EsSchema.getDataIndexName(query.getScopeId());
+        String dataIndexName = EsSchema.getDataIndexName(query);
         return EsMessageDAO.getInstance()
                 .index(dataIndexName)
                 .count(query);
     }
 
+    /**
+     * Aggregate the metric values of the messages matching the given query
+     * 
+     * @param query
+     * @param aggregation
+     * @return
+     * @throws KapuaIllegalArgumentException
+     * @throws EsConfigurationException
+     * @throws EsQueryConversionException
+     * @throws EsClientUnavailableException
+     * 
+     * @since 1.0.0
+     */
+    public MetricAggregationResult aggregate(MessageQuery query, MetricAggregation aggregation)
+            throws KapuaIllegalArgumentException,
+            EsConfigurationException,
+            EsQueryConversionException,
+            EsClientUnavailableException {
+        //
+        // Argument Validation
+        ArgumentValidator.notNull(query, "query");
+        ArgumentValidator.notNull(query.getScopeId(), "query.scopeId");
+        ArgumentValidator.notNull(aggregation, "aggregation");
+
+        //
+        // Do the aggregation
+        MessageStoreConfiguration accountServicePlan = this.configProvider.getConfiguration(query.getScopeId());
+        long ttl = accountServicePlan.getDataTimeToLiveMilliseconds();
+
+        if (!accountServicePlan.getDataStorageEnabled() || ttl == MessageStoreConfiguration.DISABLED) {
+            logger.debug("Storage not enabled for account {}, returning empty result", query.getScopeId());
+            return new MetricAggregationResultImpl();
+        }
+
+        String dataIndexName = EsSchema.getDataIndexName(query);
+        return EsMessageDAO.getInstance()
+                .index(dataIndexName)
+                .aggregate(query, aggregation);
+    }
+
     /**
      * Delete messages count matching the given query
      * 
@@ -345,7 +445,7 @@ public final class MessageStoreFacade {
             return;
         }
 
-        String dataIndexName = EsSchema.getDataIndexName(query.getScopeId());
+        String dataIndexName = EsSchema.getDataIndexName(query);
         EsMessageDAO.getInstance()
                 .index(dataIndexName)
                 .deleteByQuery(query);
@@ -11,7 +11,11 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.datastore.internal;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.KapuaIllegalArgumentException;
 import org.eclipse.kapua.commons.configuration.AbstractKapuaConfigurableService;
 import org.eclipse.kapua.commons.util.ArgumentValidator;
 import org.eclipse.kapua.locator.KapuaLocator;
@@ -27,10 +31,16 @@ import org.eclipse.kapua.service.authorization.permission.PermissionFactory;
 import org.eclipse.kapua.service.datastore.DatastoreDomain;
 import org.eclipse.kapua.service.datastore.MessageStoreService;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.DatastoreMediator;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsSchema;
+import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettingKey;
+import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettings;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.StorableId;
+import org.eclipse.kapua.service.datastore.model.query.AggregationInterval;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
 import org.eclipse.kapua.service.datastore.model.query.StorableFetchStyle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,10 +60,14 @@ public class MessageStoreServiceImpl extends AbstractKapuaConfigurableService im
 
     private static final KapuaLocator locator = KapuaLocator.getInstance();
 
+    private static final int DEFAULT_AGGREGATION_BUCKETS_MAX = 10000;
+    private static final int DEFAULT_AGGREGATION_GROUPS_MAX = 100;
+
     private final AccountService accountService = locator.getService(AccountService.class);
     private final AuthorizationService authorizationService = locator.getService(AuthorizationService.class);
     private final PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
 
+    private final ConfigurationProviderImpl configurationProvider;
     private final MessageStoreFacade esMessageStoreFacade;
 
     /**
@@ -64,7 +78,7 @@ public class MessageStoreServiceImpl extends AbstractKapuaConfigurableService im
     public MessageStoreServiceImpl() {
         super(MessageStoreService.class.getName(), datastoreDomain, DatastoreEntityManagerFactory.getInstance());
 
-        ConfigurationProviderImpl configurationProvider = new ConfigurationProviderImpl(this, accountService);
+        this.configurationProvider = ConfigurationProviderImpl.getInstance(this, accountService);
         this.esMessageStoreFacade = new MessageStoreFacade(configurationProvider, DatastoreMediator.getInstance());
         DatastoreMediator.getInstance().setMessageStoreFacade(esMessageStoreFacade);
     }
@@ -84,6 +98,21 @@ public class MessageStoreServiceImpl extends AbstractKapuaConfigurableService im
         }
     }
 
+    @Override
+    public CompletableFuture<StorableId> storeAsync(KapuaMessage<?, ?> message)
+            throws KapuaException {
+        ArgumentValidator.notNull(message, "message");
+        ArgumentValidator.notNull(message.getScopeId(), "message.scopeId");
+
+        checkDataAccess(message.getScopeId(), Actions.write);
+
+        try {
+            return esMessageStoreFacade.storeAsync(message);
+        } catch (Exception e) {
+            throw KapuaException.internalError(e);
+        }
+    }
+
     @Override
     public void delete(KapuaId scopeId, StorableId id)
             throws KapuaException {
@@ -145,6 +174,45 @@ public class MessageStoreServiceImpl extends AbstractKapuaConfigurableService im
         }
     }
 
+    @Override
+    public MetricAggregationResult aggregate(MessageQuery query, MetricAggregation aggregation)
+            throws KapuaException {
+        ArgumentValidator.notNull(query, "query");
+        ArgumentValidator.notNull(query.getScopeId(), "query.scopeId");
+        ArgumentValidator.notNull(aggregation, "aggregation");
+        ArgumentValidator.notEmptyOrNull(aggregation.getMetricName(), "aggregation.metricName");
+        ArgumentValidator.notNull(aggregation.getMetricType(), "aggregation.metricType");
+        ArgumentValidator.notNull(aggregation.getInterval(), "aggregation.interval");
+        DatastoreSettings settings = DatastoreSettings.getInstance();
+        int groupsMax = settings.getInt(DatastoreSettingKey.AGGREGATION_GROUPS_MAX, DEFAULT_AGGREGATION_GROUPS_MAX);
+        ArgumentValidator.numRange(aggregation.getMaxGroups(), 1, groupsMax, "aggregation.maxGroups");
+        if (!isNumericType(aggregation.getMetricType())) {
+            throw new KapuaIllegalArgumentException("aggregation.metricType", aggregation.getMetricType().getName());
+        }
+
+        //
+        // Bound the number of time buckets (Elasticsearch 2.x has no limit on the aggregation buckets)
+        long[] timeRange = EsSchema.getTimestampRange(query);
+        if (timeRange[0] == Long.MIN_VALUE || timeRange[1] == Long.MAX_VALUE) {
+            throw new KapuaIllegalArgumentException("query.predicate", "the message timestamp range must be bounded on both sides");
+        }
+        long buckets = Math.max(0, timeRange[1] - timeRange[0]) / getIntervalMinMillis(aggregation.getInterval()) + 2;
+        if (aggregation.getGroupBy() != null) {
+            buckets *= aggregation.getMaxGroups();
+        }
+        if (buckets > settings.getInt(DatastoreSettingKey.AGGREGATION_BUCKETS_MAX, DEFAULT_AGGREGATION_BUCKETS_MAX)) {
+            throw new KapuaIllegalArgumentException("aggregation.interval", aggregation.getInterval().name());
+        }
+
+        checkDataAccess(query.getScopeId(), Actions.read);
+
+        try {
+            return esMessageStoreFacade.aggregate(query, aggregation);
+        } catch (Exception e) {
+            throw KapuaException.internalError(e);
+        }
+    }
+
     @Override
     public void delete(MessageQuery query)
             throws KapuaException {
@@ -160,6 +228,40 @@ public class MessageStoreServiceImpl extends AbstractKapuaConfigurableService im
         }
     }
 
+    @Override
+    public void setConfigValues(KapuaId scopeId, Map<String, Object> values)
+            throws KapuaException {
+        super.setConfigValues(scopeId, values);
+
+        // drop the cached configuration so the store operations use the updated values
+        configurationProvider.invalidate(scopeId);
+    }
+
+    /**
+     * Get the shortest duration of a time bucket of the given interval (months and years vary in length)
+     */
+    private static long getIntervalMinMillis(AggregationInterval interval) {
+        switch (interval) {
+        case MINUTE:
+            return 60L * 1000;
+        case HOUR:
+            return 60L * 60 * 1000;
+        case DAY:
+            return 24L * 60 * 60 * 1000;
+        case WEEK:
+            return 7L * 24 * 60 * 60 * 1000;
+        case MONTH:
+            return 28L * 24 * 60 * 60 * 1000;
+        case YEAR:
+        default:
+            return 365L * 24 * 60 * 60 * 1000;
+        }
+    }
+
+    private static boolean isNumericType(Class<?> metricType) {
+        return metricType == Integer.class || metricType == Long.class || metricType == Float.class || metricType == Double.class;
+    }
+
     private void checkDataAccess(KapuaId scopeId, Actions action)
             throws KapuaException {
         //
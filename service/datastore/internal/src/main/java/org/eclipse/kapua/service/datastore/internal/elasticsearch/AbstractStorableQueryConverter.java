@@ -17,6 +17,7 @@ import org.eclipse.kapua.service.datastore.model.query.SortField;
 import org.eclipse.kapua.service.datastore.model.query.StorableFetchStyle;
 import org.eclipse.kapua.service.datastore.model.query.StorableQuery;
 import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
@@ -32,7 +33,9 @@ import org.elasticsearch.search.sort.SortOrder;
 public abstract class AbstractStorableQueryConverter<S extends Storable, Q extends StorableQuery<S>> {
 
     /**
-     * Convert to a count query
+     * Convert to a count query.<br>
+     * The count query doesn't fetch, score or sort any document. If the query count limit is set, each shard stops counting once the limit is reached
+     * (terminate after).
      *
      * @param indices
      * @param type
@@ -47,11 +50,16 @@ public abstract class AbstractStorableQueryConverter<S extends Storable, Q exten
         if (query == null)
             throw new NullPointerException(String.format("Query parameter is undefined"));
 
-        SearchRequestBuilder searchReqBuilder = ElasticsearchClient.getInstance().prepareSearch(indices);
-        searchReqBuilder.setTypes(type)
+        SearchRequestBuilder searchReqBuilder = ElasticsearchClient.getInstance().prepareSearch(EsUtils.getIndexNames(indices));
+        searchReqBuilder.setIndicesOptions(IndicesOptions.lenientExpandOpen())
+                .setTypes(type)
                 .setQuery(PredicateConverter.convertQueryPredicates(query))
                 .setSize(0);
 
+        if (query.getCountLimit() != null && query.getCountLimit() > 0) {
+            searchReqBuilder.setTerminateAfter(query.getCountLimit());
+        }
+
         return searchReqBuilder;
     }
 
@@ -71,8 +79,9 @@ public abstract class AbstractStorableQueryConverter<S extends Storable, Q exten
         if (query == null)
             throw new NullPointerException(String.format("Query parameter is undefined"));
 
-        SearchRequestBuilder searchReqBuilder = ElasticsearchClient.getInstance().prepareSearch(indices);
-        searchReqBuilder.setTypes(type)
+        SearchRequestBuilder searchReqBuilder = ElasticsearchClient.getInstance().prepareSearch(EsUtils.getIndexNames(indices));
+        searchReqBuilder.setIndicesOptions(IndicesOptions.lenientExpandOpen())
+                .setTypes(type)
                 .setQuery(PredicateConverter.convertQueryPredicates(query));
 
         if (query.getSortFields() != null) {
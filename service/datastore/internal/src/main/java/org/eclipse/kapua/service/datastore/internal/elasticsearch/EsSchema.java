@@ -12,6 +12,7 @@
 package org.eclipse.kapua.service.datastore.internal.elasticsearch;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -22,6 +23,10 @@ import java.util.regex.Pattern;
 import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettingKey;
 import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettings;
+import org.eclipse.kapua.service.datastore.model.query.AndPredicate;
+import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.RangePredicate;
+import org.eclipse.kapua.service.datastore.model.query.StorablePredicate;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequest;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
 import org.elasticsearch.action.admin.indices.mapping.get.GetMappingsRequest;
@@ -45,6 +50,9 @@ public class EsSchema {
     //
     private static final Logger s_logger = LoggerFactory.getLogger(EsSchema.class);
 
+    private static final long DEFAULT_PRUNING_MAX_INDEXES = 104;
+    private static final long WEEK_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
     /**
      * Message schema name
      */
@@ -296,6 +304,94 @@ public class EsSchema {
         return EsUtils.getDataIndexName(scopeId);
     }
 
+    /**
+     * Get the Elasticsearch data indexes matching the message query.<br>
+     * The messages are stored in the index of the week of their timestamp, so if the query predicates bound the message timestamp on both sides only the
+     * weekly indexes overlapping that time range are returned. Otherwise (a half bounded range matches an unbounded set of weeks, or the time range spans
+     * more than the configured maximum number of indexes) all the data indexes of the scope are returned.
+     *
+     * @param query
+     * @return
+     * @since 1.0.0
+     */
+    public static String getDataIndexName(MessageQuery query) {
+        long[] timeRange = getTimestampRange(query);
+        if (timeRange[0] == Long.MIN_VALUE || timeRange[1] == Long.MAX_VALUE) {
+            return getDataIndexName(query.getScopeId());
+        }
+
+        if (timeRange[0] > timeRange[1]) {
+            // empty range, any single index gives the (empty) result
+            return EsUtils.getDataIndexName(query.getScopeId(), timeRange[0]);
+        }
+
+        long maxIndexes = DatastoreSettings.getInstance().getLong(DatastoreSettingKey.ELASTICSEARCH_IDX_PRUNING_MAX_INDEXES, DEFAULT_PRUNING_MAX_INDEXES);
+        if ((timeRange[1] - timeRange[0]) / WEEK_MILLIS + 2 > maxIndexes) {
+            return getDataIndexName(query.getScopeId());
+        }
+        return EsUtils.getDataIndexName(query.getScopeId(), timeRange[0], timeRange[1]);
+    }
+
+    /**
+     * Get the message timestamp range (lower and upper bounds, in milliseconds) that must be satisfied by the messages matching the query.<br>
+     * An unbounded side is returned as {@link Long#MIN_VALUE} (lower bound) or {@link Long#MAX_VALUE} (upper bound).
+     *
+     * @param query
+     * @return
+     * @since 1.0.0
+     */
+    public static long[] getTimestampRange(MessageQuery query) {
+        long[] timeRange = { Long.MIN_VALUE, Long.MAX_VALUE };
+        if (query.getPredicate() == null || !getTimestampRange(query.getPredicate(), timeRange)) {
+            return new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+        }
+        return timeRange;
+    }
+
+    /**
+     * Narrow the time range (lower and upper bounds) with the message timestamp range predicates that must be satisfied by the matching messages
+     * (the given predicate if it is a range predicate, or its operands if it is an and predicate)
+     *
+     * @param predicate
+     * @param timeRange
+     * @return false if a bound cannot be evaluated
+     */
+    private static boolean getTimestampRange(StorablePredicate predicate, long[] timeRange) {
+        if (predicate instanceof AndPredicate) {
+            for (StorablePredicate operand : ((AndPredicate) predicate).getPredicates()) {
+                if (!getTimestampRange(operand, timeRange)) {
+                    return false;
+                }
+            }
+        } else if (predicate instanceof RangePredicate) {
+            RangePredicate rangePredicate = (RangePredicate) predicate;
+            if (rangePredicate.getField() != null && MESSAGE_TIMESTAMP.equals(rangePredicate.getField().field())) {
+                Long min = toTimestamp(rangePredicate.getMinValue());
+                Long max = toTimestamp(rangePredicate.getMaxValue());
+                if ((rangePredicate.getMinValue() != null && min == null) || (rangePredicate.getMaxValue() != null && max == null)) {
+                    return false;
+                }
+                if (min != null) {
+                    timeRange[0] = Math.max(timeRange[0], min);
+                }
+                if (max != null) {
+                    timeRange[1] = Math.min(timeRange[1], max);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Long toTimestamp(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return null;
+    }
+
     /**
      * Get the Kapua data index name
      *
@@ -15,6 +15,8 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.eclipse.kapua.commons.util.KapuaDateUtils;
@@ -37,6 +39,9 @@ public class EsUtils {
     private static final char SPECIAL_DOLLAR = '$';
     private static final String SPECIAL_DOLLAR_ESC = "$24";
 
+    private static final String INDEX_NAMES_SEPARATOR = ",";
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
     public static final CharSequence ILLEGAL_CHARS = "\"\\/*?<>|,. ";
 
     public static final String ES_TYPE_STRING = "string";
@@ -190,6 +195,35 @@ public class EsUtils {
         return actualName;
     }
 
+    /**
+     * Get the comma separated list of the data indexes (one per week) covering the specified time range (bounds included)
+     *
+     * @param scopeId
+     * @param startTimestamp
+     * @param endTimestamp
+     * @return
+     * @since 1.0.0
+     */
+    public static String getDataIndexName(KapuaId scopeId, long startTimestamp, long endTimestamp) {
+        Set<String> indexNames = new LinkedHashSet<>();
+        for (long timestamp = startTimestamp; timestamp < endTimestamp; timestamp += DAY_MILLIS) {
+            indexNames.add(getDataIndexName(scopeId, timestamp));
+        }
+        indexNames.add(getDataIndexName(scopeId, endTimestamp));
+        return String.join(INDEX_NAMES_SEPARATOR, indexNames);
+    }
+
+    /**
+     * Split the comma separated list of index names (or index name patterns)
+     *
+     * @param indices
+     * @return
+     * @since 1.0.0
+     */
+    public static String[] getIndexNames(String indices) {
+        return indices.split(INDEX_NAMES_SEPARATOR);
+    }
+
     /**
      * Get the Kapua index name for the specified base name
      *
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.internal.elasticsearch;
+
+import java.util.Date;
+
+import org.eclipse.kapua.service.datastore.internal.model.MetricAggregationBucketImpl;
+import org.eclipse.kapua.service.datastore.internal.model.MetricAggregationResultImpl;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
+import org.eclipse.kapua.service.datastore.model.query.AggregationGroupBy;
+import org.eclipse.kapua.service.datastore.model.query.AggregationInterval;
+import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
+import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.stats.Stats;
+import org.joda.time.DateTime;
+
+/**
+ * Metric aggregation converter.<br>
+ * It translates the {@link MetricAggregation} to a date histogram aggregation (optionally nested in a terms aggregation on the grouping field) with a
+ * stats sub aggregation on the metric field, and the aggregations of the search response back to the {@link MetricAggregationResult}.
+ *
+ * @since 1.0.0
+ */
+public class MetricAggregationConverter {
+
+    private static final String GROUPS_AGGREGATION = "groups";
+    private static final String HISTOGRAM_AGGREGATION = "histogram";
+    private static final String STATS_AGGREGATION = "stats";
+
+    /**
+     * Convert to a search request returning only the aggregations (no hits) of the messages matching the query
+     *
+     * @param indices
+     * @param type
+     * @param query
+     * @param aggregation
+     * @return
+     * @throws EsQueryConversionException
+     * @throws EsClientUnavailableException
+     * @since 1.0.0
+     */
+    public SearchRequestBuilder toSearchRequestBuilder(String indices, String type, MessageQuery query, MetricAggregation aggregation)
+            throws EsQueryConversionException, EsClientUnavailableException {
+        if (query == null)
+            throw new NullPointerException(String.format("Query parameter is undefined"));
+        if (aggregation == null)
+            throw new NullPointerException(String.format("Aggregation parameter is undefined"));
+
+        DateHistogramBuilder histogram = AggregationBuilders.dateHistogram(HISTOGRAM_AGGREGATION)
+                .field(EsSchema.MESSAGE_TIMESTAMP)
+                .interval(toDateHistogramInterval(aggregation.getInterval()))
+                .subAggregation(AggregationBuilders.stats(STATS_AGGREGATION).field(getMetricField(aggregation)));
+
+        SearchRequestBuilder searchReqBuilder = ElasticsearchClient.getInstance().prepareSearch(EsUtils.getIndexNames(indices));
+        searchReqBuilder.setIndicesOptions(IndicesOptions.lenientExpandOpen())
+                .setTypes(type)
+                .setQuery(PredicateConverter.convertQueryPredicates(query))
+                .setSize(0);
+
+        if (aggregation.getGroupBy() != null) {
+            searchReqBuilder.addAggregation(AggregationBuilders.terms(GROUPS_AGGREGATION)
+                    .field(getGroupField(aggregation.getGroupBy()))
+                    .size(aggregation.getMaxGroups())
+                    .subAggregation(histogram));
+        } else {
+            searchReqBuilder.addAggregation(histogram);
+        }
+
+        return searchReqBuilder;
+    }
+
+    /**
+     * Convert the aggregations of the search response to the aggregation result
+     *
+     * @param response
+     * @param aggregation
+     * @return
+     * @since 1.0.0
+     */
+    public MetricAggregationResult fromSearchResponse(SearchResponse response, MetricAggregation aggregation) {
+        MetricAggregationResultImpl result = new MetricAggregationResultImpl();
+        Aggregations aggregations = response.getAggregations();
+        if (aggregations == null) {
+            return result;
+        }
+
+        if (aggregation.getGroupBy() != null) {
+            Terms groups = aggregations.get(GROUPS_AGGREGATION);
+            for (Terms.Bucket group : groups.getBuckets()) {
+                addBuckets(result, group.getKeyAsString(), group.getAggregations());
+            }
+        } else {
+            addBuckets(result, null, aggregations);
+        }
+        return result;
+    }
+
+    private void addBuckets(MetricAggregationResultImpl result, String group, Aggregations aggregations) {
+        Histogram histogram = aggregations.get(HISTOGRAM_AGGREGATION);
+        for (Histogram.Bucket histogramBucket : histogram.getBuckets()) {
+            Stats stats = histogramBucket.getAggregations().get(STATS_AGGREGATION);
+
+            MetricAggregationBucketImpl bucket = new MetricAggregationBucketImpl();
+            bucket.setGroup(group);
+            bucket.setTimestamp(toDate(histogramBucket.getKey()));
+            bucket.setCount(stats.getCount());
+            if (stats.getCount() > 0) {
+                bucket.setMin(stats.getMin());
+                bucket.setMax(stats.getMax());
+                bucket.setAvg(stats.getAvg());
+                bucket.setSum(stats.getSum());
+            }
+            result.getBuckets().add(bucket);
+        }
+    }
+
+    private static Date toDate(Object key) {
+        if (key instanceof DateTime) {
+            return ((DateTime) key).toDate();
+        }
+        return new Date(((Number) key).longValue());
+    }
+
+    private static String getMetricField(MetricAggregation aggregation) {
+        return String.format("%s.%s.%s",
+                EsSchema.MESSAGE_METRICS,
+                EsUtils.normalizeMetricName(aggregation.getMetricName()),
+                EsUtils.getEsTypeAcronym(EsUtils.convertToEsType(aggregation.getMetricType())));
+    }
+
+    private static String getGroupField(AggregationGroupBy groupBy) {
+        switch (groupBy) {
+        case CHANNEL:
+            return EsSchema.MESSAGE_CHANNEL;
+        case CLIENT_ID:
+        default:
+            return EsSchema.MESSAGE_CLIENT_ID;
+        }
+    }
+
+    private static DateHistogramInterval toDateHistogramInterval(AggregationInterval interval) {
+        switch (interval) {
+        case MINUTE:
+            return DateHistogramInterval.MINUTE;
+        case DAY:
+            return DateHistogramInterval.DAY;
+        case WEEK:
+            return DateHistogramInterval.WEEK;
+        case MONTH:
+            return DateHistogramInterval.MONTH;
+        case YEAR:
+            return DateHistogramInterval.YEAR;
+        case HOUR:
+        default:
+            return DateHistogramInterval.HOUR;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.internal.elasticsearch.dao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.ElasticsearchClient;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsClientUnavailableException;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsDatastoreException;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsUtils;
+import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettingKey;
+import org.eclipse.kapua.service.datastore.internal.setting.DatastoreSettings;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.common.unit.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk processor wrapper.<br>
+ * It collects the write requests and sends them to Elasticsearch by bulk requests (the bulk is sent when the configured actions threshold is reached or when the flush
+ * interval elapses).<br>
+ * Each request added to the processor is bound to a future completed (with the document id) when the bulk containing it is acknowledged by Elasticsearch.<br>
+ * The processor belongs to the datastore lifecycle: it is closed by {@link #close()} or, if not closed explicitly, on JVM shutdown.
+ *
+ * @since 1.0.0
+ */
+public class EsBulkProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(EsBulkProcessor.class);
+
+    private static EsBulkProcessor instance;
+    private static boolean shutdownHookRegistered;
+
+    private final BulkProcessor bulkProcessor;
+    private final Map<ActionRequest<?>, CompletableFuture<String>> pendingRequests = new ConcurrentHashMap<>();
+
+    private EsBulkProcessor() throws EsClientUnavailableException {
+        DatastoreSettings config = DatastoreSettings.getInstance();
+        int bulkActions = config.getInt(DatastoreSettingKey.ELASTICSEARCH_BULK_ACTIONS, 100);
+        long flushInterval = config.getLong(DatastoreSettingKey.ELASTICSEARCH_BULK_FLUSH_INTERVAL, 50L);
+        int concurrentRequests = config.getInt(DatastoreSettingKey.ELASTICSEARCH_BULK_CONCURRENT_REQUESTS, 2);
+
+        bulkProcessor = BulkProcessor.builder(ElasticsearchClient.getInstance(), new CompletionListener())
+                .setName("kapua-datastore-bulk")
+                .setBulkActions(bulkActions)
+                .setFlushInterval(TimeValue.timeValueMillis(flushInterval))
+                .setConcurrentRequests(concurrentRequests)
+                .build();
+    }
+
+    /**
+     * Get the bulk processor instance (singleton)
+     *
+     * @return
+     * @throws EsClientUnavailableException
+     * @since 1.0.0
+     */
+    public static synchronized EsBulkProcessor getInstance() throws EsClientUnavailableException {
+        if (instance == null) {
+            instance = new EsBulkProcessor();
+            if (!shutdownHookRegistered) {
+                // don't lose the collected requests if the datastore is not closed explicitly
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        close();
+                    } catch (InterruptedException e) {
+                        logger.warn("Interrupted while closing the bulk processor", e);
+                    }
+                }, "kapua-datastore-bulk-shutdown"));
+                shutdownHookRegistered = true;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check if the bulk store mode is enabled
+     *
+     * @return
+     * @since 1.0.0
+     */
+    public static boolean isEnabled() {
+        return DatastoreSettings.getInstance().getBoolean(DatastoreSettingKey.ELASTICSEARCH_BULK_ENABLED, false);
+    }
+
+    /**
+     * Add the request to the next bulk
+     *
+     * @param request
+     * @return the future completed with the document id once the request is indexed or exceptionally if the request failed
+     * @since 1.0.0
+     */
+    public CompletableFuture<String> add(ActionRequest<?> request) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        pendingRequests.put(request, future);
+        try {
+            bulkProcessor.add(request);
+        } catch (RuntimeException e) {
+            pendingRequests.remove(request);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Flush the pending requests
+     *
+     * @since 1.0.0
+     */
+    public void flush() {
+        bulkProcessor.flush();
+    }
+
+    /**
+     * Close the bulk processor sending the collected requests and waiting for the pending requests to be completed.<br>
+     * The requests still pending after the timeout are completed exceptionally. The requests added later are collected by a new processor.
+     *
+     * @throws InterruptedException
+     * @since 1.0.0
+     */
+    public static synchronized void close() throws InterruptedException {
+        if (instance != null) {
+            EsBulkProcessor closing = instance;
+            instance = null;
+            if (!closing.bulkProcessor.awaitClose(EsUtils.getQueryTimeout(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Bulk processor closed with {} requests still pending", closing.pendingRequests.size());
+            }
+            for (CompletableFuture<String> future : closing.pendingRequests.values()) {
+                future.completeExceptionally(new EsDatastoreException("Bulk processor closed before the request was completed"));
+            }
+            closing.pendingRequests.clear();
+        }
+    }
+
+    private class CompletionListener implements BulkProcessor.Listener {
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            logger.debug("Executing bulk {} with {} requests", executionId, request.numberOfActions());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            @SuppressWarnings("rawtypes")
+            List<ActionRequest> requests = request.requests();
+            BulkItemResponse[] items = response.getItems();
+            for (int i = 0; i < items.length; i++) {
+                CompletableFuture<String> future = pendingRequests.remove(requests.get(items[i].getItemId()));
+                if (future == null) {
+                    continue;
+                }
+
+                if (items[i].isFailed()) {
+                    future.completeExceptionally(new EsDatastoreException(items[i].getFailureMessage()));
+                } else {
+                    future.complete(items[i].getId());
+                }
+            }
+
+            if (response.hasFailures()) {
+                logger.warn("Bulk {} completed with failures: {}", executionId, response.buildFailureMessage());
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            logger.error("Bulk {} failed", executionId, failure);
+            for (Object bulkItem : request.requests()) {
+                CompletableFuture<String> future = pendingRequests.remove(bulkItem);
+                if (future != null) {
+                    future.completeExceptionally(new EsDatastoreException("Bulk request failed", failure));
+                }
+            }
+        }
+    }
+}
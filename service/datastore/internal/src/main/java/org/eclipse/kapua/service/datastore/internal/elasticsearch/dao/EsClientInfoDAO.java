@@ -254,7 +254,7 @@ public class EsClientInfoDAO {
     public long count(ClientInfoQuery query)
             throws EsQueryConversionException, EsClientUnavailableException {
         ClientInfoQueryConverter converter = new ClientInfoQueryConverter();
-        SearchRequestBuilder builder = converter.toSearchRequestBuilder(esTypeDAO.getIndexName(), esTypeDAO.getTypeName(), query);
+        SearchRequestBuilder builder = converter.toCountRequestBuilder(esTypeDAO.getIndexName(), esTypeDAO.getTypeName(), query);
         SearchResponse response = builder.get(TimeValue.timeValueMillis(EsUtils.getQueryTimeout()));
         SearchHits searchHits = response.getHits();
 
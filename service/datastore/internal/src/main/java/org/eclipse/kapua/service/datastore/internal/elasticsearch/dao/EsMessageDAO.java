@@ -13,7 +13,9 @@ package org.eclipse.kapua.service.datastore.internal.elasticsearch.dao;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.ElasticsearchClient;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsClientUnavailableException;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsDatastoreException;
@@ -23,20 +25,25 @@ import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsSchema;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsUtils;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageObjectBuilder;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageQueryConverter;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.MetricAggregationConverter;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.PredicateConverter;
 import org.eclipse.kapua.service.datastore.internal.model.MessageListResultImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.MessageQueryImpl;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.action.update.UpdateRequest;
-import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.sort.SortOrder;
 
 /**
  * Message DAO
@@ -45,6 +52,8 @@ import org.elasticsearch.search.SearchHits;
  */
 public class EsMessageDAO {
 
+    private static final String CURSOR_SEPARATOR = ":";
+
     private EsTypeDAO esTypeDAO;
 
     /**
@@ -109,27 +118,42 @@ public class EsMessageDAO {
     }
 
     /**
-     * Build the upsert request
+     * Build the insert request.<br>
+     * Messages are append only (each message gets a new random identifier), so a create only index request is used instead of an upsert.
      *
      * @param id
      * @param esClient
      * @return
      * @since 1.0.0
      */
-    public UpdateRequest getUpsertRequest(String id, XContentBuilder esClient) {
-        return this.esTypeDAO.getUpsertRequest(id, esClient);
+    public IndexRequest getInsertRequest(String id, XContentBuilder esClient) {
+        return this.esTypeDAO.getInsertRequest(id, esClient);
     }
 
     /**
-     * Upsert action (insert the document (if not present) or update the document (if present) into the database)
+     * Insert action (insert the message document into the database)
      *
      * @param id
      * @param esClient
      * @return
      * @since 1.0.0
      */
-    public UpdateResponse upsert(String id, XContentBuilder esClient) {
-        return this.esTypeDAO.upsert(id, esClient);
+    public IndexResponse insert(String id, XContentBuilder esClient) {
+        return this.esTypeDAO.insert(id, esClient);
+    }
+
+    /**
+     * Insert action in bulk mode (the request is collected by the {@link EsBulkProcessor} and sent with the next bulk request)
+     *
+     * @param id
+     * @param esClient
+     * @return the future completed with the document id once the document is indexed
+     * @throws EsClientUnavailableException
+     * @since 1.0.0
+     */
+    public CompletableFuture<String> insertAsync(String id, XContentBuilder esClient)
+            throws EsClientUnavailableException {
+        return EsBulkProcessor.getInstance().add(this.esTypeDAO.getInsertRequest(id, esClient));
     }
 
     /**
@@ -145,7 +169,8 @@ public class EsMessageDAO {
     }
 
     /**
-     * Query action (return objects matching the given query)
+     * Query action (return objects matching the given query)<br>
+     * If the query cursor is set, the query is paginated by cursor (see {@link MessageQuery#setCursor(String)}).
      *
      * @param query
      * @return
@@ -158,6 +183,10 @@ public class EsMessageDAO {
             throws EsQueryConversionException,
             EsClientUnavailableException,
             EsObjectBuilderException {
+        if (query.getCursor() != null) {
+            return queryPage(query);
+        }
+
         MessageQueryImpl localQuery = new MessageQueryImpl(query.getScopeId());
         localQuery.copy(query);
         localQuery.setLimit(query.getLimit() + 1);
@@ -205,6 +234,116 @@ public class EsMessageDAO {
         return result;
     }
 
+    /**
+     * Cursor paginated query action.<br>
+     * The first page opens a scroll context, kept alive between the pages, and the cursor of the next pages holds the scroll id, so each page is fetched
+     * without computing again the hits of the previous pages (as the from/size pagination does) and without the result window limit.<br>
+     * The cursor also holds the scope of the query and the number of hits already fetched: the scope is checked before using the scroll id, the count
+     * detects the last page (the page size of the scroll is the limit of the first page).<br>
+     * The scroll context is released once the last page is fetched.
+     *
+     * @param query
+     * @return
+     * @throws EsQueryConversionException
+     *             if the cursor is not valid (or expired)
+     * @throws EsClientUnavailableException
+     * @throws EsObjectBuilderException
+     */
+    private MessageListResult queryPage(MessageQuery query)
+            throws EsQueryConversionException,
+            EsClientUnavailableException,
+            EsObjectBuilderException {
+        TimeValue queryTimeout = TimeValue.timeValueMillis(EsUtils.getQueryTimeout());
+        TimeValue scrollTimeout = TimeValue.timeValueMillis(EsUtils.getScrollTimeout());
+
+        SearchResponse response;
+        long fetchedCount;
+        if (MessageQuery.CURSOR_FIRST_PAGE.equals(query.getCursor())) {
+            MessageQueryImpl localQuery = new MessageQueryImpl(query.getScopeId());
+            localQuery.copy(query);
+            localQuery.setOffset(0);
+
+            MessageQueryConverter converter = new MessageQueryConverter();
+            SearchRequestBuilder builder = converter.toSearchRequestBuilder(esTypeDAO.getIndexName(), esTypeDAO.getTypeName(), localQuery);
+            if (query.getSortFields() == null || query.getSortFields().isEmpty()) {
+                // the index order is the cheapest one to scroll
+                builder.addSort("_doc", SortOrder.ASC);
+            }
+            response = builder.setScroll(scrollTimeout)
+                    .get(queryTimeout);
+            fetchedCount = 0;
+        } else {
+            // check the cursor scope before touching the scroll context
+            String[] cursor = parseCursor(query.getCursor());
+            if (!query.getScopeId().getId().toString().equals(cursor[0])) {
+                throw new EsQueryConversionException(String.format("The cursor is not valid for the scope [%s]", query.getScopeId()));
+            }
+            try {
+                fetchedCount = Long.parseLong(cursor[1]);
+                response = esTypeDAO.getClient().prepareSearchScroll(cursor[2])
+                        .setScroll(scrollTimeout)
+                        .get(queryTimeout);
+            } catch (ElasticsearchException | IllegalArgumentException e) {
+                throw new EsQueryConversionException(e);
+            }
+        }
+
+        SearchHit[] searchHits = response.getHits().getHits();
+        List<DatastoreMessage> messages = new ArrayList<>(searchHits.length);
+        MessageObjectBuilder msgBuilder = new MessageObjectBuilder();
+        for (SearchHit searchHit : searchHits) {
+            DatastoreMessage message = msgBuilder.build(searchHit, query.getFetchStyle()).getMessage();
+            if (!query.getScopeId().equals(message.getScopeId())) {
+                // the scroll was opened by a query in another scope (the scroll is left to its owner)
+                throw new EsQueryConversionException(String.format("The cursor is not valid for the scope [%s]", query.getScopeId()));
+            }
+            messages.add(message);
+        }
+
+        fetchedCount += searchHits.length;
+        long totalHits = response.getHits().getTotalHits();
+        String nextCursor = null;
+        if (searchHits.length == 0 || fetchedCount >= totalHits) {
+            clearScroll(response.getScrollId());
+        } else {
+            nextCursor = toCursor(query.getScopeId(), fetchedCount, response.getScrollId());
+        }
+
+        Long totalCount = null;
+        if (query.isAskTotalCount()) {
+            totalCount = totalHits;
+        }
+
+        MessageListResultImpl result = new MessageListResultImpl(null, totalCount);
+        result.addItems(messages);
+        result.setNextCursor(nextCursor);
+        return result;
+    }
+
+    private static String toCursor(KapuaId scopeId, long fetchedCount, String scrollId) {
+        return scopeId.getId().toString() + CURSOR_SEPARATOR + fetchedCount + CURSOR_SEPARATOR + scrollId;
+    }
+
+    /**
+     * @param cursor
+     * @return the scope id, the fetched hits count and the scroll id of the cursor
+     * @throws EsQueryConversionException
+     *             if the cursor is malformed
+     */
+    private static String[] parseCursor(String cursor) throws EsQueryConversionException {
+        String[] tokens = cursor.split(CURSOR_SEPARATOR, 3);
+        if (tokens.length != 3 || tokens[2].isEmpty()) {
+            throw new EsQueryConversionException(String.format("The cursor [%s] is not valid", cursor));
+        }
+        return tokens;
+    }
+
+    private void clearScroll(String scrollId) {
+        esTypeDAO.getClient().prepareClearScroll()
+                .addScrollId(scrollId)
+                .get(TimeValue.timeValueMillis(EsUtils.getQueryTimeout()));
+    }
+
     /**
      * Query count action (return the count of the objects matching the given query)
      *
@@ -218,7 +357,7 @@ public class EsMessageDAO {
             throws EsQueryConversionException,
             EsClientUnavailableException {
         MessageQueryConverter converter = new MessageQueryConverter();
-        SearchRequestBuilder builder = converter.toSearchRequestBuilder(esTypeDAO.getIndexName(), esTypeDAO.getTypeName(), query);
+        SearchRequestBuilder builder = converter.toCountRequestBuilder(esTypeDAO.getIndexName(), esTypeDAO.getTypeName(), query);
         SearchResponse response = builder.get(TimeValue.timeValueMillis(EsUtils.getQueryTimeout()));
         SearchHits searchHits = response.getHits();
 
@@ -228,6 +367,25 @@ public class EsMessageDAO {
         return searchHits.getTotalHits();
     }
 
+    /**
+     * Aggregate action (return the metric aggregation buckets of the objects matching the given query)
+     *
+     * @param query
+     * @param aggregation
+     * @return
+     * @throws EsQueryConversionException
+     * @throws EsClientUnavailableException
+     * @since 1.0.0
+     */
+    public MetricAggregationResult aggregate(MessageQuery query, MetricAggregation aggregation)
+            throws EsQueryConversionException,
+            EsClientUnavailableException {
+        MetricAggregationConverter converter = new MetricAggregationConverter();
+        SearchRequestBuilder builder = converter.toSearchRequestBuilder(esTypeDAO.getIndexName(), esTypeDAO.getTypeName(), query, aggregation);
+        SearchResponse response = builder.get(TimeValue.timeValueMillis(EsUtils.getQueryTimeout()));
+        return converter.fromSearchResponse(response, aggregation);
+    }
+
     /**
      * Deletes by message id
      *
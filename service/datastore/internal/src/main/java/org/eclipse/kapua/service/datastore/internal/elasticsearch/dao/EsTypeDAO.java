@@ -19,6 +19,7 @@ import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.Client;
@@ -122,6 +123,41 @@ public class EsTypeDAO {
         return response.getId();
     }
 
+    /**
+     * Build the create request.<br>
+     * The request is a create only index request (op_type=create), so it fails if a document with the same identifier already exists.
+     *
+     * @param id
+     * @param esClient
+     * @return
+     */
+    public IndexRequest getInsertRequest(String id, XContentBuilder esClient) {
+        if (this.client == null)
+            throw new IllegalStateException(CLIENT_UNDEFINED_MSG);
+
+        return new IndexRequest(this.indexName, this.typeName, id)
+                .source(esClient)
+                .opType(IndexRequest.OpType.CREATE);
+    }
+
+    /**
+     * Insert action (insert the document with the given identifier into the database)<br>
+     * Unlike the upsert action no update is performed, so Elasticsearch doesn't need to look up the document before writing it.
+     *
+     * @param id
+     * @param esClient
+     * @return
+     */
+    public IndexResponse insert(String id, XContentBuilder esClient) {
+        if (this.client == null)
+            throw new IllegalStateException(CLIENT_UNDEFINED_MSG);
+
+        long timeout = EsUtils.getQueryTimeout();
+
+        IndexResponse response = this.client.index(getInsertRequest(id, esClient)).actionGet(TimeValue.timeValueMillis(timeout));
+        return response;
+    }
+
     /**
      * Update action (update the document into the database)
      *
@@ -187,7 +223,8 @@ public class EsTypeDAO {
         TimeValue scrollTimeout = TimeValue.timeValueMillis(EsUtils.getScrollTimeout());
 
         // delete by query API is deprecated, scroll with bulk delete must be used
-        SearchResponse scrollResponse = this.client.prepareSearch(this.getIndexName())
+        SearchResponse scrollResponse = this.client.prepareSearch(EsUtils.getIndexNames(this.getIndexName()))
+                .setIndicesOptions(IndicesOptions.lenientExpandOpen())
                 .setTypes(this.getTypeName())
                 .setFetchSource(false)
                 .addSort("_doc", SortOrder.ASC)
@@ -25,6 +25,8 @@ public class MessageListResultImpl extends AbstractStorableListResult<DatastoreM
 {
     private static final long serialVersionUID = -3862584760563199758L;
 
+    private String nextCursor;
+
     /**
      * Construct a message result list
      */
@@ -53,4 +55,20 @@ public class MessageListResultImpl extends AbstractStorableListResult<DatastoreM
     {
         super(nextKey, totalCount);
     }
+
+    @Override
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+    /**
+     * Set the cursor of the next page
+     * 
+     * @param nextCursor
+     */
+    public void setNextCursor(String nextCursor)
+    {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *  
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.internal.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.kapua.service.datastore.model.MetricAggregationBucket;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
+
+/**
+ * Metric aggregation result implementation
+ *
+ * @since 1.0.0
+ */
+public class MetricAggregationResultImpl implements MetricAggregationResult {
+
+    private List<MetricAggregationBucket> buckets = new ArrayList<>();
+
+    @Override
+    public List<MetricAggregationBucket> getBuckets() {
+        return buckets;
+    }
+}
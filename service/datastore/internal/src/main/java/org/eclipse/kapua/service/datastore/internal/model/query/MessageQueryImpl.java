@@ -24,6 +24,9 @@ import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
  */
 public class MessageQueryImpl extends AbstractStorableQuery<DatastoreMessage> implements MessageQuery
 {
+
+    private String cursor;
+
     /**
      * Constructor.
      * 
@@ -34,7 +37,17 @@ public class MessageQueryImpl extends AbstractStorableQuery<DatastoreMessage> im
     public MessageQueryImpl(KapuaId scopeId) {
         super(scopeId);
     }
-    
+
+    @Override
+    public String getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
     /**
      * Create and keep a copy of the given query
      * 
@@ -45,5 +58,6 @@ public class MessageQueryImpl extends AbstractStorableQuery<DatastoreMessage> im
     public void copy(MessageQuery query)
     {
         super.copy(query);
+        this.setCursor(query.getCursor());
     }
 }
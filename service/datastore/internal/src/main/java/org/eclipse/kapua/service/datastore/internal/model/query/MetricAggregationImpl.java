@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *  
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.internal.model.query;
+
+import org.eclipse.kapua.service.datastore.model.query.AggregationGroupBy;
+import org.eclipse.kapua.service.datastore.model.query.AggregationInterval;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
+
+/**
+ * Metric aggregation implementation
+ *
+ * @since 1.0.0
+ */
+public class MetricAggregationImpl implements MetricAggregation {
+
+    private String metricName;
+    private Class<?> metricType;
+    private AggregationInterval interval = AggregationInterval.HOUR;
+    private AggregationGroupBy groupBy;
+    private int maxGroups = DEFAULT_MAX_GROUPS;
+
+    /**
+     * Default constructor
+     *
+     * @since 1.0.0
+     */
+    public MetricAggregationImpl() {
+    }
+
+    /**
+     * Construct a metric aggregation with hourly buckets
+     *
+     * @param metricName
+     * @param metricType
+     * @since 1.0.0
+     */
+    public MetricAggregationImpl(String metricName, Class<?> metricType) {
+        this.metricName = metricName;
+        this.metricType = metricType;
+    }
+
+    @Override
+    public String getMetricName() {
+        return metricName;
+    }
+
+    @Override
+    public void setMetricName(String metricName) {
+        this.metricName = metricName;
+    }
+
+    @Override
+    public Class<?> getMetricType() {
+        return metricType;
+    }
+
+    @Override
+    public void setMetricType(Class<?> metricType) {
+        this.metricType = metricType;
+    }
+
+    @Override
+    public AggregationInterval getInterval() {
+        return interval;
+    }
+
+    @Override
+    public void setInterval(AggregationInterval interval) {
+        this.interval = interval;
+    }
+
+    @Override
+    public AggregationGroupBy getGroupBy() {
+        return groupBy;
+    }
+
+    @Override
+    public void setGroupBy(AggregationGroupBy groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    @Override
+    public int getMaxGroups() {
+        return maxGroups;
+    }
+
+    @Override
+    public void setMaxGroups(int maxGroups) {
+        this.maxGroups = maxGroups;
+    }
+}
@@ -55,6 +55,34 @@ public enum DatastoreSettingKey implements SettingKey
      * Elasticsearch index refresh interval (the data is available for a search operation only if it is indexed)
      */
     ELASTICSEARCH_IDX_REFRESH_INTERVAL("datastore.elasticsearch.index.refresh_interval"),
+    /**
+     * Maximum number of weekly data indexes queried by a time bounded message query (above this threshold all the data indexes of the scope are queried)
+     */
+    ELASTICSEARCH_IDX_PRUNING_MAX_INDEXES("datastore.elasticsearch.index.pruning.max_indexes"),
+    /**
+     * Enable the bulk (batched) message store mode
+     */
+    ELASTICSEARCH_BULK_ENABLED("datastore.elasticsearch.bulk.enabled"),
+    /**
+     * Maximum number of messages collected by a single bulk request
+     */
+    ELASTICSEARCH_BULK_ACTIONS("datastore.elasticsearch.bulk.actions"),
+    /**
+     * Bulk flush interval in milliseconds (the pending messages are written even if the bulk actions threshold is not reached)
+     */
+    ELASTICSEARCH_BULK_FLUSH_INTERVAL("datastore.elasticsearch.bulk.flush_interval"),
+    /**
+     * Maximum number of bulk requests in flight at the same time
+     */
+    ELASTICSEARCH_BULK_CONCURRENT_REQUESTS("datastore.elasticsearch.bulk.concurrent_requests"),
+    /**
+     * Maximum number of time buckets (over all the groups) returned by a metric aggregation
+     */
+    AGGREGATION_BUCKETS_MAX("datastore.aggregation.buckets.max"),
+    /**
+     * Maximum number of groups of a metric aggregation
+     */
+    AGGREGATION_GROUPS_MAX("datastore.aggregation.groups.max"),
 
     /**
      * Local cache expire time
@@ -64,6 +92,14 @@ public enum DatastoreSettingKey implements SettingKey
      * Local cache maximum size
      */
     CONFIG_CACHE_LOCAL_SIZE_MAXIMUM("datastore.cache.local.size.maximum"),
+    /**
+     * Configuration cache expire time
+     */
+    CONFIG_CACHE_CONFIGURATION_EXPIRE_AFTER("datastore.cache.configuration.expire.after"),
+    /**
+     * Configuration cache maximum size
+     */
+    CONFIG_CACHE_CONFIGURATION_SIZE_MAXIMUM("datastore.cache.configuration.size.maximum"),
     /**
      * Enable datastore timing profile
      */
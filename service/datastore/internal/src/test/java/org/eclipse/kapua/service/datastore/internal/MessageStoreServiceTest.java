@@ -13,6 +13,7 @@ package org.eclipse.kapua.service.datastore.internal;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.math.BigInteger;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -25,10 +26,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.KapuaIllegalArgumentException;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
 import org.eclipse.kapua.commons.util.KapuaDateUtils;
 import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.message.KapuaChannel;
@@ -49,11 +54,16 @@ import org.eclipse.kapua.service.datastore.MessageStoreService;
 import org.eclipse.kapua.service.datastore.MetricInfoRegistryService;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.ChannelInfoField;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.ClientInfoField;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsQueryConversionException;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.EsSchema;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageField;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageInfo;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MessageStoreConfiguration;
 import org.eclipse.kapua.service.datastore.internal.elasticsearch.MetricInfoField;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.dao.EsBulkProcessor;
+import org.eclipse.kapua.service.datastore.internal.elasticsearch.dao.EsMessageDAO;
 import org.eclipse.kapua.service.datastore.internal.model.DataIndexBy;
+import org.eclipse.kapua.service.datastore.internal.model.MessageListResultImpl;
 import org.eclipse.kapua.service.datastore.internal.model.MetricsIndexBy;
 import org.eclipse.kapua.service.datastore.internal.model.query.AndPredicateImpl;
 import org.eclipse.kapua.service.datastore.internal.model.query.ChannelInfoQueryImpl;
@@ -71,15 +81,20 @@ import org.eclipse.kapua.service.datastore.model.ClientInfo;
 import org.eclipse.kapua.service.datastore.model.ClientInfoListResult;
 import org.eclipse.kapua.service.datastore.model.DatastoreMessage;
 import org.eclipse.kapua.service.datastore.model.MessageListResult;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationBucket;
+import org.eclipse.kapua.service.datastore.model.MetricAggregationResult;
 import org.eclipse.kapua.service.datastore.model.MetricInfo;
 import org.eclipse.kapua.service.datastore.model.MetricInfoListResult;
 import org.eclipse.kapua.service.datastore.model.StorableId;
 import org.eclipse.kapua.service.datastore.model.StorableListResult;
+import org.eclipse.kapua.service.datastore.model.query.AggregationGroupBy;
+import org.eclipse.kapua.service.datastore.model.query.AggregationInterval;
 import org.eclipse.kapua.service.datastore.model.query.AndPredicate;
 import org.eclipse.kapua.service.datastore.model.query.ChannelInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.ChannelMatchPredicate;
 import org.eclipse.kapua.service.datastore.model.query.ClientInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.MetricAggregation;
 import org.eclipse.kapua.service.datastore.model.query.MetricInfoQuery;
 import org.eclipse.kapua.service.datastore.model.query.RangePredicate;
 import org.eclipse.kapua.service.datastore.model.query.SortDirection;
@@ -278,6 +293,358 @@ public class MessageStoreServiceTest extends AbstractMessageStoreServiceTest {
         checkListOrder(messageList, sort);
     }
 
+    /**
+     * Test the cursor pagination (all the messages are returned once, in the requested order, across the pages)
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMessageCursorPagination()
+            throws Exception {
+        Account account = getTestAccountCreator(adminScopeId);
+        String clientId = String.format("device-%d", new Date().getTime());
+        DeviceCreator deviceCreator = deviceFactory.newCreator(account.getId(), clientId);
+        Device device = deviceRegistryService.create(deviceCreator);
+        int messagesCount = 25;
+        int pageSize = 10;
+        Date capturedOn1 = new Date();
+        Date capturedOn2 = new Date(capturedOn1.getTime() + messagesCount);
+
+        updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, true);
+        for (int i = 0; i < messagesCount; i++) {
+            Date capturedOn = new Date(capturedOn1.getTime() + i);
+            KapuaDataMessage message = getMessage(clientId, account.getId(), device.getId(), new Date(), capturedOn, capturedOn);
+            updateChannel(message, "cursor/pagination");
+            insertMessages(false, message);
+        }
+        waitEsRefresh();
+
+        List<SortField> sort = new ArrayList<SortField>();
+        SortField sortTimestamp = new SortFieldImpl();
+        sortTimestamp.setField(EsSchema.MESSAGE_TIMESTAMP);
+        sortTimestamp.setSortDirection(SortDirection.ASC);
+        sort.add(sortTimestamp);
+        MessageQuery messageQuery = getMessageOrderedQuery(account.getId(), pageSize, sort);
+        setMessageQueryBaseCriteria(messageQuery, clientId, new DateRange(capturedOn1, capturedOn2));
+        messageQuery.setCursor(MessageQuery.CURSOR_FIRST_PAGE);
+
+        MessageListResultImpl messageList = new MessageListResultImpl();
+        int pages = 0;
+        MessageListResult page;
+        do {
+            page = messageStoreService.query(messageQuery);
+            assertEquals("Page has a wrong total count!", messagesCount, page.getTotalCount().intValue());
+            messageList.addItems(page.getItems());
+            messageQuery.setCursor(page.getNextCursor());
+            pages++;
+        } while (page.getNextCursor() != null);
+
+        assertEquals("Wrong pages count!", (messagesCount + pageSize - 1) / pageSize, pages);
+        assertEquals("Wrong messages count!", messagesCount, messageList.getSize());
+        Set<String> messageIds = new HashSet<>();
+        for (DatastoreMessage messageStored : messageList.getItems()) {
+            assertTrue("Duplicated message across the pages!", messageIds.add(messageStored.getDatastoreId().toString()));
+        }
+        checkListOrder(messageList, sort);
+    }
+
+    /**
+     * Test the cursor pagination when the next pages are requested with a different limit (the limit of the first page applies) or with a cursor of another
+     * scope (rejected without releasing the scroll of the owner)
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMessageCursorPaginationLimitAndScope()
+            throws Exception {
+        Account account = getTestAccountCreator(adminScopeId);
+        String clientId = String.format("device-%d", new Date().getTime());
+        DeviceCreator deviceCreator = deviceFactory.newCreator(account.getId(), clientId);
+        Device device = deviceRegistryService.create(deviceCreator);
+        int messagesCount = 25;
+        int pageSize = 10;
+        Date capturedOn1 = new Date();
+        Date capturedOn2 = new Date(capturedOn1.getTime() + messagesCount);
+
+        updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, true);
+        for (int i = 0; i < messagesCount; i++) {
+            Date capturedOn = new Date(capturedOn1.getTime() + i);
+            KapuaDataMessage message = getMessage(clientId, account.getId(), device.getId(), new Date(), capturedOn, capturedOn);
+            updateChannel(message, "cursor/scope");
+            insertMessages(false, message);
+        }
+        waitEsRefresh();
+
+        MessageQuery messageQuery = getMessageOrderedQuery(account.getId(), pageSize, null);
+        setMessageQueryBaseCriteria(messageQuery, clientId, new DateRange(capturedOn1, capturedOn2));
+        messageQuery.setCursor(MessageQuery.CURSOR_FIRST_PAGE);
+        MessageListResult page = messageStoreService.query(messageQuery);
+        assertNotNull("The first page should have a next cursor!", page.getNextCursor());
+
+        // the cursor of another scope is rejected before using the scroll
+        MessageQuery otherScopeQuery = getMessageOrderedQuery(new KapuaEid(BigInteger.valueOf(Long.MAX_VALUE)), pageSize, null);
+        otherScopeQuery.setCursor(page.getNextCursor());
+        try {
+            EsMessageDAO.getInstance().index(EsSchema.getDataIndexName(otherScopeQuery)).query(otherScopeQuery);
+            fail("The cursor of another scope should be rejected!");
+        } catch (EsQueryConversionException e) {
+            // expected
+        }
+
+        // the scroll is still usable by its owner, the smaller limit of the next pages doesn't end the pagination early
+        Set<String> messageIds = new HashSet<>();
+        for (DatastoreMessage messageStored : page.getItems()) {
+            messageIds.add(messageStored.getDatastoreId().toString());
+        }
+        messageQuery.setLimit(5);
+        int pages = 1;
+        while (page.getNextCursor() != null) {
+            messageQuery.setCursor(page.getNextCursor());
+            page = messageStoreService.query(messageQuery);
+            for (DatastoreMessage messageStored : page.getItems()) {
+                assertTrue("Duplicated message across the pages!", messageIds.add(messageStored.getDatastoreId().toString()));
+            }
+            pages++;
+        }
+        assertEquals("Wrong pages count!", 3, pages);
+        assertEquals("Wrong messages count!", messagesCount, messageIds.size());
+    }
+
+    /**
+     * Test the asynchronous store in bulk mode: the collected messages are sent when the bulk processor is closed and then they can be found
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMessageStoreAsyncBulk()
+            throws Exception {
+        Account account = getTestAccountCreator(adminScopeId);
+        String clientId = String.format("device-%d", new Date().getTime());
+        DeviceCreator deviceCreator = deviceFactory.newCreator(account.getId(), clientId);
+        Device device = deviceRegistryService.create(deviceCreator);
+        int messagesCount = 5;
+
+        updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, true);
+        // neither the actions threshold nor the flush interval is reached, so only the close sends the bulk
+        System.setProperty(DatastoreSettingKey.ELASTICSEARCH_BULK_ENABLED.key(), "true");
+        System.setProperty(DatastoreSettingKey.ELASTICSEARCH_BULK_ACTIONS.key(), "1000");
+        System.setProperty(DatastoreSettingKey.ELASTICSEARCH_BULK_FLUSH_INTERVAL.key(), "600000");
+        List<CompletableFuture<StorableId>> futures = new ArrayList<>();
+        try {
+            EsBulkProcessor.close();
+            for (int i = 0; i < messagesCount; i++) {
+                KapuaDataMessage message = getMessage(clientId, account.getId(), device.getId(), new Date(), new Date(), new Date());
+                updateChannel(message, "bulk/store");
+                futures.add(messageStoreService.storeAsync(message));
+            }
+            for (CompletableFuture<StorableId> future : futures) {
+                assertFalse("The message should wait for the bulk to be sent!", future.isDone());
+            }
+
+            EsBulkProcessor.close();
+        } finally {
+            System.clearProperty(DatastoreSettingKey.ELASTICSEARCH_BULK_ENABLED.key());
+            System.clearProperty(DatastoreSettingKey.ELASTICSEARCH_BULK_ACTIONS.key());
+            System.clearProperty(DatastoreSettingKey.ELASTICSEARCH_BULK_FLUSH_INTERVAL.key());
+        }
+        waitEsRefresh();
+
+        for (CompletableFuture<StorableId> future : futures) {
+            assertTrue("The close should send the collected messages!", future.isDone());
+            StorableId messageId = future.get(1, TimeUnit.SECONDS);
+            DatastoreMessage messageQueried = messageStoreService.find(account.getId(), messageId, StorableFetchStyle.SOURCE_FULL);
+            assertNotNull("The message stored in bulk mode should be found!", messageQueried);
+            checkTopic(messageQueried, "bulk/store");
+        }
+    }
+
+    /**
+     * Test the asynchronous store with the bulk mode disabled: the returned future is already completed with the stored message id
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMessageStoreAsyncNoBulk()
+            throws Exception {
+        Account account = getTestAccountCreator(adminScopeId);
+        String clientId = String.format("device-%d", new Date().getTime());
+        DeviceCreator deviceCreator = deviceFactory.newCreator(account.getId(), clientId);
+        Device device = deviceRegistryService.create(deviceCreator);
+
+        updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, true);
+        KapuaDataMessage message = getMessage(clientId, account.getId(), device.getId(), new Date(), new Date(), new Date());
+        updateChannel(message, "bulk/disabled");
+        CompletableFuture<StorableId> future = messageStoreService.storeAsync(message);
+        assertTrue("The message should be stored synchronously!", future.isDone());
+        waitEsRefresh();
+
+        DatastoreMessage messageQueried = messageStoreService.find(account.getId(), future.get(), StorableFetchStyle.SOURCE_FULL);
+        assertNotNull("The stored message should be found!", messageQueried);
+        checkTopic(messageQueried, "bulk/disabled");
+    }
+
+    /**
+     * Check that the datastore services share the same configuration provider (a configuration update done through the message store service is seen by
+     * the registry services before their cached entries expire) and that the cached account information is invalidated by an account update
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConfigurationCacheInvalidation()
+            throws Exception {
+        Account account = getTestAccountCreator(adminScopeId);
+        Date messageTime = new Date();
+        String clientId = String.format("device-%d", messageTime.getTime());
+        DeviceCreator deviceCreator = deviceFactory.newCreator(account.getId(), clientId);
+        Device device = deviceRegistryService.create(deviceCreator);
+
+        updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, true);
+        KapuaDataMessage message = getMessage(clientId, account.getId(), device.getId(), messageTime, messageTime, messageTime);
+        updateChannel(message, "configuration/cache");
+        insertMessages(true, message);
+
+        ChannelInfoQuery channelInfoQuery = getBaseChannelInfoQuery(account.getId());
+        setChannelInfoQueryBaseCriteria(channelInfoQuery, clientId, new DateRange(messageTime));
+        ClientInfoQuery clientInfoQuery = getBaseClientInfoQuery(account.getId());
+        setClientInfoQueryBaseCriteria(clientInfoQuery, clientId, new DateRange(messageTime));
+        // the registry services cache the configuration enabling the storage
+        assertEquals(1, channelInfoRegistryService.count(channelInfoQuery));
+        assertEquals(1, clientInfoRegistryService.count(clientInfoQuery));
+
+        try {
+            updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, false);
+            assertEquals("The channel registry should see the configuration update!", 0, channelInfoRegistryService.count(channelInfoQuery));
+            assertEquals("The client registry should see the configuration update!", 0, clientInfoRegistryService.count(clientInfoQuery));
+
+            updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, true);
+            assertEquals(1, channelInfoRegistryService.count(channelInfoQuery));
+            assertEquals(1, clientInfoRegistryService.count(clientInfoQuery));
+
+            // the account information is cached until the account is updated
+            AccountService accountService = KapuaLocator.getInstance().getService(AccountService.class);
+            ConfigurationProviderImpl configurationProvider = ConfigurationProviderImpl.getInstance(messageStoreService, accountService);
+            MessageInfo messageInfo = configurationProvider.getInfo(account.getId());
+            assertSame(messageInfo, configurationProvider.getInfo(account.getId()));
+
+            accountService.update(accountService.find(account.getId()));
+            assertNotSame("The cached account information should be invalidated by the account update!", messageInfo,
+                    configurationProvider.getInfo(account.getId()));
+        } finally {
+            updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, true);
+        }
+    }
+
+    /**
+     * Test the metric aggregation (the buckets statistics match the stored metric values)
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMessageMetricAggregation()
+            throws Exception {
+        Account account = getTestAccountCreator(adminScopeId);
+        String clientId = String.format("device-%d", new Date().getTime());
+        DeviceCreator deviceCreator = deviceFactory.newCreator(account.getId(), clientId);
+        Device device = deviceRegistryService.create(deviceCreator);
+        int messagesCount = 10;
+        Date capturedOn1 = new Date();
+        Date capturedOn2 = new Date(capturedOn1.getTime() + messagesCount);
+
+        updateConfiguration(messageStoreService, account.getId(), DataIndexBy.DEVICE_TIMESTAMP, MetricsIndexBy.TIMESTAMP, 30, true);
+        for (int i = 0; i < messagesCount; i++) {
+            Date capturedOn = new Date(capturedOn1.getTime() + i);
+            KapuaDataMessage message = getMessage(clientId, account.getId(), device.getId(), new Date(), capturedOn, capturedOn);
+            updateChannel(message, "metric/aggregation");
+            initMetrics(message);
+            message.getPayload().getProperties().put("temperature", new Double(i));
+            insertMessages(false, message);
+        }
+        waitEsRefresh();
+
+        MessageQuery messageQuery = getBaseMessageQuery(account.getId());
+        setMessageQueryBaseCriteria(messageQuery, clientId, new DateRange(capturedOn1, capturedOn2));
+        MetricAggregation aggregation = datastoreObjectFactory.newMetricAggregation("temperature", Double.class);
+        aggregation.setInterval(AggregationInterval.MINUTE);
+
+        // the messages may fall in two minute buckets
+        MetricAggregationResult result = messageStoreService.aggregate(messageQuery, aggregation);
+        long count = 0;
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (MetricAggregationBucket bucket : result.getBuckets()) {
+            assertNull("Wrong bucket group!", bucket.getGroup());
+            count += bucket.getCount();
+            sum += bucket.getSum();
+            min = Math.min(min, bucket.getMin());
+            max = Math.max(max, bucket.getMax());
+        }
+        assertEquals("Wrong metric values count!", messagesCount, count);
+        assertEquals("Wrong metric values sum!", messagesCount * (messagesCount - 1) / 2, sum, 0);
+        assertEquals("Wrong metric min value!", 0, min, 0);
+        assertEquals("Wrong metric max value!", messagesCount - 1, max, 0);
+
+        aggregation.setGroupBy(AggregationGroupBy.CLIENT_ID);
+        result = messageStoreService.aggregate(messageQuery, aggregation);
+        assertFalse("No buckets returned!", result.getBuckets().isEmpty());
+        for (MetricAggregationBucket bucket : result.getBuckets()) {
+            assertEquals("Wrong bucket group!", clientId, bucket.getGroup());
+        }
+    }
+
+    /**
+     * Test that the metric aggregations producing too many buckets or groups are rejected
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMessageMetricAggregationLimits()
+            throws Exception {
+        Account account = getTestAccountCreator(adminScopeId);
+        Date now = new Date();
+        Date oneDayAgo = new Date(now.getTime() - 24L * 60 * 60 * 1000);
+        Date oneYearAgo = new Date(now.getTime() - 365L * 24 * 60 * 60 * 1000);
+
+        MessageQuery messageQuery = getBaseMessageQuery(account.getId());
+        MetricAggregation aggregation = datastoreObjectFactory.newMetricAggregation("temperature", Double.class);
+        aggregation.setInterval(AggregationInterval.MINUTE);
+
+        // unbounded ranges
+        setMessageQueryBaseCriteria(messageQuery, null);
+        checkAggregationRejected(messageQuery, aggregation, "The aggregation without time range should be rejected!");
+        messageQuery.setPredicate(new RangePredicateImpl(MessageField.TIMESTAMP, oneDayAgo, null));
+        checkAggregationRejected(messageQuery, aggregation, "The aggregation with an open time range should be rejected!");
+
+        // too many buckets
+        setMessageQueryBaseCriteria(messageQuery, new DateRange(oneYearAgo, now));
+        checkAggregationRejected(messageQuery, aggregation, "The aggregation with too many buckets should be rejected!");
+        aggregation.setInterval(AggregationInterval.DAY);
+        messageStoreService.aggregate(messageQuery, aggregation);
+
+        // the groups multiply the buckets
+        setMessageQueryBaseCriteria(messageQuery, new DateRange(oneDayAgo, now));
+        aggregation.setInterval(AggregationInterval.MINUTE);
+        aggregation.setGroupBy(AggregationGroupBy.CLIENT_ID);
+        aggregation.setMaxGroups(10);
+        checkAggregationRejected(messageQuery, aggregation, "The grouped aggregation with too many buckets should be rejected!");
+        aggregation.setInterval(AggregationInterval.HOUR);
+        messageStoreService.aggregate(messageQuery, aggregation);
+
+        // too many groups
+        aggregation.setMaxGroups(DatastoreSettings.getInstance().getInt(DatastoreSettingKey.AGGREGATION_GROUPS_MAX) + 1);
+        checkAggregationRejected(messageQuery, aggregation, "The aggregation with too many groups should be rejected!");
+    }
+
+    private void checkAggregationRejected(MessageQuery messageQuery, MetricAggregation aggregation, String message)
+            throws KapuaException {
+        try {
+            messageStoreService.aggregate(messageQuery, aggregation);
+            fail(message);
+        } catch (KapuaIllegalArgumentException e) {
+            // expected
+        }
+    }
+
     @Test
     /**
      * Test the correctness of the storage process with a basic message (no metrics, payload and position) indexing message date by device timestamp (as default)
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.datastore.internal.elasticsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.datastore.internal.model.query.AndPredicateImpl;
+import org.eclipse.kapua.service.datastore.internal.model.query.MessageQueryImpl;
+import org.eclipse.kapua.service.datastore.internal.model.query.RangePredicateImpl;
+import org.eclipse.kapua.service.datastore.internal.model.query.TermPredicateImpl;
+import org.eclipse.kapua.service.datastore.model.query.MessageQuery;
+import org.eclipse.kapua.service.datastore.model.query.StorablePredicate;
+import org.junit.Test;
+
+public class EsDataIndexNameTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.ONE);
+    private static final String PREFIX = EsUtils.normalizedIndexName(SCOPE_ID.toStringId());
+    private static final long HOUR_MILLIS = 60L * 60 * 1000;
+
+    private static long utc(int year, int month, int day, int hour) {
+        return ZonedDateTime.of(year, month, day, hour, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private static MessageQuery newQuery(StorablePredicate predicate) {
+        MessageQuery query = new MessageQueryImpl(SCOPE_ID);
+        query.setPredicate(predicate);
+        return query;
+    }
+
+    private static RangePredicateImpl newTimestampRange(Long start, Long end) {
+        return new RangePredicateImpl(MessageField.TIMESTAMP, start != null ? new Date(start) : null, end != null ? new Date(end) : null);
+    }
+
+    /**
+     * Check that every message stored in the time range (one per hour) is stored in one of the given indexes
+     */
+    private static void assertCovers(String indexNames, long start, long end) {
+        List<String> indexes = Arrays.asList(EsUtils.getIndexNames(indexNames));
+        for (long timestamp = start; timestamp < end; timestamp += HOUR_MILLIS) {
+            assertThat(indexes).contains(EsUtils.getDataIndexName(SCOPE_ID, timestamp));
+        }
+        assertThat(indexes).contains(EsUtils.getDataIndexName(SCOPE_ID, end));
+    }
+
+    @Test
+    public void testSingleWeek() {
+        // the weeks start on Sunday
+        long start = utc(2017, 1, 8, 0);
+        long end = utc(2017, 1, 14, 23);
+
+        String indexNames = EsUtils.getDataIndexName(SCOPE_ID, start, end);
+        assertThat(indexNames).isEqualTo(PREFIX + "-2017-02");
+        assertCovers(indexNames, start, end);
+    }
+
+    @Test
+    public void testWeekBoundary() {
+        // from Saturday to Sunday, less than a day apart
+        long start = utc(2017, 1, 14, 23);
+        long end = utc(2017, 1, 15, 1);
+
+        String indexNames = EsUtils.getDataIndexName(SCOPE_ID, start, end);
+        assertThat(indexNames).isEqualTo(PREFIX + "-2017-02," + PREFIX + "-2017-03");
+        assertCovers(indexNames, start, end);
+
+        // the first instant of the week is in the new week
+        assertThat(EsUtils.getDataIndexName(SCOPE_ID, utc(2017, 1, 15, 0), utc(2017, 1, 15, 0))).isEqualTo(PREFIX + "-2017-03");
+        assertThat(EsUtils.getDataIndexName(SCOPE_ID, utc(2017, 1, 15, 0) - 1, utc(2017, 1, 15, 0) - 1)).isEqualTo(PREFIX + "-2017-02");
+    }
+
+    @Test
+    public void testMultipleWeeks() {
+        long start = utc(2017, 3, 1, 12);
+        long end = utc(2017, 3, 29, 12);
+
+        String indexNames = EsUtils.getDataIndexName(SCOPE_ID, start, end);
+        assertThat(EsUtils.getIndexNames(indexNames)).containsExactly(PREFIX + "-2017-09", PREFIX + "-2017-10", PREFIX + "-2017-11", PREFIX + "-2017-12",
+                PREFIX + "-2017-13");
+        assertCovers(indexNames, start, end);
+    }
+
+    @Test
+    public void testYearRollover() {
+        long start = utc(2016, 12, 30, 0);
+        long end = utc(2017, 1, 2, 0);
+
+        String indexNames = EsUtils.getDataIndexName(SCOPE_ID, start, end);
+        assertThat(indexNames).isEqualTo(PREFIX + "-2016-53," + PREFIX + "-2017-01");
+        assertCovers(indexNames, start, end);
+    }
+
+    @Test
+    public void testYearRolloverInsideWeek() {
+        // the week of the 1st of January 2016 starts in 2015, its days of 2015 are stored with the year 2015 and the week 1
+        long start = utc(2015, 12, 30, 0);
+        long end = utc(2016, 1, 2, 0);
+
+        String indexNames = EsUtils.getDataIndexName(SCOPE_ID, start, end);
+        assertThat(indexNames).isEqualTo(PREFIX + "-2015-01," + PREFIX + "-2016-01");
+        assertCovers(indexNames, start, end);
+    }
+
+    @Test
+    public void testQuerySingleWeek() {
+        long start = utc(2017, 1, 9, 0);
+        long end = utc(2017, 1, 10, 0);
+
+        assertThat(EsSchema.getDataIndexName(newQuery(newTimestampRange(start, end)))).isEqualTo(PREFIX + "-2017-02");
+    }
+
+    @Test
+    public void testQueryAndPredicates() {
+        long start = utc(2017, 1, 14, 0);
+        long end = utc(2017, 1, 16, 0);
+
+        TermPredicateImpl clientIdPredicate = new TermPredicateImpl();
+        clientIdPredicate.setField(MessageField.CLIENT_ID);
+        clientIdPredicate.setValue("client-1");
+
+        // the bounds are given by different range predicates
+        AndPredicateImpl andPredicate = new AndPredicateImpl();
+        andPredicate.addPredicate(clientIdPredicate);
+        andPredicate.addPredicate(newTimestampRange(start, null));
+        andPredicate.addPredicate(newTimestampRange(null, end));
+        assertThat(EsSchema.getDataIndexName(newQuery(andPredicate))).isEqualTo(PREFIX + "-2017-02," + PREFIX + "-2017-03");
+
+        // the narrower range is used
+        andPredicate.addPredicate(newTimestampRange(utc(2017, 1, 15, 0), null));
+        assertThat(EsSchema.getDataIndexName(newQuery(andPredicate))).isEqualTo(PREFIX + "-2017-03");
+    }
+
+    @Test
+    public void testQueryYearRollover() {
+        long start = utc(2016, 12, 31, 12);
+        long end = utc(2017, 1, 1, 12);
+
+        assertThat(EsSchema.getDataIndexName(newQuery(newTimestampRange(start, end)))).isEqualTo(PREFIX + "-2016-53," + PREFIX + "-2017-01");
+    }
+
+    @Test
+    public void testQueryOpenRange() {
+        long timestamp = utc(2017, 1, 9, 0);
+        String allIndexes = PREFIX + "-*";
+
+        assertThat(EsSchema.getDataIndexName(newQuery(null))).isEqualTo(allIndexes);
+        assertThat(EsSchema.getDataIndexName(newQuery(newTimestampRange(timestamp, null)))).isEqualTo(allIndexes);
+        assertThat(EsSchema.getDataIndexName(newQuery(newTimestampRange(null, timestamp)))).isEqualTo(allIndexes);
+
+        // a range on another field doesn't bound the message timestamp
+        RangePredicateImpl receivedOnRange = new RangePredicateImpl(MessageField.RECEIVED_ON, new Date(timestamp), new Date(timestamp + HOUR_MILLIS));
+        assertThat(EsSchema.getDataIndexName(newQuery(receivedOnRange))).isEqualTo(allIndexes);
+    }
+
+    @Test
+    public void testQueryTooManyWeeks() {
+        // more than the default maximum number of indexes (104)
+        long start = utc(2014, 1, 1, 0);
+        long end = utc(2017, 1, 1, 0);
+
+        assertThat(EsSchema.getDataIndexName(newQuery(newTimestampRange(start, end)))).isEqualTo(PREFIX + "-*");
+    }
+
+    @Test
+    public void testQueryEmptyRange() {
+        long start = utc(2017, 1, 10, 0);
+        long end = utc(2017, 1, 9, 0);
+
+        assertThat(EsSchema.getDataIndexName(newQuery(newTimestampRange(start, end)))).isEqualTo(PREFIX + "-2017-02");
+    }
+}
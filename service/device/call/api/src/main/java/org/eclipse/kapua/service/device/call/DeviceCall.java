@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.device.call;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.service.device.call.message.DeviceMessage;
 import org.eclipse.kapua.service.device.call.message.app.request.DeviceRequestMessage;
@@ -96,6 +98,17 @@ public interface DeviceCall<RQ extends DeviceRequestMessage, RS extends DeviceRe
     public RS options(RQ requestMessage, Long timeout)
         throws KapuaException;
 
+    /**
+     * Executes the command without blocking the caller while waiting for the response.<br>
+     * The returned future is completed with the device response or exceptionally if the call fails or times out.<br>
+     * The future may be completed by the transport thread receiving the response, so the dependent actions doing blocking work should run on their own executor.
+     * 
+     * @param requestMessage
+     * @param timeout
+     * @return
+     */
+    public CompletableFuture<RS> sendAsync(RQ requestMessage, Long timeout);
+
     /**
      * Get the device base message type
      * 
@@ -13,6 +13,8 @@ package org.eclipse.kapua.service.device.call.kura;
 
 import java.util.Date;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.locator.KapuaLocator;
@@ -98,21 +100,7 @@ public class KuraDeviceCallImpl implements DeviceCall<KuraRequestMessage, KuraRe
 
             //
             // Make the request
-            // Add requestId and requesterClientId to both payload and channel if response is expected
-            // Note: Adding to both payload and channel to let the translator choose what to do base on the transport used.
-            KuraRequestChannel requestChannel = requestMessage.getChannel();
-            KuraRequestPayload requestPayload = requestMessage.getPayload();
-            if (timeout != null) {
-                // FIXME: create an utilty class to use the same synchronized random instance to avoid duplicates
-                Random r = new Random();
-                String requestId = String.valueOf(r.nextLong());
-
-                requestChannel.setRequestId(requestId);
-                requestChannel.setRequesterClientId(transportFacade.getClientId());
-
-                requestPayload.setRequestId(requestId);
-                requestPayload.setRequesterClientId(transportFacade.getClientId());
-            }
+            prepareRequest(requestMessage, transportFacade, timeout);
 
             //
             // Do send
@@ -146,6 +134,70 @@ public class KuraDeviceCallImpl implements DeviceCall<KuraRequestMessage, KuraRe
         return response;
     }
 
+    @Override
+    @SuppressWarnings({ "unchecked" })
+    public CompletableFuture<KuraResponseMessage> sendAsync(KuraRequestMessage requestMessage, Long timeout)
+    {
+        TransportFacade transportFacade = null;
+        try {
+            //
+            // Borrow a KapuaClient
+            transportFacade = borrowClient();
+
+            //
+            // Get Kura to transport translator for the request and vice versa
+            Translator translatorKuraTransport = getTranslator(KuraRequestMessage.class, transportFacade.getMessageClass());
+            Translator translatorTransportKura = getTranslator(transportFacade.getMessageClass(), KuraResponseMessage.class);
+
+            //
+            // Make the request
+            prepareRequest(requestMessage, transportFacade, timeout);
+            requestMessage.setTimestamp(new Date());
+
+            //
+            // Send, the client is cleaned once the response is completed.
+            // The response is only decoded here, on the transport thread completing it: the callers doing blocking work run it on their own executor.
+            TransportFacade requestTransportFacade = transportFacade;
+            CompletableFuture<TransportMessage> transportResponse = transportFacade.sendRequest((TransportMessage) translatorKuraTransport.translate(requestMessage), timeout);
+            transportFacade = null;
+
+            return transportResponse.handle((transportResponseMessage, exception) -> {
+                requestTransportFacade.clean();
+
+                try {
+                    if (exception != null) {
+                        throw new KuraMqttDeviceCallException(KuraMqttDeviceCallErrorCodes.CLIENT_SEND_ERROR,
+                                                              exception instanceof CompletionException ? exception.getCause() : exception,
+                                                              (Object[]) null);
+                    }
+
+                    // Translate response
+                    return transportResponseMessage != null ? (KuraResponseMessage) translatorTransportKura.translate(transportResponseMessage) : null;
+                }
+                catch (KuraMqttDeviceCallException e) {
+                    throw new CompletionException(e);
+                }
+                catch (KapuaException e) {
+                    throw new CompletionException(new KuraMqttDeviceCallException(KuraMqttDeviceCallErrorCodes.CLIENT_SEND_ERROR,
+                                                                                  e,
+                                                                                  (Object[]) null));
+                }
+            });
+        }
+        catch (KapuaException ke) {
+            CompletableFuture<KuraResponseMessage> response = new CompletableFuture<>();
+            response.completeExceptionally(new KuraMqttDeviceCallException(KuraMqttDeviceCallErrorCodes.CALL_ERROR,
+                                                                           ke,
+                                                                           (Object[]) null));
+            return response;
+        }
+        finally {
+            if (transportFacade != null) {
+                transportFacade.clean();
+            }
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public Class<KuraMessage> getBaseMessageClass()
@@ -156,6 +208,28 @@ public class KuraDeviceCallImpl implements DeviceCall<KuraRequestMessage, KuraRe
     //
     // Private methods
     //
+
+    /**
+     * Add requestId and requesterClientId to both payload and channel if response is expected
+     * Note: Adding to both payload and channel to let the translator choose what to do base on the transport used.
+     */
+    private void prepareRequest(KuraRequestMessage requestMessage, TransportFacade transportFacade, Long timeout)
+    {
+        KuraRequestChannel requestChannel = requestMessage.getChannel();
+        KuraRequestPayload requestPayload = requestMessage.getPayload();
+        if (timeout != null) {
+            // FIXME: create an utilty class to use the same synchronized random instance to avoid duplicates
+            Random r = new Random();
+            String requestId = String.valueOf(r.nextLong());
+
+            requestChannel.setRequestId(requestId);
+            requestChannel.setRequesterClientId(transportFacade.getClientId());
+
+            requestPayload.setRequestId(requestId);
+            requestPayload.setRequesterClientId(transportFacade.getClientId());
+        }
+    }
+
     private TransportFacade borrowClient()
         throws KuraMqttDeviceCallException
     {
@@ -39,10 +39,10 @@ public class KuraNotifyPayload extends KuraPayload implements DevicePayload {
      */
     public String toDisplayString() {
         StringBuilder sb = new StringBuilder();
-        Iterator<String> hdrIterator = metrics.keySet().iterator();
+        Iterator<String> hdrIterator = getMetrics().keySet().iterator();
         while (hdrIterator.hasNext()) {
             String hdrName = hdrIterator.next();
-            Object hdrValue = metrics.get(hdrName);
+            Object hdrValue = getMetrics().get(hdrName);
             String hdrValueString = "";
             Class<?> type = hdrValue.getClass();
             if (type == Float.class) {
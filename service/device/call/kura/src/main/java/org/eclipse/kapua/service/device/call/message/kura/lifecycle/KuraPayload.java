@@ -12,7 +12,6 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.device.call.message.kura.lifecycle;
 
-import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,15 +22,15 @@ import org.eclipse.kapua.message.internal.MessageException;
 import org.eclipse.kapua.service.device.call.message.DevicePayload;
 import org.eclipse.kapua.service.device.call.message.DevicePosition;
 import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto;
-import org.eclipse.kapua.service.device.call.message.kura.utils.GZIPUtils;
+import org.eclipse.kapua.service.device.call.message.kura.utils.KuraPayloadDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.protobuf.ByteString;
-import com.google.protobuf.InvalidProtocolBufferException;
 
 /**
- * Kura device payload implementation.
+ * Kura device payload implementation.<br>
+ * The payload read from a byte array is fully decoded when it is read, so the getters never modify it.
  *
  * @since 1.0
  *
@@ -41,9 +40,9 @@ public class KuraPayload implements DevicePayload {
     private static final Logger s_logger = LoggerFactory.getLogger(KuraPayload.class);
 
     protected Date timestamp;
-    protected DevicePosition position;
-    protected Map<String, Object> metrics;
-    protected byte[] body;
+    private DevicePosition position;
+    private Map<String, Object> metrics;
+    private byte[] body;
 
     /**
      * Constructor
@@ -154,22 +153,7 @@ public class KuraPayload implements DevicePayload {
     @Override
     public void readFromByteArray(byte[] bytes)
             throws KapuaException {
-        if (GZIPUtils.isCompressed(bytes)) {
-            try {
-                bytes = GZIPUtils.decompress(bytes);
-            } catch (IOException e) {
-                // throw new KapuaDeviceCallException(KapuaDeviceCallErrorCodes.)
-                // FIXME: manage!
-                throw KapuaException.internalError(e);
-            }
-        }
-
-        KuraPayloadProto.KuraPayload protoMsg = null;
-        try {
-            protoMsg = KuraPayloadProto.KuraPayload.parseFrom(bytes);
-        } catch (InvalidProtocolBufferException ipbe) {
-            throw new MessageException(MessageErrorCodes.INVALID_MESSAGE, ipbe, (Object[]) null);
-        }
+        KuraPayloadProto.KuraPayload protoMsg = KuraPayloadDecoder.parse(bytes);
 
         //
         // Add timestamp
@@ -180,23 +164,15 @@ public class KuraPayload implements DevicePayload {
         //
         // Add position
         if (protoMsg.hasPosition()) {
-            position = buildFromProtoBuf(protoMsg.getPosition());
+            position = KuraPayloadDecoder.decodePosition(protoMsg.getPosition());
         }
 
         //
         // Add metrics
-        for (int i = 0; i < protoMsg.getMetricCount(); i++) {
-            String name = protoMsg.getMetric(i).getName();
-            try {
-                Object value = getProtoKuraMetricValue(protoMsg.getMetric(i), protoMsg.getMetric(i).getType());
-                metrics.put(name, value);
-            } catch (MessageException ihte) {
-
-                s_logger.warn("During deserialization, ignoring metric named: " + name + ". Unrecognized value type: " + protoMsg.getMetric(i).getType(), ihte);
-            }
-        }
+        KuraPayloadDecoder.decodeMetrics(protoMsg.getMetricList(), metrics);
 
-        // set the body
+        //
+        // Set the body
         if (protoMsg.hasBody()) {
             body = protoMsg.getBody().toByteArray();
         }
@@ -205,38 +181,6 @@ public class KuraPayload implements DevicePayload {
     //
     // Private methods
     //
-    private Object getProtoKuraMetricValue(KuraPayloadProto.KuraPayload.KuraMetric metric,
-            KuraPayloadProto.KuraPayload.KuraMetric.ValueType type)
-            throws MessageException {
-        switch (type) {
-
-        case DOUBLE:
-            return metric.getDoubleValue();
-
-        case FLOAT:
-            return metric.getFloatValue();
-
-        case INT64:
-            return metric.getLongValue();
-
-        case INT32:
-            return metric.getIntValue();
-
-        case BOOL:
-            return metric.getBoolValue();
-
-        case STRING:
-            return metric.getStringValue();
-
-        case BYTES:
-            ByteString bs = metric.getBytesValue();
-            return bs.toByteArray();
-
-        default:
-            throw new MessageException(MessageErrorCodes.INVALID_METRIC_TYPE, null, type);
-        }
-    }
-
     private static void setProtoKuraMetricValue(KuraPayloadProto.KuraPayload.KuraMetric.Builder metric, Object o)
             throws MessageException {
 
@@ -301,37 +245,4 @@ public class KuraPayload implements DevicePayload {
         }
         return protoPos.build();
     }
-
-    private DevicePosition buildFromProtoBuf(KuraPayloadProto.KuraPayload.KuraPosition protoPosition) {
-        DevicePosition position = getPosition();
-
-        if (protoPosition.hasLatitude()) {
-            position.setLatitude(protoPosition.getLatitude());
-        }
-        if (protoPosition.hasLongitude()) {
-            position.setLongitude(protoPosition.getLongitude());
-        }
-        if (protoPosition.hasAltitude()) {
-            position.setAltitude(protoPosition.getAltitude());
-        }
-        if (protoPosition.hasPrecision()) {
-            position.setPrecision(protoPosition.getPrecision());
-        }
-        if (protoPosition.hasHeading()) {
-            position.setHeading(protoPosition.getHeading());
-        }
-        if (protoPosition.hasSpeed()) {
-            position.setSpeed(protoPosition.getSpeed());
-        }
-        if (protoPosition.hasSatellites()) {
-            position.setSatellites(protoPosition.getSatellites());
-        }
-        if (protoPosition.hasStatus()) {
-            position.setStatus(protoPosition.getStatus());
-        }
-        if (protoPosition.hasTimestamp()) {
-            position.setTimestamp(new Date(protoPosition.getTimestamp()));
-        }
-        return position;
-    }
 }
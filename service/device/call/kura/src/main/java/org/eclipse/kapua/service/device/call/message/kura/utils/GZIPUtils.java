@@ -16,6 +16,7 @@ package org.eclipse.kapua.service.device.call.message.kura.utils;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -86,4 +87,17 @@ public class GZIPUtils {
 
         return ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(source)));
     }
+
+    /**
+     * Open a stream uncompressing GZIP compressed data on the fly, so the uncompressed data can be consumed without being copied in a new array
+     *
+     * @param source
+     *            the data to uncompress
+     * @return the stream of the uncompressed data
+     * @throws IOException
+     *             in case of an I/O error (if the GZIP header is not valid)
+     */
+    public static InputStream decompressStream(byte[] source) throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(source));
+    }
 }
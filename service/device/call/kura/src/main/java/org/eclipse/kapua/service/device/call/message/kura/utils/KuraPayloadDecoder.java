@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.call.message.kura.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.internal.MessageErrorCodes;
+import org.eclipse.kapua.message.internal.MessageException;
+import org.eclipse.kapua.service.device.call.message.DevicePosition;
+import org.eclipse.kapua.service.device.call.message.kura.KuraPosition;
+import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Kura protobuf payload decoding utilities.<br>
+ * The payload is parsed in a single pass (the GZIP compressed payloads are uncompressed while parsing), then the Kura payload implementations decode
+ * its metrics and position with these utilities.
+ *
+ * @since 1.0
+ */
+public class KuraPayloadDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(KuraPayloadDecoder.class);
+
+    private KuraPayloadDecoder() {
+    }
+
+    /**
+     * Parse the (plain or GZIP compressed) protobuf payload
+     *
+     * @param bytes
+     * @return
+     * @throws KapuaException
+     */
+    public static KuraPayloadProto.KuraPayload parse(byte[] bytes)
+            throws KapuaException {
+        try {
+            if (GZIPUtils.isCompressed(bytes)) {
+                try (InputStream is = GZIPUtils.decompressStream(bytes)) {
+                    return KuraPayloadProto.KuraPayload.parseFrom(is);
+                }
+            }
+            return KuraPayloadProto.KuraPayload.parseFrom(bytes);
+        } catch (InvalidProtocolBufferException ipbe) {
+            throw new MessageException(MessageErrorCodes.INVALID_MESSAGE, ipbe, new Object[] { ipbe.getMessage() });
+        } catch (IOException e) {
+            throw KapuaException.internalError(e);
+        }
+    }
+
+    /**
+     * Get the timestamp of the parsed payload
+     *
+     * @param protoMsg
+     * @return the timestamp or {@code null} if the payload has no timestamp
+     */
+    public static Date decodeTimestamp(KuraPayloadProto.KuraPayload protoMsg) {
+        return protoMsg.hasTimestamp() ? new Date(protoMsg.getTimestamp()) : null;
+    }
+
+    /**
+     * Decode the metrics of the parsed payload into the given map.<br>
+     * The metrics with an unknown value type are ignored.
+     *
+     * @param protoMetrics
+     * @param metrics
+     */
+    public static void decodeMetrics(List<KuraPayloadProto.KuraPayload.KuraMetric> protoMetrics, Map<String, Object> metrics) {
+        for (KuraPayloadProto.KuraPayload.KuraMetric protoMetric : protoMetrics) {
+            try {
+                metrics.put(protoMetric.getName(), decodeMetricValue(protoMetric));
+            } catch (MessageException ihte) {
+                logger.warn("During deserialization, ignoring metric named: {}. Unrecognized value type: {}", protoMetric.getName(), protoMetric.getType(), ihte);
+            }
+        }
+    }
+
+    /**
+     * Decode the position of the parsed payload
+     *
+     * @param protoPosition
+     * @return
+     */
+    public static DevicePosition decodePosition(KuraPayloadProto.KuraPayload.KuraPosition protoPosition) {
+        DevicePosition position = new KuraPosition();
+
+        if (protoPosition.hasLatitude()) {
+            position.setLatitude(protoPosition.getLatitude());
+        }
+        if (protoPosition.hasLongitude()) {
+            position.setLongitude(protoPosition.getLongitude());
+        }
+        if (protoPosition.hasAltitude()) {
+            position.setAltitude(protoPosition.getAltitude());
+        }
+        if (protoPosition.hasPrecision()) {
+            position.setPrecision(protoPosition.getPrecision());
+        }
+        if (protoPosition.hasHeading()) {
+            position.setHeading(protoPosition.getHeading());
+        }
+        if (protoPosition.hasSpeed()) {
+            position.setSpeed(protoPosition.getSpeed());
+        }
+        if (protoPosition.hasSatellites()) {
+            position.setSatellites(protoPosition.getSatellites());
+        }
+        if (protoPosition.hasStatus()) {
+            position.setStatus(protoPosition.getStatus());
+        }
+        if (protoPosition.hasTimestamp()) {
+            position.setTimestamp(new Date(protoPosition.getTimestamp()));
+        }
+        return position;
+    }
+
+    private static Object decodeMetricValue(KuraPayloadProto.KuraPayload.KuraMetric metric)
+            throws MessageException {
+        switch (metric.getType()) {
+
+        case DOUBLE:
+            return metric.getDoubleValue();
+
+        case FLOAT:
+            return metric.getFloatValue();
+
+        case INT64:
+            return metric.getLongValue();
+
+        case INT32:
+            return metric.getIntValue();
+
+        case BOOL:
+            return metric.getBoolValue();
+
+        case STRING:
+            return metric.getStringValue();
+
+        case BYTES:
+            ByteString bs = metric.getBytesValue();
+            return bs.toByteArray();
+
+        default:
+            throw new MessageException(MessageErrorCodes.INVALID_METRIC_TYPE, null, metric.getType());
+        }
+    }
+}
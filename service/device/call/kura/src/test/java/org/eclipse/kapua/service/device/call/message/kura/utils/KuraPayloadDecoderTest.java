@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.call.message.kura.utils;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.internal.MessageErrorCodes;
+import org.eclipse.kapua.service.device.call.message.DevicePayload;
+import org.eclipse.kapua.service.device.call.message.DevicePosition;
+import org.eclipse.kapua.service.device.call.message.kura.KuraPayload;
+import org.eclipse.kapua.service.device.call.message.kura.data.KuraDataPayload;
+import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto;
+import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto.KuraPayload.KuraMetric;
+import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto.KuraPayload.KuraMetric.ValueType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Checks the decoding of the Kura payloads, plain and GZIP compressed, and their serialization.
+ */
+public class KuraPayloadDecoderTest {
+
+    private static final List<Supplier<DevicePayload>> PAYLOADS = Arrays.asList(
+            KuraPayload::new,
+            KuraDataPayload::new,
+            org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraPayload::new);
+
+    private static byte[] newPayload(boolean withPosition, boolean withBody) {
+        KuraPayloadProto.KuraPayload.Builder builder = KuraPayloadProto.KuraPayload.newBuilder();
+        builder.setTimestamp(1500000000000L);
+        if (withPosition) {
+            builder.setPosition(KuraPayloadProto.KuraPayload.KuraPosition.newBuilder()
+                    .setLatitude(46.1)
+                    .setLongitude(13.2)
+                    .setAltitude(150.5)
+                    .setHeading(90.0)
+                    .setSatellites(7)
+                    .setStatus(4)
+                    .setTimestamp(1499999999000L));
+        }
+        builder.addMetric(KuraMetric.newBuilder().setName("double").setType(ValueType.DOUBLE).setDoubleValue(1.5));
+        builder.addMetric(KuraMetric.newBuilder().setName("float").setType(ValueType.FLOAT).setFloatValue(2.5f));
+        builder.addMetric(KuraMetric.newBuilder().setName("long").setType(ValueType.INT64).setLongValue(3L));
+        builder.addMetric(KuraMetric.newBuilder().setName("int").setType(ValueType.INT32).setIntValue(4));
+        builder.addMetric(KuraMetric.newBuilder().setName("bool").setType(ValueType.BOOL).setBoolValue(true));
+        builder.addMetric(KuraMetric.newBuilder().setName("string").setType(ValueType.STRING).setStringValue("value"));
+        builder.addMetric(KuraMetric.newBuilder().setName("bytes").setType(ValueType.BYTES).setBytesValue(ByteString.copyFrom(new byte[] { 1, 2, 3 })));
+        if (withBody) {
+            builder.setBody(ByteString.copyFrom(new byte[] { 10, 20, 30, 40 }));
+        }
+        return builder.build().toByteArray();
+    }
+
+    private static DevicePayload read(Supplier<DevicePayload> payloadSupplier, byte[] bytes) throws KapuaException {
+        DevicePayload payload = payloadSupplier.get();
+        payload.readFromByteArray(bytes);
+        return payload;
+    }
+
+    private static void assertEquivalent(DevicePayload expected, DevicePayload actual) {
+        Assert.assertEquals(expected.getTimestamp(), actual.getTimestamp());
+
+        DevicePosition expectedPosition = expected.getPosition();
+        DevicePosition actualPosition = actual.getPosition();
+        if (expectedPosition == null) {
+            Assert.assertNull(actualPosition);
+        } else {
+            Assert.assertEquals(expectedPosition.getLatitude(), actualPosition.getLatitude());
+            Assert.assertEquals(expectedPosition.getLongitude(), actualPosition.getLongitude());
+            Assert.assertEquals(expectedPosition.getAltitude(), actualPosition.getAltitude());
+            Assert.assertEquals(expectedPosition.getPrecision(), actualPosition.getPrecision());
+            Assert.assertEquals(expectedPosition.getHeading(), actualPosition.getHeading());
+            Assert.assertEquals(expectedPosition.getSpeed(), actualPosition.getSpeed());
+            Assert.assertEquals(expectedPosition.getSatellites(), actualPosition.getSatellites());
+            Assert.assertEquals(expectedPosition.getStatus(), actualPosition.getStatus());
+            Assert.assertEquals(expectedPosition.getTimestamp(), actualPosition.getTimestamp());
+        }
+
+        Map<String, Object> expectedMetrics = expected.getMetrics();
+        Map<String, Object> actualMetrics = actual.getMetrics();
+        Assert.assertEquals(expectedMetrics.keySet(), actualMetrics.keySet());
+        for (Map.Entry<String, Object> metric : expectedMetrics.entrySet()) {
+            if (metric.getValue() instanceof byte[]) {
+                Assert.assertArrayEquals((byte[]) metric.getValue(), (byte[]) actualMetrics.get(metric.getKey()));
+            } else {
+                Assert.assertEquals(metric.getValue(), actualMetrics.get(metric.getKey()));
+            }
+        }
+
+        Assert.assertArrayEquals(expected.getBody(), actual.getBody());
+    }
+
+    private static void assertDecoded(DevicePayload payload) {
+        Assert.assertEquals(new Date(1500000000000L), payload.getTimestamp());
+        Assert.assertEquals(Double.valueOf(46.1), payload.getPosition().getLatitude());
+        Assert.assertEquals(Integer.valueOf(7), payload.getPosition().getSatellites());
+        Assert.assertEquals(1.5, payload.getMetrics().get("double"));
+        Assert.assertEquals(2.5f, payload.getMetrics().get("float"));
+        Assert.assertEquals(3L, payload.getMetrics().get("long"));
+        Assert.assertEquals(4, payload.getMetrics().get("int"));
+        Assert.assertEquals(true, payload.getMetrics().get("bool"));
+        Assert.assertEquals("value", payload.getMetrics().get("string"));
+        Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) payload.getMetrics().get("bytes"));
+        Assert.assertArrayEquals(new byte[] { 10, 20, 30, 40 }, payload.getBody());
+    }
+
+    @Test
+    public void testDecodingValues() throws KapuaException {
+        for (Supplier<DevicePayload> payloadSupplier : PAYLOADS) {
+            DevicePayload payload = read(payloadSupplier, newPayload(true, true));
+            assertDecoded(payload);
+
+            payload = read(payloadSupplier, newPayload(false, false));
+            Assert.assertNull(payload.getPosition());
+            Assert.assertNull(payload.getBody());
+            Assert.assertEquals(7, payload.getMetrics().size());
+        }
+    }
+
+    @Test
+    public void testCompressedPayloadDecoded() throws Exception {
+        byte[] bytes = newPayload(true, true);
+        byte[] compressedBytes = GZIPUtils.compress(bytes);
+
+        for (Supplier<DevicePayload> payloadSupplier : PAYLOADS) {
+            assertEquivalent(read(payloadSupplier, bytes), read(payloadSupplier, compressedBytes));
+        }
+    }
+
+    @Test
+    public void testPayloadSerializedAgain() throws KapuaException {
+        for (Supplier<DevicePayload> payloadSupplier : PAYLOADS) {
+            for (boolean withPosition : new boolean[] { true, false }) {
+                for (boolean withBody : new boolean[] { true, false }) {
+                    DevicePayload payload = read(payloadSupplier, newPayload(withPosition, withBody));
+                    assertEquivalent(payload, read(payloadSupplier, payload.toByteArray()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMetricsMergedOnSecondRead() throws KapuaException {
+        KuraPayloadProto.KuraPayload.Builder builder = KuraPayloadProto.KuraPayload.newBuilder();
+        builder.addMetric(KuraMetric.newBuilder().setName("int").setType(ValueType.INT32).setIntValue(5));
+        builder.addMetric(KuraMetric.newBuilder().setName("other").setType(ValueType.STRING).setStringValue("other"));
+        byte[] secondBytes = builder.build().toByteArray();
+
+        for (Supplier<DevicePayload> payloadSupplier : PAYLOADS) {
+            DevicePayload payload = read(payloadSupplier, newPayload(false, false));
+            payload.readFromByteArray(secondBytes);
+
+            Assert.assertEquals(8, payload.getMetrics().size());
+            Assert.assertEquals(5, payload.getMetrics().get("int"));
+            Assert.assertEquals("other", payload.getMetrics().get("other"));
+            Assert.assertEquals("value", payload.getMetrics().get("string"));
+        }
+    }
+
+    @Test
+    public void testInvalidPayload() {
+        try {
+            KuraPayloadDecoder.parse(new byte[] { 1, 2, 3 });
+            Assert.fail("The payload should not be parsed!");
+        } catch (KapuaException e) {
+            Assert.assertEquals(MessageErrorCodes.INVALID_MESSAGE, e.getCode());
+        }
+    }
+}
@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.device.management.command;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.KapuaService;
@@ -38,4 +40,19 @@ public interface DeviceCommandManagementService extends KapuaService
      */
     public DeviceCommandOutput exec(KapuaId scopeId, KapuaId deviceId, DeviceCommandInput commandInput, Long timeout)
         throws KapuaException;
+
+    /**
+     * Execute the given device command with the provided options without waiting for the device response.<br>
+     * The returned future is completed with the command output once the device responds (or exceptionally if the execution fails or times out).
+     * 
+     * @param scopeId
+     * @param deviceId
+     * @param commandInput
+     * @param timeout command timeout
+     * @return
+     * @throws KapuaException
+     *             if the arguments are not valid or the caller is not allowed to execute the command
+     */
+    public CompletableFuture<DeviceCommandOutput> execAsync(KapuaId scopeId, KapuaId deviceId, DeviceCommandInput commandInput, Long timeout)
+        throws KapuaException;
 }
@@ -12,8 +12,12 @@
 package org.eclipse.kapua.service.device.management.command.internal;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.security.KapuaSecurityUtils;
+import org.eclipse.kapua.commons.security.KapuaSession;
 import org.eclipse.kapua.commons.util.ArgumentValidator;
 import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.locator.KapuaProvider;
@@ -48,10 +52,50 @@ public class DeviceCommandManagementServiceImpl implements DeviceCommandManageme
 
     private static final Domain deviceManagementDomain = new DeviceManagementDomain();
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @SuppressWarnings({ "rawtypes" })
     @Override
     public DeviceCommandOutput exec(KapuaId scopeId, KapuaId deviceId, DeviceCommandInput commandInput, Long timeout)
             throws KapuaException {
+        CommandRequestMessage commandRequestMessage = prepareRequest(scopeId, deviceId, commandInput);
+
+        //
+        // Do exec
+        DeviceCallExecutor deviceApplicationCall = new DeviceCallExecutor(commandRequestMessage, timeout);
+        CommandResponseMessage responseMessage = (CommandResponseMessage) deviceApplicationCall.send();
+
+        return handleResponse(scopeId, deviceId, responseMessage);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    public CompletableFuture<DeviceCommandOutput> execAsync(KapuaId scopeId, KapuaId deviceId, DeviceCommandInput commandInput, Long timeout)
+            throws KapuaException {
+        CommandRequestMessage commandRequestMessage = prepareRequest(scopeId, deviceId, commandInput);
+
+        //
+        // Do exec, the response is handled with the session of the caller.
+        // The response thread doesn't have the Shiro subject of the caller (whose access has been checked above), so the response is handled as privileged
+        KapuaSession session = KapuaSecurityUtils.getSession();
+        DeviceCallExecutor deviceApplicationCall = new DeviceCallExecutor(commandRequestMessage, timeout);
+        CompletableFuture<CommandResponseMessage> response = deviceApplicationCall.sendAsync();
+        return response.thenApply(responseMessage -> {
+            KapuaSession previousSession = KapuaSecurityUtils.getSession();
+            KapuaSecurityUtils.setSession(session);
+            try {
+                return KapuaSecurityUtils.doPrivileged(() -> handleResponse(scopeId, deviceId, responseMessage));
+            } catch (KapuaException e) {
+                throw new CompletionException(e);
+            } finally {
+                KapuaSecurityUtils.setSession(previousSession);
+            }
+        });
+    }
+
+    /**
+     * Validate the arguments, check the access and build the command request message
+     */
+    private CommandRequestMessage prepareRequest(KapuaId scopeId, KapuaId deviceId, DeviceCommandInput commandInput)
+            throws KapuaException {
         //
         // Argument Validation
         ArgumentValidator.notNull(scopeId, "scopeId");
@@ -90,14 +134,17 @@ public class DeviceCommandManagementServiceImpl implements DeviceCommandManageme
         commandRequestMessage.setCapturedOn(new Date());
         commandRequestMessage.setPayload(commandRequestPayload);
         commandRequestMessage.setChannel(commandRequestChannel);
+        return commandRequestMessage;
+    }
 
-        //
-        // Do exec
-        DeviceCallExecutor deviceApplicationCall = new DeviceCallExecutor(commandRequestMessage, timeout);
-        CommandResponseMessage responseMessage = (CommandResponseMessage) deviceApplicationCall.send();
-
+    /**
+     * Create the device event and build the command output from the device response
+     */
+    private DeviceCommandOutput handleResponse(KapuaId scopeId, KapuaId deviceId, CommandResponseMessage responseMessage)
+            throws KapuaException {
         //
         // Create event
+        KapuaLocator locator = KapuaLocator.getInstance();
         DeviceEventService deviceEventService = locator.getService(DeviceEventService.class);
         DeviceEventFactory deviceEventFactory = locator.getFactory(DeviceEventFactory.class);
 
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.command.internal;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.KapuaErrorCodes;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.commons.security.KapuaSecurityUtils;
+import org.eclipse.kapua.commons.security.KapuaSession;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.AuthorizationService;
+import org.eclipse.kapua.service.authorization.domain.Domain;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.authorization.permission.Permission;
+import org.eclipse.kapua.service.authorization.permission.PermissionFactory;
+import org.eclipse.kapua.service.device.call.DeviceCall;
+import org.eclipse.kapua.service.device.call.DeviceCallFactory;
+import org.eclipse.kapua.service.device.call.message.DeviceMessage;
+import org.eclipse.kapua.service.device.call.message.app.request.DeviceRequestMessage;
+import org.eclipse.kapua.service.device.call.message.app.response.DeviceResponseMessage;
+import org.eclipse.kapua.service.device.management.command.DeviceCommandInput;
+import org.eclipse.kapua.service.device.management.command.DeviceCommandOutput;
+import org.eclipse.kapua.service.device.management.command.message.internal.CommandRequestMessage;
+import org.eclipse.kapua.service.device.management.command.message.internal.CommandResponseMessage;
+import org.eclipse.kapua.service.device.management.command.message.internal.CommandResponsePayload;
+import org.eclipse.kapua.service.device.management.response.KapuaResponseCode;
+import org.eclipse.kapua.service.device.registry.event.DeviceEventCreator;
+import org.eclipse.kapua.service.device.registry.event.DeviceEventFactory;
+import org.eclipse.kapua.service.device.registry.event.DeviceEventService;
+import org.eclipse.kapua.test.MockedLocator;
+import org.eclipse.kapua.translator.Translator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the asynchronous command execution through the service, the device call executor and the translators (the device call and the other services are
+ * mocked).<br>
+ * The mocked authorization service behaves as the Shiro one: the permissions are granted only on the thread of the caller (the one bound to its
+ * subject) or in trusted mode.
+ */
+public class DeviceCommandManagementServiceImplTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.valueOf(2));
+    private static final KapuaId DEVICE_ID = new KapuaEid(BigInteger.valueOf(4));
+
+    private ExecutorService transportExecutor;
+    private Thread callerThread;
+    private DeviceCall<?, ?> deviceCall;
+    private DeviceEventService deviceEventService;
+    private Permission deniedPermission;
+
+    @Before
+    public void setUp() throws KapuaException {
+        // the device responses are completed by the transport thread
+        transportExecutor = Executors.newSingleThreadExecutor();
+        callerThread = Thread.currentThread();
+        KapuaSecurityUtils.setSession(new KapuaSession());
+
+        AuthorizationService authorizationService = mock(AuthorizationService.class);
+        doAnswer(invocation -> {
+            if ((deniedPermission != null && invocation.getArguments()[0] == deniedPermission) ||
+                    (!KapuaSecurityUtils.getSession().isTrustedMode() && Thread.currentThread() != callerThread)) {
+                throw new KapuaException(KapuaErrorCodes.ILLEGAL_ACCESS);
+            }
+            return null;
+        }).when(authorizationService).checkPermission(any(Permission.class));
+
+        // the device event service checks the permissions as the actual one
+        deviceEventService = mock(DeviceEventService.class);
+        when(deviceEventService.create(any(DeviceEventCreator.class))).thenAnswer(invocation -> {
+            authorizationService.checkPermission(mock(Permission.class));
+            return null;
+        });
+        DeviceEventFactory deviceEventFactory = mock(DeviceEventFactory.class);
+        when(deviceEventFactory.newCreator(any(KapuaId.class), any(KapuaId.class), any(Date.class), any(String.class))).thenReturn(mock(DeviceEventCreator.class));
+
+        deviceCall = mock(DeviceCall.class);
+        doReturn(DeviceMessage.class).when(deviceCall).getBaseMessageClass();
+        DeviceCallFactory deviceCallFactory = mock(DeviceCallFactory.class);
+        doReturn(deviceCall).when(deviceCallFactory).newDeviceCall();
+
+        MockedLocator locator = (MockedLocator) KapuaLocator.getInstance();
+        locator.setMockedService(AuthorizationService.class, authorizationService);
+        locator.setMockedFactory(PermissionFactory.class, mock(PermissionFactory.class));
+        locator.setMockedService(DeviceEventService.class, deviceEventService);
+        locator.setMockedFactory(DeviceEventFactory.class, deviceEventFactory);
+        locator.setMockedFactory(DeviceCallFactory.class, deviceCallFactory);
+    }
+
+    @After
+    public void tearDown() {
+        transportExecutor.shutdownNow();
+        KapuaSecurityUtils.clearSession();
+    }
+
+    private static DeviceCommandInput newCommandInput() {
+        DeviceCommandInput commandInput = new DeviceCommandInputImpl();
+        commandInput.setCommand("ls");
+        commandInput.setTimeout(1000);
+        return commandInput;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void respondWith(CompletableFuture response) {
+        when(((DeviceCall) deviceCall).sendAsync(any(DeviceRequestMessage.class), any(Long.class))).thenReturn(response);
+    }
+
+    @Test
+    public void testExecAsyncResponseHandled() throws Exception {
+        respondWith(CompletableFuture.supplyAsync(() -> mock(DeviceResponseMessage.class), transportExecutor));
+
+        DeviceCommandOutput commandOutput = new DeviceCommandManagementServiceImpl().execAsync(SCOPE_ID, DEVICE_ID, newCommandInput(), 1000L)
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals("output", commandOutput.getStdout());
+        Assert.assertEquals(Integer.valueOf(0), commandOutput.getExitCode());
+        verify(deviceEventService).create(any(DeviceEventCreator.class));
+
+        // the caller session is left as it was
+        Assert.assertFalse(KapuaSecurityUtils.getSession().isTrustedMode());
+    }
+
+    @Test
+    public void testExecAsyncAccessChecked() throws Exception {
+        deniedPermission = mock(Permission.class);
+        PermissionFactory permissionFactory = KapuaLocator.getInstance().getFactory(PermissionFactory.class);
+        when(permissionFactory.newPermission(any(Domain.class), any(Actions.class), any(KapuaId.class))).thenReturn(deniedPermission);
+
+        try {
+            new DeviceCommandManagementServiceImpl().execAsync(SCOPE_ID, DEVICE_ID, newCommandInput(), 1000L);
+            Assert.fail("The command should not be sent!");
+        } catch (KapuaException e) {
+            Assert.assertEquals(KapuaErrorCodes.ILLEGAL_ACCESS, e.getCode());
+        }
+    }
+
+    @Test
+    public void testExecAsyncCallFailed() throws Exception {
+        CompletableFuture<DeviceResponseMessage> response = new CompletableFuture<>();
+        respondWith(response);
+
+        CompletableFuture<DeviceCommandOutput> commandOutput = new DeviceCommandManagementServiceImpl().execAsync(SCOPE_ID, DEVICE_ID, newCommandInput(), 1000L);
+        response.completeExceptionally(new KapuaException(KapuaErrorCodes.INTERNAL_ERROR));
+
+        try {
+            commandOutput.get(5, TimeUnit.SECONDS);
+            Assert.fail("The command should fail!");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof KapuaException);
+        }
+        verify(deviceEventService, never()).create(any(DeviceEventCreator.class));
+    }
+
+    /**
+     * Translates the command request to a device request (registered as service in the test resources)
+     */
+    @SuppressWarnings("rawtypes")
+    public static class TestRequestTranslator extends Translator<CommandRequestMessage, DeviceRequestMessage> {
+
+        @Override
+        public DeviceRequestMessage translate(CommandRequestMessage message) {
+            return mock(DeviceRequestMessage.class);
+        }
+
+        @Override
+        public Class<CommandRequestMessage> getClassFrom() {
+            return CommandRequestMessage.class;
+        }
+
+        @Override
+        public Class<DeviceRequestMessage> getClassTo() {
+            return DeviceRequestMessage.class;
+        }
+    }
+
+    /**
+     * Translates the device response to a successful command response (registered as service in the test resources)
+     */
+    @SuppressWarnings("rawtypes")
+    public static class TestResponseTranslator extends Translator<DeviceResponseMessage, CommandResponseMessage> {
+
+        @Override
+        public CommandResponseMessage translate(DeviceResponseMessage message) {
+            CommandResponsePayload responsePayload = new CommandResponsePayload();
+            responsePayload.setStdout("output");
+            responsePayload.setExitCode(0);
+
+            CommandResponseMessage responseMessage = new CommandResponseMessage();
+            responseMessage.setResponseCode(KapuaResponseCode.ACCEPTED);
+            responseMessage.setReceivedOn(new Date());
+            responseMessage.setPayload(responsePayload);
+            return responseMessage;
+        }
+
+        @Override
+        public Class<DeviceResponseMessage> getClassFrom() {
+            return DeviceResponseMessage.class;
+        }
+
+        @Override
+        public Class<CommandResponseMessage> getClassTo() {
+            return CommandResponseMessage.class;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.commons.bulk;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.model.id.KapuaId;
+
+/**
+ * Non blocking device management operation applied to each of the target devices of a {@link DeviceBulkJob}.<br>
+ * It is usually an asynchronous call to one of the device management services (i.e. command execution), so a job worker doesn't wait for the device
+ * response.
+ *
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface DeviceBulkAsyncOperation {
+
+    /**
+     * Start the operation on the given device
+     *
+     * @param scopeId
+     * @param deviceId
+     * @param timeout
+     *            the device request timeout
+     * @return the future completed when the device operation ends
+     * @throws KapuaException
+     */
+    public CompletableFuture<?> execute(KapuaId scopeId, KapuaId deviceId, Long timeout)
+            throws KapuaException;
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.commons.bulk;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+
+/**
+ * Bulk device management job.<br>
+ * It holds the target devices still to be processed, the result of the processed devices and the progress counters of a {@link DeviceBulkOperation}
+ * applied to all the devices matching a device query.
+ *
+ * @since 1.0.0
+ */
+public class DeviceBulkJob {
+
+    /**
+     * Job status
+     *
+     * @since 1.0.0
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        CANCELED
+    }
+
+    private final String id;
+    private final KapuaId scopeId;
+    private final String operationName;
+    private final Actions action;
+    private final int parallelism;
+    private final int targetCount;
+    private final Date startedOn;
+    private volatile Date endedOn;
+    private volatile Status status;
+
+    private final Queue<KapuaId> pendingDevices;
+    private final Queue<DeviceBulkResult> results = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger succeededCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final AtomicInteger canceledCount = new AtomicInteger();
+    private final AtomicInteger retriedCount = new AtomicInteger();
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+
+    DeviceBulkJob(KapuaId scopeId, String operationName, Actions action, int parallelism, Collection<KapuaId> targetDevices) {
+        this.id = UUID.randomUUID().toString();
+        this.scopeId = scopeId;
+        this.operationName = operationName;
+        this.action = action;
+        this.parallelism = parallelism;
+        this.targetCount = targetDevices.size();
+        this.pendingDevices = new ConcurrentLinkedQueue<>(targetDevices);
+        this.startedOn = new Date();
+        this.status = targetDevices.isEmpty() ? Status.COMPLETED : Status.RUNNING;
+        this.endedOn = targetDevices.isEmpty() ? startedOn : null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public KapuaId getScopeId() {
+        return scopeId;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    /**
+     * Get the device management action performed by the job operation
+     *
+     * @return
+     */
+    public Actions getAction() {
+        return action;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Date getStartedOn() {
+        return startedOn;
+    }
+
+    public Date getEndedOn() {
+        return endedOn;
+    }
+
+    /**
+     * Get the number of devices matching the query when the job was started
+     *
+     * @return
+     */
+    public int getTargetCount() {
+        return targetCount;
+    }
+
+    public int getSucceededCount() {
+        return succeededCount.get();
+    }
+
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Get the number of devices not processed because the job was canceled
+     *
+     * @return
+     */
+    public int getCanceledCount() {
+        return canceledCount.get();
+    }
+
+    /**
+     * Get the number of device requests executed again after a timeout
+     *
+     * @return
+     */
+    public int getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    /**
+     * Get the number of devices not yet processed (the devices being processed included)
+     *
+     * @return
+     */
+    public int getPendingCount() {
+        return targetCount - succeededCount.get() - failedCount.get() - canceledCount.get();
+    }
+
+    /**
+     * Check if the job is ended (all the devices are processed or the job was canceled and the devices being processed completed their operation)
+     *
+     * @return
+     */
+    public boolean isEnded() {
+        return endedOn != null;
+    }
+
+    /**
+     * Get the result of the processed devices (in completion order)
+     *
+     * @return
+     */
+    public List<DeviceBulkResult> getResults() {
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Cancel the job.<br>
+     * The devices being processed complete their operation, the pending devices are not processed (and they are counted as canceled).
+     *
+     * @return {@code true} if the job is ended by this call (no device was being processed)
+     */
+    boolean cancel() {
+        if (status != Status.RUNNING) {
+            return false;
+        }
+        status = Status.CANCELED;
+        while (pendingDevices.poll() != null) {
+            canceledCount.incrementAndGet();
+        }
+        return runningWorkers.get() == 0 && end();
+    }
+
+    //
+    // Worker methods
+    //
+    KapuaId nextDevice() {
+        return status == Status.RUNNING ? pendingDevices.poll() : null;
+    }
+
+    void addResult(DeviceBulkResult result) {
+        results.add(result);
+        if (result.getStatus() == DeviceBulkResult.Status.SUCCEEDED) {
+            succeededCount.incrementAndGet();
+        } else {
+            failedCount.incrementAndGet();
+        }
+        retriedCount.addAndGet(result.getAttempts() - 1);
+    }
+
+    void workerStarted() {
+        runningWorkers.incrementAndGet();
+    }
+
+    /**
+     * @return {@code true} if the job is ended by this call (it was the last running worker)
+     */
+    boolean workerEnded() {
+        return runningWorkers.decrementAndGet() == 0 && (pendingDevices.isEmpty() || status != Status.RUNNING) && end();
+    }
+
+    private synchronized boolean end() {
+        if (endedOn != null) {
+            return false;
+        }
+        if (status == Status.RUNNING) {
+            status = Status.COMPLETED;
+        }
+        endedOn = new Date();
+        return true;
+    }
+}
@@ -0,0 +1,454 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.commons.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.kapua.KapuaErrorCode;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.cache.LocalCache;
+import org.eclipse.kapua.commons.model.query.FieldSortCriteria;
+import org.eclipse.kapua.commons.model.query.FieldSortCriteria.SortOrder;
+import org.eclipse.kapua.commons.security.KapuaSecurityUtils;
+import org.eclipse.kapua.commons.security.KapuaSession;
+import org.eclipse.kapua.commons.util.ArgumentValidator;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.model.KapuaEntityPredicates;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.AuthorizationService;
+import org.eclipse.kapua.service.authorization.domain.Domain;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.authorization.permission.PermissionFactory;
+import org.eclipse.kapua.service.device.call.kura.exception.KuraMqttDeviceCallErrorCodes;
+import org.eclipse.kapua.service.device.management.commons.DeviceManagementDomain;
+import org.eclipse.kapua.service.device.management.commons.setting.DeviceManagementSetting;
+import org.eclipse.kapua.service.device.management.commons.setting.DeviceManagementSettingKey;
+import org.eclipse.kapua.service.device.registry.Device;
+import org.eclipse.kapua.service.device.registry.DeviceListResult;
+import org.eclipse.kapua.service.device.registry.DeviceQuery;
+import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the {@link DeviceBulkJob}s.<br>
+ * The target devices of a job are processed by a bounded number of workers (the job parallelism), each of them applying the {@link DeviceBulkOperation}
+ * to one device at a time. The workers of all the jobs share a bounded thread pool. The device requests timed out are retried up to the configured number
+ * of times.<br>
+ * A {@link DeviceBulkAsyncOperation} doesn't hold a worker thread while waiting for the device response: the worker moves to the next device once the
+ * response of the previous one is received.<br>
+ * The jobs are kept in memory (on the node which started them), so their progress can be queried: the running jobs are kept until they end, the ended
+ * jobs until they expire.
+ *
+ * @since 1.0.0
+ */
+public class DeviceBulkJobManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceBulkJobManager.class);
+
+    private static final Domain deviceManagementDomain = new DeviceManagementDomain();
+
+    /**
+     * Error codes of the device request timeouts (the MQTT transport error code is matched by name, the transport implementation is not a dependency of this module)
+     */
+    private static final KapuaErrorCode TIMEOUT_ERROR_CODE = KuraMqttDeviceCallErrorCodes.CALL_TIMEOUT;
+    private static final String TRANSPORT_TIMEOUT_ERROR_CODE = "CLIENT_TIMEOUT_EXCEPTION";
+
+    private static final DeviceBulkJobManager instance = new DeviceBulkJobManager();
+
+    private final Map<String, DeviceBulkJob> runningJobs = new ConcurrentHashMap<>();
+    private final LocalCache<String, DeviceBulkJob> endedJobs;
+    private final ExecutorService workersExecutor;
+
+    private final int defaultParallelism;
+    private final int maxParallelism;
+    private final int maxRetries;
+    private final int queryPageSize;
+
+    private DeviceBulkJobManager() {
+        DeviceManagementSetting config = DeviceManagementSetting.getInstance();
+        defaultParallelism = config.getInt(DeviceManagementSettingKey.BULK_PARALLELISM_DEFAULT, 16);
+        maxParallelism = config.getInt(DeviceManagementSettingKey.BULK_PARALLELISM_MAX, 64);
+        maxRetries = config.getInt(DeviceManagementSettingKey.BULK_RETRY_MAX, 2);
+        queryPageSize = config.getInt(DeviceManagementSettingKey.BULK_QUERY_PAGE_SIZE, 500);
+        int expireAfter = config.getInt(DeviceManagementSettingKey.BULK_JOB_EXPIRE_AFTER, 86400);
+        int sizeMax = config.getInt(DeviceManagementSettingKey.BULK_JOB_SIZE_MAXIMUM, 1000);
+        int workersMax = config.getInt(DeviceManagementSettingKey.BULK_WORKERS_MAX, 256);
+
+        endedJobs = new LocalCache<>(sizeMax, expireAfter, null);
+
+        // the workers exceeding the pool size wait in the queue for a thread
+        AtomicInteger workerCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workersMax, workersMax, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "DeviceBulkJobWorker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        workersExecutor = executor;
+    }
+
+    /**
+     * Get the bulk job manager instance (singleton)
+     *
+     * @return
+     */
+    public static DeviceBulkJobManager getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start a job applying the operation to all the devices matching the query.<br>
+     * The target devices are resolved before returning, the operation is applied in background with the session of the caller.
+     *
+     * @param scopeId
+     * @param query
+     *            the target devices query
+     * @param action
+     *            the device management action performed by the operation (checked once for the whole job)
+     * @param operationName
+     *            the operation description
+     * @param operation
+     * @param parallelism
+     *            the number of devices processed in parallel (if {@code null} the configured default is used)
+     * @param timeout
+     *            the device request timeout
+     * @return the started job
+     * @throws KapuaException
+     */
+    public DeviceBulkJob start(KapuaId scopeId, DeviceQuery query, Actions action, String operationName, DeviceBulkOperation operation, Integer parallelism, Long timeout)
+            throws KapuaException {
+        ArgumentValidator.notNull(operation, "operation");
+
+        DeviceBulkJob job = createJob(scopeId, query, action, operationName, parallelism);
+        KapuaSession session = KapuaSecurityUtils.getSession();
+        int workers = Math.min(job.getParallelism(), job.getTargetCount());
+        for (int i = 0; i < workers; i++) {
+            workersExecutor.execute(() -> runWorker(job, operation, timeout, session));
+        }
+        return job;
+    }
+
+    /**
+     * Start a job applying the non blocking operation to all the devices matching the query.<br>
+     * A worker does not wait for the device response: the next device is processed when the operation future completes.<br>
+     * The target devices are resolved before returning, the operation is applied in background with the session of the caller.
+     *
+     * @param scopeId
+     * @param query
+     *            the target devices query
+     * @param action
+     *            the device management action performed by the operation (checked once for the whole job)
+     * @param operationName
+     *            the operation description
+     * @param operation
+     * @param parallelism
+     *            the number of devices processed in parallel (if {@code null} the configured default is used)
+     * @param timeout
+     *            the device request timeout
+     * @return the started job
+     * @throws KapuaException
+     */
+    public DeviceBulkJob startAsync(KapuaId scopeId, DeviceQuery query, Actions action, String operationName, DeviceBulkAsyncOperation operation, Integer parallelism, Long timeout)
+            throws KapuaException {
+        ArgumentValidator.notNull(operation, "operation");
+
+        DeviceBulkJob job = createJob(scopeId, query, action, operationName, parallelism);
+        KapuaSession session = KapuaSecurityUtils.getSession();
+        int workers = Math.min(job.getParallelism(), job.getTargetCount());
+        for (int i = 0; i < workers; i++) {
+            workersExecutor.execute(() -> runAsyncWorker(job, operation, timeout, session));
+        }
+        return job;
+    }
+
+    /**
+     * Check the access, resolve the target devices and register the new job with its workers started
+     */
+    private DeviceBulkJob createJob(KapuaId scopeId, DeviceQuery query, Actions action, String operationName, Integer parallelism)
+            throws KapuaException {
+        //
+        // Argument Validation
+        ArgumentValidator.notNull(scopeId, "scopeId");
+        ArgumentValidator.notNull(query, "query");
+        ArgumentValidator.notNull(action, "action");
+
+        //
+        // Check Access
+        KapuaLocator locator = KapuaLocator.getInstance();
+        AuthorizationService authorizationService = locator.getService(AuthorizationService.class);
+        PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
+        authorizationService.checkPermission(permissionFactory.newPermission(deviceManagementDomain, action, scopeId));
+
+        //
+        // Resolve the target devices
+        List<KapuaId> targetDevices = new ArrayList<>();
+        DeviceRegistryService deviceRegistryService = locator.getService(DeviceRegistryService.class);
+        query.setScopeId(scopeId);
+        query.setLimit(queryPageSize);
+        // the offset paging needs a stable order
+        query.setSortCriteria(new FieldSortCriteria(KapuaEntityPredicates.ENTITY_ID, SortOrder.ASCENDING));
+        int offset = 0;
+        DeviceListResult devices;
+        do {
+            query.setOffset(offset);
+            devices = deviceRegistryService.query(query);
+            for (Device device : devices.getItems()) {
+                targetDevices.add(device.getId());
+            }
+            offset += queryPageSize;
+        } while (devices.getSize() == queryPageSize);
+
+        //
+        // Start the workers
+        int jobParallelism = Math.max(1, Math.min(parallelism != null ? parallelism : defaultParallelism, maxParallelism));
+        DeviceBulkJob job = new DeviceBulkJob(scopeId, operationName, action, jobParallelism, targetDevices);
+        if (job.isEnded()) {
+            endedJobs.put(job.getId(), job);
+        } else {
+            runningJobs.put(job.getId(), job);
+        }
+
+        int workers = Math.min(jobParallelism, targetDevices.size());
+        for (int i = 0; i < workers; i++) {
+            job.workerStarted();
+        }
+
+        logger.info("Started bulk job {} ({}) on {} devices with parallelism {}", job.getId(), operationName, targetDevices.size(), jobParallelism);
+        return job;
+    }
+
+    /**
+     * Find the job with the given id
+     *
+     * @param scopeId
+     * @param jobId
+     * @return the job or {@code null} if no job with the given id exists in the given scope (or it is expired)
+     * @throws KapuaException
+     */
+    public DeviceBulkJob find(KapuaId scopeId, String jobId)
+            throws KapuaException {
+        //
+        // Argument Validation
+        ArgumentValidator.notNull(scopeId, "scopeId");
+        ArgumentValidator.notNull(jobId, "jobId");
+
+        //
+        // Check Access
+        KapuaLocator locator = KapuaLocator.getInstance();
+        AuthorizationService authorizationService = locator.getService(AuthorizationService.class);
+        PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
+        authorizationService.checkPermission(permissionFactory.newPermission(deviceManagementDomain, Actions.read, scopeId));
+
+        DeviceBulkJob job = runningJobs.get(jobId);
+        if (job == null) {
+            job = endedJobs.get(jobId);
+        }
+        return job != null && job.getScopeId().getId().equals(scopeId.getId()) ? job : null;
+    }
+
+    /**
+     * Cancel the job with the given id.<br>
+     * The caller needs the device management action performed by the job (checked against the job scope).
+     *
+     * @param scopeId
+     * @param jobId
+     * @return the canceled job or {@code null} if no job with the given id exists in the given scope (or it is expired)
+     * @throws KapuaException
+     */
+    public DeviceBulkJob cancel(KapuaId scopeId, String jobId)
+            throws KapuaException {
+        DeviceBulkJob job = find(scopeId, jobId);
+        if (job != null) {
+            //
+            // Check Access
+            KapuaLocator locator = KapuaLocator.getInstance();
+            AuthorizationService authorizationService = locator.getService(AuthorizationService.class);
+            PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
+            authorizationService.checkPermission(permissionFactory.newPermission(deviceManagementDomain, job.getAction(), scopeId));
+
+            if (job.cancel()) {
+                jobEnded(job);
+            }
+        }
+        return job;
+    }
+
+    private void runWorker(DeviceBulkJob job, DeviceBulkOperation operation, Long timeout, KapuaSession session) {
+        KapuaSecurityUtils.setSession(session);
+        try {
+            KapuaId deviceId;
+            while ((deviceId = job.nextDevice()) != null) {
+                job.addResult(execute(job.getScopeId(), deviceId, operation, timeout));
+            }
+        } finally {
+            KapuaSecurityUtils.clearSession();
+            if (job.workerEnded()) {
+                jobEnded(job);
+            }
+        }
+    }
+
+    /**
+     * Process the next device of the job and, once its operation completes, continue with the following one on a worker thread (never on the thread
+     * completing the device operation, i.e. the transport callback thread).<br>
+     * A step failing unexpectedly is recorded as failed and the worker moves on; if the worker cannot move on (e.g. the workers executor is stopped) it
+     * ends, so the job always ends.
+     *
+     * @param job
+     * @param operation
+     * @param timeout
+     * @param session
+     */
+    void runAsyncWorker(DeviceBulkJob job, DeviceBulkAsyncOperation operation, Long timeout, KapuaSession session) {
+        KapuaId deviceId;
+        try {
+            deviceId = job.nextDevice();
+        } catch (RuntimeException e) {
+            logger.error("Cannot get the next device of the bulk job {}", job.getId(), e);
+            deviceId = null;
+        }
+        if (deviceId == null) {
+            if (job.workerEnded()) {
+                jobEnded(job);
+            }
+            return;
+        }
+
+        KapuaId currentDeviceId = deviceId;
+        CompletableFuture<DeviceBulkResult> request;
+        try {
+            request = executeAsync(job.getScopeId(), currentDeviceId, operation, timeout, session, 1);
+        } catch (RuntimeException e) {
+            request = new CompletableFuture<>();
+            request.completeExceptionally(e);
+        }
+
+        request.handle((result, exception) -> {
+            if (exception == null) {
+                return result;
+            }
+            Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+            logger.warn("Bulk operation on device {} failed unexpectedly", currentDeviceId, cause);
+            return new DeviceBulkResult(currentDeviceId, DeviceBulkResult.Status.FAILED, 1, cause.getMessage());
+        }).thenAcceptAsync(result -> {
+            try {
+                job.addResult(result);
+            } catch (RuntimeException e) {
+                logger.error("Cannot record the result of the bulk job {} on device {}", job.getId(), currentDeviceId, e);
+            }
+            runAsyncWorker(job, operation, timeout, session);
+        }, workersExecutor).whenComplete((nothing, exception) -> {
+            if (exception != null) {
+                logger.error("Bulk job {} worker stopped", job.getId(), exception);
+                if (job.workerEnded()) {
+                    jobEnded(job);
+                }
+            }
+        });
+    }
+
+    /**
+     * Move the ended job to the expiring jobs (only the ended jobs can be evicted)
+     *
+     * @param job
+     */
+    private void jobEnded(DeviceBulkJob job) {
+        endedJobs.put(job.getId(), job);
+        runningJobs.remove(job.getId());
+        logger.info("Ended bulk job {} ({}) with status {}", job.getId(), job.getOperationName(), job.getStatus());
+    }
+
+    private DeviceBulkResult execute(KapuaId scopeId, KapuaId deviceId, DeviceBulkOperation operation, Long timeout) {
+        int attempts = 0;
+        while (true) {
+            attempts++;
+            try {
+                // the access has been checked when the job was started
+                KapuaSecurityUtils.doPrivileged(() -> {
+                    operation.execute(scopeId, deviceId, timeout);
+                    return null;
+                });
+                return new DeviceBulkResult(deviceId, DeviceBulkResult.Status.SUCCEEDED, attempts, null);
+            } catch (Exception e) {
+                if (attempts <= maxRetries && isTimeout(e)) {
+                    logger.debug("Bulk operation on device {} timed out, retrying", deviceId);
+                    continue;
+                }
+                logger.debug("Bulk operation on device {} failed", deviceId, e);
+                return new DeviceBulkResult(deviceId, DeviceBulkResult.Status.FAILED, attempts, e.getMessage());
+            }
+        }
+    }
+
+    private CompletableFuture<DeviceBulkResult> executeAsync(KapuaId scopeId, KapuaId deviceId, DeviceBulkAsyncOperation operation, Long timeout, KapuaSession session,
+            int attempts) {
+        CompletableFuture<?> request;
+        KapuaSession previousSession = KapuaSecurityUtils.getSession();
+        KapuaSecurityUtils.setSession(session);
+        try {
+            // the access has been checked when the job was started
+            request = KapuaSecurityUtils.doPrivileged(() -> operation.execute(scopeId, deviceId, timeout));
+        } catch (Exception e) {
+            request = new CompletableFuture<>();
+            request.completeExceptionally(e);
+        } finally {
+            KapuaSecurityUtils.setSession(previousSession);
+        }
+
+        return request.handle((response, exception) -> exception)
+                .thenComposeAsync(exception -> {
+                    if (exception == null) {
+                        return CompletableFuture.completedFuture(new DeviceBulkResult(deviceId, DeviceBulkResult.Status.SUCCEEDED, attempts, null));
+                    }
+                    if (attempts <= maxRetries && isTimeout(exception)) {
+                        logger.debug("Bulk operation on device {} timed out, retrying", deviceId);
+                        return executeAsync(scopeId, deviceId, operation, timeout, session, attempts + 1);
+                    }
+                    Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+                    logger.debug("Bulk operation on device {} failed", deviceId, cause);
+                    return CompletableFuture.completedFuture(new DeviceBulkResult(deviceId, DeviceBulkResult.Status.FAILED, attempts, cause.getMessage()));
+                }, workersExecutor);
+    }
+
+    /**
+     * Check if the failure is caused by a device request timeout (i.e. the transport or the device call timeout error codes)
+     *
+     * @param exception
+     * @return
+     */
+    static boolean isTimeout(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
+            if (cause instanceof KapuaException) {
+                KapuaErrorCode code = ((KapuaException) cause).getCode();
+                if (code == TIMEOUT_ERROR_CODE || (code instanceof Enum && TRANSPORT_TIMEOUT_ERROR_CODE.equals(((Enum<?>) code).name()))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
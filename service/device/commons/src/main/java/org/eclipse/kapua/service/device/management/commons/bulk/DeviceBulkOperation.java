@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.commons.bulk;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.model.id.KapuaId;
+
+/**
+ * Device management operation applied to each of the target devices of a {@link DeviceBulkJob}.<br>
+ * It is usually a call to one of the device management services (i.e. command execution, configuration update or package download).
+ *
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface DeviceBulkOperation {
+
+    /**
+     * Execute the operation on the given device
+     *
+     * @param scopeId
+     * @param deviceId
+     * @param timeout
+     *            the device request timeout
+     * @throws KapuaException
+     */
+    public void execute(KapuaId scopeId, KapuaId deviceId, Long timeout)
+            throws KapuaException;
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.commons.bulk;
+
+import java.util.Date;
+
+import org.eclipse.kapua.model.id.KapuaId;
+
+/**
+ * Result of a {@link DeviceBulkOperation} on a single device.
+ *
+ * @since 1.0.0
+ */
+public class DeviceBulkResult {
+
+    /**
+     * Device operation outcome
+     *
+     * @since 1.0.0
+     */
+    public enum Status {
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final KapuaId deviceId;
+    private final Status status;
+    private final int attempts;
+    private final String errorMessage;
+    private final Date completedOn;
+
+    /**
+     * Constructor
+     *
+     * @param deviceId
+     * @param status
+     * @param attempts
+     * @param errorMessage
+     */
+    public DeviceBulkResult(KapuaId deviceId, Status status, int attempts, String errorMessage) {
+        this.deviceId = deviceId;
+        this.status = status;
+        this.attempts = attempts;
+        this.errorMessage = errorMessage;
+        this.completedOn = new Date();
+    }
+
+    public KapuaId getDeviceId() {
+        return deviceId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the number of times the operation has been executed on the device (retries included)
+     *
+     * @return
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public Date getCompletedOn() {
+        return completedOn;
+    }
+}
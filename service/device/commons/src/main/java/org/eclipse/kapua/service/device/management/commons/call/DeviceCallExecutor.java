@@ -12,7 +12,12 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.device.management.commons.call;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.security.KapuaSecurityUtils;
+import org.eclipse.kapua.commons.security.KapuaSession;
 import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.service.device.call.DeviceCall;
 import org.eclipse.kapua.service.device.call.DeviceCallFactory;
@@ -132,4 +137,61 @@ public class DeviceCallExecutor<C extends KapuaRequestChannel, P extends KapuaRe
 
         return (RS) tClientToKapua.translate(responseMessage);
     }
+
+    /**
+     * Performs the device call without blocking the caller while waiting for the device response.<br>
+     * The returned future is completed by the transport layer once the response is received (or exceptionally if the call fails or times out).<br>
+     * The response is translated by the {@link DeviceCallResponseExecutor} with the session of the caller.
+     * 
+     * @return
+     */
+    @SuppressWarnings({ "unchecked" })
+    public CompletableFuture<RS> sendAsync()
+    {
+        KapuaSession session = KapuaSecurityUtils.getSession();
+        try {
+            //
+            // Get the correct device call
+            KapuaLocator locator = KapuaLocator.getInstance();
+            DeviceCallFactory kapuaDeviceCallFactory = locator.getFactory(DeviceCallFactory.class);
+            DeviceCall<DeviceRequestMessage, DeviceResponseMessage> deviceCall = kapuaDeviceCallFactory.newDeviceCall();
+            Translator tKapuaToClient = Translator.getTranslatorFor(requestMessage.getRequestClass(),
+                                                                    deviceCall.getBaseMessageClass());
+            Translator tClientToKapua = Translator.getTranslatorFor(deviceCall.getBaseMessageClass(),
+                                                                    requestMessage.getResponseClass());
+
+            timeout = timeout == null ? DeviceManagementSetting.getInstance().getLong(DeviceManagementSettingKey.REQUEST_TIMEOUT) : timeout;
+
+            if (requestMessage.getChannel().getMethod() == null) {
+                throw new DeviceManagementException(DeviceManagementErrorCodes.REQUEST_BAD_METHOD,
+                                                    null,
+                                                    requestMessage.getChannel().getMethod());
+            }
+
+            DeviceRequestMessage deviceRequestMessage = (DeviceRequestMessage) tKapuaToClient.translate(requestMessage);
+            return deviceCall.sendAsync(deviceRequestMessage, timeout)
+                             .thenApplyAsync(responseMessage -> (RS) translateResponse(tClientToKapua, responseMessage, session), DeviceCallResponseExecutor.getExecutor());
+        }
+        catch (KapuaException e) {
+            CompletableFuture<RS> response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+            return response;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked" })
+    private static Object translateResponse(Translator tClientToKapua, DeviceResponseMessage responseMessage, KapuaSession session)
+    {
+        KapuaSession previousSession = KapuaSecurityUtils.getSession();
+        KapuaSecurityUtils.setSession(session);
+        try {
+            return KapuaSecurityUtils.doPrivileged(() -> tClientToKapua.translate(responseMessage));
+        }
+        catch (KapuaException e) {
+            throw new CompletionException(e);
+        }
+        finally {
+            KapuaSecurityUtils.setSession(previousSession);
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.commons.call;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor shared by the asynchronous device calls to handle the device responses.<br>
+ * The responses are translated (and then handled by the device management services) out of the transport thread completing the device call,
+ * since the translators and the services may block on the database.
+ * <p>
+ * The executor is closed by {@link #close()} or, if not closed explicitly, on JVM shutdown.
+ * </p>
+ *
+ * @since 1.0
+ *
+ */
+public class DeviceCallResponseExecutor
+{
+    private static DeviceCallResponseExecutor instance;
+    private static boolean                    shutdownHookRegistered;
+
+    private final ExecutorService executor;
+
+    private DeviceCallResponseExecutor()
+    {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "DeviceCallResponse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the executor to handle the device responses
+     *
+     * @return
+     */
+    public static synchronized Executor getExecutor()
+    {
+        if (instance == null) {
+            instance = new DeviceCallResponseExecutor();
+            if (!shutdownHookRegistered) {
+                // stop the threads if the executor is not closed explicitly
+                Runtime.getRuntime().addShutdownHook(new Thread(DeviceCallResponseExecutor::close, "kapua-device-call-response-executor-shutdown"));
+                shutdownHookRegistered = true;
+            }
+        }
+        return instance.executor;
+    }
+
+    /**
+     * Stop the executor once the responses already received are handled.<br>
+     * The responses received later are handled by a new executor.
+     */
+    public static synchronized void close()
+    {
+        if (instance != null) {
+            instance.executor.shutdown();
+            instance = null;
+        }
+    }
+}
@@ -31,7 +31,42 @@ public enum DeviceManagementSettingKey implements SettingKey
     /**
      * Request timeout
      */
-    REQUEST_TIMEOUT("request.timeout");
+    REQUEST_TIMEOUT("request.timeout"),
+
+    /**
+     * Bulk operation default number of devices processed in parallel
+     */
+    BULK_PARALLELISM_DEFAULT("bulk.parallelism.default"),
+
+    /**
+     * Bulk operation maximum number of devices processed in parallel
+     */
+    BULK_PARALLELISM_MAX("bulk.parallelism.max"),
+
+    /**
+     * Bulk operation maximum number of retries for a device request timed out
+     */
+    BULK_RETRY_MAX("bulk.retry.max"),
+
+    /**
+     * Bulk operation page size used to query the target devices
+     */
+    BULK_QUERY_PAGE_SIZE("bulk.query.page.size"),
+
+    /**
+     * Bulk operation job expire time (in seconds since the last access)
+     */
+    BULK_JOB_EXPIRE_AFTER("bulk.job.expire.after"),
+
+    /**
+     * Bulk operation maximum number of ended jobs kept (the running jobs are always kept)
+     */
+    BULK_JOB_SIZE_MAXIMUM("bulk.job.size.maximum"),
+
+    /**
+     * Bulk operation maximum number of worker threads (shared by all the jobs)
+     */
+    BULK_WORKERS_MAX("bulk.workers.max");
 
     private String key;
 
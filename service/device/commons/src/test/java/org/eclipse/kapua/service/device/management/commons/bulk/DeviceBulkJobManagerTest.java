@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.commons.bulk;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.kapua.KapuaErrorCodes;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeviceBulkJobManagerTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.ONE);
+    private static final String TRANSPORT_THREAD = "transport";
+
+    private ExecutorService transportExecutor;
+
+    @Before
+    public void startTransport() {
+        // the device responses are completed by a single thread, as the MQTT transport callback does
+        transportExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, TRANSPORT_THREAD));
+    }
+
+    @After
+    public void stopTransport() {
+        transportExecutor.shutdownNow();
+    }
+
+    private static DeviceBulkJob newJob(int devices, int workers) {
+        List<KapuaId> targetDevices = new ArrayList<>();
+        for (int i = 0; i < devices; i++) {
+            targetDevices.add(new KapuaEid(BigInteger.valueOf(100 + i)));
+        }
+        DeviceBulkJob job = new DeviceBulkJob(SCOPE_ID, "test", Actions.execute, workers, targetDevices);
+        for (int i = 0; i < Math.min(workers, devices); i++) {
+            job.workerStarted();
+        }
+        return job;
+    }
+
+    private static void runAsync(DeviceBulkJob job, DeviceBulkAsyncOperation operation)
+            throws InterruptedException {
+        for (int i = 0; i < Math.min(job.getParallelism(), job.getTargetCount()); i++) {
+            DeviceBulkJobManager.getInstance().runAsyncWorker(job, operation, 1000L, null);
+        }
+        for (int i = 0; i < 100 && !job.isEnded(); i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue("The job should be ended!", job.isEnded());
+    }
+
+    @Test
+    public void testAsyncOperationCompleted()
+            throws Exception {
+        DeviceBulkJob job = newJob(6, 2);
+        Set<String> requestThreads = ConcurrentHashMap.newKeySet();
+
+        runAsync(job, (scopeId, deviceId, timeout) -> {
+            requestThreads.add(Thread.currentThread().getName());
+            return CompletableFuture.runAsync(() -> {
+            }, transportExecutor);
+        });
+
+        Assert.assertEquals(DeviceBulkJob.Status.COMPLETED, job.getStatus());
+        Assert.assertEquals(6, job.getSucceededCount());
+        Assert.assertEquals(0, job.getPendingCount());
+        Assert.assertFalse("The next device should not be processed by the transport thread!", requestThreads.contains(TRANSPORT_THREAD));
+    }
+
+    @Test
+    public void testAsyncOperationTimeoutRetried()
+            throws Exception {
+        DeviceBulkJob job = newJob(3, 3);
+        Map<KapuaId, Integer> attempts = new ConcurrentHashMap<>();
+
+        // the first request of each device times out
+        runAsync(job, (scopeId, deviceId, timeout) -> {
+            boolean firstAttempt = attempts.merge(deviceId, 1, Integer::sum) == 1;
+            return CompletableFuture.runAsync(() -> {
+                if (firstAttempt) {
+                    throw new RuntimeException(new TimeoutException());
+                }
+            }, transportExecutor);
+        });
+
+        Assert.assertEquals(DeviceBulkJob.Status.COMPLETED, job.getStatus());
+        Assert.assertEquals(3, job.getSucceededCount());
+        Assert.assertEquals(3, job.getRetriedCount());
+        for (DeviceBulkResult result : job.getResults()) {
+            Assert.assertEquals(2, result.getAttempts());
+        }
+    }
+
+    @Test
+    public void testAsyncOperationFailed()
+            throws Exception {
+        DeviceBulkJob job = newJob(4, 2);
+
+        // the request of the even devices cannot be sent, the odd devices fail with an error response
+        runAsync(job, (scopeId, deviceId, timeout) -> {
+            if (deviceId.getId().intValue() % 2 == 0) {
+                throw new KapuaException(KapuaErrorCodes.INTERNAL_ERROR);
+            }
+            return CompletableFuture.runAsync(() -> {
+                throw new IllegalStateException("error response");
+            }, transportExecutor);
+        });
+
+        Assert.assertEquals(DeviceBulkJob.Status.COMPLETED, job.getStatus());
+        Assert.assertEquals(0, job.getSucceededCount());
+        Assert.assertEquals(4, job.getFailedCount());
+        Assert.assertEquals(0, job.getRetriedCount());
+        for (DeviceBulkResult result : job.getResults()) {
+            Assert.assertEquals(DeviceBulkResult.Status.FAILED, result.getStatus());
+            Assert.assertEquals(1, result.getAttempts());
+            if (result.getDeviceId().getId().intValue() % 2 != 0) {
+                Assert.assertEquals("error response", result.getErrorMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncOperationBroken()
+            throws Exception {
+        DeviceBulkJob job = newJob(4, 1);
+
+        // a broken operation (no response future) fails the device and the worker moves on
+        runAsync(job, (scopeId, deviceId, timeout) -> {
+            if (deviceId.getId().intValue() % 2 == 0) {
+                return null;
+            }
+            return CompletableFuture.runAsync(() -> {
+            }, transportExecutor);
+        });
+
+        Assert.assertEquals(DeviceBulkJob.Status.COMPLETED, job.getStatus());
+        Assert.assertEquals(2, job.getSucceededCount());
+        Assert.assertEquals(2, job.getFailedCount());
+        Assert.assertEquals(0, job.getPendingCount());
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.device.management.commons.bulk;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.kapua.KapuaErrorCode;
+import org.eclipse.kapua.KapuaErrorCodes;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.device.call.kura.exception.KuraMqttDeviceCallErrorCodes;
+import org.eclipse.kapua.service.device.call.kura.exception.KuraMqttDeviceCallException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DeviceBulkJobTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.ONE);
+
+    /**
+     * Error code with the same name of the MQTT transport timeout error code
+     */
+    private enum TransportErrorCodes implements KapuaErrorCode {
+        CLIENT_TIMEOUT_EXCEPTION,
+        CLIENT_PUBLISH_ERROR
+    }
+
+    private static DeviceBulkJob newJob(int devices, int workers) {
+        List<KapuaId> targetDevices = new ArrayList<>();
+        for (int i = 0; i < devices; i++) {
+            targetDevices.add(new KapuaEid(BigInteger.valueOf(100 + i)));
+        }
+        DeviceBulkJob job = new DeviceBulkJob(SCOPE_ID, "test", Actions.execute, workers, targetDevices);
+        for (int i = 0; i < Math.min(workers, devices); i++) {
+            job.workerStarted();
+        }
+        return job;
+    }
+
+    @Test
+    public void testEmptyJobEnded() {
+        DeviceBulkJob job = new DeviceBulkJob(SCOPE_ID, "test", Actions.execute, 1, Collections.<KapuaId> emptyList());
+
+        Assert.assertTrue(job.isEnded());
+        Assert.assertEquals(DeviceBulkJob.Status.COMPLETED, job.getStatus());
+        Assert.assertEquals(0, job.getPendingCount());
+    }
+
+    @Test
+    public void testCompleted() {
+        DeviceBulkJob job = newJob(3, 2);
+
+        KapuaId deviceId;
+        while ((deviceId = job.nextDevice()) != null) {
+            job.addResult(new DeviceBulkResult(deviceId, DeviceBulkResult.Status.SUCCEEDED, 1, null));
+        }
+        Assert.assertFalse(job.workerEnded());
+        Assert.assertFalse(job.isEnded());
+        Assert.assertTrue(job.workerEnded());
+
+        Assert.assertTrue(job.isEnded());
+        Assert.assertEquals(DeviceBulkJob.Status.COMPLETED, job.getStatus());
+        Assert.assertEquals(3, job.getSucceededCount());
+        Assert.assertEquals(0, job.getPendingCount());
+    }
+
+    @Test
+    public void testCanceledWhileRunning() {
+        DeviceBulkJob job = newJob(5, 1);
+        KapuaId deviceId = job.nextDevice();
+
+        // the device being processed completes its operation
+        Assert.assertFalse(job.cancel());
+        Assert.assertFalse(job.isEnded());
+        Assert.assertEquals(DeviceBulkJob.Status.CANCELED, job.getStatus());
+        Assert.assertEquals(4, job.getCanceledCount());
+        Assert.assertEquals(1, job.getPendingCount());
+        Assert.assertNull(job.nextDevice());
+
+        job.addResult(new DeviceBulkResult(deviceId, DeviceBulkResult.Status.SUCCEEDED, 1, null));
+        Assert.assertTrue(job.workerEnded());
+
+        Assert.assertTrue(job.isEnded());
+        Assert.assertEquals(DeviceBulkJob.Status.CANCELED, job.getStatus());
+        Assert.assertEquals(0, job.getPendingCount());
+        Assert.assertEquals(1, job.getSucceededCount());
+    }
+
+    @Test
+    public void testCanceledWithoutRunningWorkers() {
+        DeviceBulkJob job = new DeviceBulkJob(SCOPE_ID, "test", Actions.write, 1, Collections.<KapuaId> singletonList(new KapuaEid(BigInteger.TEN)));
+
+        Assert.assertTrue(job.cancel());
+        Assert.assertTrue(job.isEnded());
+        Assert.assertEquals(0, job.getPendingCount());
+
+        // a second cancel has no effect
+        Assert.assertFalse(job.cancel());
+    }
+
+    @Test
+    public void testRetriedCount() {
+        DeviceBulkJob job = newJob(2, 1);
+        job.addResult(new DeviceBulkResult(job.nextDevice(), DeviceBulkResult.Status.SUCCEEDED, 3, null));
+        job.addResult(new DeviceBulkResult(job.nextDevice(), DeviceBulkResult.Status.FAILED, 1, "error"));
+
+        Assert.assertEquals(2, job.getRetriedCount());
+        Assert.assertEquals(1, job.getFailedCount());
+        Assert.assertEquals(2, job.getResults().size());
+    }
+
+    @Test
+    public void testTimeoutErrorCodes() {
+        Assert.assertTrue(DeviceBulkJobManager.isTimeout(new KuraMqttDeviceCallException(KuraMqttDeviceCallErrorCodes.CALL_TIMEOUT)));
+        Assert.assertTrue(DeviceBulkJobManager.isTimeout(new KuraMqttDeviceCallException(KuraMqttDeviceCallErrorCodes.CLIENT_SEND_ERROR,
+                new KapuaException(TransportErrorCodes.CLIENT_TIMEOUT_EXCEPTION),
+                (Object[]) null)));
+        Assert.assertTrue(DeviceBulkJobManager.isTimeout(new RuntimeException(new TimeoutException())));
+
+        Assert.assertFalse(DeviceBulkJobManager.isTimeout(new KapuaException(TransportErrorCodes.CLIENT_PUBLISH_ERROR)));
+        Assert.assertFalse(DeviceBulkJobManager.isTimeout(new KuraMqttDeviceCallException(KuraMqttDeviceCallErrorCodes.CALL_ERROR)));
+        Assert.assertFalse(DeviceBulkJobManager.isTimeout(new KapuaException(KapuaErrorCodes.INTERNAL_ERROR)));
+    }
+}
@@ -37,6 +37,19 @@ public interface AuthenticationService extends KapuaService {
     public AccessToken login(LoginCredentials loginCredentials)
             throws KapuaException;
 
+    /**
+     * Login the provided user login credentials on the system (if the credentials are valid) without persisting an {@link AccessToken}.<br>
+     * The returned {@link AccessToken} only lives in memory and it cannot be used to authenticate other sessions: this login is meant for the server side
+     * sessions that never present the token again (i.e. the broker device connections).
+     * 
+     * @param loginCredentials
+     * @return
+     * @throws KapuaException
+     *             an exception is thrown if the credentials are not found on the system, are expired or are disabled
+     */
+    public AccessToken loginStateless(LoginCredentials loginCredentials)
+            throws KapuaException;
+
     /**
      * FIXME: add javadoc
      * 
@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.authorization;
 
+import java.util.List;
+
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.service.KapuaService;
 import org.eclipse.kapua.service.authorization.permission.Permission;
@@ -40,6 +42,21 @@ public interface AuthorizationService extends KapuaService {
     public boolean isPermitted(Permission permission)
             throws KapuaException;
 
+    /**
+     * Returns if the user (the current logged user retrieved by thread context) is allowed to perform the operations identified by the provided permissions.<br>
+     * The permissions are evaluated in a single pass.
+     * 
+     * @param permissions
+     *            The permissions to check.
+     * @return An array with the result of the check of each permission, in the same order of the given permissions list.
+     * @throws KapuaException
+     *             If there is no logged context.
+     * 
+     * @since 1.0.0
+     */
+    public boolean[] isPermitted(List<Permission> permissions)
+            throws KapuaException;
+
     /**
      * Checks if the user (the current logged user retrieved by thread context) is allowed to perform the operation identified by provided the permission.
      * 
@@ -49,6 +49,7 @@ import org.eclipse.kapua.service.authentication.token.AccessToken;
 import org.eclipse.kapua.service.authentication.token.AccessTokenCreator;
 import org.eclipse.kapua.service.authentication.token.AccessTokenFactory;
 import org.eclipse.kapua.service.authentication.token.AccessTokenService;
+import org.eclipse.kapua.service.authentication.token.shiro.AccessTokenImpl;
 import org.jose4j.jws.AlgorithmIdentifiers;
 import org.jose4j.jws.JsonWebSignature;
 import org.jose4j.jwt.JwtClaims;
@@ -121,6 +122,17 @@ public class AuthenticationServiceShiroImpl implements AuthenticationService {
     @Override
     public AccessToken login(LoginCredentials loginCredentials)
             throws KapuaException {
+        return login(loginCredentials, true);
+    }
+
+    @Override
+    public AccessToken loginStateless(LoginCredentials loginCredentials)
+            throws KapuaException {
+        return login(loginCredentials, false);
+    }
+
+    private AccessToken login(LoginCredentials loginCredentials, boolean persistAccessToken)
+            throws KapuaException {
 
         checkCurrentSubjectNotAuthenticated();
 
@@ -149,14 +161,16 @@ public class AuthenticationServiceShiroImpl implements AuthenticationService {
             currentUser.login(shiroAuthenticationToken);
 
             //
-            // Create the access token
+            // Create the access token and establish the session
             Subject shiroSubject = SecurityUtils.getSubject();
             Session shiroSession = shiroSubject.getSession();
-            accessToken = createAccessToken(shiroSession);
-
-            //
-            // Establish session
-            enstablishSession(shiroSubject, accessToken);
+            if (persistAccessToken) {
+                accessToken = createAccessToken(shiroSession);
+                enstablishSession(shiroSubject, accessToken);
+            } else {
+                accessToken = createStatelessAccessToken(shiroSession);
+                enstablishStatelessSession(shiroSubject, accessToken);
+            }
 
             //
             // Set some logging
@@ -383,6 +397,39 @@ public class AuthenticationServiceShiroImpl implements AuthenticationService {
         return accessToken;
     }
 
+    /**
+     * Create a not persisted {@link AccessToken} from the data contained in the Shiro {@link Session}
+     * 
+     * @param session
+     *            The Shiro {@link Session} from which extract data
+     * @return The in memory {@link AccessToken}
+     * 
+     * @since 1.0
+     */
+    private AccessToken createStatelessAccessToken(Session session) {
+        KapuaEid scopeId = (KapuaEid) session.getAttribute("scopeId");
+        KapuaEid userId = (KapuaEid) session.getAttribute("userId");
+
+        KapuaAuthenticationSetting settings = KapuaAuthenticationSetting.getInstance();
+        long tokenTtl = settings.getLong(KapuaAuthenticationSettingKeys.AUTHENTICATION_TOKEN_EXPIRE_AFTER);
+
+        return new AccessTokenImpl(scopeId,
+                userId,
+                UUID.randomUUID().toString(),
+                new Date(System.currentTimeMillis() + tokenTtl),
+                null,
+                null);
+    }
+
+    /**
+     * Establish a session without {@link AccessToken}, so the logout doesn't need to invalidate any persisted token
+     */
+    private void enstablishStatelessSession(Subject subject, AccessToken accessToken) {
+        KapuaSession kapuaSession = new KapuaSession(null, accessToken.getScopeId(), accessToken.getUserId());
+        KapuaSecurityUtils.setSession(kapuaSession);
+        subject.getSession().setAttribute(KapuaSession.KAPUA_SESSION_KEY, kapuaSession);
+    }
+
     private void enstablishSession(Subject subject, AccessToken accessToken) {
         KapuaSession kapuaSession = new KapuaSession(accessToken, accessToken.getScopeId(), accessToken.getUserId());
         KapuaSecurityUtils.setSession(kapuaSession);
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.service.authentication.shiro.realm;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.shiro.codec.Base64;
+import org.eclipse.kapua.commons.cache.LocalCache;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authentication.credential.Credential;
+import org.eclipse.kapua.service.authentication.shiro.setting.KapuaAuthenticationSetting;
+import org.eclipse.kapua.service.authentication.shiro.setting.KapuaAuthenticationSettingKeys;
+import org.eclipse.kapua.service.metric.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+
+/**
+ * Cache of the successful password verifications.<br>
+ * It allows to skip the (expensive by design) BCrypt check when the same credential is presented again with the same secret within the configured time
+ * to live (i.e. devices reconnecting to the broker).<br>
+ * The entries are keyed by credential identifier and by a HMAC of the presented secret computed with a random key generated at startup, so neither the
+ * secret nor a value that can be brute forced offline is kept in memory.<br>
+ * A cache entry is valid only for the credential key it has been verified against, so a credential update invalidates it even if it is performed by another
+ * node. The credential service invalidates the entries of a credential when the credential is updated or deleted.
+ *
+ * @since 1.0
+ */
+public class CredentialVerificationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialVerificationCache.class);
+
+    private static final String METRIC_MODULE = "security";
+    private static final String METRIC_COMPONENT = "credential";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int HMAC_KEY_LENGTH = 32;
+
+    private static final CredentialVerificationCache instance = new CredentialVerificationCache();
+
+    private final boolean enabled;
+    private final LocalCache<String, VerifiedCredential> cache;
+    private final ThreadLocal<Mac> mac;
+
+    private final Counter cacheHit;
+    private final Counter cacheMiss;
+    private final Counter savedTime;
+
+    private CredentialVerificationCache() {
+        KapuaAuthenticationSetting config = KapuaAuthenticationSetting.getInstance();
+        boolean cacheEnabled = config.getBoolean(KapuaAuthenticationSettingKeys.AUTHENTICATION_CREDENTIAL_USERPASS_CACHE_ENABLE, true);
+        long ttl = config.getLong(KapuaAuthenticationSettingKeys.AUTHENTICATION_CREDENTIAL_USERPASS_CACHE_CACHE_TTL, 60000L);
+        int sizeMax = config.getInt(KapuaAuthenticationSettingKeys.AUTHENTICATION_CREDENTIAL_USERPASS_CACHE_SIZE_MAXIMUM, 10000);
+        cache = new LocalCache<>(sizeMax, (int) (ttl / 1000), null);
+
+        byte[] hmacKey = new byte[HMAC_KEY_LENGTH];
+        new SecureRandom().nextBytes(hmacKey);
+        SecretKeySpec hmacKeySpec = new SecretKeySpec(hmacKey, HMAC_ALGORITHM);
+        mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac threadMac = Mac.getInstance(HMAC_ALGORITHM);
+                threadMac.init(hmacKeySpec);
+                return threadMac;
+            } catch (GeneralSecurityException e) {
+                logger.warn("Cannot initialize the credential verification cache HMAC, the cache is disabled", e);
+                return null;
+            }
+        });
+        enabled = cacheEnabled && mac.get() != null;
+
+        MetricsService metricsService = KapuaLocator.getInstance().getService(MetricsService.class);
+        cacheHit = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "hit", "count");
+        cacheMiss = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "miss", "count");
+        savedTime = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "saved_time", "us");
+    }
+
+    /**
+     * Get the credential verification cache instance (singleton)
+     *
+     * @return
+     */
+    public static CredentialVerificationCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Check if the given secret has already been verified against the given credential
+     *
+     * @param credential
+     * @param secret
+     * @return
+     */
+    public boolean isVerified(Credential credential, String secret) {
+        if (!enabled) {
+            return false;
+        }
+
+        VerifiedCredential verifiedCredential = cache.get(getKey(credential.getId(), secret));
+        if (verifiedCredential != null && verifiedCredential.credentialKey.equals(credential.getCredentialKey())) {
+            cacheHit.inc();
+            savedTime.inc(verifiedCredential.verificationTime / 1000);
+            return true;
+        }
+
+        cacheMiss.inc();
+        return false;
+    }
+
+    /**
+     * Record the successful verification of the given secret against the given credential
+     *
+     * @param credential
+     * @param secret
+     * @param verificationTime
+     *            the time spent to verify the secret (in nanoseconds)
+     */
+    public void putVerified(Credential credential, String secret, long verificationTime) {
+        if (enabled) {
+            cache.put(getKey(credential.getId(), secret), new VerifiedCredential(credential.getCredentialKey(), verificationTime));
+        }
+    }
+
+    /**
+     * Invalidate the verifications of the given credential.<br>
+     * It should be called whenever the credential is updated, deleted or locked.
+     *
+     * @param credentialId
+     */
+    public void invalidate(KapuaId credentialId) {
+        if (!enabled || credentialId == null) {
+            return;
+        }
+
+        String prefix = credentialId.toCompactId() + "/";
+        for (String key : cache.getAllKeys()) {
+            if (key.startsWith(prefix)) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    private String getKey(KapuaId credentialId, String secret) {
+        byte[] secretHmac = mac.get().doFinal(secret.getBytes(StandardCharsets.UTF_8));
+        return credentialId.toCompactId() + "/" + Base64.encodeToString(secretHmac);
+    }
+
+    private static class VerifiedCredential {
+
+        private final String credentialKey;
+        private final long verificationTime;
+
+        private VerifiedCredential(String credentialKey, long verificationTime) {
+            this.credentialKey = credentialKey;
+            this.verificationTime = verificationTime;
+        }
+    }
+}
@@ -53,10 +53,17 @@ public class UserPassCredentialsMatcher implements CredentialsMatcher {
         //
         // Match token with info
         boolean credentialMatch = false;
-        if (tokenUsername.equals(infoUser.getName()) && CredentialType.PASSWORD.equals(infoCredential.getCredentialType()) && BCrypt.checkpw(tokenPassword, infoCredential.getCredentialKey())) {
-            credentialMatch = true;
-
-            // FIXME: if true cache token password for authentication performance improvement
+        if (tokenUsername.equals(infoUser.getName()) && CredentialType.PASSWORD.equals(infoCredential.getCredentialType())) {
+            CredentialVerificationCache verificationCache = CredentialVerificationCache.getInstance();
+            if (verificationCache.isVerified(infoCredential, tokenPassword)) {
+                credentialMatch = true;
+            } else {
+                long start = System.nanoTime();
+                if (BCrypt.checkpw(tokenPassword, infoCredential.getCredentialKey())) {
+                    credentialMatch = true;
+                    verificationCache.putVerified(infoCredential, tokenPassword, System.nanoTime() - start);
+                }
+            }
         }
 
         return credentialMatch;
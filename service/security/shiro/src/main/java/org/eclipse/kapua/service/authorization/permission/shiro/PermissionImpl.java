@@ -165,20 +165,36 @@ public class PermissionImpl extends WildcardPermission implements Permission, or
      * The access control then, is performed by hiding the data that a {@link Subject} cannot see instead of throwing {@link UnauthorizedException}.
      * 
      * The access control for {@link KapuaEntityService#query(KapuaQuery)}, {@link KapuaEntityService#count(KapuaQuery)}) must specify that {@link KapuaEid#ANY} group assigned to the permission is
-     * enough to pass the {@link AuthorizationService#checkPermission(Permission)}.
+     * enough to pass the {@link AuthorizationService#checkPermission(Permission)}.<br>
+     * 
+     * The {@link Permission}s are compared field by field (with the same semantic of the {@link WildcardPermission} parts), so this permission is neither parsed nor modified by the check.
      * 
      */
     @Override
     public boolean implies(org.apache.shiro.authz.Permission p) {
 
+        if (!(p instanceof Permission)) {
+            return new WildcardPermission(toString()).implies(p);
+        }
+
         Permission permission = (Permission) p;
 
-        if (Group.ANY.equals(permission.getGroupId())) {
-            setGroupId(null);
-        }
+        return impliesDomain(permission.getDomain()) &&
+                (action == null || action == permission.getAction()) &&
+                impliesId(targetScopeId, permission.getTargetScopeId()) &&
+                (isAnyGroup(permission.getGroupId()) || impliesId(groupId, permission.getGroupId()));
+    }
 
-        setParts(toString());
-        return super.implies(p);
+    private boolean impliesDomain(String permissionDomain) {
+        return Permission.WILDCARD.equals(domain) || (domain != null && domain.equalsIgnoreCase(permissionDomain));
+    }
+
+    private static boolean impliesId(KapuaId id, KapuaId permissionId) {
+        return id == null || (permissionId != null && id.getId().equals(permissionId.getId()));
+    }
+
+    private static boolean isAnyGroup(KapuaId permissionGroupId) {
+        return permissionGroupId != null && Group.ANY.getId().equals(permissionGroupId.getId());
     }
 
     @Override
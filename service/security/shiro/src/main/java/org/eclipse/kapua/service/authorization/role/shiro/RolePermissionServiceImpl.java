@@ -30,6 +30,7 @@ import org.eclipse.kapua.service.authorization.role.RolePermissionListResult;
 import org.eclipse.kapua.service.authorization.role.RolePermissionQuery;
 import org.eclipse.kapua.service.authorization.role.RolePermissionService;
 import org.eclipse.kapua.service.authorization.shiro.AuthorizationEntityManagerFactory;
+import org.eclipse.kapua.service.authorization.shiro.KapuaAuthorizationCache;
 
 /**
  * {@link RolePermission} service implementation.
@@ -59,7 +60,10 @@ public class RolePermissionServiceImpl extends AbstractKapuaService implements R
         AuthorizationService authorizationService = locator.getService(AuthorizationService.class);
         PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
         authorizationService.checkPermission(permissionFactory.newPermission(roleDomain, Actions.write, rolePermissionCreator.getScopeId()));
-        return entityManagerSession.onTransactedInsert(em -> RolePermissionDAO.create(em, rolePermissionCreator));
+        RolePermission rolePermission = entityManagerSession.onTransactedInsert(em -> RolePermissionDAO.create(em, rolePermissionCreator));
+
+        KapuaAuthorizationCache.getInstance().invalidateRole(rolePermission.getRoleId());
+        return rolePermission;
     }
 
     @Override
@@ -73,13 +77,17 @@ public class RolePermissionServiceImpl extends AbstractKapuaService implements R
         PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
         authorizationService.checkPermission(permissionFactory.newPermission(roleDomain, Actions.delete, scopeId));
 
-        entityManagerSession.onTransactedAction(em -> {
-            if (RolePermissionDAO.find(em, rolePermissionId) == null) {
+        RolePermission rolePermission = entityManagerSession.onTransactedResult(em -> {
+            RolePermission currentRolePermission = RolePermissionDAO.find(em, rolePermissionId);
+            if (currentRolePermission == null) {
                 throw new KapuaEntityNotFoundException(RolePermission.TYPE, rolePermissionId);
             }
 
             RolePermissionDAO.delete(em, rolePermissionId);
+            return currentRolePermission;
         });
+
+        KapuaAuthorizationCache.getInstance().invalidateRole(rolePermission.getRoleId());
     }
 
     @Override
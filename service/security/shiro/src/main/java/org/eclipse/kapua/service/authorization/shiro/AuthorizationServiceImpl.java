@@ -12,8 +12,11 @@
  *******************************************************************************/
 package org.eclipse.kapua.service.authorization.shiro;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.apache.shiro.SecurityUtils;
-import org.apache.shiro.authz.AuthorizationException;
 import org.apache.shiro.subject.Subject;
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.KapuaIllegalStateException;
@@ -34,20 +37,49 @@ public class AuthorizationServiceImpl implements AuthorizationService {
     @Override
     public boolean isPermitted(Permission permission)
             throws KapuaException {
-        boolean isPermitted = true;
+        KapuaSession session = getSession();
 
-        try {
-            checkPermission(permission);
-        } catch (AuthorizationException e) {
-            isPermitted = false;
+        if (session.isTrustedMode()) {
+            return true;
         }
 
-        return isPermitted;
+        Subject subject = SecurityUtils.getSubject();
+        return subject.isPermitted((org.apache.shiro.authz.Permission) permission);
+    }
+
+    @Override
+    public boolean[] isPermitted(List<Permission> permissions)
+            throws KapuaException {
+        KapuaSession session = getSession();
+
+        if (session.isTrustedMode()) {
+            boolean[] isPermitted = new boolean[permissions.size()];
+            Arrays.fill(isPermitted, true);
+            return isPermitted;
+        }
+
+        List<org.apache.shiro.authz.Permission> shiroPermissions = new ArrayList<>(permissions.size());
+        for (Permission permission : permissions) {
+            shiroPermissions.add((org.apache.shiro.authz.Permission) permission);
+        }
+
+        Subject subject = SecurityUtils.getSubject();
+        return subject.isPermitted(shiroPermissions);
     }
 
     @Override
     public void checkPermission(Permission permission)
             throws KapuaException {
+        KapuaSession session = getSession();
+
+        if (!session.isTrustedMode()) {
+            Subject subject = SecurityUtils.getSubject();
+            subject.checkPermission((org.apache.shiro.authz.Permission) permission);
+        }
+    }
+
+    private static KapuaSession getSession()
+            throws KapuaException {
         KapuaSession session = KapuaSecurityUtils.getSession();
 
         // FIXME: this should throw something like unauthenticated exception
@@ -55,9 +87,6 @@ public class AuthorizationServiceImpl implements AuthorizationService {
             throw new KapuaIllegalStateException("null KapuaSession");
         }
 
-        if (!session.isTrustedMode()) {
-            Subject subject = SecurityUtils.getSubject();
-            subject.checkPermission((org.apache.shiro.authz.Permission) permission);
-        }
+        return session;
     }
 }
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.service.authorization.shiro;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.cache.Cache;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.cache.LocalCache;
+import org.eclipse.kapua.commons.service.event.EntityChangeNotifier;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.shiro.setting.KapuaAuthorizationSetting;
+import org.eclipse.kapua.service.authorization.shiro.setting.KapuaAuthorizationSettingKeys;
+import org.eclipse.kapua.service.metric.MetricsService;
+import org.eclipse.kapua.service.user.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+
+/**
+ * Authorization information cache used by the {@link KapuaAuthorizingRealm}.<br>
+ * The entries are keyed by user identifier, they expire after the configured time ({@code authorization.cache.expire.after} seconds, 300 by default) and
+ * they are invalidated when the user is updated or deleted (notified through the {@link EntityChangeNotifier}) and when the access infos, access
+ * permissions and access roles of the user or the permissions of its roles change.<br>
+ * The invalidation only applies to the cache of the local JVM: a change done through another node (e.g. the console while the broker is checking the
+ * permissions) is seen by this node once the entry expires.<br>
+ * Every invalidation increments the cache generation and records it for the invalidated user (or for all the users, when the invalidated access info or
+ * role can't be bound to the users loading their authorization information): an authorization information loaded from a generation older than the
+ * last invalidation of its user is not cached, since it may have been read before the invalidated change.<br>
+ * Setting the expire time to 0 disables the cache.
+ *
+ * @since 1.0.0
+ */
+public class KapuaAuthorizationCache implements Cache<Object, AuthorizationInfo> {
+
+    private static final Logger logger = LoggerFactory.getLogger(KapuaAuthorizationCache.class);
+
+    private static final String METRIC_MODULE = "security";
+    private static final String METRIC_COMPONENT = "authorization";
+
+    private static final KapuaAuthorizationCache instance = new KapuaAuthorizationCache();
+
+    private final boolean enabled;
+    private final LocalCache<Object, AuthorizationInfo> cache;
+
+    private final Counter cacheHit;
+    private final Counter cacheMiss;
+
+    private final int invalidationsMax;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Object, Long> userInvalidations = new ConcurrentHashMap<>();
+    private volatile long allUsersInvalidation;
+
+    private KapuaAuthorizationCache() {
+        this(KapuaAuthorizationSetting.getInstance().getInt(KapuaAuthorizationSettingKeys.AUTHORIZATION_CACHE_SIZE_MAXIMUM, 10000),
+                KapuaAuthorizationSetting.getInstance().getInt(KapuaAuthorizationSettingKeys.AUTHORIZATION_CACHE_EXPIRE_AFTER, 300),
+                KapuaLocator.getInstance().getService(MetricsService.class));
+    }
+
+    /**
+     * Constructor (the tests use their own cache instances)
+     *
+     * @param sizeMax
+     * @param expireAfter
+     *            The expire time in seconds, 0 disables the cache.
+     * @param metricsService
+     */
+    KapuaAuthorizationCache(int sizeMax, int expireAfter, MetricsService metricsService) {
+        enabled = expireAfter > 0;
+        cache = new LocalCache<>(enabled ? sizeMax : 0, Math.max(expireAfter, 0), null);
+        invalidationsMax = Math.max(sizeMax, 1);
+
+        cacheHit = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "hit", "count");
+        cacheMiss = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "miss", "count");
+        try {
+            metricsService.registerGauge((Gauge<Double>) () -> {
+                long hit = cacheHit.getCount();
+                long total = hit + cacheMiss.getCount();
+                return total > 0 ? (double) hit / total : 0d;
+            }, METRIC_MODULE, METRIC_COMPONENT, "cache", "hit", "ratio");
+        } catch (KapuaException e) {
+            logger.warn("Cannot register the authorization cache hit ratio gauge", e);
+        }
+
+        // the sessions of an updated or deleted user must not keep the cached permissions
+        EntityChangeNotifier.addListener((entityType, scopeId, entityId) -> {
+            if (User.TYPE.equals(entityType)) {
+                invalidateUser(entityId);
+            }
+        });
+    }
+
+    /**
+     * Get the authorization cache instance (singleton)
+     *
+     * @return
+     */
+    public static KapuaAuthorizationCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Check if the cache is enabled (expire time greater than 0)
+     *
+     * @return
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public AuthorizationInfo get(Object key) {
+        AuthorizationInfo info = cache.get(key);
+        if (info != null) {
+            cacheHit.inc();
+        } else {
+            cacheMiss.inc();
+        }
+        return info;
+    }
+
+    /**
+     * Get the current cache generation, to be read before loading an authorization information (see {@link KapuaAuthorizationInfo#getCacheGeneration()})
+     *
+     * @return
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Cache the given authorization information, unless its user has been invalidated since it started loading it
+     */
+    @Override
+    public AuthorizationInfo put(Object key, AuthorizationInfo value) {
+        AuthorizationInfo previous = cache.get(key);
+        if (isInvalidatedSince(key, value)) {
+            logger.debug("Authorization info of {} invalidated while loading, not cached", key);
+            return previous;
+        }
+        cache.put(key, value);
+
+        // the invalidation records the generation before removing the entries, so an invalidation missing this entry is seen here
+        if (isInvalidatedSince(key, value)) {
+            cache.remove(key);
+        }
+        return previous;
+    }
+
+    @Override
+    public AuthorizationInfo remove(Object key) {
+        AuthorizationInfo previous = cache.get(key);
+        cache.remove(key);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        invalidated(null);
+        for (Object key : cache.getAllKeys()) {
+            cache.remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        return cache.getAllKeys().size();
+    }
+
+    @Override
+    public Set<Object> keys() {
+        return new HashSet<>(cache.getAllKeys());
+    }
+
+    @Override
+    public Collection<AuthorizationInfo> values() {
+        List<AuthorizationInfo> values = new ArrayList<>();
+        for (Object key : cache.getAllKeys()) {
+            AuthorizationInfo info = cache.get(key);
+            if (info != null) {
+                values.add(info);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Invalidate the cached authorization information of the given user
+     *
+     * @param userId
+     */
+    public void invalidateUser(KapuaId userId) {
+        if (userId != null) {
+            invalidated(userId);
+            cache.remove(userId);
+        }
+    }
+
+    /**
+     * Invalidate the cached authorization information built from the given access info
+     *
+     * @param accessInfoId
+     */
+    public void invalidateAccessInfo(KapuaId accessInfoId) {
+        // the users loading their authorization information can't be told yet whether they have the access info
+        invalidated(null);
+        for (Object key : cache.getAllKeys()) {
+            AuthorizationInfo info = cache.get(key);
+            if (info instanceof KapuaAuthorizationInfo && ((KapuaAuthorizationInfo) info).hasAccessInfoId(accessInfoId)) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Invalidate the cached authorization information of all the users having the given role
+     *
+     * @param roleId
+     */
+    public void invalidateRole(KapuaId roleId) {
+        // the users loading their authorization information can't be told yet whether they have the role
+        invalidated(null);
+        for (Object key : cache.getAllKeys()) {
+            AuthorizationInfo info = cache.get(key);
+            if (info instanceof KapuaAuthorizationInfo && ((KapuaAuthorizationInfo) info).hasRoleId(roleId)) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Record a new generation for the given user or, if the user is null, for all the users
+     *
+     * @param key
+     */
+    private synchronized void invalidated(Object key) {
+        long invalidation = generation.incrementAndGet();
+        if (key == null) {
+            allUsersInvalidation = invalidation;
+        } else {
+            userInvalidations.put(key, invalidation);
+            if (userInvalidations.size() > invalidationsMax) {
+                // bound the tracked users: the generation recorded for all the users covers the ones dropped
+                allUsersInvalidation = invalidation;
+                userInvalidations.clear();
+            }
+        }
+    }
+
+    private boolean isInvalidatedSince(Object key, AuthorizationInfo info) {
+        if (!(info instanceof KapuaAuthorizationInfo)) {
+            return false;
+        }
+        long cacheGeneration = ((KapuaAuthorizationInfo) info).getCacheGeneration();
+        Long userInvalidation = userInvalidations.get(key);
+        return allUsersInvalidation > cacheGeneration || (userInvalidation != null && userInvalidation > cacheGeneration);
+    }
+}
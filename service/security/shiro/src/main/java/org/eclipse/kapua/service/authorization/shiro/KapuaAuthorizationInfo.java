@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.service.authorization.shiro;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.shiro.authz.SimpleAuthorizationInfo;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.permission.Permission;
+
+/**
+ * Authorization information of a user.<br>
+ * Besides the roles and the permissions it keeps the identifiers of the access infos and of the roles it has been built from, so the cached
+ * authorization information can be invalidated when one of them changes, and the cache generation read before loading it, so it is not cached if it
+ * has been invalidated while loading.<br>
+ * The granted permissions are compiled into a {@link PermissionIndex} on the first permission check.
+ *
+ * @since 1.0.0
+ */
+public class KapuaAuthorizationInfo extends SimpleAuthorizationInfo {
+
+    private static final long serialVersionUID = -1840212736546346562L;
+
+    private final KapuaId userId;
+    private final long cacheGeneration;
+    private final Set<KapuaId> accessInfoIds = new HashSet<>();
+    private final Set<KapuaId> roleIds = new HashSet<>();
+
+    private transient volatile PermissionIndex permissionIndex;
+
+    /**
+     * Constructor
+     *
+     * @param userId
+     * @param cacheGeneration
+     *            The {@link KapuaAuthorizationCache#getGeneration()} read before loading the authorization information.
+     */
+    public KapuaAuthorizationInfo(KapuaId userId, long cacheGeneration) {
+        this.userId = userId;
+        this.cacheGeneration = cacheGeneration;
+    }
+
+    /**
+     * Get the user identifier
+     *
+     * @return
+     */
+    public KapuaId getUserId() {
+        return userId;
+    }
+
+    /**
+     * Get the cache generation read before loading the authorization information
+     *
+     * @return
+     */
+    public long getCacheGeneration() {
+        return cacheGeneration;
+    }
+
+    /**
+     * Add the identifier of an access info this authorization information is built from
+     *
+     * @param accessInfoId
+     */
+    public void addAccessInfoId(KapuaId accessInfoId) {
+        accessInfoIds.add(accessInfoId);
+    }
+
+    /**
+     * Check if this authorization information is built from the given access info
+     *
+     * @param accessInfoId
+     * @return
+     */
+    public boolean hasAccessInfoId(KapuaId accessInfoId) {
+        return accessInfoIds.contains(accessInfoId);
+    }
+
+    /**
+     * Add the identifier of a role this authorization information is built from
+     *
+     * @param roleId
+     */
+    public void addRoleId(KapuaId roleId) {
+        roleIds.add(roleId);
+    }
+
+    /**
+     * Check if this authorization information is built from the given role
+     *
+     * @param roleId
+     * @return
+     */
+    public boolean hasRoleId(KapuaId roleId) {
+        return roleIds.contains(roleId);
+    }
+
+    @Override
+    public void setObjectPermissions(Set<org.apache.shiro.authz.Permission> objectPermissions) {
+        super.setObjectPermissions(objectPermissions);
+        permissionIndex = null;
+    }
+
+    @Override
+    public void addObjectPermission(org.apache.shiro.authz.Permission permission) {
+        super.addObjectPermission(permission);
+        permissionIndex = null;
+    }
+
+    @Override
+    public void addObjectPermissions(Collection<org.apache.shiro.authz.Permission> permissions) {
+        super.addObjectPermissions(permissions);
+        permissionIndex = null;
+    }
+
+    /**
+     * Get the index of the granted {@link Permission}s
+     *
+     * @return
+     */
+    public PermissionIndex getPermissionIndex() {
+        PermissionIndex index = permissionIndex;
+        if (index == null) {
+            List<Permission> permissions = new ArrayList<>();
+            if (getObjectPermissions() != null) {
+                for (org.apache.shiro.authz.Permission permission : getObjectPermissions()) {
+                    if (permission instanceof Permission) {
+                        permissions.add((Permission) permission);
+                    }
+                }
+            }
+            index = new PermissionIndex(permissions);
+            permissionIndex = index;
+        }
+        return index;
+    }
+}
@@ -18,7 +18,7 @@ import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
 import org.apache.shiro.authc.UnknownAccountException;
 import org.apache.shiro.authz.AuthorizationInfo;
-import org.apache.shiro.authz.SimpleAuthorizationInfo;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.subject.PrincipalCollection;
 import org.eclipse.kapua.KapuaException;
@@ -51,7 +51,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The JPA-based application's one and only configured Apache Shiro Realm.
+ * The JPA-based application's one and only configured Apache Shiro Realm.<br>
+ * The authorization information is cached by the {@link KapuaAuthorizationCache}.
  */
 public class KapuaAuthorizingRealm extends AuthorizingRealm {
 
@@ -61,6 +62,26 @@ public class KapuaAuthorizingRealm extends AuthorizingRealm {
 
     public KapuaAuthorizingRealm() throws KapuaException {
         setName(REALM_NAME);
+        KapuaAuthorizationCache authorizationCache = KapuaAuthorizationCache.getInstance();
+        setAuthorizationCachingEnabled(authorizationCache.isEnabled());
+        if (authorizationCache.isEnabled()) {
+            setAuthorizationCache(authorizationCache);
+        }
+    }
+
+    /**
+     * The authorization information is cached by user identifier, so it can be shared by all the sessions of the same user.
+     */
+    @Override
+    protected Object getAuthorizationCacheKey(PrincipalCollection principals) {
+        return ((User) principals.getPrimaryPrincipal()).getId();
+    }
+
+    /**
+     * The cached authorization information is kept on logout since it is invalidated when it changes (see {@link KapuaAuthorizationCache}).
+     */
+    @Override
+    public void onLogout(PrincipalCollection principals) {
     }
 
     /**
@@ -73,6 +94,9 @@ public class KapuaAuthorizingRealm extends AuthorizingRealm {
         String username = ((User) principals.getPrimaryPrincipal()).getName();
         logger.debug("Getting authorization info for: {}", username);
 
+        // read before loading anything: the authorization info is not cached if it is invalidated in the meantime
+        long cacheGeneration = KapuaAuthorizationCache.getInstance().getGeneration();
+
         //
         // Get Services
         KapuaLocator locator = KapuaLocator.getInstance();
@@ -120,11 +144,12 @@ public class KapuaAuthorizingRealm extends AuthorizingRealm {
         }
 
         //
-        // Create SimpleAuthorizationInfo with principals permissions
-        SimpleAuthorizationInfo info = new SimpleAuthorizationInfo();
+        // Create KapuaAuthorizationInfo with principals permissions
+        KapuaAuthorizationInfo info = new KapuaAuthorizationInfo(user.getId(), cacheGeneration);
 
         // Get user roles set and related permissions
         for (AccessInfo accessInfo : accessInfos.getItems()) {
+            info.addAccessInfoId(accessInfo.getId());
 
             // Access Permissions
             AccessPermissionService accessPermissionService = locator.getService(AccessPermissionService.class);
@@ -159,6 +184,7 @@ public class KapuaAuthorizingRealm extends AuthorizingRealm {
             for (AccessRole accessRole : accessRoles.getItems()) {
 
                 KapuaId roleId = accessRole.getRoleId();
+                info.addRoleId(roleId);
 
                 Role role;
                 try {
@@ -191,6 +217,20 @@ public class KapuaAuthorizingRealm extends AuthorizingRealm {
         return info;
     }
 
+    /**
+     * The {@link org.eclipse.kapua.service.authorization.permission.Permission}s are evaluated against the {@link PermissionIndex} of the
+     * {@link KapuaAuthorizationInfo}, other permissions are evaluated by the default implementation.
+     */
+    @Override
+    protected boolean isPermitted(Permission permission, AuthorizationInfo info) {
+        if (permission instanceof org.eclipse.kapua.service.authorization.permission.Permission &&
+                info instanceof KapuaAuthorizationInfo &&
+                info.getStringPermissions() == null) {
+            return ((KapuaAuthorizationInfo) info).getPermissionIndex().implies((org.eclipse.kapua.service.authorization.permission.Permission) permission);
+        }
+        return super.isPermitted(permission, info);
+    }
+
     /**
      * This method always returns false as it works only as AuthorizingReam.
      */
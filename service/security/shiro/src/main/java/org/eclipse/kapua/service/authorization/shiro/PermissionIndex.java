@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.service.authorization.shiro;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.group.Group;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.authorization.permission.Permission;
+
+/**
+ * Immutable index of the permissions granted to a subject.<br>
+ * The granted permissions are compiled as domain → action → target scope → groups, where the {@code null} action, target scope and group keys stand for
+ * the wildcard.<br>
+ * The evaluation of a requested permission is made of a few hash lookups and doesn't need to parse or to allocate anything.<br>
+ * The evaluation is equivalent to the {@link org.apache.shiro.authz.permission.WildcardPermission} based
+ * {@link org.eclipse.kapua.service.authorization.permission.shiro.PermissionImpl#implies(org.apache.shiro.authz.Permission)}.
+ *
+ * @since 1.0.0
+ */
+public class PermissionIndex {
+
+    private final Map<String, Map<Actions, Map<BigInteger, Set<BigInteger>>>> index = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param permissions
+     *            the granted permissions
+     */
+    public PermissionIndex(Collection<? extends Permission> permissions) {
+        for (Permission permission : permissions) {
+            index.computeIfAbsent(permission.getDomain().toLowerCase(), domain -> new HashMap<>())
+                    .computeIfAbsent(permission.getAction(), action -> new HashMap<>())
+                    .computeIfAbsent(getId(permission.getTargetScopeId()), targetScopeId -> new HashSet<>())
+                    .add(getId(permission.getGroupId()));
+        }
+    }
+
+    /**
+     * Check if the requested permission is implied by one of the granted permissions.<br>
+     * If the requested permission group is {@link Group#ANY} the group of the granted permissions is not checked.
+     *
+     * @param permission
+     *            the requested permission
+     * @return
+     */
+    public boolean implies(Permission permission) {
+        return implies(index.get(permission.getDomain().toLowerCase()), permission) ||
+                implies(index.get(Permission.WILDCARD), permission);
+    }
+
+    private static boolean implies(Map<Actions, Map<BigInteger, Set<BigInteger>>> actions, Permission permission) {
+        if (actions == null) {
+            return false;
+        }
+
+        Actions action = permission.getAction();
+        return (action != null && implies(actions.get(action), permission)) ||
+                implies(actions.get(null), permission);
+    }
+
+    private static boolean implies(Map<BigInteger, Set<BigInteger>> targetScopes, Permission permission) {
+        if (targetScopes == null) {
+            return false;
+        }
+
+        BigInteger targetScopeId = getId(permission.getTargetScopeId());
+        return (targetScopeId != null && implies(targetScopes.get(targetScopeId), permission)) ||
+                implies(targetScopes.get(null), permission);
+    }
+
+    private static boolean implies(Set<BigInteger> groups, Permission permission) {
+        if (groups == null) {
+            return false;
+        }
+
+        BigInteger groupId = getId(permission.getGroupId());
+        if (Group.ANY.getId().equals(groupId) || groups.contains(null)) {
+            return true;
+        }
+
+        return groupId != null && groups.contains(groupId);
+    }
+
+    private static BigInteger getId(KapuaId kapuaId) {
+        return kapuaId != null ? kapuaId.getId() : null;
+    }
+}
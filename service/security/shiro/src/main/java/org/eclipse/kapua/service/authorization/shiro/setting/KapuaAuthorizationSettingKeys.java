@@ -22,7 +22,10 @@ import org.eclipse.kapua.commons.setting.SettingKey;
  */
 public enum KapuaAuthorizationSettingKeys implements SettingKey
 {
-    AUTHORIZATION_KEY("authorization.key");
+    AUTHORIZATION_KEY("authorization.key"),
+
+    AUTHORIZATION_CACHE_EXPIRE_AFTER("authorization.cache.expire.after"),
+    AUTHORIZATION_CACHE_SIZE_MAXIMUM("authorization.cache.size.maximum");
 
     private String key;
 
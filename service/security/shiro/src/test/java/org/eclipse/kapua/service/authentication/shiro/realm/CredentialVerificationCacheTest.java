@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.authentication.shiro.realm;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authentication.credential.CredentialType;
+import org.eclipse.kapua.service.authentication.credential.shiro.CredentialImpl;
+import org.junit.Test;
+
+public class CredentialVerificationCacheTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.ONE);
+
+    // the cache is shared by all the tests, so each credential has its own identifier
+    private static final AtomicLong CREDENTIAL_ID = new AtomicLong(1000);
+
+    static CredentialImpl newCredential(String credentialKey) {
+        CredentialImpl credential = new CredentialImpl(SCOPE_ID, new KapuaEid(BigInteger.valueOf(2)), CredentialType.PASSWORD, credentialKey);
+        credential.setId(new KapuaEid(BigInteger.valueOf(CREDENTIAL_ID.incrementAndGet())));
+        return credential;
+    }
+
+    @Test
+    public void testVerified() {
+        CredentialVerificationCache cache = CredentialVerificationCache.getInstance();
+        CredentialImpl credential = newCredential("hash-1");
+
+        assertFalse(cache.isVerified(credential, "secret"));
+
+        cache.putVerified(credential, "secret", 1000000L);
+        assertTrue(cache.isVerified(credential, "secret"));
+    }
+
+    @Test
+    public void testOtherSecretNotVerified() {
+        CredentialVerificationCache cache = CredentialVerificationCache.getInstance();
+        CredentialImpl credential = newCredential("hash-1");
+        cache.putVerified(credential, "secret", 1000000L);
+
+        assertFalse(cache.isVerified(credential, "other-secret"));
+        assertFalse(cache.isVerified(credential, "secret "));
+        assertFalse(cache.isVerified(credential, ""));
+    }
+
+    @Test
+    public void testOtherCredentialNotVerified() {
+        CredentialVerificationCache cache = CredentialVerificationCache.getInstance();
+        CredentialImpl credential = newCredential("hash-1");
+        cache.putVerified(credential, "secret", 1000000L);
+
+        // same key and secret, but another credential
+        assertFalse(cache.isVerified(newCredential("hash-1"), "secret"));
+    }
+
+    @Test
+    public void testCredentialKeyChanged() {
+        CredentialVerificationCache cache = CredentialVerificationCache.getInstance();
+        CredentialImpl credential = newCredential("hash-1");
+        cache.putVerified(credential, "secret", 1000000L);
+
+        // the credential has been updated by another node, without invalidating the local cache
+        credential.setCredentialKey("hash-2");
+        assertFalse(cache.isVerified(credential, "secret"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        CredentialVerificationCache cache = CredentialVerificationCache.getInstance();
+        CredentialImpl credential = newCredential("hash-1");
+        CredentialImpl otherCredential = newCredential("hash-1");
+        cache.putVerified(credential, "secret", 1000000L);
+        cache.putVerified(credential, "other-secret", 1000000L);
+        cache.putVerified(otherCredential, "secret", 1000000L);
+
+        cache.invalidate(credential.getId());
+        assertFalse(cache.isVerified(credential, "secret"));
+        assertFalse(cache.isVerified(credential, "other-secret"));
+
+        // the verifications of the other credentials are kept
+        assertTrue(cache.isVerified(otherCredential, "secret"));
+
+        cache.invalidate(null);
+        assertTrue(cache.isVerified(otherCredential, "secret"));
+    }
+}
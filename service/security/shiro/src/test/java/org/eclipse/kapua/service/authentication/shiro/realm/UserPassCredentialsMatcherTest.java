@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.service.authentication.shiro.realm;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authentication.credential.CredentialType;
+import org.eclipse.kapua.service.authentication.credential.shiro.CredentialImpl;
+import org.eclipse.kapua.test.user.UserMock;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+public class UserPassCredentialsMatcherTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.ONE);
+
+    private static final String USERNAME = "user-matcher";
+    private static final String PASSWORD = "Secret#123";
+
+    private final UserPassCredentialsMatcher matcher = new UserPassCredentialsMatcher();
+
+    private static String hash(String password) {
+        // the lowest cost keeps the test fast, the matcher doesn't depend on it
+        return BCrypt.hashpw(password, BCrypt.gensalt(4));
+    }
+
+    private boolean match(String username, String password, CredentialImpl credential) {
+        LoginAuthenticationInfo info = new LoginAuthenticationInfo("test-realm", null, new UserMock(SCOPE_ID, USERNAME), credential);
+        return matcher.doCredentialsMatch(new UsernamePasswordToken(username, password), info);
+    }
+
+    @Test
+    public void testPasswordMatch() {
+        CredentialImpl credential = CredentialVerificationCacheTest.newCredential(hash(PASSWORD));
+
+        assertTrue(match(USERNAME, PASSWORD, credential));
+
+        // the cached verification gives the same result
+        assertTrue(CredentialVerificationCache.getInstance().isVerified(credential, PASSWORD));
+        assertTrue(match(USERNAME, PASSWORD, credential));
+    }
+
+    @Test
+    public void testWrongPassword() {
+        CredentialImpl credential = CredentialVerificationCacheTest.newCredential(hash(PASSWORD));
+
+        assertFalse(match(USERNAME, "wrong", credential));
+        assertFalse(CredentialVerificationCache.getInstance().isVerified(credential, "wrong"));
+
+        // a cached verification of the right password doesn't let the wrong one through
+        assertTrue(match(USERNAME, PASSWORD, credential));
+        assertFalse(match(USERNAME, "wrong", credential));
+    }
+
+    @Test
+    public void testWrongUsername() {
+        CredentialImpl credential = CredentialVerificationCacheTest.newCredential(hash(PASSWORD));
+        assertTrue(match(USERNAME, PASSWORD, credential));
+
+        assertFalse(match("other-user", PASSWORD, credential));
+    }
+
+    @Test
+    public void testNotPasswordCredential() {
+        CredentialImpl credential = CredentialVerificationCacheTest.newCredential(hash(PASSWORD));
+        credential.setCredentialType(CredentialType.API_KEY);
+
+        assertFalse(match(USERNAME, PASSWORD, credential));
+    }
+
+    @Test
+    public void testPasswordChanged() {
+        CredentialImpl credential = CredentialVerificationCacheTest.newCredential(hash(PASSWORD));
+        assertTrue(match(USERNAME, PASSWORD, credential));
+
+        // the old password verification is not used after the credential key update
+        credential.setCredentialKey(hash("NewSecret#456"));
+        assertFalse(match(USERNAME, PASSWORD, credential));
+        assertTrue(match(USERNAME, "NewSecret#456", credential));
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.service.authorization.shiro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.eclipse.kapua.commons.metric.MetricsServiceImpl;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.commons.service.event.EntityChangeNotifier;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.user.User;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KapuaAuthorizationCacheTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.valueOf(1));
+    private static final KapuaId USER_1 = new KapuaEid(BigInteger.valueOf(10));
+    private static final KapuaId USER_2 = new KapuaEid(BigInteger.valueOf(20));
+    private static final KapuaId ACCESS_INFO_1 = new KapuaEid(BigInteger.valueOf(100));
+    private static final KapuaId ACCESS_INFO_2 = new KapuaEid(BigInteger.valueOf(200));
+    private static final KapuaId ROLE_1 = new KapuaEid(BigInteger.valueOf(1000));
+    private static final KapuaId ROLE_2 = new KapuaEid(BigInteger.valueOf(2000));
+
+    private MetricsServiceImpl metricsService;
+    private KapuaAuthorizationCache cache;
+
+    @Before
+    public void setUp() {
+        metricsService = new MetricsServiceImpl();
+        cache = new KapuaAuthorizationCache(100, 300, metricsService);
+    }
+
+    private KapuaAuthorizationInfo load(KapuaId userId, KapuaId accessInfoId, KapuaId roleId) {
+        KapuaAuthorizationInfo info = new KapuaAuthorizationInfo(userId, cache.getGeneration());
+        info.addAccessInfoId(accessInfoId);
+        info.addRoleId(roleId);
+        return info;
+    }
+
+    private void loadAll() {
+        cache.put(USER_1, load(USER_1, ACCESS_INFO_1, ROLE_1));
+        cache.put(USER_2, load(USER_2, ACCESS_INFO_2, ROLE_2));
+    }
+
+    @Test
+    public void testHitMissMetrics() {
+        assertNull(cache.get(USER_1));
+        KapuaAuthorizationInfo info = load(USER_1, ACCESS_INFO_1, ROLE_1);
+        cache.put(USER_1, info);
+        assertSame(info, cache.get(USER_1));
+        assertSame(info, cache.get(USER_1));
+
+        assertEquals(2, metricsService.getCounter("security", "authorization", "cache", "hit", "count").getCount());
+        assertEquals(1, metricsService.getCounter("security", "authorization", "cache", "miss", "count").getCount());
+        assertEquals(2d / 3, (Double) metricsService.getMetricRegistry().getGauges().get("security.authorization.cache.hit.ratio").getValue(), 0.0001);
+    }
+
+    @Test
+    public void testInvalidateUser() {
+        loadAll();
+
+        cache.invalidateUser(USER_1);
+
+        assertNull(cache.get(USER_1));
+        assertEquals(USER_2, ((KapuaAuthorizationInfo) cache.get(USER_2)).getUserId());
+    }
+
+    @Test
+    public void testUserChangeNotified() {
+        loadAll();
+
+        EntityChangeNotifier.fireEntityChanged(User.TYPE, SCOPE_ID, USER_2);
+
+        assertEquals(USER_1, ((KapuaAuthorizationInfo) cache.get(USER_1)).getUserId());
+        assertNull(cache.get(USER_2));
+    }
+
+    @Test
+    public void testInvalidateAccessInfo() {
+        loadAll();
+
+        cache.invalidateAccessInfo(ACCESS_INFO_2);
+
+        assertEquals(USER_1, ((KapuaAuthorizationInfo) cache.get(USER_1)).getUserId());
+        assertNull(cache.get(USER_2));
+    }
+
+    @Test
+    public void testInvalidateRole() {
+        loadAll();
+
+        cache.invalidateRole(ROLE_1);
+
+        assertNull(cache.get(USER_1));
+        assertEquals(USER_2, ((KapuaAuthorizationInfo) cache.get(USER_2)).getUserId());
+    }
+
+    @Test
+    public void testUserInvalidatedWhileLoading() {
+        KapuaAuthorizationInfo staleInfo = load(USER_1, ACCESS_INFO_1, ROLE_1);
+        KapuaAuthorizationInfo otherInfo = load(USER_2, ACCESS_INFO_2, ROLE_2);
+
+        // the user changes while its authorization info is loading
+        cache.invalidateUser(USER_1);
+        cache.put(USER_1, staleInfo);
+        cache.put(USER_2, otherInfo);
+
+        assertNull(cache.get(USER_1));
+        assertSame(otherInfo, cache.get(USER_2));
+
+        // the next load is cached
+        KapuaAuthorizationInfo info = load(USER_1, ACCESS_INFO_1, ROLE_1);
+        cache.put(USER_1, info);
+        assertSame(info, cache.get(USER_1));
+    }
+
+    @Test
+    public void testRoleInvalidatedWhileLoading() {
+        KapuaAuthorizationInfo staleInfo = load(USER_1, ACCESS_INFO_1, ROLE_1);
+
+        // the role isn't bound to the loading user yet: the loads in progress are not cached
+        cache.invalidateRole(ROLE_1);
+        cache.put(USER_1, staleInfo);
+        assertNull(cache.get(USER_1));
+
+        KapuaAuthorizationInfo info = load(USER_1, ACCESS_INFO_1, ROLE_1);
+        cache.put(USER_1, info);
+        assertSame(info, cache.get(USER_1));
+    }
+
+    @Test
+    public void testInvalidationsBounded() {
+        cache = new KapuaAuthorizationCache(1, 300, new MetricsServiceImpl());
+        KapuaAuthorizationInfo staleInfo = load(USER_1, ACCESS_INFO_1, ROLE_1);
+
+        // the invalidation of the first user is still seen once the tracked users are dropped
+        cache.invalidateUser(USER_1);
+        cache.invalidateUser(USER_2);
+        cache.put(USER_1, staleInfo);
+        assertNull(cache.get(USER_1));
+    }
+
+    @Test
+    public void testDisabled() {
+        assertTrue(cache.isEnabled());
+        assertFalse(new KapuaAuthorizationCache(100, 0, new MetricsServiceImpl()).isEnabled());
+    }
+}
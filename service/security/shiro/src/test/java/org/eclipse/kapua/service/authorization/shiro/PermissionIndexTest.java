@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.service.authorization.shiro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.authorization.group.Group;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.authorization.permission.shiro.PermissionImpl;
+import org.junit.Test;
+
+public class PermissionIndexTest {
+
+    private static final KapuaId SCOPE_1 = new KapuaEid(BigInteger.valueOf(1));
+    private static final KapuaId SCOPE_2 = new KapuaEid(BigInteger.valueOf(2));
+    private static final KapuaId GROUP_1 = new KapuaEid(BigInteger.valueOf(10));
+    private static final KapuaId GROUP_2 = new KapuaEid(BigInteger.valueOf(20));
+
+    @Test
+    public void testImplies() {
+        List<PermissionImpl> granted = Arrays.asList(
+                new PermissionImpl("device", Actions.read, SCOPE_1, null),
+                new PermissionImpl("device", Actions.write, SCOPE_1, GROUP_1),
+                new PermissionImpl("user", null, SCOPE_2, null),
+                new PermissionImpl("datastore", Actions.read, null, GROUP_2));
+        PermissionIndex index = new PermissionIndex(granted);
+
+        assertTrue(index.implies(new PermissionImpl("device", Actions.read, SCOPE_1, GROUP_2)));
+        assertTrue(index.implies(new PermissionImpl("device", Actions.write, SCOPE_1, GROUP_1)));
+        assertTrue(index.implies(new PermissionImpl("device", Actions.write, SCOPE_1, Group.ANY)));
+        assertTrue(index.implies(new PermissionImpl("user", Actions.delete, SCOPE_2, null)));
+        assertTrue(index.implies(new PermissionImpl("datastore", Actions.read, SCOPE_2, GROUP_2)));
+
+        assertFalse(index.implies(new PermissionImpl("device", Actions.write, SCOPE_1, GROUP_2)));
+        assertFalse(index.implies(new PermissionImpl("device", Actions.write, SCOPE_1, null)));
+        assertFalse(index.implies(new PermissionImpl("device", Actions.read, SCOPE_2, null)));
+        assertFalse(index.implies(new PermissionImpl("device", null, SCOPE_1, null)));
+        assertFalse(index.implies(new PermissionImpl("user", Actions.read, null, null)));
+        assertFalse(index.implies(new PermissionImpl("account", Actions.read, SCOPE_1, null)));
+    }
+
+    @Test
+    public void testWildcardDomain() {
+        PermissionIndex index = new PermissionIndex(Arrays.asList(new PermissionImpl("*", null, null, null)));
+
+        assertTrue(index.implies(new PermissionImpl("device", Actions.read, SCOPE_1, GROUP_1)));
+        assertTrue(index.implies(new PermissionImpl("*", null, null, null)));
+    }
+
+    @Test
+    public void testConsistentWithPermissionImplies() {
+        List<PermissionImpl> granted = Arrays.asList(
+                new PermissionImpl("device", Actions.read, SCOPE_1, null),
+                new PermissionImpl("device", Actions.write, SCOPE_1, GROUP_1),
+                new PermissionImpl("user", null, SCOPE_2, null));
+        PermissionIndex index = new PermissionIndex(granted);
+
+        String[] domains = { "device", "user", "account" };
+        Actions[] actions = { null, Actions.read, Actions.write, Actions.delete };
+        KapuaId[] scopes = { null, SCOPE_1, SCOPE_2 };
+        KapuaId[] groups = { null, GROUP_1, GROUP_2, Group.ANY };
+        for (String domain : domains) {
+            for (Actions action : actions) {
+                for (KapuaId scope : scopes) {
+                    for (KapuaId group : groups) {
+                        PermissionImpl requested = new PermissionImpl(domain, action, scope, group);
+
+                        boolean implied = false;
+                        for (PermissionImpl permission : granted) {
+                            implied |= permission.implies(requested);
+                        }
+
+                        assertEquals(requested.toString(), implied, index.implies(requested));
+                    }
+                }
+            }
+        }
+
+        // The check must not modify the granted permissions
+        assertEquals(GROUP_1, granted.get(1).getGroupId());
+    }
+}
@@ -19,6 +19,7 @@ import org.eclipse.kapua.KapuaEntityNotFoundException;
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.KapuaIllegalArgumentException;
 import org.eclipse.kapua.commons.configuration.AbstractKapuaConfigurableService;
+import org.eclipse.kapua.commons.service.event.EntityChangeNotifier;
 import org.eclipse.kapua.commons.util.ArgumentValidator;
 import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.locator.KapuaProvider;
@@ -106,7 +107,7 @@ public class UserServiceImpl extends AbstractKapuaConfigurableService implements
 
         //
         // Do update
-        return entityManagerSession.onTransactedResult(em -> {
+        User updatedUser = entityManagerSession.onTransactedResult(em -> {
             User currentUser = UserDAO.find(em, user.getId());
             if (currentUser == null) {
                 throw new KapuaEntityNotFoundException(User.TYPE, user.getId());
@@ -119,6 +120,10 @@ public class UserServiceImpl extends AbstractKapuaConfigurableService implements
             }
             return UserDAO.update(em, user);
         });
+
+        // evict the cached information of the user (e.g. its permissions)
+        EntityChangeNotifier.fireEntityChanged(User.TYPE, updatedUser.getScopeId(), updatedUser.getId());
+        return updatedUser;
     }
 
     @Override
@@ -149,6 +154,9 @@ public class UserServiceImpl extends AbstractKapuaConfigurableService implements
 
             UserDAO.delete(em, userId);
         });
+
+        // evict the cached information of the user, so that its open sessions lose their permissions
+        EntityChangeNotifier.fireEntityChanged(User.TYPE, scopeId, userId);
     }
 
     @Override
@@ -50,6 +50,12 @@ public class AuthenticationServiceMock implements AuthenticationService {
         return null;
     }
 
+    @Override
+    public AccessToken loginStateless(LoginCredentials authenticationToken)
+            throws KapuaException {
+        return login(authenticationToken);
+    }
+
     @Override
     public void logout()
             throws KapuaException {
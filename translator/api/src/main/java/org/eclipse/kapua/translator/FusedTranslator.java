@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator;
+
+import org.eclipse.kapua.message.Message;
+
+/**
+ * Translator doing in a single pass the translation of two chained translators (from FROM_M to an intermediate message type and from the
+ * intermediate message type to TO_M), without building the intermediate message.<br>
+ * The fused translators are looked up by {@link Translator#getFusedTranslatorFor(Class, Class, Class)} only (they are not returned by
+ * {@link Translator#getTranslatorFor(Class, Class)}).
+ *
+ * @param <FROM_M>
+ *            message from type
+ * @param <TO_M>
+ *            message to type
+ *
+ * @since 1.0
+ */
+@SuppressWarnings("rawtypes")
+public abstract class FusedTranslator<FROM_M extends Message, TO_M extends Message> extends Translator<FROM_M, TO_M> {
+
+    /**
+     * Return the intermediate message type (the message type the chained translators translate to and from)
+     *
+     * @return
+     */
+    public abstract Class<? extends Message> getClassVia();
+}
@@ -13,8 +13,15 @@
  *******************************************************************************/
 package org.eclipse.kapua.translator;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.KapuaRuntimeErrorCodes;
@@ -46,12 +53,35 @@ public abstract class Translator<FROM_M extends Message, TO_M extends Message> {
 
     private static final Logger logger = LoggerFactory.getLogger(Translator.class);
 
-    private static final ServiceLoader<Translator> translators = ServiceLoader.load(Translator.class);
+    private static final List<Translator> translators;
+    private static final Map<TranslatorKey, Translator> translatorsIndex;
+    private static final ConcurrentMap<TranslatorKey, Translator> assignableTranslators = new ConcurrentHashMap<>();
+    private static final Map<TranslatorKey, Translator> fusedTranslatorsIndex;
+
+    static {
+        List<Translator> loadedTranslators = new ArrayList<>();
+        Map<TranslatorKey, Translator> index = new HashMap<>();
+        Map<TranslatorKey, Translator> fusedIndex = new HashMap<>();
+        for (Translator translator : ServiceLoader.load(Translator.class)) {
+            if (translator instanceof FusedTranslator) {
+                fusedIndex.putIfAbsent(new TranslatorKey(translator.getClassFrom(), ((FusedTranslator) translator).getClassVia(), translator.getClassTo()), translator);
+                continue;
+            }
+            loadedTranslators.add(translator);
+            index.putIfAbsent(new TranslatorKey(translator.getClassFrom(), translator.getClassTo()), translator);
+        }
+
+        translators = Collections.unmodifiableList(loadedTranslators);
+        translatorsIndex = Collections.unmodifiableMap(index);
+        fusedTranslatorsIndex = Collections.unmodifiableMap(fusedIndex);
+    }
 
     /**
      * Return a translator for the given messages classes.
      * <br>
-     * This method will lookup instances of Translator through {@link java.util.ServiceLoader}
+     * This method will lookup instances of Translator through {@link java.util.ServiceLoader}.<br>
+     * The translators are loaded once and indexed by their message types, the lookup of a translator by its exact message types doesn't need any iteration
+     * and the translators found by assignable message types are remembered, so the method doesn't need any synchronization.
      * 
      * @param fromMessageClass
      *            message from type
@@ -61,20 +91,34 @@ public abstract class Translator<FROM_M extends Message, TO_M extends Message> {
      * @throws KapuaException
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <FROM_M extends Message, TO_M extends Message, T extends Translator<FROM_M, TO_M>> T getTranslatorFor(Class<? extends FROM_M> fromMessageClass,
+    public static <FROM_M extends Message, TO_M extends Message, T extends Translator<FROM_M, TO_M>> T getTranslatorFor(Class<? extends FROM_M> fromMessageClass,
             Class<? extends TO_M> toMessageClass)
             throws KapuaException {
 
         Objects.requireNonNull(fromMessageClass);
         Objects.requireNonNull(toMessageClass);
 
-        for (Translator translator : translators) {
-            if ((fromMessageClass.isAssignableFrom(translator.getClassFrom())) &&
-                    toMessageClass.isAssignableFrom(translator.getClassTo())) {
-                return (T) translator;
+        TranslatorKey key = new TranslatorKey(fromMessageClass, toMessageClass);
+        Translator translator = translatorsIndex.get(key);
+        if (translator == null) {
+            translator = assignableTranslators.get(key);
+        }
+
+        if (translator == null) {
+            for (Translator candidate : translators) {
+                if ((fromMessageClass.isAssignableFrom(candidate.getClassFrom())) &&
+                        toMessageClass.isAssignableFrom(candidate.getClassTo())) {
+                    translator = candidate;
+                    assignableTranslators.putIfAbsent(key, translator);
+                    break;
+                }
             }
         }
 
+        if (translator != null) {
+            return (T) translator;
+        }
+
         logger.error("Cannot find translator from: {}- to: {}", fromMessageClass.getName(), toMessageClass.getName());
         throw new KapuaRuntimeException(KapuaRuntimeErrorCodes.TRANSLATOR_NOT_FOUND,
                 null,
@@ -85,6 +129,31 @@ public abstract class Translator<FROM_M extends Message, TO_M extends Message> {
                 });
     }
 
+    /**
+     * Return the {@link FusedTranslator} doing in a single pass the translation from the given from type to the given via type and from the via type to
+     * the given to type.<br>
+     * The message types must match exactly the types of the fused translator.
+     *
+     * @param fromMessageClass
+     *            message from type
+     * @param viaMessageClass
+     *            intermediate message type
+     * @param toMessageClass
+     *            message to type
+     * @return the fused translator or {@code null} if no fused translator is available for the given message types
+     */
+    @SuppressWarnings("unchecked")
+    public static <FROM_M extends Message, TO_M extends Message, T extends Translator<FROM_M, TO_M>> T getFusedTranslatorFor(Class<? extends FROM_M> fromMessageClass,
+            Class<? extends Message> viaMessageClass,
+            Class<? extends TO_M> toMessageClass) {
+
+        Objects.requireNonNull(fromMessageClass);
+        Objects.requireNonNull(viaMessageClass);
+        Objects.requireNonNull(toMessageClass);
+
+        return (T) fusedTranslatorsIndex.get(new TranslatorKey(fromMessageClass, viaMessageClass, toMessageClass));
+    }
+
     /**
      * Translate message from the domain FROM_M to the domain TO_M
      * 
@@ -108,4 +177,41 @@ public abstract class Translator<FROM_M extends Message, TO_M extends Message> {
      * @return
      */
     public abstract Class<TO_M> getClassTo();
+
+    /**
+     * Translators index key (from message type, intermediate message type of the fused translators, to message type)
+     */
+    private static final class TranslatorKey {
+
+        private final Class<?> fromMessageClass;
+        private final Class<?> viaMessageClass;
+        private final Class<?> toMessageClass;
+
+        private TranslatorKey(Class<?> fromMessageClass, Class<?> toMessageClass) {
+            this(fromMessageClass, null, toMessageClass);
+        }
+
+        private TranslatorKey(Class<?> fromMessageClass, Class<?> viaMessageClass, Class<?> toMessageClass) {
+            this.fromMessageClass = fromMessageClass;
+            this.viaMessageClass = viaMessageClass;
+            this.toMessageClass = toMessageClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * fromMessageClass.hashCode() + Objects.hashCode(viaMessageClass)) + toMessageClass.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TranslatorKey)) {
+                return false;
+            }
+            TranslatorKey other = (TranslatorKey) obj;
+            return fromMessageClass == other.fromMessageClass && viaMessageClass == other.viaMessageClass && toMessageClass == other.toMessageClass;
+        }
+    }
 }
@@ -12,14 +12,11 @@
  *******************************************************************************/
 package org.eclipse.kapua.translator.kura.kapua;
 
-import org.eclipse.kapua.KapuaEntityNotFoundException;
 import org.eclipse.kapua.KapuaException;
-import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.message.KapuaChannel;
 import org.eclipse.kapua.message.KapuaMessage;
 import org.eclipse.kapua.message.KapuaPayload;
 import org.eclipse.kapua.service.account.Account;
-import org.eclipse.kapua.service.account.AccountService;
 import org.eclipse.kapua.service.device.call.message.app.response.kura.KuraResponseChannel;
 import org.eclipse.kapua.service.device.call.message.app.response.kura.KuraResponseMessage;
 import org.eclipse.kapua.service.device.call.message.app.response.kura.KuraResponsePayload;
@@ -30,13 +27,7 @@ public abstract class AbstractTranslatorKuraKapua<TO_C extends KapuaChannel, TO_
     @Override
     public TO_M translate(KuraResponseMessage kuraMessage) throws KapuaException {
 
-        final KapuaLocator locator = KapuaLocator.getInstance();
-        final AccountService accountService = locator.getService(AccountService.class);
-        final Account account = accountService.findByName(kuraMessage.getChannel().getScope());
-
-        if (account == null) {
-            throw new KapuaEntityNotFoundException(Account.TYPE, kuraMessage.getChannel().getScope());
-        }
+        final Account account = DeviceIdentityResolver.getInstance().findAccount(kuraMessage.getChannel().getScope());
 
         return translateMessage(kuraMessage, account);
     }
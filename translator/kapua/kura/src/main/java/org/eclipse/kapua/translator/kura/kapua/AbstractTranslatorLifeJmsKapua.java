@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import java.util.Date;
+
+import org.eclipse.kapua.KapuaErrorCodes;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraPayload;
+import org.eclipse.kapua.translator.FusedTranslator;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+import org.eclipse.kapua.transport.message.jms.JmsTopic;
+
+/**
+ * Base class of the fused translators from the JMS messages carrying Kura life cycle messages to the Kapua life cycle messages.<br>
+ * The Kura payload is read from the JMS body and translated by the Kura to Kapua translator, without building the Kura channel and message.
+ *
+ * @param <P>
+ *            Kura life cycle payload type
+ * @param <M>
+ *            Kapua life cycle message type
+ *
+ * @since 1.0
+ */
+@SuppressWarnings("rawtypes")
+public abstract class AbstractTranslatorLifeJmsKapua<P extends KuraPayload, M extends Message> extends FusedTranslator<JmsMessage, M> {
+
+    @Override
+    public M translate(JmsMessage jmsMessage)
+            throws KapuaException {
+        String[] topicTokens = getTopicTokens(jmsMessage.getTopic());
+        return translate(topicTokens[1],
+                topicTokens[2],
+                jmsMessage.getReceivedOn(),
+                readPayload(jmsMessage.getPayload().getBody()));
+    }
+
+    /**
+     * Read the Kura payload from the JMS message body
+     *
+     * @param jmsBody
+     * @return
+     * @throws KapuaException
+     */
+    protected abstract P readPayload(byte[] jmsBody)
+            throws KapuaException;
+
+    /**
+     * Translate the Kura message parts to the Kapua message
+     *
+     * @param scope
+     *            the account name
+     * @param clientId
+     * @param receivedOn
+     * @param kuraPayload
+     * @return
+     * @throws KapuaException
+     */
+    protected abstract M translate(String scope, String clientId, Date receivedOn, P kuraPayload)
+            throws KapuaException;
+
+    @Override
+    public Class<JmsMessage> getClassFrom() {
+        return JmsMessage.class;
+    }
+
+    private static String[] getTopicTokens(JmsTopic jmsTopic)
+            throws KapuaException {
+        String[] topicTokens = jmsTopic.getSplittedTopic();
+        // we shouldn't never get a shorter topic here (because that means we have issues on camel routing)
+        if (topicTokens == null || topicTokens.length < 3) {
+            throw new KapuaException(KapuaErrorCodes.INTERNAL_ERROR);
+        }
+        return topicTokens;
+    }
+}
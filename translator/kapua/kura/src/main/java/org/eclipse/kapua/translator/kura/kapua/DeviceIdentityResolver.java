@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import org.eclipse.kapua.KapuaEntityNotFoundException;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.cache.LocalCache;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.account.Account;
+import org.eclipse.kapua.service.account.AccountService;
+import org.eclipse.kapua.service.account.internal.AccountDomain;
+import org.eclipse.kapua.service.authorization.AuthorizationService;
+import org.eclipse.kapua.service.authorization.domain.Domain;
+import org.eclipse.kapua.service.authorization.group.Group;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.authorization.permission.PermissionFactory;
+import org.eclipse.kapua.service.device.registry.Device;
+import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
+import org.eclipse.kapua.service.device.registry.internal.DeviceDomain;
+import org.eclipse.kapua.service.metric.MetricsService;
+import org.eclipse.kapua.translator.kura.kapua.setting.TranslatorKuraKapuaSettingKeys;
+import org.eclipse.kapua.translator.kura.kapua.setting.TranslatorKuraKapuaSettings;
+
+import com.codahale.metrics.Counter;
+
+/**
+ * Resolves the account (by name) and the device (by client identifier) the incoming Kura messages belong to.<br>
+ * The resolved identities are cached so the translation of the steady state traffic doesn't need any database lookup.<br>
+ * The cache entries expire after the configured time (the entries of clients without a registered device expire sooner) and the device entries are
+ * invalidated by the life cycle messages (birth, disconnect and missing) of the client.<br>
+ * A cache hit checks the same read permission checked by the account and device registry services, so the resolution is allowed to the same callers
+ * with or without the cache.
+ *
+ * @since 1.0
+ */
+public class DeviceIdentityResolver {
+
+    private static final String METRIC_MODULE = "translator";
+    private static final String METRIC_COMPONENT = "identity";
+
+    private static final Domain accountDomain = new AccountDomain();
+
+    private static final DeviceIdentityResolver instance = new DeviceIdentityResolver();
+
+    private final LocalCache<String, Account> accountCache;
+    private final LocalCache<String, Device> deviceCache;
+    private final LocalCache<String, Boolean> missingDeviceCache;
+
+    private final Counter cacheHit;
+    private final Counter cacheMiss;
+
+    private DeviceIdentityResolver() {
+        TranslatorKuraKapuaSettings config = TranslatorKuraKapuaSettings.getInstance();
+        int expireAfter = config.getInt(TranslatorKuraKapuaSettingKeys.IDENTITY_CACHE_EXPIRE_AFTER, 300);
+        int missingExpireAfter = config.getInt(TranslatorKuraKapuaSettingKeys.IDENTITY_CACHE_MISSING_EXPIRE_AFTER, 30);
+        int sizeMax = config.getInt(TranslatorKuraKapuaSettingKeys.IDENTITY_CACHE_SIZE_MAXIMUM, 10000);
+
+        accountCache = new LocalCache<>(sizeMax, expireAfter, null);
+        deviceCache = new LocalCache<>(sizeMax, expireAfter, null);
+        missingDeviceCache = new LocalCache<>(sizeMax, missingExpireAfter, false);
+
+        MetricsService metricsService = KapuaLocator.getInstance().getService(MetricsService.class);
+        cacheHit = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "hit", "count");
+        cacheMiss = metricsService.getCounter(METRIC_MODULE, METRIC_COMPONENT, "cache", "miss", "count");
+    }
+
+    /**
+     * Get the resolver instance (singleton)
+     *
+     * @return
+     */
+    public static DeviceIdentityResolver getInstance() {
+        return instance;
+    }
+
+    /**
+     * Find the account with the given name
+     *
+     * @param accountName
+     * @return
+     * @throws KapuaEntityNotFoundException
+     *             if no account with the given name exists
+     * @throws KapuaException
+     */
+    public Account findAccount(String accountName)
+            throws KapuaException {
+        Account account = accountCache.get(accountName);
+        if (account != null) {
+            cacheHit.inc();
+            checkReadPermission(accountDomain, account.getId(), null);
+            return account;
+        }
+
+        cacheMiss.inc();
+        AccountService accountService = KapuaLocator.getInstance().getService(AccountService.class);
+        account = accountService.findByName(accountName);
+
+        if (account == null) {
+            throw new KapuaEntityNotFoundException(Account.TYPE, accountName);
+        }
+
+        accountCache.put(accountName, account);
+        return account;
+    }
+
+    /**
+     * Find the identifier of the device registered with the given client identifier
+     *
+     * @param scopeId
+     * @param clientId
+     * @return the device identifier or {@code null} if no device is registered with the given client identifier
+     * @throws KapuaException
+     */
+    public KapuaId findDeviceId(KapuaId scopeId, String clientId)
+            throws KapuaException {
+        String key = getDeviceKey(scopeId, clientId);
+
+        Device cachedDevice = deviceCache.get(key);
+        if (cachedDevice != null) {
+            cacheHit.inc();
+            // the device is visible to the callers allowed to read the devices of its group
+            checkReadPermission(DeviceDomain.INSTANCE, scopeId, cachedDevice.getGroupId());
+            return cachedDevice.getId();
+        }
+        if (missingDeviceCache.get(key)) {
+            cacheHit.inc();
+            checkReadPermission(DeviceDomain.INSTANCE, scopeId, Group.ANY);
+            return null;
+        }
+
+        cacheMiss.inc();
+        DeviceRegistryService deviceRegistryService = KapuaLocator.getInstance().getService(DeviceRegistryService.class);
+        Device device = deviceRegistryService.findByClientId(scopeId, clientId);
+
+        if (device != null) {
+            deviceCache.put(key, device);
+            return device.getId();
+        }
+
+        missingDeviceCache.put(key, true);
+        return null;
+    }
+
+    /**
+     * Invalidate the cached device for the given client identifier.<br>
+     * It should be called whenever the device registered for the client may be created, updated or deleted.
+     *
+     * @param scopeId
+     * @param clientId
+     */
+    public void invalidate(KapuaId scopeId, String clientId) {
+        String key = getDeviceKey(scopeId, clientId);
+        deviceCache.remove(key);
+        missingDeviceCache.remove(key);
+    }
+
+    private static void checkReadPermission(Domain domain, KapuaId targetScopeId, KapuaId groupId)
+            throws KapuaException {
+        KapuaLocator locator = KapuaLocator.getInstance();
+        AuthorizationService authorizationService = locator.getService(AuthorizationService.class);
+        PermissionFactory permissionFactory = locator.getFactory(PermissionFactory.class);
+        authorizationService.checkPermission(permissionFactory.newPermission(domain, Actions.read, targetScopeId, groupId));
+    }
+
+    private static String getDeviceKey(KapuaId scopeId, String clientId) {
+        return scopeId.toCompactId() + "/" + clientId;
+    }
+}
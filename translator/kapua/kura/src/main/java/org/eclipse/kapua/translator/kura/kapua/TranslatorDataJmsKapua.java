@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.message.device.data.KapuaDataChannel;
+import org.eclipse.kapua.message.device.data.KapuaDataMessage;
+import org.eclipse.kapua.message.device.data.KapuaDataPayload;
+import org.eclipse.kapua.message.internal.device.data.KapuaDataChannelImpl;
+import org.eclipse.kapua.message.internal.device.data.KapuaDataMessageImpl;
+import org.eclipse.kapua.message.internal.device.data.KapuaDataPayloadImpl;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.service.account.Account;
+import org.eclipse.kapua.service.device.call.message.kura.data.KuraDataMessage;
+import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto;
+import org.eclipse.kapua.service.device.call.message.kura.utils.KuraPayloadDecoder;
+import org.eclipse.kapua.translator.FusedTranslator;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+
+/**
+ * Fused messages translator implementation from {@link JmsMessage} to {@link KapuaDataMessage}.<br>
+ * The Kapua message is built straight from the JMS topic and the parsed protobuf payload (it doesn't build the intermediate {@link KuraDataMessage}, so the
+ * metrics are decoded once, directly into the Kapua payload properties).
+ *
+ * @since 1.0
+ */
+public class TranslatorDataJmsKapua extends FusedTranslator<JmsMessage, KapuaDataMessage> {
+
+    @Override
+    public KapuaDataMessage translate(JmsMessage jmsMessage)
+            throws KapuaException {
+        String[] topicTokens = jmsMessage.getTopic().getSplittedTopic();
+        String scope = topicTokens[0];
+        String clientId = topicTokens[1];
+
+        //
+        // Kapua Channel
+        KapuaDataChannel kapuaDataChannel = new KapuaDataChannelImpl();
+        kapuaDataChannel.setSemanticParts(Arrays.asList(topicTokens).subList(2, topicTokens.length));
+
+        //
+        // Kapua message
+        DeviceIdentityResolver identityResolver = DeviceIdentityResolver.getInstance();
+        Account account = identityResolver.findAccount(scope);
+        KapuaId deviceId = identityResolver.findDeviceId(account.getId(), clientId);
+
+        KapuaDataMessage kapuaDataMessage = new KapuaDataMessageImpl();
+        kapuaDataMessage.setScopeId(account.getId());
+        kapuaDataMessage.setDeviceId(deviceId);
+        kapuaDataMessage.setClientId(clientId);
+        kapuaDataMessage.setChannel(kapuaDataChannel);
+        kapuaDataMessage.setReceivedOn(jmsMessage.getReceivedOn());
+
+        //
+        // Kapua payload
+        KapuaDataPayload kapuaDataPayload = new KapuaDataPayloadImpl();
+        byte[] jmsBody = jmsMessage.getPayload().getBody();
+        if (jmsBody != null) {
+            KuraPayloadProto.KuraPayload protoMsg = KuraPayloadDecoder.parse(jmsBody);
+
+            if (protoMsg.getMetricCount() > 0) {
+                Map<String, Object> properties = new HashMap<>();
+                KuraPayloadDecoder.decodeMetrics(protoMsg.getMetricList(), properties);
+                kapuaDataPayload.setProperties(properties);
+            }
+            if (protoMsg.hasBody()) {
+                kapuaDataPayload.setBody(protoMsg.getBody().toByteArray());
+            }
+
+            Date timestamp = KuraPayloadDecoder.decodeTimestamp(protoMsg);
+            kapuaDataMessage.setCapturedOn(timestamp);
+            kapuaDataMessage.setSentOn(timestamp);
+
+            if (protoMsg.hasPosition()) {
+                kapuaDataMessage.setPosition(TranslatorKuraKapuaUtils.translate(KuraPayloadDecoder.decodePosition(protoMsg.getPosition())));
+            }
+        }
+        kapuaDataMessage.setPayload(kapuaDataPayload);
+
+        // Return Kapua Message
+        return kapuaDataMessage;
+    }
+
+    @Override
+    public Class<JmsMessage> getClassFrom() {
+        return JmsMessage.class;
+    }
+
+    @Override
+    public Class<? extends Message> getClassVia() {
+        return KuraDataMessage.class;
+    }
+
+    @Override
+    public Class<KapuaDataMessage> getClassTo() {
+        return KapuaDataMessage.class;
+    }
+
+}
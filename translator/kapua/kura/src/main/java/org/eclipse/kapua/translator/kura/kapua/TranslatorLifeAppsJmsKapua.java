@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import java.util.Date;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.device.lifecycle.KapuaAppsMessage;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraAppsMessage;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraAppsPayload;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+
+/**
+ * Fused messages translator implementation from {@link JmsMessage} to {@link KapuaAppsMessage} (it doesn't build the intermediate {@link KuraAppsMessage})
+ *
+ * @since 1.0
+ */
+public class TranslatorLifeAppsJmsKapua extends AbstractTranslatorLifeJmsKapua<KuraAppsPayload, KapuaAppsMessage> {
+
+    private final TranslatorLifeAppsKuraKapua translator = new TranslatorLifeAppsKuraKapua();
+
+    @Override
+    protected KuraAppsPayload readPayload(byte[] jmsBody)
+            throws KapuaException {
+        KuraAppsPayload kuraAppsPayload = new KuraAppsPayload();
+        kuraAppsPayload.readFromByteArray(jmsBody);
+        return kuraAppsPayload;
+    }
+
+    @Override
+    protected KapuaAppsMessage translate(String scope, String clientId, Date receivedOn, KuraAppsPayload kuraAppsPayload)
+            throws KapuaException {
+        return translator.translate(scope, clientId, receivedOn, kuraAppsPayload);
+    }
+
+    @Override
+    public Class<? extends Message> getClassVia() {
+        return KuraAppsMessage.class;
+    }
+
+    @Override
+    public Class<KapuaAppsMessage> getClassTo() {
+        return KapuaAppsMessage.class;
+    }
+}
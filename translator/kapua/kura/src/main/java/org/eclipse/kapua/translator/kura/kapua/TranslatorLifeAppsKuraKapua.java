@@ -12,22 +12,21 @@
  *******************************************************************************/
 package org.eclipse.kapua.translator.kura.kapua;
 
+import java.util.Date;
+
 import org.eclipse.kapua.KapuaEntityNotFoundException;
 import org.eclipse.kapua.KapuaException;
-import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.message.device.lifecycle.KapuaAppsChannel;
 import org.eclipse.kapua.message.device.lifecycle.KapuaAppsMessage;
 import org.eclipse.kapua.message.device.lifecycle.KapuaAppsPayload;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaAppsChannelImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaAppsMessageImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaAppsPayloadImpl;
+import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.account.Account;
-import org.eclipse.kapua.service.account.AccountService;
-import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraAppsChannel;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraAppsMessage;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraAppsPayload;
 import org.eclipse.kapua.service.device.registry.Device;
-import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
 import org.eclipse.kapua.translator.Translator;
 
 /**
@@ -41,38 +40,51 @@ public class TranslatorLifeAppsKuraKapua extends Translator<KuraAppsMessage, Kap
     @Override
     public KapuaAppsMessage translate(KuraAppsMessage kuraAppsMessage)
             throws KapuaException {
-        KapuaAppsMessage kapuaAppsMessage = new KapuaAppsMessageImpl();
-        kapuaAppsMessage.setChannel(translate(kuraAppsMessage.getChannel()));
-        kapuaAppsMessage.setPayload(translate(kuraAppsMessage.getPayload()));
-
-        KapuaLocator locator = KapuaLocator.getInstance();
-        AccountService accountService = locator.getService(AccountService.class);
-        Account account = accountService.findByName(kuraAppsMessage.getChannel().getScope());
+        return translate(kuraAppsMessage.getChannel().getScope(),
+                kuraAppsMessage.getChannel().getClientId(),
+                kuraAppsMessage.getTimestamp(),
+                kuraAppsMessage.getPayload());
+    }
 
-        if (account == null) {
-            throw new KapuaEntityNotFoundException(Account.TYPE, kuraAppsMessage.getChannel().getScope());
-        }
+    /**
+     * Translate the parts of a {@link KuraAppsMessage}.<br>
+     * It is used by the fused translator from JMS too, that doesn't build the Kura message.
+     *
+     * @param scope
+     *            the account name
+     * @param clientId
+     * @param receivedOn
+     * @param kuraAppsPayload
+     * @return
+     * @throws KapuaException
+     */
+    KapuaAppsMessage translate(String scope, String clientId, Date receivedOn, KuraAppsPayload kuraAppsPayload)
+            throws KapuaException {
+        KapuaAppsMessage kapuaAppsMessage = new KapuaAppsMessageImpl();
+        kapuaAppsMessage.setChannel(translateChannel(clientId));
+        kapuaAppsMessage.setPayload(translate(kuraAppsPayload));
 
-        DeviceRegistryService deviceRegistryService = locator.getService(DeviceRegistryService.class);
-        Device device = deviceRegistryService.findByClientId(account.getId(), kuraAppsMessage.getChannel().getClientId());
-        if (device == null) {
-            throw new KapuaEntityNotFoundException(Device.class.toString(), kuraAppsMessage.getChannel().getClientId());
+        DeviceIdentityResolver identityResolver = DeviceIdentityResolver.getInstance();
+        Account account = identityResolver.findAccount(scope);
+        KapuaId deviceId = identityResolver.findDeviceId(account.getId(), clientId);
+        if (deviceId == null) {
+            throw new KapuaEntityNotFoundException(Device.class.toString(), clientId);
         }
 
-        kapuaAppsMessage.setDeviceId(device.getId());
+        kapuaAppsMessage.setDeviceId(deviceId);
         kapuaAppsMessage.setScopeId(account.getId());
-        kapuaAppsMessage.setCapturedOn(kuraAppsMessage.getPayload().getTimestamp());
-        kapuaAppsMessage.setSentOn(kuraAppsMessage.getPayload().getTimestamp());
-        kapuaAppsMessage.setReceivedOn(kuraAppsMessage.getTimestamp());
-        kapuaAppsMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraAppsMessage.getPayload().getPosition()));
+        kapuaAppsMessage.setCapturedOn(kuraAppsPayload.getTimestamp());
+        kapuaAppsMessage.setSentOn(kuraAppsPayload.getTimestamp());
+        kapuaAppsMessage.setReceivedOn(receivedOn);
+        kapuaAppsMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraAppsPayload.getPosition()));
 
         return kapuaAppsMessage;
     }
 
-    private KapuaAppsChannel translate(KuraAppsChannel kuraAppsChannel)
+    private KapuaAppsChannel translateChannel(String clientId)
             throws KapuaException {
         KapuaAppsChannel kapuaAppsChannel = new KapuaAppsChannelImpl();
-        kapuaAppsChannel.setClientId(kuraAppsChannel.getClientId());
+        kapuaAppsChannel.setClientId(clientId);
         return kapuaAppsChannel;
     }
 
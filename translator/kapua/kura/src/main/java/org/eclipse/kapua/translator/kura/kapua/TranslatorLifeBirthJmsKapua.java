@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import java.util.Date;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.device.lifecycle.KapuaBirthMessage;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraBirthMessage;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraBirthPayload;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+
+/**
+ * Fused messages translator implementation from {@link JmsMessage} to {@link KapuaBirthMessage} (it doesn't build the intermediate {@link KuraBirthMessage})
+ *
+ * @since 1.0
+ */
+public class TranslatorLifeBirthJmsKapua extends AbstractTranslatorLifeJmsKapua<KuraBirthPayload, KapuaBirthMessage> {
+
+    private final TranslatorLifeBirthKuraKapua translator = new TranslatorLifeBirthKuraKapua();
+
+    @Override
+    protected KuraBirthPayload readPayload(byte[] jmsBody)
+            throws KapuaException {
+        KuraBirthPayload kuraBirthPayload = new KuraBirthPayload();
+        kuraBirthPayload.readFromByteArray(jmsBody);
+        return kuraBirthPayload;
+    }
+
+    @Override
+    protected KapuaBirthMessage translate(String scope, String clientId, Date receivedOn, KuraBirthPayload kuraBirthPayload)
+            throws KapuaException {
+        return translator.translate(scope, clientId, receivedOn, kuraBirthPayload);
+    }
+
+    @Override
+    public Class<? extends Message> getClassVia() {
+        return KuraBirthMessage.class;
+    }
+
+    @Override
+    public Class<KapuaBirthMessage> getClassTo() {
+        return KapuaBirthMessage.class;
+    }
+}
@@ -12,22 +12,19 @@
  *******************************************************************************/
 package org.eclipse.kapua.translator.kura.kapua;
 
-import org.eclipse.kapua.KapuaEntityNotFoundException;
+import java.util.Date;
+
 import org.eclipse.kapua.KapuaException;
-import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.message.device.lifecycle.KapuaBirthChannel;
 import org.eclipse.kapua.message.device.lifecycle.KapuaBirthMessage;
 import org.eclipse.kapua.message.device.lifecycle.KapuaBirthPayload;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaBirthChannelImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaBirthMessageImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaBirthPayloadImpl;
+import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.account.Account;
-import org.eclipse.kapua.service.account.AccountService;
-import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraBirthChannel;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraBirthMessage;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraBirthPayload;
-import org.eclipse.kapua.service.device.registry.Device;
-import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
 import org.eclipse.kapua.translator.Translator;
 
 /**
@@ -41,39 +38,55 @@ public class TranslatorLifeBirthKuraKapua extends Translator<KuraBirthMessage, K
     @Override
     public KapuaBirthMessage translate(KuraBirthMessage kuraBirthMessage)
             throws KapuaException {
-        KapuaBirthMessage kapuaBirthMessage = new KapuaBirthMessageImpl();
-        kapuaBirthMessage.setChannel(translate(kuraBirthMessage.getChannel()));
-        kapuaBirthMessage.setPayload(translate(kuraBirthMessage.getPayload()));
+        return translate(kuraBirthMessage.getChannel().getScope(),
+                kuraBirthMessage.getChannel().getClientId(),
+                kuraBirthMessage.getTimestamp(),
+                kuraBirthMessage.getPayload());
+    }
 
-        KapuaLocator locator = KapuaLocator.getInstance();
-        AccountService accountService = locator.getService(AccountService.class);
-        Account account = accountService.findByName(kuraBirthMessage.getChannel().getScope());
+    /**
+     * Translate the parts of a {@link KuraBirthMessage}.<br>
+     * It is used by the fused translator from JMS too, that doesn't build the Kura message.
+     *
+     * @param scope
+     *            the account name
+     * @param clientId
+     * @param receivedOn
+     * @param kuraBirthPayload
+     * @return
+     * @throws KapuaException
+     */
+    KapuaBirthMessage translate(String scope, String clientId, Date receivedOn, KuraBirthPayload kuraBirthPayload)
+            throws KapuaException {
+        KapuaBirthMessage kapuaBirthMessage = new KapuaBirthMessageImpl();
+        kapuaBirthMessage.setChannel(translateChannel(clientId));
+        kapuaBirthMessage.setPayload(translate(kuraBirthPayload));
 
-        if (account == null) {
-            throw new KapuaEntityNotFoundException(Account.TYPE, kuraBirthMessage.getChannel().getScope());
-        }
+        DeviceIdentityResolver identityResolver = DeviceIdentityResolver.getInstance();
+        Account account = identityResolver.findAccount(scope);
 
-        DeviceRegistryService deviceRegistryService = locator.getService(DeviceRegistryService.class);
-        Device device = deviceRegistryService.findByClientId(account.getId(), kuraBirthMessage.getChannel().getClientId());
+        // life cycle messages may follow a change of the device registered for the client, so don't rely on the cached device
+        identityResolver.invalidate(account.getId(), clientId);
+        KapuaId deviceId = identityResolver.findDeviceId(account.getId(), clientId);
 
         kapuaBirthMessage.setScopeId(account.getId());
-        if (device != null) {
-            kapuaBirthMessage.setDeviceId(device.getId());
+        if (deviceId != null) {
+            kapuaBirthMessage.setDeviceId(deviceId);
         } else {
-            kapuaBirthMessage.setClientId(kuraBirthMessage.getChannel().getClientId());
+            kapuaBirthMessage.setClientId(clientId);
         }
-        kapuaBirthMessage.setCapturedOn(kuraBirthMessage.getPayload().getTimestamp());
-        kapuaBirthMessage.setSentOn(kuraBirthMessage.getPayload().getTimestamp());
-        kapuaBirthMessage.setReceivedOn(kuraBirthMessage.getTimestamp());
-        kapuaBirthMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraBirthMessage.getPayload().getPosition()));
+        kapuaBirthMessage.setCapturedOn(kuraBirthPayload.getTimestamp());
+        kapuaBirthMessage.setSentOn(kuraBirthPayload.getTimestamp());
+        kapuaBirthMessage.setReceivedOn(receivedOn);
+        kapuaBirthMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraBirthPayload.getPosition()));
 
         return kapuaBirthMessage;
     }
 
-    private KapuaBirthChannel translate(KuraBirthChannel kuraBirthChannel)
+    private KapuaBirthChannel translateChannel(String clientId)
             throws KapuaException {
         KapuaBirthChannel kapuaBirthChannel = new KapuaBirthChannelImpl();
-        kapuaBirthChannel.setClientId(kuraBirthChannel.getClientId());
+        kapuaBirthChannel.setClientId(clientId);
         return kapuaBirthChannel;
     }
 
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import java.util.Date;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.device.lifecycle.KapuaDisconnectMessage;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraDisconnectMessage;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraDisconnectPayload;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+
+/**
+ * Fused messages translator implementation from {@link JmsMessage} to {@link KapuaDisconnectMessage} (it doesn't build the intermediate {@link KuraDisconnectMessage})
+ *
+ * @since 1.0
+ */
+public class TranslatorLifeDisconnectJmsKapua extends AbstractTranslatorLifeJmsKapua<KuraDisconnectPayload, KapuaDisconnectMessage> {
+
+    private final TranslatorLifeDisconnectKuraKapua translator = new TranslatorLifeDisconnectKuraKapua();
+
+    @Override
+    protected KuraDisconnectPayload readPayload(byte[] jmsBody)
+            throws KapuaException {
+        KuraDisconnectPayload kuraDisconnectPayload = new KuraDisconnectPayload();
+        kuraDisconnectPayload.readFromByteArray(jmsBody);
+        return kuraDisconnectPayload;
+    }
+
+    @Override
+    protected KapuaDisconnectMessage translate(String scope, String clientId, Date receivedOn, KuraDisconnectPayload kuraDisconnectPayload)
+            throws KapuaException {
+        return translator.translate(scope, clientId, receivedOn, kuraDisconnectPayload);
+    }
+
+    @Override
+    public Class<? extends Message> getClassVia() {
+        return KuraDisconnectMessage.class;
+    }
+
+    @Override
+    public Class<KapuaDisconnectMessage> getClassTo() {
+        return KapuaDisconnectMessage.class;
+    }
+}
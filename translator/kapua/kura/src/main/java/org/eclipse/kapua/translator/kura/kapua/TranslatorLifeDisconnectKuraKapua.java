@@ -12,22 +12,21 @@
  *******************************************************************************/
 package org.eclipse.kapua.translator.kura.kapua;
 
+import java.util.Date;
+
 import org.eclipse.kapua.KapuaEntityNotFoundException;
 import org.eclipse.kapua.KapuaException;
-import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.message.device.lifecycle.KapuaDisconnectChannel;
 import org.eclipse.kapua.message.device.lifecycle.KapuaDisconnectMessage;
 import org.eclipse.kapua.message.device.lifecycle.KapuaDisconnectPayload;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaDisconnectChannelImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaDisconnectMessageImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaDisconnectPayloadImpl;
+import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.account.Account;
-import org.eclipse.kapua.service.account.AccountService;
-import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraDisconnectChannel;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraDisconnectMessage;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraDisconnectPayload;
 import org.eclipse.kapua.service.device.registry.Device;
-import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
 import org.eclipse.kapua.translator.Translator;
 
 /**
@@ -41,38 +40,54 @@ public class TranslatorLifeDisconnectKuraKapua extends Translator<KuraDisconnect
     @Override
     public KapuaDisconnectMessage translate(KuraDisconnectMessage kuraDisconnectMessage)
             throws KapuaException {
-        KapuaDisconnectMessage kapuaDisconnectMessage = new KapuaDisconnectMessageImpl();
-        kapuaDisconnectMessage.setChannel(translate(kuraDisconnectMessage.getChannel()));
-        kapuaDisconnectMessage.setPayload(translate(kuraDisconnectMessage.getPayload()));
+        return translate(kuraDisconnectMessage.getChannel().getScope(),
+                kuraDisconnectMessage.getChannel().getClientId(),
+                kuraDisconnectMessage.getTimestamp(),
+                kuraDisconnectMessage.getPayload());
+    }
 
-        KapuaLocator locator = KapuaLocator.getInstance();
-        AccountService accountService = locator.getService(AccountService.class);
-        Account account = accountService.findByName(kuraDisconnectMessage.getChannel().getScope());
+    /**
+     * Translate the parts of a {@link KuraDisconnectMessage}.<br>
+     * It is used by the fused translator from JMS too, that doesn't build the Kura message.
+     *
+     * @param scope
+     *            the account name
+     * @param clientId
+     * @param receivedOn
+     * @param kuraDisconnectPayload
+     * @return
+     * @throws KapuaException
+     */
+    KapuaDisconnectMessage translate(String scope, String clientId, Date receivedOn, KuraDisconnectPayload kuraDisconnectPayload)
+            throws KapuaException {
+        KapuaDisconnectMessage kapuaDisconnectMessage = new KapuaDisconnectMessageImpl();
+        kapuaDisconnectMessage.setChannel(translateChannel(clientId));
+        kapuaDisconnectMessage.setPayload(translate(kuraDisconnectPayload));
 
-        if (account == null) {
-            throw new KapuaEntityNotFoundException(Account.TYPE, kuraDisconnectMessage.getChannel().getScope());
-        }
+        DeviceIdentityResolver identityResolver = DeviceIdentityResolver.getInstance();
+        Account account = identityResolver.findAccount(scope);
 
-        DeviceRegistryService deviceRegistryService = locator.getService(DeviceRegistryService.class);
-        Device device = deviceRegistryService.findByClientId(account.getId(), kuraDisconnectMessage.getChannel().getClientId());
-        if (device == null) {
-            throw new KapuaEntityNotFoundException(Device.class.toString(), kuraDisconnectMessage.getChannel().getClientId());
+        // life cycle messages may follow a change of the device registered for the client, so don't rely on the cached device
+        identityResolver.invalidate(account.getId(), clientId);
+        KapuaId deviceId = identityResolver.findDeviceId(account.getId(), clientId);
+        if (deviceId == null) {
+            throw new KapuaEntityNotFoundException(Device.class.toString(), clientId);
         }
 
-        kapuaDisconnectMessage.setDeviceId(device.getId());
+        kapuaDisconnectMessage.setDeviceId(deviceId);
         kapuaDisconnectMessage.setScopeId(account.getId());
-        kapuaDisconnectMessage.setCapturedOn(kuraDisconnectMessage.getPayload().getTimestamp());
-        kapuaDisconnectMessage.setSentOn(kuraDisconnectMessage.getPayload().getTimestamp());
-        kapuaDisconnectMessage.setReceivedOn(kuraDisconnectMessage.getTimestamp());
-        kapuaDisconnectMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraDisconnectMessage.getPayload().getPosition()));
+        kapuaDisconnectMessage.setCapturedOn(kuraDisconnectPayload.getTimestamp());
+        kapuaDisconnectMessage.setSentOn(kuraDisconnectPayload.getTimestamp());
+        kapuaDisconnectMessage.setReceivedOn(receivedOn);
+        kapuaDisconnectMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraDisconnectPayload.getPosition()));
 
         return kapuaDisconnectMessage;
     }
 
-    private KapuaDisconnectChannel translate(KuraDisconnectChannel kuraDisconnectChannel)
+    private KapuaDisconnectChannel translateChannel(String clientId)
             throws KapuaException {
         KapuaDisconnectChannel kapuaDisconnectChannel = new KapuaDisconnectChannelImpl();
-        kapuaDisconnectChannel.setClientId(kuraDisconnectChannel.getClientId());
+        kapuaDisconnectChannel.setClientId(clientId);
         return kapuaDisconnectChannel;
     }
 
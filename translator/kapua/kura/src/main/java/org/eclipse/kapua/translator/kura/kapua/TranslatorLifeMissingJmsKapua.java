@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import java.util.Date;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.device.lifecycle.KapuaMissingMessage;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraMissingMessage;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraMissingPayload;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fused messages translator implementation from {@link JmsMessage} to {@link KapuaMissingMessage} (it doesn't build the intermediate {@link KuraMissingMessage})
+ *
+ * @since 1.0
+ */
+public class TranslatorLifeMissingJmsKapua extends AbstractTranslatorLifeJmsKapua<KuraMissingPayload, KapuaMissingMessage> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslatorLifeMissingJmsKapua.class);
+
+    private final TranslatorLifeMissingKuraKapua translator = new TranslatorLifeMissingKuraKapua();
+
+    @Override
+    protected KuraMissingPayload readPayload(byte[] jmsBody)
+            throws KapuaException {
+        KuraMissingPayload kuraMissingPayload = new KuraMissingPayload();
+        // missing message may be a text message so if the message protobuf conversion fails, set the jms message raw payload as body
+        try {
+            kuraMissingPayload.readFromByteArray(jmsBody);
+        } catch (Throwable t) {
+            logger.debug("Invalid protobuf message - set Kura payload as jms message raw body");
+            kuraMissingPayload.setBody(jmsBody);
+        }
+        return kuraMissingPayload;
+    }
+
+    @Override
+    protected KapuaMissingMessage translate(String scope, String clientId, Date receivedOn, KuraMissingPayload kuraMissingPayload)
+            throws KapuaException {
+        return translator.translate(scope, clientId, receivedOn, kuraMissingPayload);
+    }
+
+    @Override
+    public Class<? extends Message> getClassVia() {
+        return KuraMissingMessage.class;
+    }
+
+    @Override
+    public Class<KapuaMissingMessage> getClassTo() {
+        return KapuaMissingMessage.class;
+    }
+}
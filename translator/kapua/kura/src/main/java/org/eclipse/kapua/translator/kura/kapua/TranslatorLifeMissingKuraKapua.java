@@ -12,22 +12,21 @@
  *******************************************************************************/
 package org.eclipse.kapua.translator.kura.kapua;
 
+import java.util.Date;
+
 import org.eclipse.kapua.KapuaEntityNotFoundException;
 import org.eclipse.kapua.KapuaException;
-import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.message.device.lifecycle.KapuaMissingChannel;
 import org.eclipse.kapua.message.device.lifecycle.KapuaMissingMessage;
 import org.eclipse.kapua.message.device.lifecycle.KapuaMissingPayload;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaMissingChannelImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaMissingMessageImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaMissingPayloadImpl;
+import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.account.Account;
-import org.eclipse.kapua.service.account.AccountService;
-import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraMissingChannel;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraMissingMessage;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraMissingPayload;
 import org.eclipse.kapua.service.device.registry.Device;
-import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
 import org.eclipse.kapua.translator.Translator;
 
 /**
@@ -41,39 +40,55 @@ public class TranslatorLifeMissingKuraKapua extends Translator<KuraMissingMessag
     @Override
     public KapuaMissingMessage translate(KuraMissingMessage kuraMissingMessage)
             throws KapuaException {
-        KapuaMissingMessage kapuaMissingMessage = new KapuaMissingMessageImpl();
-        kapuaMissingMessage.setChannel(translate(kuraMissingMessage.getChannel()));
-        kapuaMissingMessage.setPayload(translate(kuraMissingMessage.getPayload()));
+        return translate(kuraMissingMessage.getChannel().getScope(),
+                kuraMissingMessage.getChannel().getClientId(),
+                kuraMissingMessage.getTimestamp(),
+                kuraMissingMessage.getPayload());
+    }
 
-        KapuaLocator locator = KapuaLocator.getInstance();
-        AccountService accountService = locator.getService(AccountService.class);
-        Account account = accountService.findByName(kuraMissingMessage.getChannel().getScope());
+    /**
+     * Translate the parts of a {@link KuraMissingMessage}.<br>
+     * It is used by the fused translator from JMS too, that doesn't build the Kura message.
+     *
+     * @param scope
+     *            the account name
+     * @param clientId
+     * @param receivedOn
+     * @param kuraMissingPayload
+     * @return
+     * @throws KapuaException
+     */
+    KapuaMissingMessage translate(String scope, String clientId, Date receivedOn, KuraMissingPayload kuraMissingPayload)
+            throws KapuaException {
+        KapuaMissingMessage kapuaMissingMessage = new KapuaMissingMessageImpl();
+        kapuaMissingMessage.setChannel(translateChannel(clientId));
+        kapuaMissingMessage.setPayload(translate(kuraMissingPayload));
 
-        if (account == null) {
-            throw new KapuaEntityNotFoundException(Account.TYPE, kuraMissingMessage.getChannel().getScope());
-        }
+        DeviceIdentityResolver identityResolver = DeviceIdentityResolver.getInstance();
+        Account account = identityResolver.findAccount(scope);
 
-        DeviceRegistryService deviceRegistryService = locator.getService(DeviceRegistryService.class);
-        Device device = deviceRegistryService.findByClientId(account.getId(), kuraMissingMessage.getChannel().getClientId());
+        // life cycle messages may follow a change of the device registered for the client, so don't rely on the cached device
+        identityResolver.invalidate(account.getId(), clientId);
+        KapuaId deviceId = identityResolver.findDeviceId(account.getId(), clientId);
 
-        if (device == null) {
-            throw new KapuaEntityNotFoundException(Device.class.toString(), kuraMissingMessage.getChannel().getClientId());
+        if (deviceId == null) {
+            throw new KapuaEntityNotFoundException(Device.class.toString(), clientId);
         }
 
-        kapuaMissingMessage.setDeviceId(device.getId());
+        kapuaMissingMessage.setDeviceId(deviceId);
         kapuaMissingMessage.setScopeId(account.getId());
-        kapuaMissingMessage.setCapturedOn(kuraMissingMessage.getPayload().getTimestamp());
-        kapuaMissingMessage.setSentOn(kuraMissingMessage.getPayload().getTimestamp());
-        kapuaMissingMessage.setReceivedOn(kuraMissingMessage.getTimestamp());
-        kapuaMissingMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraMissingMessage.getPayload().getPosition()));
+        kapuaMissingMessage.setCapturedOn(kuraMissingPayload.getTimestamp());
+        kapuaMissingMessage.setSentOn(kuraMissingPayload.getTimestamp());
+        kapuaMissingMessage.setReceivedOn(receivedOn);
+        kapuaMissingMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraMissingPayload.getPosition()));
 
         return kapuaMissingMessage;
     }
 
-    private KapuaMissingChannel translate(KuraMissingChannel kuraMissingChannel)
+    private KapuaMissingChannel translateChannel(String clientId)
             throws KapuaException {
         KapuaMissingChannel kapuaMissingChannel = new KapuaMissingChannelImpl();
-        kapuaMissingChannel.setClientId(kuraMissingChannel.getClientId());
+        kapuaMissingChannel.setClientId(clientId);
         return kapuaMissingChannel;
     }
 
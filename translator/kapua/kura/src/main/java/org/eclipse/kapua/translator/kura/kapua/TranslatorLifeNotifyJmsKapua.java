@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import java.util.Date;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.device.lifecycle.KapuaNotifyMessage;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraNotifyMessage;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraNotifyPayload;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+
+/**
+ * Fused messages translator implementation from {@link JmsMessage} to {@link KapuaNotifyMessage} (it doesn't build the intermediate {@link KuraNotifyMessage})
+ *
+ * @since 1.0
+ */
+public class TranslatorLifeNotifyJmsKapua extends AbstractTranslatorLifeJmsKapua<KuraNotifyPayload, KapuaNotifyMessage> {
+
+    private final TranslatorLifeNotifyKuraKapua translator = new TranslatorLifeNotifyKuraKapua();
+
+    @Override
+    protected KuraNotifyPayload readPayload(byte[] jmsBody)
+            throws KapuaException {
+        KuraNotifyPayload kuraNotifyPayload = new KuraNotifyPayload();
+        kuraNotifyPayload.readFromByteArray(jmsBody);
+        return kuraNotifyPayload;
+    }
+
+    @Override
+    protected KapuaNotifyMessage translate(String scope, String clientId, Date receivedOn, KuraNotifyPayload kuraNotifyPayload)
+            throws KapuaException {
+        return translator.translate(scope, clientId, receivedOn, kuraNotifyPayload);
+    }
+
+    @Override
+    public Class<? extends Message> getClassVia() {
+        return KuraNotifyMessage.class;
+    }
+
+    @Override
+    public Class<KapuaNotifyMessage> getClassTo() {
+        return KapuaNotifyMessage.class;
+    }
+}
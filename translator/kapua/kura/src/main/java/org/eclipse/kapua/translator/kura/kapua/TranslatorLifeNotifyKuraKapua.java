@@ -12,22 +12,21 @@
  *******************************************************************************/
 package org.eclipse.kapua.translator.kura.kapua;
 
+import java.util.Date;
+
 import org.eclipse.kapua.KapuaEntityNotFoundException;
 import org.eclipse.kapua.KapuaException;
-import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.message.device.lifecycle.KapuaNotifyChannel;
 import org.eclipse.kapua.message.device.lifecycle.KapuaNotifyMessage;
 import org.eclipse.kapua.message.device.lifecycle.KapuaNotifyPayload;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaNotifyChannelImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaNotifyMessageImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaNotifyPayloadImpl;
+import org.eclipse.kapua.model.id.KapuaId;
 import org.eclipse.kapua.service.account.Account;
-import org.eclipse.kapua.service.account.AccountService;
-import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraNotifyChannel;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraNotifyMessage;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraNotifyPayload;
 import org.eclipse.kapua.service.device.registry.Device;
-import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
 import org.eclipse.kapua.translator.Translator;
 
 /**
@@ -41,39 +40,52 @@ public class TranslatorLifeNotifyKuraKapua extends Translator<KuraNotifyMessage,
     @Override
     public KapuaNotifyMessage translate(KuraNotifyMessage kuraNotifyMessage)
             throws KapuaException {
-        KapuaNotifyMessage kapuaNotifyMessage = new KapuaNotifyMessageImpl();
-        kapuaNotifyMessage.setChannel(translate(kuraNotifyMessage.getChannel()));
-        kapuaNotifyMessage.setPayload(translate(kuraNotifyMessage.getPayload()));
-
-        KapuaLocator locator = KapuaLocator.getInstance();
-        AccountService accountService = locator.getService(AccountService.class);
-        Account account = accountService.findByName(kuraNotifyMessage.getChannel().getScope());
+        return translate(kuraNotifyMessage.getChannel().getScope(),
+                kuraNotifyMessage.getChannel().getClientId(),
+                kuraNotifyMessage.getTimestamp(),
+                kuraNotifyMessage.getPayload());
+    }
 
-        if (account == null) {
-            throw new KapuaEntityNotFoundException(Account.TYPE, kuraNotifyMessage.getChannel().getScope());
-        }
+    /**
+     * Translate the parts of a {@link KuraNotifyMessage}.<br>
+     * It is used by the fused translator from JMS too, that doesn't build the Kura message.
+     *
+     * @param scope
+     *            the account name
+     * @param clientId
+     * @param receivedOn
+     * @param kuraNotifyPayload
+     * @return
+     * @throws KapuaException
+     */
+    KapuaNotifyMessage translate(String scope, String clientId, Date receivedOn, KuraNotifyPayload kuraNotifyPayload)
+            throws KapuaException {
+        KapuaNotifyMessage kapuaNotifyMessage = new KapuaNotifyMessageImpl();
+        kapuaNotifyMessage.setChannel(translateChannel(clientId));
+        kapuaNotifyMessage.setPayload(translate(kuraNotifyPayload));
 
-        DeviceRegistryService deviceRegistryService = locator.getService(DeviceRegistryService.class);
-        Device device = deviceRegistryService.findByClientId(account.getId(), kuraNotifyMessage.getChannel().getClientId());
+        DeviceIdentityResolver identityResolver = DeviceIdentityResolver.getInstance();
+        Account account = identityResolver.findAccount(scope);
+        KapuaId deviceId = identityResolver.findDeviceId(account.getId(), clientId);
 
-        if (device == null) {
-            throw new KapuaEntityNotFoundException(Device.class.toString(), kuraNotifyMessage.getChannel().getClientId());
+        if (deviceId == null) {
+            throw new KapuaEntityNotFoundException(Device.class.toString(), clientId);
         }
 
-        kapuaNotifyMessage.setDeviceId(device.getId());
+        kapuaNotifyMessage.setDeviceId(deviceId);
         kapuaNotifyMessage.setScopeId(account.getId());
-        kapuaNotifyMessage.setCapturedOn(kuraNotifyMessage.getPayload().getTimestamp());
-        kapuaNotifyMessage.setSentOn(kuraNotifyMessage.getPayload().getTimestamp());
-        kapuaNotifyMessage.setReceivedOn(kuraNotifyMessage.getTimestamp());
-        kapuaNotifyMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraNotifyMessage.getPayload().getPosition()));
+        kapuaNotifyMessage.setCapturedOn(kuraNotifyPayload.getTimestamp());
+        kapuaNotifyMessage.setSentOn(kuraNotifyPayload.getTimestamp());
+        kapuaNotifyMessage.setReceivedOn(receivedOn);
+        kapuaNotifyMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraNotifyPayload.getPosition()));
 
         return kapuaNotifyMessage;
     }
 
-    private KapuaNotifyChannel translate(KuraNotifyChannel kuraNotifyChannel)
+    private KapuaNotifyChannel translateChannel(String clientId)
             throws KapuaException {
         KapuaNotifyChannel kapuaNotifyChannel = new KapuaNotifyChannelImpl();
-        kapuaNotifyChannel.setClientId(kuraNotifyChannel.getClientId());
+        kapuaNotifyChannel.setClientId(clientId);
         return kapuaNotifyChannel;
     }
 
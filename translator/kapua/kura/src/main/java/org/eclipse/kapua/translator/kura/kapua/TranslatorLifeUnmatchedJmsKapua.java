@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import java.util.Date;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.message.device.lifecycle.KapuaUnmatchedMessage;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraUnmatchedMessage;
+import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraUnmatchedPayload;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fused messages translator implementation from {@link JmsMessage} to {@link KapuaUnmatchedMessage} (it doesn't build the intermediate {@link KuraUnmatchedMessage})
+ *
+ * @since 1.0
+ */
+public class TranslatorLifeUnmatchedJmsKapua extends AbstractTranslatorLifeJmsKapua<KuraUnmatchedPayload, KapuaUnmatchedMessage> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslatorLifeUnmatchedJmsKapua.class);
+
+    private final TranslatorLifeUnmatchedKuraKapua translator = new TranslatorLifeUnmatchedKuraKapua();
+
+    @Override
+    protected KuraUnmatchedPayload readPayload(byte[] jmsBody)
+            throws KapuaException {
+        KuraUnmatchedPayload kuraUnmatchedPayload = new KuraUnmatchedPayload();
+        // unmatched message may be a text message so if the message protobuf conversion fails, set the jms message raw payload as body
+        try {
+            kuraUnmatchedPayload.readFromByteArray(jmsBody);
+        } catch (Throwable t) {
+            logger.debug("Invalid protobuf message - set Kura payload as jms message raw body");
+            kuraUnmatchedPayload.setBody(jmsBody);
+        }
+        return kuraUnmatchedPayload;
+    }
+
+    @Override
+    protected KapuaUnmatchedMessage translate(String scope, String clientId, Date receivedOn, KuraUnmatchedPayload kuraUnmatchedPayload)
+            throws KapuaException {
+        return translator.translate(scope, clientId, receivedOn, kuraUnmatchedPayload);
+    }
+
+    @Override
+    public Class<? extends Message> getClassVia() {
+        return KuraUnmatchedMessage.class;
+    }
+
+    @Override
+    public Class<KapuaUnmatchedMessage> getClassTo() {
+        return KapuaUnmatchedMessage.class;
+    }
+}
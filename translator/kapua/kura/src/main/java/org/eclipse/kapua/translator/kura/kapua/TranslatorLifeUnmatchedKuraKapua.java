@@ -12,9 +12,9 @@
  *******************************************************************************/
 package org.eclipse.kapua.translator.kura.kapua;
 
-import org.eclipse.kapua.KapuaEntityNotFoundException;
+import java.util.Date;
+
 import org.eclipse.kapua.KapuaException;
-import org.eclipse.kapua.locator.KapuaLocator;
 import org.eclipse.kapua.message.device.lifecycle.KapuaUnmatchedChannel;
 import org.eclipse.kapua.message.device.lifecycle.KapuaUnmatchedMessage;
 import org.eclipse.kapua.message.device.lifecycle.KapuaUnmatchedPayload;
@@ -22,8 +22,6 @@ import org.eclipse.kapua.message.internal.device.lifecycle.KapuaUnmatchedChannel
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaUnmatchedMessageImpl;
 import org.eclipse.kapua.message.internal.device.lifecycle.KapuaUnmatchedPayloadImpl;
 import org.eclipse.kapua.service.account.Account;
-import org.eclipse.kapua.service.account.AccountService;
-import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraUnmatchedChannel;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraUnmatchedMessage;
 import org.eclipse.kapua.service.device.call.message.kura.lifecycle.KuraUnmatchedPayload;
 import org.eclipse.kapua.translator.Translator;
@@ -39,32 +37,46 @@ public class TranslatorLifeUnmatchedKuraKapua extends Translator<KuraUnmatchedMe
     @Override
     public KapuaUnmatchedMessage translate(KuraUnmatchedMessage kuraUnmatchedMessage)
             throws KapuaException {
-        KapuaUnmatchedMessage kapuaUnmatchedMessage = new KapuaUnmatchedMessageImpl();
-        kapuaUnmatchedMessage.setChannel(translate(kuraUnmatchedMessage.getChannel()));
-        kapuaUnmatchedMessage.setPayload(translate(kuraUnmatchedMessage.getPayload()));
+        return translate(kuraUnmatchedMessage.getChannel().getScope(),
+                kuraUnmatchedMessage.getChannel().getClientId(),
+                kuraUnmatchedMessage.getTimestamp(),
+                kuraUnmatchedMessage.getPayload());
+    }
 
-        KapuaLocator locator = KapuaLocator.getInstance();
-        AccountService accountService = locator.getService(AccountService.class);
-        Account account = accountService.findByName(kuraUnmatchedMessage.getChannel().getScope());
+    /**
+     * Translate the parts of a {@link KuraUnmatchedMessage}.<br>
+     * It is used by the fused translator from JMS too, that doesn't build the Kura message.
+     *
+     * @param scope
+     *            the account name
+     * @param clientId
+     * @param receivedOn
+     * @param kuraUnmatchedPayload
+     * @return
+     * @throws KapuaException
+     */
+    KapuaUnmatchedMessage translate(String scope, String clientId, Date receivedOn, KuraUnmatchedPayload kuraUnmatchedPayload)
+            throws KapuaException {
+        KapuaUnmatchedMessage kapuaUnmatchedMessage = new KapuaUnmatchedMessageImpl();
+        kapuaUnmatchedMessage.setChannel(translateChannel(clientId));
+        kapuaUnmatchedMessage.setPayload(translate(kuraUnmatchedPayload));
 
-        if (account == null) {
-            throw new KapuaEntityNotFoundException(Account.TYPE, kuraUnmatchedMessage.getChannel().getScope());
-        }
+        Account account = DeviceIdentityResolver.getInstance().findAccount(scope);
 
         // no device information since may it uses an mqtt connection pooling with devices not registered in the device tables
         kapuaUnmatchedMessage.setScopeId(account.getId());
-        kapuaUnmatchedMessage.setCapturedOn(kuraUnmatchedMessage.getPayload().getTimestamp());
-        kapuaUnmatchedMessage.setSentOn(kuraUnmatchedMessage.getPayload().getTimestamp());
-        kapuaUnmatchedMessage.setReceivedOn(kuraUnmatchedMessage.getTimestamp());
-        kapuaUnmatchedMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraUnmatchedMessage.getPayload().getPosition()));
+        kapuaUnmatchedMessage.setCapturedOn(kuraUnmatchedPayload.getTimestamp());
+        kapuaUnmatchedMessage.setSentOn(kuraUnmatchedPayload.getTimestamp());
+        kapuaUnmatchedMessage.setReceivedOn(receivedOn);
+        kapuaUnmatchedMessage.setPosition(TranslatorKuraKapuaUtils.translate(kuraUnmatchedPayload.getPosition()));
 
         return kapuaUnmatchedMessage;
     }
 
-    private KapuaUnmatchedChannel translate(KuraUnmatchedChannel kuraUnmatchedChannel)
+    private KapuaUnmatchedChannel translateChannel(String clientId)
             throws KapuaException {
         KapuaUnmatchedChannel kapuaUnmatchedChannel = new KapuaUnmatchedChannelImpl();
-        kapuaUnmatchedChannel.setClientId(kuraUnmatchedChannel.getClientId());
+        kapuaUnmatchedChannel.setClientId(clientId);
         return kapuaUnmatchedChannel;
     }
 
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua.setting;
+
+import org.eclipse.kapua.commons.setting.SettingKey;
+
+/**
+ * Kura to Kapua translator setting keys.
+ *
+ * @since 1.0
+ */
+public enum TranslatorKuraKapuaSettingKeys implements SettingKey {
+
+    /**
+     * Account and device identity cache expire time (seconds)
+     */
+    IDENTITY_CACHE_EXPIRE_AFTER("translator.kura.kapua.identity.cache.expire.after"),
+    /**
+     * Expire time (seconds) of the cache entries for clients without a registered device
+     */
+    IDENTITY_CACHE_MISSING_EXPIRE_AFTER("translator.kura.kapua.identity.cache.missing.expire.after"),
+    /**
+     * Account and device identity cache maximum size
+     */
+    IDENTITY_CACHE_SIZE_MAXIMUM("translator.kura.kapua.identity.cache.size.maximum");
+
+    private String key;
+
+    private TranslatorKuraKapuaSettingKeys(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua.setting;
+
+import org.eclipse.kapua.commons.setting.AbstractKapuaSetting;
+
+/**
+ * Kura to Kapua translator settings implementation.
+ *
+ * @since 1.0
+ */
+public class TranslatorKuraKapuaSettings extends AbstractKapuaSetting<TranslatorKuraKapuaSettingKeys> {
+
+    private static final String TRANSLATOR_CONFIG_RESOURCE = "kapua-translator-kura-kapua-setting.properties";
+
+    private static final TranslatorKuraKapuaSettings instance = new TranslatorKuraKapuaSettings();
+
+    private TranslatorKuraKapuaSettings() {
+        super(TRANSLATOR_CONFIG_RESOURCE);
+    }
+
+    /**
+     * Get the translator setting instance
+     *
+     * @return
+     */
+    public static TranslatorKuraKapuaSettings getInstance() {
+        return instance;
+    }
+}
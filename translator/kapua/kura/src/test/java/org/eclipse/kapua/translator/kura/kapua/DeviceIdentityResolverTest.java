@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+
+import org.eclipse.kapua.KapuaErrorCodes;
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.metric.MetricsServiceImpl;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.commons.model.id.KapuaIdFactoryImpl;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.model.id.KapuaIdFactory;
+import org.eclipse.kapua.service.account.Account;
+import org.eclipse.kapua.service.account.AccountService;
+import org.eclipse.kapua.service.authorization.AuthorizationService;
+import org.eclipse.kapua.service.authorization.domain.Domain;
+import org.eclipse.kapua.service.authorization.group.Group;
+import org.eclipse.kapua.service.authorization.permission.Actions;
+import org.eclipse.kapua.service.authorization.permission.Permission;
+import org.eclipse.kapua.service.authorization.permission.PermissionFactory;
+import org.eclipse.kapua.service.device.registry.Device;
+import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
+import org.eclipse.kapua.service.metric.MetricsService;
+import org.eclipse.kapua.test.MockedLocator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DeviceIdentityResolverTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.valueOf(2));
+    private static final KapuaId GROUP_ID = new KapuaEid(BigInteger.valueOf(3));
+    private static final KapuaId DEVICE_ID = new KapuaEid(BigInteger.valueOf(4));
+
+    private AccountService accountService;
+    private DeviceRegistryService deviceRegistryService;
+    private AuthorizationService authorizationService;
+    private PermissionFactory permissionFactory;
+
+    @BeforeClass
+    public static void setUpLocator() {
+        MockedLocator locator = (MockedLocator) KapuaLocator.getInstance();
+        locator.setMockedFactory(KapuaIdFactory.class, new KapuaIdFactoryImpl());
+        locator.setMockedService(MetricsService.class, new MetricsServiceImpl());
+    }
+
+    @Before
+    public void setUpServices() {
+        accountService = mock(AccountService.class);
+        deviceRegistryService = mock(DeviceRegistryService.class);
+        authorizationService = mock(AuthorizationService.class);
+        permissionFactory = mock(PermissionFactory.class);
+
+        MockedLocator locator = (MockedLocator) KapuaLocator.getInstance();
+        locator.setMockedService(AccountService.class, accountService);
+        locator.setMockedService(DeviceRegistryService.class, deviceRegistryService);
+        locator.setMockedService(AuthorizationService.class, authorizationService);
+        locator.setMockedFactory(PermissionFactory.class, permissionFactory);
+    }
+
+    /**
+     * Deny the read permission on the given scope and group
+     */
+    private void denyRead(KapuaId targetScopeId, KapuaId groupId) throws KapuaException {
+        Permission deniedPermission = mock(Permission.class);
+        if (groupId != null) {
+            when(permissionFactory.newPermission(any(Domain.class), eq(Actions.read), eq(targetScopeId), eq(groupId))).thenReturn(deniedPermission);
+        } else {
+            when(permissionFactory.newPermission(any(Domain.class), eq(Actions.read), eq(targetScopeId), (KapuaId) isNull())).thenReturn(deniedPermission);
+        }
+        doThrow(new KapuaException(KapuaErrorCodes.ILLEGAL_ACCESS)).when(authorizationService).checkPermission(deniedPermission);
+    }
+
+    private static void assertDenied(Resolution resolution) {
+        try {
+            resolution.resolve();
+            Assert.fail("The resolution should be denied!");
+        } catch (KapuaException e) {
+            Assert.assertEquals(KapuaErrorCodes.ILLEGAL_ACCESS, e.getCode());
+        }
+    }
+
+    private interface Resolution {
+
+        void resolve() throws KapuaException;
+    }
+
+    @Test
+    public void testAccountCacheHitChecksPermission() throws KapuaException {
+        Account account = mock(Account.class);
+        when(account.getId()).thenReturn(SCOPE_ID);
+        when(accountService.findByName("account-permission")).thenReturn(account);
+
+        DeviceIdentityResolver resolver = DeviceIdentityResolver.getInstance();
+        Assert.assertSame(account, resolver.findAccount("account-permission"));
+
+        // the cached account is returned to the callers allowed to read it
+        Assert.assertSame(account, resolver.findAccount("account-permission"));
+        verify(accountService, times(1)).findByName("account-permission");
+        verify(permissionFactory).newPermission(any(Domain.class), eq(Actions.read), eq(SCOPE_ID), (KapuaId) isNull());
+
+        denyRead(SCOPE_ID, null);
+        assertDenied(() -> resolver.findAccount("account-permission"));
+        verify(accountService, times(1)).findByName("account-permission");
+    }
+
+    @Test
+    public void testDeviceCacheHitChecksGroupPermission() throws KapuaException {
+        Device device = mock(Device.class);
+        when(device.getId()).thenReturn(DEVICE_ID);
+        when(device.getGroupId()).thenReturn(GROUP_ID);
+        when(deviceRegistryService.findByClientId(SCOPE_ID, "device-permission")).thenReturn(device);
+
+        DeviceIdentityResolver resolver = DeviceIdentityResolver.getInstance();
+        Assert.assertEquals(DEVICE_ID, resolver.findDeviceId(SCOPE_ID, "device-permission"));
+
+        // the cached device is returned to the callers allowed to read the devices of its group
+        Assert.assertEquals(DEVICE_ID, resolver.findDeviceId(SCOPE_ID, "device-permission"));
+        verify(deviceRegistryService, times(1)).findByClientId(SCOPE_ID, "device-permission");
+        verify(permissionFactory).newPermission(any(Domain.class), eq(Actions.read), eq(SCOPE_ID), eq(GROUP_ID));
+
+        denyRead(SCOPE_ID, GROUP_ID);
+        assertDenied(() -> resolver.findDeviceId(SCOPE_ID, "device-permission"));
+        verify(deviceRegistryService, times(1)).findByClientId(SCOPE_ID, "device-permission");
+    }
+
+    @Test
+    public void testMissingDeviceCacheHitChecksPermission() throws KapuaException {
+        DeviceIdentityResolver resolver = DeviceIdentityResolver.getInstance();
+        Assert.assertNull(resolver.findDeviceId(SCOPE_ID, "device-missing"));
+
+        Assert.assertNull(resolver.findDeviceId(SCOPE_ID, "device-missing"));
+        verify(deviceRegistryService, times(1)).findByClientId(SCOPE_ID, "device-missing");
+        verify(permissionFactory).newPermission(any(Domain.class), eq(Actions.read), eq(SCOPE_ID), eq(Group.ANY));
+
+        denyRead(SCOPE_ID, Group.ANY);
+        assertDenied(() -> resolver.findDeviceId(SCOPE_ID, "device-missing"));
+    }
+
+    @Test
+    public void testDeviceInvalidated() throws KapuaException {
+        DeviceIdentityResolver resolver = DeviceIdentityResolver.getInstance();
+        Assert.assertNull(resolver.findDeviceId(SCOPE_ID, "device-invalidated"));
+
+        // the device is registered by the birth message of the client
+        Device device = mock(Device.class);
+        when(device.getId()).thenReturn(DEVICE_ID);
+        when(deviceRegistryService.findByClientId(SCOPE_ID, "device-invalidated")).thenReturn(device);
+        resolver.invalidate(SCOPE_ID, "device-invalidated");
+
+        Assert.assertEquals(DEVICE_ID, resolver.findDeviceId(SCOPE_ID, "device-invalidated"));
+        verify(deviceRegistryService, times(2)).findByClientId(SCOPE_ID, "device-invalidated");
+    }
+}
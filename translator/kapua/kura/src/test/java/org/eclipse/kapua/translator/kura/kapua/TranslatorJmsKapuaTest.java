@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.kapua.translator.kura.kapua;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.metric.MetricsServiceImpl;
+import org.eclipse.kapua.commons.model.id.KapuaEid;
+import org.eclipse.kapua.commons.model.id.KapuaIdFactoryImpl;
+import org.eclipse.kapua.locator.KapuaLocator;
+import org.eclipse.kapua.message.KapuaMessageFactory;
+import org.eclipse.kapua.message.Message;
+import org.eclipse.kapua.message.device.data.KapuaDataMessage;
+import org.eclipse.kapua.message.internal.KapuaMessageFactoryImpl;
+import org.eclipse.kapua.model.id.KapuaId;
+import org.eclipse.kapua.model.id.KapuaIdFactory;
+import org.eclipse.kapua.service.account.Account;
+import org.eclipse.kapua.service.account.AccountService;
+import org.eclipse.kapua.service.authorization.AuthorizationService;
+import org.eclipse.kapua.service.authorization.permission.PermissionFactory;
+import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto;
+import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto.KuraPayload.KuraMetric;
+import org.eclipse.kapua.service.device.call.message.kura.proto.KuraPayloadProto.KuraPayload.KuraMetric.ValueType;
+import org.eclipse.kapua.service.device.registry.Device;
+import org.eclipse.kapua.service.device.registry.DeviceRegistryService;
+import org.eclipse.kapua.service.metric.MetricsService;
+import org.eclipse.kapua.test.MockedLocator;
+import org.eclipse.kapua.translator.Translator;
+import org.eclipse.kapua.translator.jms.kura.TranslatorDataJmsKura;
+import org.eclipse.kapua.translator.jms.kura.TranslatorLifeAppsJmsKura;
+import org.eclipse.kapua.translator.jms.kura.TranslatorLifeBirthJmsKura;
+import org.eclipse.kapua.translator.jms.kura.TranslatorLifeDisconnectJmsKura;
+import org.eclipse.kapua.translator.jms.kura.TranslatorLifeMissingJmsKura;
+import org.eclipse.kapua.translator.jms.kura.TranslatorLifeNotifyJmsKura;
+import org.eclipse.kapua.translator.jms.kura.TranslatorLifeUnmatchedJmsKura;
+import org.eclipse.kapua.transport.message.jms.JmsMessage;
+import org.eclipse.kapua.transport.message.jms.JmsPayload;
+import org.eclipse.kapua.transport.message.jms.JmsTopic;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Checks the fused translators from JMS to Kapua against the two step translation (JMS to Kura and Kura to Kapua) of the same message.
+ */
+public class TranslatorJmsKapuaTest {
+
+    private static final KapuaId SCOPE_ID = new KapuaEid(BigInteger.valueOf(2));
+    private static final KapuaId DEVICE_ID = new KapuaEid(BigInteger.valueOf(4));
+
+    private static final String ACCOUNT_NAME = "account-translation";
+    private static final String CLIENT_ID = "client-translation";
+
+    private static final String[] LIFECYCLE_METRICS = new String[] { "uptime", "display_name", "model_name", "model_id", "part_number", "serial_number",
+            "firmware_version", "bios_version", "os", "os_version", "jvm_name", "jvm_version", "jvm_profile", "application_framework",
+            "application_framework_version", "kura_version", "esf_version", "osgi_framework", "osgi_framework_version", "connection_interface", "connection_ip",
+            "accept_encoding", "application_ids", "available_processors", "total_memory", "os_arch", "modem_imei", "modem_imsi", "modem_iccid" };
+
+    @BeforeClass
+    public static void setUpLocator() {
+        MockedLocator locator = (MockedLocator) KapuaLocator.getInstance();
+        locator.setMockedFactory(KapuaIdFactory.class, new KapuaIdFactoryImpl());
+        locator.setMockedFactory(KapuaMessageFactory.class, new KapuaMessageFactoryImpl());
+        locator.setMockedService(MetricsService.class, new MetricsServiceImpl());
+    }
+
+    @Before
+    public void setUpServices() throws KapuaException {
+        Account account = mock(Account.class);
+        when(account.getId()).thenReturn(SCOPE_ID);
+        AccountService accountService = mock(AccountService.class);
+        when(accountService.findByName(ACCOUNT_NAME)).thenReturn(account);
+
+        Device device = mock(Device.class);
+        when(device.getId()).thenReturn(DEVICE_ID);
+        DeviceRegistryService deviceRegistryService = mock(DeviceRegistryService.class);
+        when(deviceRegistryService.findByClientId(any(KapuaId.class), anyString())).thenReturn(device);
+
+        MockedLocator locator = (MockedLocator) KapuaLocator.getInstance();
+        locator.setMockedService(AccountService.class, accountService);
+        locator.setMockedService(DeviceRegistryService.class, deviceRegistryService);
+        locator.setMockedService(AuthorizationService.class, mock(AuthorizationService.class));
+        locator.setMockedFactory(PermissionFactory.class, mock(PermissionFactory.class));
+    }
+
+    private static byte[] newPayload(boolean withPosition, boolean withBody, String... stringMetrics) {
+        KuraPayloadProto.KuraPayload.Builder builder = KuraPayloadProto.KuraPayload.newBuilder();
+        builder.setTimestamp(1500000000000L);
+        if (withPosition) {
+            builder.setPosition(KuraPayloadProto.KuraPayload.KuraPosition.newBuilder()
+                    .setLatitude(46.1)
+                    .setLongitude(13.2)
+                    .setAltitude(150.5)
+                    .setSpeed(12.5)
+                    .setSatellites(7)
+                    .setTimestamp(1499999999000L));
+        }
+        for (String metric : stringMetrics) {
+            builder.addMetric(KuraMetric.newBuilder().setName(metric).setType(ValueType.STRING).setStringValue(metric + "-value"));
+        }
+        builder.addMetric(KuraMetric.newBuilder().setName("double").setType(ValueType.DOUBLE).setDoubleValue(1.5));
+        builder.addMetric(KuraMetric.newBuilder().setName("long").setType(ValueType.INT64).setLongValue(3L));
+        builder.addMetric(KuraMetric.newBuilder().setName("bool").setType(ValueType.BOOL).setBoolValue(true));
+        if (withBody) {
+            builder.setBody(ByteString.copyFrom(new byte[] { 10, 20, 30, 40 }));
+        }
+        return builder.build().toByteArray();
+    }
+
+    private static JmsMessage newJmsMessage(String[] topic, byte[] body) {
+        return new JmsMessage(new JmsTopic(topic), new Date(1500000001000L), new JmsPayload(body));
+    }
+
+    private static JmsMessage newLifecycleMessage(String type, byte[] body) {
+        return newJmsMessage(new String[] { "$EDC", ACCOUNT_NAME, CLIENT_ID, "MQTT", type }, body);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static void assertTranslationEquivalent(Translator<JmsMessage, ? extends Message> fusedTranslator,
+            Translator<JmsMessage, ?> jmsKuraTranslator,
+            Translator kuraKapuaTranslator,
+            JmsMessage jmsMessage)
+            throws Exception {
+        Object expected = kuraKapuaTranslator.translate((Message) jmsKuraTranslator.translate(jmsMessage));
+        Object actual = fusedTranslator.translate(jmsMessage);
+        assertEquivalent(expected.getClass().getSimpleName(), expected, actual);
+    }
+
+    /**
+     * Compare the values returned by all the getters of the Kapua message objects (message, channel, payload and position)
+     */
+    private static void assertEquivalent(String path, Object expected, Object actual) throws Exception {
+        if (expected == null || actual == null || !expected.getClass().getName().startsWith("org.eclipse.kapua.message.")) {
+            Assert.assertTrue(path + " expected: " + expected + " but was: " + actual, Objects.deepEquals(expected, actual));
+            return;
+        }
+
+        Assert.assertEquals(path, expected.getClass(), actual.getClass());
+        for (Method method : expected.getClass().getMethods()) {
+            if (method.getParameterCount() == 0 &&
+                    !Modifier.isStatic(method.getModifiers()) &&
+                    method.getDeclaringClass() != Object.class &&
+                    (method.getName().startsWith("get") || method.getName().startsWith("is"))) {
+                assertEquivalent(path + "." + method.getName(), method.invoke(expected), method.invoke(actual));
+            }
+        }
+    }
+
+    @Test
+    public void testDataEquivalent() throws Exception {
+        String[] topic = new String[] { ACCOUNT_NAME, CLIENT_ID, "app", "sensor", "temperature" };
+        for (boolean withPosition : new boolean[] { true, false }) {
+            for (boolean withBody : new boolean[] { true, false }) {
+                assertTranslationEquivalent(new TranslatorDataJmsKapua(), new TranslatorDataJmsKura(), new TranslatorDataKuraKapua(),
+                        newJmsMessage(topic, newPayload(withPosition, withBody, "string")));
+            }
+        }
+    }
+
+    @Test
+    public void testDataValues() throws Exception {
+        JmsMessage jmsMessage = newJmsMessage(new String[] { ACCOUNT_NAME, CLIENT_ID, "app", "topic" }, newPayload(true, true, "string"));
+        KapuaDataMessage message = new TranslatorDataJmsKapua().translate(jmsMessage);
+
+        Assert.assertEquals(SCOPE_ID, message.getScopeId());
+        Assert.assertEquals(DEVICE_ID, message.getDeviceId());
+        Assert.assertEquals(CLIENT_ID, message.getClientId());
+        Assert.assertEquals(Arrays.asList("app", "topic"), message.getChannel().getSemanticParts());
+        Assert.assertEquals(new Date(1500000000000L), message.getCapturedOn());
+        Assert.assertEquals(new Date(1500000001000L), message.getReceivedOn());
+        Assert.assertEquals(Double.valueOf(46.1), message.getPosition().getLatitude());
+        Assert.assertEquals("string-value", message.getPayload().getProperties().get("string"));
+        Assert.assertEquals(3L, message.getPayload().getProperties().get("long"));
+        Assert.assertArrayEquals(new byte[] { 10, 20, 30, 40 }, message.getPayload().getBody());
+    }
+
+    @Test
+    public void testBirthEquivalent() throws Exception {
+        for (boolean withPosition : new boolean[] { true, false }) {
+            assertTranslationEquivalent(new TranslatorLifeBirthJmsKapua(), new TranslatorLifeBirthJmsKura(), new TranslatorLifeBirthKuraKapua(),
+                    newLifecycleMessage("BIRTH", newPayload(withPosition, false, LIFECYCLE_METRICS)));
+        }
+    }
+
+    @Test
+    public void testAppsEquivalent() throws Exception {
+        for (boolean withPosition : new boolean[] { true, false }) {
+            assertTranslationEquivalent(new TranslatorLifeAppsJmsKapua(), new TranslatorLifeAppsJmsKura(), new TranslatorLifeAppsKuraKapua(),
+                    newLifecycleMessage("APPS", newPayload(withPosition, false, LIFECYCLE_METRICS)));
+        }
+    }
+
+    @Test
+    public void testDisconnectEquivalent() throws Exception {
+        for (boolean withPosition : new boolean[] { true, false }) {
+            assertTranslationEquivalent(new TranslatorLifeDisconnectJmsKapua(), new TranslatorLifeDisconnectJmsKura(), new TranslatorLifeDisconnectKuraKapua(),
+                    newLifecycleMessage("DC", newPayload(withPosition, false, LIFECYCLE_METRICS)));
+        }
+    }
+
+    @Test
+    public void testMissingEquivalent() throws Exception {
+        for (boolean withPosition : new boolean[] { true, false }) {
+            assertTranslationEquivalent(new TranslatorLifeMissingJmsKapua(), new TranslatorLifeMissingJmsKura(), new TranslatorLifeMissingKuraKapua(),
+                    newLifecycleMessage("LWT", newPayload(withPosition, true, LIFECYCLE_METRICS)));
+        }
+
+        // the text payloads are set as the message body
+        assertTranslationEquivalent(new TranslatorLifeMissingJmsKapua(), new TranslatorLifeMissingJmsKura(), new TranslatorLifeMissingKuraKapua(),
+                newLifecycleMessage("LWT", "connection lost".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testNotifyEquivalent() throws Exception {
+        for (boolean withPosition : new boolean[] { true, false }) {
+            assertTranslationEquivalent(new TranslatorLifeNotifyJmsKapua(), new TranslatorLifeNotifyJmsKura(), new TranslatorLifeNotifyKuraKapua(),
+                    newLifecycleMessage("NOTIFY", newPayload(withPosition, true, LIFECYCLE_METRICS)));
+        }
+    }
+
+    @Test
+    public void testUnmatchedEquivalent() throws Exception {
+        for (boolean withPosition : new boolean[] { true, false }) {
+            assertTranslationEquivalent(new TranslatorLifeUnmatchedJmsKapua(), new TranslatorLifeUnmatchedJmsKura(), new TranslatorLifeUnmatchedKuraKapua(),
+                    newLifecycleMessage("UNMATCHED", newPayload(withPosition, true, LIFECYCLE_METRICS)));
+        }
+
+        // the text payloads are set as the message body
+        assertTranslationEquivalent(new TranslatorLifeUnmatchedJmsKapua(), new TranslatorLifeUnmatchedJmsKura(), new TranslatorLifeUnmatchedKuraKapua(),
+                newLifecycleMessage("UNMATCHED", "unmatched text".getBytes(StandardCharsets.UTF_8)));
+    }
+}
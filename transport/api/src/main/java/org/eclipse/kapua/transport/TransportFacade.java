@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.eclipse.kapua.transport;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.transport.message.TransportChannel;
 import org.eclipse.kapua.transport.message.TransportMessage;
@@ -48,6 +50,24 @@ public interface TransportFacade<C extends TransportChannel, P extends Transport
     public MS sendSync(MQ message, Long timeout)
             throws KapuaException;
 
+    /**
+     * Send a request message to a device without blocking the caller while waiting for the response.
+     * <p>
+     * The returned future is completed with the response to the request message, or exceptionally if the send fails or the timeout elapses.
+     * If the timeout is {@code null} the request message is fired without waiting for the response and the future is completed with {@code null}.
+     * </p>
+     * <p>
+     * The future may be completed by the transport thread receiving the response, so the dependent actions doing blocking work (i.e. querying the services)
+     * should run on their own executor.
+     * </p>
+     *
+     * @param message The request message to send.
+     * @param timeout The timeout for the operation.
+     * @return The future completed with the response to the request message.
+     * @since 1.0.0
+     */
+    public CompletableFuture<MS> sendRequest(MQ message, Long timeout);
+
     /**
      * Send a request message to a device without waiting for the response
      *
@@ -21,6 +21,7 @@ import org.eclipse.kapua.transport.TransportClientConnectOptions;
 import org.eclipse.kapua.transport.message.mqtt.MqttMessage;
 import org.eclipse.kapua.transport.message.mqtt.MqttPayload;
 import org.eclipse.kapua.transport.message.mqtt.MqttTopic;
+import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
@@ -218,7 +219,13 @@ public class MqttClient {
      *             When unsubscribe fails.
      * @since 1.0.0
      */
-    private void unsubscribe(MqttTopic mqttTopic)
+    public synchronized void unsubscribe(MqttTopic mqttTopic)
+            throws KapuaException {
+        unsubscribeTopic(mqttTopic);
+        subscribedTopics.removeIf(subscribedTopic -> subscribedTopic.getTopic().equals(mqttTopic.getTopic()));
+    }
+
+    private void unsubscribeTopic(MqttTopic mqttTopic)
             throws KapuaException {
         try {
             getPahoClient().unsubscribe(mqttTopic.getTopic());
@@ -242,7 +249,7 @@ public class MqttClient {
 
         while (subscribptionIterator.hasNext()) {
             MqttTopic mqttTopic = subscribptionIterator.next();
-            unsubscribe(mqttTopic);
+            unsubscribeTopic(mqttTopic);
 
         }
 
@@ -250,14 +257,14 @@ public class MqttClient {
     }
 
     /**
-     * Sets a {@link MqttClientCallback} to this client.
+     * Sets a {@link MqttCallback} (i.e. a {@link MqttClientCallback}) to this client.
      * 
      * @param mqttClientCallback
-     *            The {@link MqttClientCallback} to use.
+     *            The {@link MqttCallback} to use.
      * @throws KapuaException
      *             When set the callback fails.
      */
-    public void setCallback(MqttClientCallback mqttClientCallback)
+    public void setCallback(MqttCallback mqttClientCallback)
             throws KapuaException {
         try {
             getPahoClient().setCallback(mqttClientCallback);
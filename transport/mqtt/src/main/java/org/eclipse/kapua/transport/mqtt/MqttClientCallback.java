@@ -15,6 +15,7 @@ package org.eclipse.kapua.transport.mqtt;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.kapua.KapuaException;
 import org.eclipse.kapua.transport.message.mqtt.MqttMessage;
@@ -28,7 +29,7 @@ import org.eclipse.paho.client.mqttv3.MqttCallback;
  * <p>
  * This generic implementation si meant to be used in the transport layer of Kapua
  * to receive responses from the device when a request is sent to the device.
- * It offers the capability of receive one or more responses.
+ * It offers the capability of receive one or more responses, or to complete a future with the response received on a given topic.
  * </p>
  * 
  * @since 1.0.0
@@ -49,6 +50,20 @@ public class MqttClientCallback implements MqttCallback {
      */
     private int expectedResponses;
 
+    /**
+     * Topic of the response completing the {@link #response} future.
+     *
+     * @since 1.0.0
+     */
+    private String responseTopic;
+
+    /**
+     * Future completed with the response received on the {@link #responseTopic}.
+     *
+     * @since 1.0.0
+     */
+    private CompletableFuture<MqttMessage> response;
+
     /**
      * Construct a callback with the given response container and 1 as expected response messages
      * 
@@ -74,6 +89,24 @@ public class MqttClientCallback implements MqttCallback {
         this.expectedResponses = expectedResponses;
     }
 
+    /**
+     * Construct a callback completing the given future with the first message received on the given topic.
+     * <p>
+     * The messages received on other topics (i.e. the late responses to previous requests made with the same client) are discarded.
+     * The future is completed exceptionally if the connection is lost.
+     * </p>
+     *
+     * @param responseTopic
+     *            The topic of the expected response
+     * @param response
+     *            The future to complete with the response
+     * @since 1.0.0
+     */
+    public MqttClientCallback(MqttTopic responseTopic, CompletableFuture<MqttMessage> response) {
+        this.responseTopic = responseTopic.getTopic();
+        this.response = response;
+    }
+
     /**
      * Implements the API signature {@link MqttCallback#messageArrived(String, org.eclipse.paho.client.mqttv3.MqttMessage)}.
      * <p>
@@ -84,6 +117,9 @@ public class MqttClientCallback implements MqttCallback {
      * If the total number of received reaches the limit set for expected response messages
      * the {@code notifyAll()} is invoked
      * </p>
+     * <p>
+     * If the callback has been constructed with a response future, the message received on the response topic completes the future instead.
+     * </p>
      * 
      * @since 1.0.0
      */
@@ -96,6 +132,15 @@ public class MqttClientCallback implements MqttCallback {
                 new Date(),
                 mqttPayload);
 
+        //
+        // Complete the future with the expected response
+        if (response != null) {
+            if (responseTopic.equals(stringTopic)) {
+                response.complete(mqttMessage);
+            }
+            return;
+        }
+
         //
         // Add to the received responses
         if (responses == null) {
@@ -128,7 +173,7 @@ public class MqttClientCallback implements MqttCallback {
      * Implements the API signature {@link MqttCallback#connectionLost(Throwable)}.
      * <p>
      * The {@link Throwable} parameters is wrapped into a {@link MqttClientException} and logged.
-     * {@code notifyAll()} is invoked.
+     * {@code notifyAll()} is invoked, or the response future is completed exceptionally.
      * </p>
      * 
      * @since 1.0.0
@@ -140,6 +185,11 @@ public class MqttClientCallback implements MqttCallback {
         try {
             throw new MqttClientException(MqttClientErrorCodes.CLIENT_CONNECTION_LOST, cause, (Object[]) null);
         } catch (KapuaException e) {
+            if (response != null) {
+                response.completeExceptionally(e);
+                return;
+            }
+
             // FIXME: What to do here?? Wrap the exceptionin a Runtime and throw it??
             e.printStackTrace();
 
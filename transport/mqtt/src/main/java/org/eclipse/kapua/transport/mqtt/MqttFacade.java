@@ -16,6 +16,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
 
 import org.eclipse.kapua.KapuaErrorCodes;
 import org.eclipse.kapua.KapuaException;
@@ -23,6 +26,8 @@ import org.eclipse.kapua.transport.TransportFacade;
 import org.eclipse.kapua.transport.message.mqtt.MqttMessage;
 import org.eclipse.kapua.transport.message.mqtt.MqttPayload;
 import org.eclipse.kapua.transport.message.mqtt.MqttTopic;
+import org.eclipse.kapua.transport.mqtt.multiplexing.MqttMultiplexedConnection;
+import org.eclipse.kapua.transport.mqtt.multiplexing.MqttMultiplexer;
 import org.eclipse.kapua.transport.mqtt.pooling.MqttClientPool;
 
 /**
@@ -39,6 +44,13 @@ public class MqttFacade implements TransportFacade<MqttTopic, MqttPayload, MqttM
      */
     private MqttClient borrowedClient;
 
+    /**
+     * The multiplexed connection to use to make requests, when the requests multiplexing is enabled.
+     * 
+     * @since 1.0.0
+     */
+    private MqttMultiplexedConnection multiplexedConnection;
+
     /**
      * The client callback for this set of requests.
      * 
@@ -53,6 +65,13 @@ public class MqttFacade implements TransportFacade<MqttTopic, MqttPayload, MqttM
      *             When MQTT client is not available.
      */
     public MqttFacade() throws KapuaException {
+        //
+        // Share a long lived connection if the requests are multiplexed
+        if (MqttMultiplexer.isEnabled()) {
+            multiplexedConnection = MqttMultiplexer.getInstance().nextConnection();
+            return;
+        }
+
         //
         // Get the client form the pool
         try {
@@ -78,6 +97,10 @@ public class MqttFacade implements TransportFacade<MqttTopic, MqttPayload, MqttM
     @Override
     public MqttMessage sendSync(MqttMessage mqttMessage, Long timeout)
             throws KapuaException {
+        if (multiplexedConnection != null) {
+            return waitResponse(mqttMessage, multiplexedConnection.send(mqttMessage, timeout));
+        }
+
         List<MqttMessage> responses = new ArrayList<>();
 
         sendInternal(mqttMessage, responses, timeout);
@@ -98,6 +121,90 @@ public class MqttFacade implements TransportFacade<MqttTopic, MqttPayload, MqttM
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When the requests multiplexing is disabled the request is sent with the borrowed client and the returned future is completed by the client
+     * callback thread when the response is received, or by the {@link MqttTimeoutScheduler} thread when the timeout elapses.
+     * The client must not be cleaned before the returned future is completed.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<MqttMessage> sendRequest(MqttMessage mqttMessage, Long timeout) {
+        if (multiplexedConnection != null) {
+            return multiplexedConnection.send(mqttMessage, timeout);
+        }
+
+        CompletableFuture<MqttMessage> response = new CompletableFuture<>();
+        MqttTopic responseTopic = mqttMessage.getResponseTopic();
+        if (responseTopic == null || timeout == null) {
+            try {
+                sendSync(mqttMessage, null);
+                response.complete(null);
+            } catch (KapuaException e) {
+                response.completeExceptionally(e);
+            }
+            return response;
+        }
+
+        //
+        // Subscribe
+        try {
+            mqttClientCallback = new MqttClientCallback(responseTopic, response);
+            borrowedClient.setCallback(mqttClientCallback);
+            borrowedClient.subscribe(responseTopic);
+        } catch (KapuaException e) {
+            response.completeExceptionally(new MqttClientException(MqttClientErrorCodes.CLIENT_SUBSCRIBE_ERROR,
+                    e,
+                    new Object[] { responseTopic.getTopic() }));
+            return response;
+        }
+
+        //
+        // Publish message
+        try {
+            borrowedClient.publish(mqttMessage);
+        } catch (KapuaException e) {
+            response.completeExceptionally(new MqttClientException(MqttClientErrorCodes.CLIENT_PUBLISH_ERROR,
+                    e,
+                    new Object[] { mqttMessage.getRequestTopic().getTopic(),
+                            mqttMessage.getPayload().getBody() }));
+            return response;
+        }
+
+        //
+        // Expire the request if not answered in time
+        ScheduledFuture<?> timeoutTask = MqttTimeoutScheduler.getInstance().schedule(() -> response.completeExceptionally(
+                new MqttClientException(MqttClientErrorCodes.CLIENT_TIMEOUT_EXCEPTION,
+                        null,
+                        new Object[] {
+                                mqttMessage.getRequestTopic()
+                        })),
+                timeout);
+        response.whenComplete((message, exception) -> timeoutTask.cancel(false));
+
+        return response;
+    }
+
+    private static MqttMessage waitResponse(MqttMessage mqttMessage, CompletableFuture<MqttMessage> response)
+            throws KapuaException {
+        try {
+            return response.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof KapuaException) {
+                throw (KapuaException) e.getCause();
+            }
+            throw new MqttClientException(MqttClientErrorCodes.SEND_ERROR,
+                    e.getCause(),
+                    mqttMessage.getRequestTopic().getTopic());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MqttClientException(MqttClientErrorCodes.CLIENT_CALLBACK_ERROR,
+                    e,
+                    (Object[]) null);
+        }
+    }
+
     /**
      * Actual implementation of the send operations.
      * <p>
@@ -189,6 +296,9 @@ public class MqttFacade implements TransportFacade<MqttTopic, MqttPayload, MqttM
 
     @Override
     public String getClientId() {
+        if (multiplexedConnection != null) {
+            return multiplexedConnection.getClientId();
+        }
         return borrowedClient.getClientId();
     }
 
@@ -199,6 +309,13 @@ public class MqttFacade implements TransportFacade<MqttTopic, MqttPayload, MqttM
 
     @Override
     public void clean() {
+        //
+        // The multiplexed connections are shared and never returned
+        if (multiplexedConnection != null) {
+            multiplexedConnection = null;
+            return;
+        }
+
         //
         // Return the client form the pool
         MqttClientPool.getInstance().returnObject(borrowedClient);
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.transport.mqtt;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single timer thread expiring the asynchronous requests not answered in time.
+ * <p>
+ * The scheduler is closed by {@link #close()} or, if not closed explicitly, on JVM shutdown.
+ * </p>
+ *
+ * @since 1.0.0
+ */
+public class MqttTimeoutScheduler {
+
+    private static MqttTimeoutScheduler instance;
+    private static boolean shutdownHookRegistered;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private MqttTimeoutScheduler() {
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, MqttTimeoutScheduler.class.getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Get the scheduler instance (singleton)
+     *
+     * @return
+     * @since 1.0.0
+     */
+    public static synchronized MqttTimeoutScheduler getInstance() {
+        if (instance == null) {
+            instance = new MqttTimeoutScheduler();
+            if (!shutdownHookRegistered) {
+                // stop the timer thread if the scheduler is not closed explicitly
+                Runtime.getRuntime().addShutdownHook(new Thread(MqttTimeoutScheduler::close, "kapua-transport-timeout-scheduler-shutdown"));
+                shutdownHookRegistered = true;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Schedule the given timeout task
+     *
+     * @param timeoutTask
+     *            The task to run when the timeout elapses.
+     * @param timeout
+     *            The timeout in milliseconds.
+     * @return The scheduled task, to be cancelled when the response is received in time.
+     * @since 1.0.0
+     */
+    public ScheduledFuture<?> schedule(Runnable timeoutTask, long timeout) {
+        return scheduler.schedule(timeoutTask, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the timer thread, the pending timeouts are discarded
+     *
+     * @since 1.0.0
+     */
+    public static synchronized void close() {
+        if (instance != null) {
+            instance.scheduler.shutdownNow();
+            instance = null;
+        }
+    }
+}
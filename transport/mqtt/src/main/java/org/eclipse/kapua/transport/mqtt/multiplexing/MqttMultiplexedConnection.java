@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.transport.mqtt.multiplexing;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.commons.util.SystemUtils;
+import org.eclipse.kapua.transport.message.mqtt.MqttMessage;
+import org.eclipse.kapua.transport.message.mqtt.MqttPayload;
+import org.eclipse.kapua.transport.message.mqtt.MqttTopic;
+import org.eclipse.kapua.transport.mqtt.MqttClient;
+import org.eclipse.kapua.transport.mqtt.MqttClientConnectionOptions;
+import org.eclipse.kapua.transport.mqtt.MqttClientErrorCodes;
+import org.eclipse.kapua.transport.mqtt.MqttClientException;
+import org.eclipse.kapua.transport.mqtt.setting.MqttClientSetting;
+import org.eclipse.kapua.transport.mqtt.setting.MqttClientSettingKeys;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long lived MQTT connection shared by many concurrent requests.
+ * <p>
+ * The connection subscribes once, when connected, to a reply topic filter matching the response topics of all the requests sent with this connection
+ * (i.e. {@code $EDC/+/<client id>/+/REPLY/+}). Each response received is dispatched to the pending request with the same request id, the last level
+ * of the response topic, so the requests don't subscribe, unsubscribe or wait on each other.<br>
+ * A lost client is closed by the cleanup executor, never by the MQTT callback thread, and the next request opens a new one.
+ * </p>
+ *
+ * @since 1.0.0
+ */
+public class MqttMultiplexedConnection implements MqttCallback {
+
+    private static final Logger logger = LoggerFactory.getLogger(MqttMultiplexedConnection.class);
+
+    private final String clientId;
+    private final MqttTopic replyFilter;
+    private final ScheduledExecutorService timeoutScheduler;
+    private final Executor cleanupExecutor;
+
+    /**
+     * Requests waiting for a response by request id
+     */
+    private final Map<String, CompletableFuture<MqttMessage>> pendingRequests = new ConcurrentHashMap<>();
+
+    private volatile MqttClient mqttClient;
+
+    /**
+     * Constructor
+     *
+     * @param clientId
+     *            The client id of the connection.
+     * @param replyFilter
+     *            The topic filter matching the response topics of the requests sent with this connection.
+     * @param timeoutScheduler
+     *            The scheduler used to expire the requests not answered in time.
+     * @param cleanupExecutor
+     *            The executor used to close the lost clients.
+     * @since 1.0.0
+     */
+    MqttMultiplexedConnection(String clientId, String replyFilter, ScheduledExecutorService timeoutScheduler, Executor cleanupExecutor) {
+        this.clientId = clientId;
+        this.replyFilter = new MqttTopic(replyFilter);
+        this.timeoutScheduler = timeoutScheduler;
+        this.cleanupExecutor = cleanupExecutor;
+    }
+
+    /**
+     * Sends the given request.
+     * <p>
+     * If the request has a response topic and a timeout is given, the returned future is completed with the response received on the response topic or
+     * exceptionally if no response is received before the timeout elapses. Otherwise the request is fired and the returned future is completed
+     * with {@code null}.<br>
+     * The response topic must be matched by the reply topic filter of this connection.
+     * </p>
+     *
+     * @param mqttMessage
+     *            The request to send.
+     * @param timeout
+     *            The timeout of waiting the response from the device.
+     * @return The future completed with the response.
+     * @since 1.0.0
+     */
+    public CompletableFuture<MqttMessage> send(MqttMessage mqttMessage, Long timeout) {
+        MqttTopic responseTopic = mqttMessage.getResponseTopic();
+        if (responseTopic == null || timeout == null) {
+            try {
+                publish(mqttMessage);
+            } catch (KapuaException e) {
+                return failedFuture(e);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String responseTopicName = responseTopic.getTopic();
+        if (!matches(replyFilter.getTopic(), responseTopicName)) {
+            return failedFuture(new MqttClientException(MqttClientErrorCodes.CLIENT_SUBSCRIBE_ERROR, null, responseTopicName));
+        }
+
+        String requestId = getRequestId(responseTopicName);
+        CompletableFuture<MqttMessage> response = new CompletableFuture<>();
+        if (pendingRequests.putIfAbsent(requestId, response) != null) {
+            return failedFuture(new MqttClientException(MqttClientErrorCodes.CLIENT_SUBSCRIBE_ERROR, null, responseTopicName));
+        }
+
+        try {
+            publish(mqttMessage);
+        } catch (KapuaException e) {
+            pendingRequests.remove(requestId, response);
+            response.completeExceptionally(e);
+            return response;
+        }
+
+        ScheduledFuture<?> timeoutTask = timeoutScheduler.schedule(() -> {
+            if (pendingRequests.remove(requestId, response)) {
+                response.completeExceptionally(new MqttClientException(MqttClientErrorCodes.CLIENT_TIMEOUT_EXCEPTION,
+                        null,
+                        mqttMessage.getRequestTopic()));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        response.whenComplete((message, exception) -> timeoutTask.cancel(false));
+
+        return response;
+    }
+
+    /**
+     * Gets the client id of this connection.
+     *
+     * @return The client id of this connection.
+     * @since 1.0.0
+     */
+    public String getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Gets the number of requests waiting for a response on this connection.
+     *
+     * @return The number of the pending requests.
+     * @since 1.0.0
+     */
+    public int getPendingRequestsCount() {
+        return pendingRequests.size();
+    }
+
+    /**
+     * Disconnects this connection, failing all the pending requests.
+     *
+     * @since 1.0.0
+     */
+    public synchronized void close() {
+        MqttClient client = mqttClient;
+        mqttClient = null;
+        if (client != null) {
+            terminate(client);
+        }
+        failPendingRequests(new MqttClientException(MqttClientErrorCodes.CLIENT_NOT_CONNECTED, null, clientId));
+    }
+
+    //
+    // MqttCallback
+    //
+    @Override
+    public void messageArrived(String topic, org.eclipse.paho.client.mqttv3.MqttMessage message) {
+        CompletableFuture<MqttMessage> response = pendingRequests.remove(getRequestId(topic));
+        if (response == null) {
+            logger.debug("Discarding the response received on {}: no pending request", topic);
+            return;
+        }
+
+        response.complete(new MqttMessage(new MqttTopic(topic),
+                new Date(),
+                new MqttPayload(message.getPayload())));
+    }
+
+    @Override
+    public void connectionLost(Throwable cause) {
+        logger.warn("Multiplexed connection {} lost", clientId, cause);
+        MqttClient lostClient;
+        synchronized (this) {
+            lostClient = mqttClient;
+            mqttClient = null;
+        }
+        if (lostClient != null) {
+            // release the resources of the lost client, the next request opens a new one
+            cleanupExecutor.execute(() -> terminate(lostClient));
+        }
+        failPendingRequests(new MqttClientException(MqttClientErrorCodes.CLIENT_CONNECTION_LOST, cause, clientId));
+    }
+
+    @Override
+    public void deliveryComplete(IMqttDeliveryToken token) {
+        // Nothing to do
+    }
+
+    //
+    // Connection
+    //
+    /**
+     * Opens a new client connected to the broker.
+     *
+     * @return The connected client.
+     * @throws KapuaException
+     *             When the client cannot connect.
+     * @since 1.0.0
+     */
+    MqttClient connect()
+            throws KapuaException {
+        MqttClientSetting mqttClientSettings = MqttClientSetting.getInstance();
+
+        String username = mqttClientSettings.getString(MqttClientSettingKeys.TRANSPORT_CREDENTIAL_USERNAME);
+        char[] password = mqttClientSettings.getString(MqttClientSettingKeys.TRANSPORT_CREDENTIAL_PASSWORD).toCharArray();
+        URI brokerURI = SystemUtils.getBrokerURI();
+
+        MqttClientConnectionOptions connectionOptions = new MqttClientConnectionOptions();
+        connectionOptions.setClientId(clientId);
+        connectionOptions.setUsername(username);
+        connectionOptions.setPassword(password);
+        connectionOptions.setEndpointURI(brokerURI);
+
+        MqttClient client = new MqttClient();
+        try {
+            client.connectClient(connectionOptions);
+        } catch (KapuaException ke) {
+            client.terminateClient();
+            throw ke;
+        }
+        return client;
+    }
+
+    //
+    // Private methods
+    //
+    private void publish(MqttMessage mqttMessage)
+            throws KapuaException {
+        try {
+            getClient().publish(mqttMessage);
+        } catch (KapuaException e) {
+            throw new MqttClientException(MqttClientErrorCodes.CLIENT_PUBLISH_ERROR,
+                    e,
+                    new Object[] { mqttMessage.getRequestTopic().getTopic(),
+                            mqttMessage.getPayload().getBody() });
+        }
+    }
+
+    private void terminate(MqttClient client) {
+        try {
+            client.terminateClient();
+        } catch (KapuaException e) {
+            logger.warn("Cannot close the multiplexed connection {}", clientId, e);
+        }
+    }
+
+    /**
+     * Gets the connected client, connecting a new one subscribed to the reply topic filter if there is none.
+     *
+     * @return
+     * @throws KapuaException
+     */
+    private MqttClient getClient()
+            throws KapuaException {
+        MqttClient client = mqttClient;
+        if (client != null) {
+            return client;
+        }
+
+        synchronized (this) {
+            if (mqttClient == null) {
+                client = connect();
+                try {
+                    client.setCallback(this);
+                    client.subscribe(replyFilter);
+                } catch (KapuaException ke) {
+                    terminate(client);
+                    throw ke;
+                }
+                mqttClient = client;
+            }
+            return mqttClient;
+        }
+    }
+
+    private void failPendingRequests(KapuaException exception) {
+        Iterator<CompletableFuture<MqttMessage>> pendingRequestsIterator = pendingRequests.values().iterator();
+        while (pendingRequestsIterator.hasNext()) {
+            CompletableFuture<MqttMessage> response = pendingRequestsIterator.next();
+            pendingRequestsIterator.remove();
+            response.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Gets the request id of the given response topic, its last level.
+     *
+     * @param responseTopic
+     * @return
+     */
+    private static String getRequestId(String responseTopic) {
+        return responseTopic.substring(responseTopic.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Checks if the given topic is matched by the given topic filter, according to the MQTT single level ({@code +}) and multi level ({@code #}) wildcards.
+     *
+     * @param filter
+     * @param topic
+     * @return
+     */
+    static boolean matches(String filter, String topic) {
+        String[] filterLevels = filter.split("/", -1);
+        String[] topicLevels = topic.split("/", -1);
+        for (int i = 0; i < filterLevels.length; i++) {
+            if ("#".equals(filterLevels[i])) {
+                return true;
+            }
+            if (i >= topicLevels.length || !("+".equals(filterLevels[i]) || filterLevels[i].equals(topicLevels[i]))) {
+                return false;
+            }
+        }
+        return filterLevels.length == topicLevels.length;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable exception) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(exception);
+        return future;
+    }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.transport.mqtt.multiplexing;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.kapua.transport.mqtt.setting.MqttClientSetting;
+import org.eclipse.kapua.transport.mqtt.setting.MqttClientSettingKeys;
+import org.eclipse.kapua.transport.utils.ClientIdGenerator;
+
+/**
+ * Holds the {@link MqttMultiplexedConnection}s used to send the requests to the devices.
+ * <p>
+ * The requests are spread over the connections in round robin and all the connections share a single timer thread to expire the requests not
+ * answered in time.<br>
+ * The connections are closed by {@link #close()} or, if not closed explicitly, on JVM shutdown.
+ * </p>
+ *
+ * @since 1.0.0
+ */
+public class MqttMultiplexer {
+
+    private static MqttMultiplexer instance;
+    private static boolean shutdownHookRegistered;
+
+    private final MqttMultiplexedConnection[] connections;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor timeoutScheduler;
+    private final ExecutorService cleanupExecutor;
+
+    private MqttMultiplexer() {
+        MqttClientSetting config = MqttClientSetting.getInstance();
+        int connectionsCount = Math.max(1, config.getInt(MqttClientSettingKeys.TRANSPORT_MULTIPLEXING_CONNECTIONS, 4));
+        String clientIdPrefix = config.getString(MqttClientSettingKeys.TRANSPORT_MULTIPLEXING_CLIENT_ID_PREFIX, "KapuaMux");
+        String replyFilter = config.getString(MqttClientSettingKeys.TRANSPORT_MULTIPLEXING_REPLY_FILTER, "$EDC/+/{clientId}/+/REPLY/+");
+
+        timeoutScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, MqttMultiplexer.class.getSimpleName() + "-TimeoutTimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timeoutScheduler.setRemoveOnCancelPolicy(true);
+        cleanupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, MqttMultiplexer.class.getSimpleName() + "-Cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        connections = new MqttMultiplexedConnection[connectionsCount];
+        for (int i = 0; i < connectionsCount; i++) {
+            String clientId = ClientIdGenerator.getInstance().next(clientIdPrefix);
+            connections[i] = new MqttMultiplexedConnection(clientId, replyFilter.replace("{clientId}", clientId), timeoutScheduler, cleanupExecutor);
+        }
+    }
+
+    /**
+     * Get the multiplexer instance (singleton)
+     *
+     * @return
+     * @since 1.0.0
+     */
+    public static synchronized MqttMultiplexer getInstance() {
+        if (instance == null) {
+            instance = new MqttMultiplexer();
+            if (!shutdownHookRegistered) {
+                // disconnect the long lived connections if the multiplexer is not closed explicitly
+                Runtime.getRuntime().addShutdownHook(new Thread(MqttMultiplexer::close, "kapua-transport-multiplexer-shutdown"));
+                shutdownHookRegistered = true;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check if the requests multiplexing is enabled
+     *
+     * @return
+     * @since 1.0.0
+     */
+    public static boolean isEnabled() {
+        return MqttClientSetting.getInstance().getBoolean(MqttClientSettingKeys.TRANSPORT_MULTIPLEXING_ENABLED, false);
+    }
+
+    /**
+     * Get the connection to use for the next request
+     *
+     * @return
+     * @since 1.0.0
+     */
+    public MqttMultiplexedConnection nextConnection() {
+        return connections[Math.floorMod(nextConnection.getAndIncrement(), connections.length)];
+    }
+
+    /**
+     * Close all the connections failing the pending requests
+     *
+     * @since 1.0.0
+     */
+    public static synchronized void close() {
+        if (instance != null) {
+            for (MqttMultiplexedConnection connection : instance.connections) {
+                connection.close();
+            }
+            instance.timeoutScheduler.shutdownNow();
+            instance.cleanupExecutor.shutdown();
+            instance = null;
+        }
+    }
+}
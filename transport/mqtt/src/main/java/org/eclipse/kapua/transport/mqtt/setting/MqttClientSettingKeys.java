@@ -55,6 +55,35 @@ public enum MqttClientSettingKeys implements SettingKey {
      * @since 1.0.0
      */
     SEND_TIMEOUT_MAX("send.timeout.max"),
+
+    /**
+     * Whether the requests are multiplexed over a few long lived connections instead of borrowing a pooled client for each request.
+     * 
+     * @since 1.0.0
+     */
+    TRANSPORT_MULTIPLEXING_ENABLED("transport.multiplexing.enabled"),
+
+    /**
+     * The number of connections used to multiplex the requests.
+     * 
+     * @since 1.0.0
+     */
+    TRANSPORT_MULTIPLEXING_CONNECTIONS("transport.multiplexing.connections"),
+
+    /**
+     * The client id prefix of the connections used to multiplex the requests.
+     * 
+     * @since 1.0.0
+     */
+    TRANSPORT_MULTIPLEXING_CLIENT_ID_PREFIX("transport.multiplexing.client.id.prefix"),
+
+    /**
+     * The topic filter subscribed by each connection used to multiplex the requests, matching the response topics of its requests.
+     * The {@code {clientId}} placeholder is replaced by the client id of the connection.
+     * 
+     * @since 1.0.0
+     */
+    TRANSPORT_MULTIPLEXING_REPLY_FILTER("transport.multiplexing.reply.filter"),
     ;
 
     /**
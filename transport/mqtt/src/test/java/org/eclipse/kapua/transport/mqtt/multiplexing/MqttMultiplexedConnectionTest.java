@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.kapua.transport.mqtt.multiplexing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.kapua.KapuaException;
+import org.eclipse.kapua.transport.message.mqtt.MqttMessage;
+import org.eclipse.kapua.transport.message.mqtt.MqttPayload;
+import org.eclipse.kapua.transport.message.mqtt.MqttTopic;
+import org.eclipse.kapua.transport.mqtt.MqttClient;
+import org.eclipse.kapua.transport.mqtt.MqttClientErrorCodes;
+import org.eclipse.kapua.transport.mqtt.MqttClientException;
+import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the multiplexed connection against an in memory client: the tests play the broker, delivering the responses and losing the connection.
+ */
+public class MqttMultiplexedConnectionTest {
+
+    private static final String CLIENT_ID = "KapuaMux-test";
+    private static final String REPLY_FILTER = "$EDC/+/" + CLIENT_ID + "/+/REPLY/+";
+
+    private ScheduledExecutorService timeoutScheduler;
+    private ExecutorService cleanupExecutor;
+    private List<TestClient> clients;
+    private MqttMultiplexedConnection connection;
+
+    @Before
+    public void setUp() {
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor();
+        cleanupExecutor = Executors.newSingleThreadExecutor();
+        clients = new ArrayList<>();
+        connection = new MqttMultiplexedConnection(CLIENT_ID, REPLY_FILTER, timeoutScheduler, cleanupExecutor) {
+
+            @Override
+            MqttClient connect() {
+                TestClient client = new TestClient();
+                clients.add(client);
+                return client;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        timeoutScheduler.shutdownNow();
+        cleanupExecutor.shutdownNow();
+    }
+
+    private static MqttMessage newRequest(String requestId) {
+        return new MqttMessage(new MqttTopic("$EDC/account/device/CMD-V1/EXEC/command"),
+                new MqttTopic(getResponseTopic(requestId)),
+                new MqttPayload(requestId.getBytes()));
+    }
+
+    private static String getResponseTopic(String requestId) {
+        return "$EDC/account/" + CLIENT_ID + "/CMD-V1/REPLY/" + requestId;
+    }
+
+    private void respond(String requestId, String body) {
+        connection.messageArrived(getResponseTopic(requestId), new org.eclipse.paho.client.mqttv3.MqttMessage(body.getBytes()));
+    }
+
+    private static void assertFailed(CompletableFuture<MqttMessage> response, MqttClientErrorCodes errorCode)
+            throws InterruptedException {
+        try {
+            response.get(5, TimeUnit.SECONDS);
+            fail("The request should fail!");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof KapuaException);
+            assertEquals(errorCode, ((KapuaException) e.getCause()).getCode());
+        } catch (TimeoutException e) {
+            fail("The request should be completed!");
+        }
+    }
+
+    @Test
+    public void testResponseMatching() throws Exception {
+        CompletableFuture<MqttMessage> firstResponse = connection.send(newRequest("1"), 60000L);
+        CompletableFuture<MqttMessage> secondResponse = connection.send(newRequest("2"), 60000L);
+        assertEquals(2, connection.getPendingRequestsCount());
+
+        // the responses are received out of order
+        respond("2", "second");
+        assertFalse(firstResponse.isDone());
+        respond("1", "first");
+
+        assertArrayEquals("first".getBytes(), firstResponse.get().getPayload().getBody());
+        assertEquals(getResponseTopic("1"), firstResponse.get().getRequestTopic().getTopic());
+        assertArrayEquals("second".getBytes(), secondResponse.get().getPayload().getBody());
+        assertEquals(0, connection.getPendingRequestsCount());
+
+        // a single client subscribed once to the reply filter, never on the request path
+        assertEquals(1, clients.size());
+        assertEquals(1, clients.get(0).subscriptions.size());
+        assertEquals(REPLY_FILTER, clients.get(0).subscriptions.get(0));
+        assertEquals(0, clients.get(0).unsubscriptions);
+        assertEquals(2, clients.get(0).published.size());
+    }
+
+    @Test
+    public void testUnknownResponseDiscarded() throws Exception {
+        CompletableFuture<MqttMessage> response = connection.send(newRequest("1"), 60000L);
+
+        respond("2", "other");
+        respond("2", "other");
+        assertFalse(response.isDone());
+
+        respond("1", "first");
+        assertArrayEquals("first".getBytes(), response.get().getPayload().getBody());
+
+        // a duplicated response is discarded
+        respond("1", "again");
+        assertArrayEquals("first".getBytes(), response.get().getPayload().getBody());
+    }
+
+    @Test
+    public void testDuplicatedRequestId() throws Exception {
+        CompletableFuture<MqttMessage> response = connection.send(newRequest("1"), 60000L);
+
+        assertFailed(connection.send(newRequest("1"), 60000L), MqttClientErrorCodes.CLIENT_SUBSCRIBE_ERROR);
+
+        // the first request is still pending
+        respond("1", "first");
+        assertArrayEquals("first".getBytes(), response.get().getPayload().getBody());
+    }
+
+    @Test
+    public void testResponseTopicNotMatched() throws Exception {
+        MqttMessage request = new MqttMessage(new MqttTopic("$EDC/account/device/CMD-V1/EXEC/command"),
+                new MqttTopic("$EDC/account/other-client/CMD-V1/REPLY/1"),
+                new MqttPayload(new byte[0]));
+
+        assertFailed(connection.send(request, 60000L), MqttClientErrorCodes.CLIENT_SUBSCRIBE_ERROR);
+        assertEquals(0, connection.getPendingRequestsCount());
+    }
+
+    @Test
+    public void testFireAndForget() throws Exception {
+        assertNull(connection.send(newRequest("1"), null).get());
+
+        assertEquals(1, clients.get(0).published.size());
+        assertEquals(0, connection.getPendingRequestsCount());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        CompletableFuture<MqttMessage> response = connection.send(newRequest("1"), 100L);
+        CompletableFuture<MqttMessage> otherResponse = connection.send(newRequest("2"), 60000L);
+
+        assertFailed(response, MqttClientErrorCodes.CLIENT_TIMEOUT_EXCEPTION);
+        assertEquals(1, connection.getPendingRequestsCount());
+
+        // the late response is discarded, the other request is not affected
+        respond("1", "late");
+        respond("2", "second");
+        assertArrayEquals("second".getBytes(), otherResponse.get().getPayload().getBody());
+    }
+
+    @Test
+    public void testPublishFailed() throws Exception {
+        connection.send(newRequest("1"), null).get();
+        clients.get(0).publishFailure = true;
+
+        assertFailed(connection.send(newRequest("2"), 60000L), MqttClientErrorCodes.CLIENT_PUBLISH_ERROR);
+        assertEquals(0, connection.getPendingRequestsCount());
+    }
+
+    @Test
+    public void testConnectionLost() throws Exception {
+        CompletableFuture<MqttMessage> firstResponse = connection.send(newRequest("1"), 60000L);
+        CompletableFuture<MqttMessage> secondResponse = connection.send(newRequest("2"), 60000L);
+
+        connection.connectionLost(new Exception("Connection lost"));
+
+        assertFailed(firstResponse, MqttClientErrorCodes.CLIENT_CONNECTION_LOST);
+        assertFailed(secondResponse, MqttClientErrorCodes.CLIENT_CONNECTION_LOST);
+        assertEquals(0, connection.getPendingRequestsCount());
+
+        // the lost client is closed out of the callback thread
+        cleanupExecutor.submit(() -> null).get();
+        assertTrue(clients.get(0).terminated);
+
+        // the next request opens a new client subscribed to the reply filter
+        CompletableFuture<MqttMessage> response = connection.send(newRequest("3"), 60000L);
+        assertEquals(2, clients.size());
+        assertEquals(REPLY_FILTER, clients.get(1).subscriptions.get(0));
+
+        respond("3", "third");
+        assertArrayEquals("third".getBytes(), response.get().getPayload().getBody());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CompletableFuture<MqttMessage> response = connection.send(newRequest("1"), 60000L);
+
+        connection.close();
+
+        assertFailed(response, MqttClientErrorCodes.CLIENT_NOT_CONNECTED);
+        assertTrue(clients.get(0).terminated);
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(MqttMultiplexedConnection.matches(REPLY_FILTER, getResponseTopic("1")));
+        assertTrue(MqttMultiplexedConnection.matches("$EDC/#", getResponseTopic("1")));
+        assertTrue(MqttMultiplexedConnection.matches("$EDC/+/+/+/REPLY/+", getResponseTopic("1")));
+
+        assertFalse(MqttMultiplexedConnection.matches(REPLY_FILTER, "$EDC/account/" + CLIENT_ID + "/CMD-V1/REPLY"));
+        assertFalse(MqttMultiplexedConnection.matches(REPLY_FILTER, getResponseTopic("1") + "/more"));
+        assertFalse(MqttMultiplexedConnection.matches(REPLY_FILTER, "$EDC/account/" + CLIENT_ID + "/CMD-V1/EXEC/1"));
+    }
+
+    /**
+     * In memory client recording the publishes and the subscriptions
+     */
+    private static class TestClient extends MqttClient {
+
+        private final List<MqttMessage> published = new ArrayList<>();
+        private final List<String> subscriptions = new ArrayList<>();
+        private int unsubscriptions;
+        private volatile boolean publishFailure;
+        private volatile boolean terminated;
+
+        @Override
+        public void publish(MqttMessage mqttMessage)
+                throws KapuaException {
+            if (publishFailure) {
+                throw new MqttClientException(MqttClientErrorCodes.CLIENT_PUBLISH_ERROR);
+            }
+            published.add(mqttMessage);
+        }
+
+        @Override
+        public void subscribe(MqttTopic mqttTopic) {
+            subscriptions.add(mqttTopic.getTopic());
+        }
+
+        @Override
+        public synchronized void unsubscribe(MqttTopic mqttTopic) {
+            unsubscriptions++;
+        }
+
+        @Override
+        public void setCallback(MqttCallback mqttClientCallback) {
+            // The test delivers the messages to the connection
+        }
+
+        @Override
+        public void terminateClient() {
+            terminated = true;
+        }
+
+        @Override
+        public String getClientId() {
+            return CLIENT_ID;
+        }
+    }
+}